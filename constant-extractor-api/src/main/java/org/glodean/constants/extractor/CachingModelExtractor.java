@@ -0,0 +1,66 @@
+package org.glodean.constants.extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+
+/**
+ * {@link ModelExtractor} that answers from an {@link ExtractionResultCache} and only creates the
+ * real extractor on a miss.
+ *
+ * <p>Created by {@link ModelExtractorSupplierRepository#resolve} for cached source kinds.
+ */
+final class CachingModelExtractor implements ModelExtractor {
+
+    private final ExtractionResultCache cache;
+    private final String key;
+    private final Supplier<ModelExtractor> delegate;
+
+    CachingModelExtractor(ExtractionResultCache cache, String key, Supplier<ModelExtractor> delegate) {
+        this.cache = cache;
+        this.key = key;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Collection<UnitConstants> extract(UnitDescriptor source) throws ExtractionException {
+        Optional<List<UnitConstants>> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return rebind(cached.get(), source);
+        }
+        Collection<UnitConstants> results = delegate.get().extract(source);
+        cache.put(key, freeze(results));
+        return results;
+    }
+
+    /** Applies the caller's size and content hash to cached results; the cached path is kept. */
+    private static List<UnitConstants> rebind(List<UnitConstants> cached, UnitDescriptor source) {
+        List<UnitConstants> rebound = new ArrayList<>(cached.size());
+        for (UnitConstants unit : cached) {
+            UnitDescriptor d = unit.source();
+            rebound.add(new UnitConstants(
+                    new UnitDescriptor(d.sourceKind(), d.path(), source.sizeBytes(), source.contentHash()),
+                    unit.constants()));
+        }
+        return rebound;
+    }
+
+    /** Copies results into immutable collections so cache readers can share them safely. */
+    private static List<UnitConstants> freeze(Collection<UnitConstants> results) {
+        List<UnitConstants> frozen = new ArrayList<>(results.size());
+        for (UnitConstants unit : results) {
+            Set<UnitConstant> constants = unit.constants().stream()
+                    .map(c -> new UnitConstant(c.value(), Set.copyOf(c.usages())))
+                    .collect(Collectors.toUnmodifiableSet());
+            frozen.add(new UnitConstants(unit.source(), constants));
+        }
+        return List.copyOf(frozen);
+    }
+}
@@ -0,0 +1,75 @@
+package org.glodean.constants.extractor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import org.glodean.constants.model.UnitConstants;
+
+/**
+ * Content-addressed store of extraction results.
+ *
+ * <p>Entries are keyed by {@link #keyOf(byte[], String)}: the SHA-256 of the raw entry bytes
+ * combined with a fingerprint of everything else that influences the result (extractor kind,
+ * interpreter registry, ...). Identical class files seen in different uploads — a shaded Guava,
+ * the same Jackson version in two projects — therefore map to the same entry and skip analysis.
+ *
+ * <p>Cached lists and the sets inside them are shared between callers and must be treated as
+ * read-only. Implementations must be safe for concurrent use.
+ *
+ * @see ModelExtractorSupplierRepository.Builder#cache
+ */
+public interface ExtractionResultCache {
+
+    /**
+     * Returns the results stored under {@code key}, if any.
+     *
+     * @param key a key produced by {@link #keyOf(byte[], String)}
+     * @return the cached results, or {@link Optional#empty()} on a miss
+     */
+    Optional<List<UnitConstants>> get(String key);
+
+    /**
+     * Stores {@code results} under {@code key}, replacing any previous entry.
+     *
+     * @param key     a key produced by {@link #keyOf(byte[], String)}
+     * @param results immutable extraction results
+     */
+    void put(String key, List<UnitConstants> results);
+
+    /**
+     * Returns the build of the code that defines {@code type}, for fingerprints that must change
+     * whenever that code does: the {@code Implementation-Version} of its jar manifest, which the
+     * build sets to the project version and commit.
+     *
+     * @param type a class whose code influences extraction results
+     * @return the implementation version, or {@code "dev"} when {@code type} was not loaded from
+     *         a jar with one (IDE and test runs)
+     */
+    static String buildVersionOf(Class<?> type) {
+        String version = type.getPackage().getImplementationVersion();
+        return version == null ? "dev" : version;
+    }
+
+    /**
+     * Computes the cache key for {@code content} extracted under {@code fingerprint}.
+     *
+     * @param content     raw entry bytes
+     * @param fingerprint identifies the extractor configuration that produced the result
+     * @return lower-case hex SHA-256 of the content and fingerprint
+     */
+    static String keyOf(byte[] content, String fingerprint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            // 0xFF never occurs in UTF-8, so the last 0xFF always marks the boundary.
+            digest.update((byte) 0xFF);
+            digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.glodean.constants.extractor;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.function.Consumer;
 import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 
@@ -27,6 +28,28 @@ public interface ModelExtractor {
    */
   Collection<UnitConstants> extract(UnitDescriptor source) throws ExtractionException;
 
+  /**
+   * Push-based variant of {@link #extract(UnitDescriptor)}: passes every {@link UnitConstants} to
+   * {@code sink} as soon as it is available instead of returning them all at the end, and
+   * returns once the source is exhausted.
+   *
+   * <p>Extractors over many units (archives, directories) call {@code sink} from their worker
+   * threads, possibly concurrently, while later units are still being analyzed. The sink applies
+   * backpressure by blocking: a unit's results count against the extractor's memory budget until
+   * the sink returns, so a slow consumer throttles reading rather than piling up results.
+   *
+   * <p>The default implementation delegates to {@link #extract(UnitDescriptor)} and forwards its
+   * results, which is adequate for extractors that produce a single unit.
+   *
+   * @param source descriptor of the input, as for {@link #extract(UnitDescriptor)}
+   * @param sink receives each {@link UnitConstants}; must be thread-safe
+   * @throws ExtractionException if the input cannot be read
+   */
+  default void extract(UnitDescriptor source, Consumer<UnitConstants> sink)
+      throws ExtractionException {
+    extract(source).forEach(sink);
+  }
+
   /** Exception type representing extraction failures. */
   class ExtractionException extends IOException {
 
@@ -3,6 +3,7 @@ package org.glodean.constants.extractor;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -28,6 +29,13 @@ import org.glodean.constants.model.SourceKind;
  * repo.resolve("application.yml", bytes)
  *     .ifPresent(supply -> supply.extractor().extract(supply.descriptorFor("application.yml", bytes.length)));
  * }</pre>
+ *
+ * <p>With {@link Builder#cache} configured, extractors for the listed source kinds are wrapped so
+ * that identical content is analyzed once: {@code resolve} no longer invokes the factory up front,
+ * and {@link ModelExtractor#extract} first consults the {@link ExtractionResultCache}.
+ *
+ * <p>{@link #fingerprint()} identifies the extractor configuration, for callers that keep
+ * extraction results of their own and must not reuse them once it changes.
  */
 public final class ModelExtractorSupplierRepository {
 
@@ -43,9 +51,19 @@ public final class ModelExtractorSupplierRepository {
             Function<byte[], ModelExtractor> factory) {}
 
     private final List<Entry> entries;
-
-    private ModelExtractorSupplierRepository(List<Entry> entries) {
+    private final ExtractionResultCache cache;
+    private final String fingerprint;
+    private final Set<SourceKind> cachedKinds;
+
+    private ModelExtractorSupplierRepository(
+            List<Entry> entries,
+            ExtractionResultCache cache,
+            String fingerprint,
+            Set<SourceKind> cachedKinds) {
         this.entries = List.copyOf(entries);
+        this.cache = cache;
+        this.fingerprint = fingerprint == null ? "" : fingerprint;
+        this.cachedKinds = Set.copyOf(cachedKinds);
     }
 
     /**
@@ -64,7 +82,26 @@ public final class ModelExtractorSupplierRepository {
         return entries.stream()
                 .filter(e -> e.test().test(lower))
                 .findFirst()
-                .map(e -> new Supply(e.factory().apply(content), e.sourceKind()));
+                .map(e -> new Supply(extractorFor(e, content), e.sourceKind()));
+    }
+
+    private ModelExtractor extractorFor(Entry entry, byte[] content) {
+        if (cache == null || !cachedKinds.contains(entry.sourceKind())) {
+            return entry.factory().apply(content);
+        }
+        String key = ExtractionResultCache.keyOf(
+                content, entry.sourceKind().name() + '|' + fingerprint);
+        return new CachingModelExtractor(cache, key, () -> entry.factory().apply(content));
+    }
+
+    /**
+     * Returns the fingerprint of everything besides the bytes that shapes the results, as set
+     * through {@link Builder#fingerprint} or {@link Builder#cache}.
+     *
+     * @return the configuration fingerprint; empty when none was set
+     */
+    public String fingerprint() {
+        return fingerprint;
     }
 
     /**
@@ -86,6 +123,9 @@ public final class ModelExtractorSupplierRepository {
     public static final class Builder {
 
         private final List<Entry> entries = new ArrayList<>();
+        private ExtractionResultCache cache;
+        private String fingerprint;
+        private Set<SourceKind> cachedKinds = Set.of();
 
         private Builder() {}
 
@@ -105,9 +145,42 @@ public final class ModelExtractorSupplierRepository {
         }
 
 
+        /**
+         * Sets the fingerprint of everything besides the bytes that shapes the results
+         * (interpreters, splitter, extractor version), exposed through
+         * {@link ModelExtractorSupplierRepository#fingerprint()}.
+         *
+         * @param fingerprint identifies the extractor configuration; change it to invalidate
+         */
+        public Builder fingerprint(String fingerprint) {
+            this.fingerprint = Objects.requireNonNull(fingerprint, "fingerprint cannot be null");
+            return this;
+        }
+
+        /**
+         * Puts a content-addressed result cache in front of the extractors for {@code kinds}.
+         *
+         * <p>Only register kinds whose extractor output depends on the content bytes alone: on
+         * a hit the cached results are returned with just their {@code sizeBytes} and
+         * {@code contentHash} taken from the new {@link org.glodean.constants.model.UnitDescriptor};
+         * the cached path is kept. Class files qualify (the path is the class name read from the
+         * bytecode); config files, whose usages record the file path, do not.
+         *
+         * @param cache       the result cache to consult
+         * @param fingerprint identifies everything besides the bytes that shapes the results
+         *                    (interpreters, splitter, extractor version); change it to invalidate
+         * @param kinds       the source kinds to cache
+         */
+        public Builder cache(ExtractionResultCache cache, String fingerprint, SourceKind... kinds) {
+            this.cache = Objects.requireNonNull(cache, "cache cannot be null");
+            this.fingerprint = Objects.requireNonNull(fingerprint, "fingerprint cannot be null");
+            this.cachedKinds = Set.of(kinds);
+            return this;
+        }
+
         /** Builds an immutable {@link ModelExtractorSupplierRepository}. */
         public ModelExtractorSupplierRepository build() {
-            return new ModelExtractorSupplierRepository(entries);
+            return new ModelExtractorSupplierRepository(entries, cache, fingerprint, cachedKinds);
         }
     }
 }
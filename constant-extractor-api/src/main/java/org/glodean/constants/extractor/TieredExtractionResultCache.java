@@ -0,0 +1,278 @@
+package org.glodean.constants.extractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.glodean.constants.model.UnitConstants;
+
+/**
+ * {@link ExtractionResultCache} with a bounded in-heap LRU tier and an optional on-disk tier.
+ *
+ * <p>Lookups try the heap first, then the disk directory; a disk hit is promoted into the heap.
+ * Writes go to both tiers. The disk tier stores one Java-serialized file per key under a
+ * two-character fan-out directory ({@code ab/abcdef….bin}), written to a temporary file and moved
+ * into place so concurrent readers never see a partial entry. Results that cannot be serialized
+ * and files that cannot be read back are treated as misses — the cache never fails an extraction.
+ *
+ * <p>The disk tier holds at most {@code maxDiskBytes} of entry files. A disk hit refreshes the
+ * file's modification time; once a write takes the tier over its limit, the least recently used
+ * files are deleted until it is back under three quarters of it. The size of files already in
+ * the directory is counted on startup, so the limit also holds across restarts.
+ */
+public final class TieredExtractionResultCache implements ExtractionResultCache {
+
+    /** Default {@code maxDiskBytes}: 1 GiB. */
+    public static final long DEFAULT_MAX_DISK_BYTES = 1L << 30;
+
+    private static final ObjectInputFilter FILTER =
+            ObjectInputFilter.Config.createFilter("java.base/*;org.glodean.constants.**;!*");
+
+    private final Map<String, List<UnitConstants>> heap;
+    private final Path diskDirectory;
+    private final long maxDiskBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    /**
+     * Creates a cache whose disk tier holds at most {@link #DEFAULT_MAX_DISK_BYTES}.
+     *
+     * @param maxHeapEntries maximum number of entries kept in memory (least recently used evicted)
+     * @param diskDirectory  directory for the on-disk tier, or {@code null} for heap only
+     */
+    public TieredExtractionResultCache(int maxHeapEntries, Path diskDirectory) {
+        this(maxHeapEntries, diskDirectory, DEFAULT_MAX_DISK_BYTES);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxHeapEntries maximum number of entries kept in memory (least recently used evicted)
+     * @param diskDirectory  directory for the on-disk tier, or {@code null} for heap only
+     * @param maxDiskBytes   maximum total size of the entry files in {@code diskDirectory}
+     */
+    public TieredExtractionResultCache(int maxHeapEntries, Path diskDirectory, long maxDiskBytes) {
+        if (maxHeapEntries < 0) {
+            throw new IllegalArgumentException("maxHeapEntries must not be negative");
+        }
+        if (maxDiskBytes <= 0) {
+            throw new IllegalArgumentException("maxDiskBytes must be positive");
+        }
+        this.heap = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<UnitConstants>> eldest) {
+                return size() > maxHeapEntries;
+            }
+        };
+        this.diskDirectory = diskDirectory;
+        this.maxDiskBytes = maxDiskBytes;
+        if (diskDirectory != null) {
+            diskBytes.set(entryFiles().stream().mapToLong(DiskEntry::size).sum());
+            if (diskBytes.get() > maxDiskBytes) {
+                trimDisk();
+            }
+        }
+    }
+
+    @Override
+    public Optional<List<UnitConstants>> get(String key) {
+        List<UnitConstants> found;
+        synchronized (heap) {
+            found = heap.get(key);
+        }
+        if (found == null && diskDirectory != null) {
+            found = readFromDisk(key);
+            if (found != null) {
+                diskHits.incrementAndGet();
+                synchronized (heap) {
+                    heap.put(key, found);
+                }
+            }
+        }
+        (found == null ? misses : hits).incrementAndGet();
+        return Optional.ofNullable(found);
+    }
+
+    @Override
+    public void put(String key, List<UnitConstants> results) {
+        synchronized (heap) {
+            heap.put(key, results);
+        }
+        if (diskDirectory != null) {
+            writeToDisk(key, results);
+        }
+    }
+
+    /** Number of lookups answered from either tier. */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /** Number of lookups answered from the disk tier (a subset of {@link #hitCount()}). */
+    public long diskHitCount() {
+        return diskHits.get();
+    }
+
+    /** Number of lookups that found nothing. */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /** Number of entry files deleted from the disk tier to keep it under its size limit. */
+    public long diskEvictionCount() {
+        return diskEvictions.get();
+    }
+
+    /** Total size of the entry files in the disk tier, as last counted; 0 without a disk tier. */
+    public long diskSize() {
+        return diskBytes.get();
+    }
+
+    /** Number of entries currently held in memory. */
+    public int heapSize() {
+        synchronized (heap) {
+            return heap.size();
+        }
+    }
+
+    private Path fileFor(String key) {
+        return diskDirectory.resolve(key.substring(0, 2)).resolve(key + ".bin");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UnitConstants> readFromDisk(String key) {
+        Path file = fileFor(key);
+        try (InputStream in = Files.newInputStream(file);
+                ObjectInputStream ois = new ObjectInputStream(in)) {
+            ois.setObjectInputFilter(FILTER);
+            List<UnitConstants> results = List.copyOf((List<UnitConstants>) ois.readObject());
+            touch(file);
+            return results;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Corrupt or written by an incompatible version: drop it and recompute.
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // another reader may have removed it already
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, List<UnitConstants> results) {
+        Path file = fileFor(key);
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp);
+                    ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(new ArrayList<>(results));
+            }
+            long size = Files.size(tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(size) > maxDiskBytes) {
+                trimDisk();
+            }
+        } catch (IOException e) {
+            // Not serializable or disk trouble: the heap tier still has the entry.
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    /** Marks a file as recently used, so that {@link #trimDisk()} evicts it last. */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // evicted meanwhile, or read-only: the entry just ages as if unread
+        }
+    }
+
+    /**
+     * Deletes the least recently used entry files until the disk tier is under three quarters of
+     * {@code maxDiskBytes}, then resets the running size to what is left. Writers that find a trim
+     * already running skip it; the size they added is counted by that trim or the next one.
+     */
+    private void trimDisk() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<DiskEntry> entries = new ArrayList<>(entryFiles());
+            entries.sort(Comparator.comparing(DiskEntry::lastUsed));
+            long total = entries.stream().mapToLong(DiskEntry::size).sum();
+            long target = maxDiskBytes - maxDiskBytes / 4;
+            for (DiskEntry entry : entries) {
+                if (total <= target) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(entry.file());
+                    diskEvictions.incrementAndGet();
+                } catch (IOException ignored) {
+                    // still in use or already gone; its size no longer counts either way
+                }
+                total -= entry.size();
+            }
+            diskBytes.set(total);
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    /** One entry file of the disk tier. */
+    private record DiskEntry(Path file, long size, FileTime lastUsed) {}
+
+    /** Lists the entry files of the disk tier; temporary files of writes in progress are skipped. */
+    private List<DiskEntry> entryFiles() {
+        if (!Files.isDirectory(diskDirectory)) {
+            return List.of();
+        }
+        List<DiskEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(diskDirectory, 2)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".bin")).forEach(file -> {
+                try {
+                    BasicFileAttributes attributes =
+                            Files.readAttributes(file, BasicFileAttributes.class);
+                    entries.add(new DiskEntry(file, attributes.size(), attributes.lastModifiedTime()));
+                } catch (IOException ignored) {
+                    // removed by a concurrent trim or a corrupt-entry cleanup
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            // unreadable directory: count what was listed
+        }
+        return entries;
+    }
+}
@@ -1,5 +1,6 @@
 package org.glodean.constants.model;
 
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -9,7 +10,7 @@ import java.util.*;
  * @param value the constant value (String, Number, etc.)
  * @param usages detailed usage contexts for this constant
  */
-public record UnitConstant(Object value, Set<ConstantUsage> usages) {
+public record UnitConstant(Object value, Set<ConstantUsage> usages) implements Serializable {
     public UnitConstant{
         Objects.requireNonNull(value, "Constant value cannot be null");
         Objects.requireNonNull(usages, "Usages set cannot be null");
@@ -81,7 +82,7 @@ public record UnitConstant(Object value, Set<ConstantUsage> usages) {
             String category,
             String displayName,
             String description
-    ) implements SemanticType {
+    ) implements SemanticType, Serializable {
         public CustomSemanticType{
             Objects.requireNonNull(category, "Category cannot be null");
             Objects.requireNonNull(displayName, "Display name cannot be null");
@@ -99,7 +100,7 @@ public record UnitConstant(Object value, Set<ConstantUsage> usages) {
             UsageLocation location,
             double confidence,
             SequencedMap<String, Object> metadata
-    ) {
+    ) implements Serializable {
         public ConstantUsage{
             Objects.requireNonNull(structuralType, "Structural type cannot be null");
             // semanticType is intentionally nullable — some usages have no semantic classification
@@ -126,7 +127,7 @@ public record UnitConstant(Object value, Set<ConstantUsage> usages) {
             String methodDescriptor,
             Integer bytecodeOffset,
             Integer lineNumber
-    ) {
+    ) implements Serializable {
         public UsageLocation{
             Objects.requireNonNull(className, "Class name cannot be null");
             Objects.requireNonNull(methodName, "Method name cannot be null");
@@ -1,5 +1,6 @@
 package org.glodean.constants.model;
 
+import java.io.Serializable;
 import java.util.Objects;
 import java.util.Set;
 
@@ -9,7 +10,7 @@ import java.util.Set;
  * @param source     descriptor describing where this unit was found
  * @param constants  set of discovered constants and their usage metadata
  */
-public record UnitConstants(UnitDescriptor source, Set<UnitConstant> constants) {
+public record UnitConstants(UnitDescriptor source, Set<UnitConstant> constants) implements Serializable {
     public UnitConstants {
         Objects.requireNonNull(source, "source cannot be null");
         Objects.requireNonNull(constants, "constants set cannot be null");
@@ -1,5 +1,6 @@
 package org.glodean.constants.model;
 
+import java.io.Serializable;
 import java.util.Objects;
 
 /**
@@ -21,7 +22,8 @@ import java.util.Objects;
  * @param sizeBytes   size of the resource in bytes ({@code -1} when unknown)
  * @param contentHash optional content hash for change detection (may be {@code null})
  */
-public record UnitDescriptor(SourceKind sourceKind, String path, long sizeBytes, String contentHash) {
+public record UnitDescriptor(SourceKind sourceKind, String path, long sizeBytes, String contentHash)
+        implements Serializable {
     public UnitDescriptor {
         Objects.requireNonNull(sourceKind, "sourceKind cannot be null");
         if (path == null || path.trim().isEmpty()) {
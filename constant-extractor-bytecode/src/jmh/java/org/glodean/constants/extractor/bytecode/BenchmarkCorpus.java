@@ -0,0 +1,141 @@
+package org.glodean.constants.extractor.bytecode;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.glodean.constants.samples.ArrayFunctionality;
+import org.glodean.constants.samples.ConversionFunctionality;
+import org.glodean.constants.samples.FieldFunctionality;
+import org.glodean.constants.samples.GotoSample;
+import org.glodean.constants.samples.Greeter;
+import org.glodean.constants.samples.InvokeDynamicFunctionality;
+import org.glodean.constants.samples.MultiArrayFunctionality;
+import org.glodean.constants.samples.SimpleIfElse;
+import org.glodean.constants.samples.SimpleIteration;
+import org.glodean.constants.samples.SwitchFunctionality;
+import org.glodean.constants.samples.SyncSample;
+import org.glodean.constants.samples.ThrowingMethodSample;
+import org.glodean.constants.samples.TypeCheckingFunctionality;
+
+/**
+ * Fixed class-file corpus shared by all extraction benchmarks.
+ *
+ * <p>The corpus is the union of:
+ * <ul>
+ *   <li>the test sample classes ({@code org.glodean.constants.samples}) — small, hand-written
+ *       methods covering every handler family;</li>
+ *   <li>a fixed slice of {@code jrt:/modules/java.base} (see {@link #JRT_SLICE}) — real-world
+ *       JDK code with large switch tables, loops and exception handlers;</li>
+ *   <li>optionally, every {@code .class} under the directory named by the {@code jmh.corpus}
+ *       system property (the Gradle {@code jmh} task points it at the compiled
+ *       {@code demo-crud-server} classes). Missing directories are ignored.</li>
+ * </ul>
+ *
+ * <p>Entries are sorted by path so that every run sees the same class order.
+ */
+final class BenchmarkCorpus {
+
+  /** Packages of {@code java.base} included in the corpus. Kept small enough for quick forks. */
+  static final List<String> JRT_SLICE =
+      List.of("java/util/regex", "java/util/zip", "java/text", "java/time/format");
+
+  private static final List<Class<?>> SAMPLES =
+      List.of(
+          ArrayFunctionality.class,
+          ConversionFunctionality.class,
+          FieldFunctionality.class,
+          GotoSample.class,
+          Greeter.class,
+          InvokeDynamicFunctionality.class,
+          MultiArrayFunctionality.class,
+          SimpleIfElse.class,
+          SimpleIteration.class,
+          SwitchFunctionality.class,
+          SyncSample.class,
+          ThrowingMethodSample.class,
+          TypeCheckingFunctionality.class);
+
+  private BenchmarkCorpus() {}
+
+  /**
+   * Loads the corpus as a path → class-file-bytes map, in deterministic order.
+   *
+   * @return the corpus entries keyed by a relative, {@code /}-separated path
+   */
+  static Map<String, byte[]> load() {
+    var entries = new LinkedHashMap<String, byte[]>();
+    try {
+      for (Class<?> sample : SAMPLES) {
+        String resource = sample.getName().replace('.', '/') + ".class";
+        try (InputStream is = sample.getClassLoader().getResourceAsStream(resource)) {
+          if (is == null) {
+            throw new IllegalStateException("Sample class not on classpath: " + resource);
+          }
+          entries.put("samples/" + resource, is.readAllBytes());
+        }
+      }
+      FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+      for (String pkg : JRT_SLICE) {
+        addClassesUnder(jrt.getPath("/modules/java.base", pkg), "jrt/" + pkg, entries);
+      }
+      String extra = System.getProperty("jmh.corpus");
+      if (extra != null && !extra.isBlank()) {
+        Path dir = Path.of(extra);
+        if (Files.isDirectory(dir)) {
+          addClassesUnder(dir, "extra", entries);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return entries;
+  }
+
+  /**
+   * Copies the corpus into a fresh in-memory file system, mimicking the layout of an opened JAR.
+   *
+   * @param entries the corpus returned by {@link #load()}
+   * @return a Jimfs file system holding one file per entry; the caller must close it
+   */
+  static FileSystem toFileSystem(Map<String, byte[]> entries) throws IOException {
+    FileSystem fs = Jimfs.newFileSystem(Configuration.unix());
+    for (var entry : entries.entrySet()) {
+      Path target = fs.getPath("/", entry.getKey());
+      Files.createDirectories(target.getParent());
+      Files.write(target, entry.getValue());
+    }
+    return fs;
+  }
+
+  private static void addClassesUnder(Path root, String prefix, Map<String, byte[]> sink)
+      throws IOException {
+    if (!Files.isDirectory(root)) {
+      return;
+    }
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(root)) {
+      files =
+          new ArrayList<>(
+              walk.filter(Files::isRegularFile)
+                  .filter(p -> p.getFileName().toString().endsWith(".class"))
+                  .toList());
+    }
+    files.sort(null);
+    for (Path file : files) {
+      String relative = root.relativize(file).toString().replace('\\', '/');
+      sink.put(prefix + "/" + relative, Files.readAllBytes(file));
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.glodean.constants.extractor.ModelExtractor;
+import org.glodean.constants.model.UnitDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-class benchmark for {@link ClassModelExtractor#extract}: parse, annotation and static-field
+ * extraction, per-method analysis and merge — everything a single {@code .class} entry costs.
+ *
+ * <p>One operation is one class of the {@link BenchmarkCorpus}, visited round-robin.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassExtractionBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+    final List<byte[]> classes = new ArrayList<>();
+    final List<UnitDescriptor> descriptors = new ArrayList<>();
+    final Function<byte[], ModelExtractor> supplier =
+        ClassModelExtractor.supplier(new AnalysisMerger(new InternalStringConcatPatternSplitter()));
+
+    @Setup(Level.Trial)
+    public void load() {
+      BenchmarkCorpus.load()
+          .forEach(
+              (path, bytes) -> {
+                classes.add(bytes);
+                descriptors.add(
+                    new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, path, bytes.length));
+              });
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+
+    int advance(int size) {
+      int current = next;
+      next = (current + 1) % size;
+      return current;
+    }
+  }
+
+  @Benchmark
+  public void extract(Corpus corpus, Cursor cursor, Blackhole bh)
+      throws ModelExtractor.ExtractionException {
+    int index = cursor.advance(corpus.classes.size());
+    bh.consume(
+        corpus.supplier.apply(corpus.classes.get(index)).extract(corpus.descriptors.get(index)));
+  }
+}
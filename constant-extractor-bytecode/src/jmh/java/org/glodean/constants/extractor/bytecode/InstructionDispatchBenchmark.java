@@ -0,0 +1,78 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.CodeModel;
+import java.lang.classfile.Instruction;
+import java.lang.classfile.MethodModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.glodean.constants.extractor.bytecode.handlers.InstructionHandlerRegistry;
+import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the two ways {@link InstructionHandlerRegistry} resolves a handler: the class-keyed
+ * cache lookup ({@link InstructionHandlerRegistry#findHandlerFor(Class)}) and the opcode dispatch
+ * table ({@link InstructionHandlerRegistry#handlerFor(Instruction)}).
+ *
+ * <p>One operation resolves the handler of every instruction in the {@link BenchmarkCorpus}, in
+ * code order, so the instruction mix matches what {@link BytecodeMethodAnalyzer} sees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstructionDispatchBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+    final InstructionHandlerRegistry registry = DefaultRegistrySource.defaultRegistry();
+    Instruction[] instructions;
+
+    @Setup(Level.Trial)
+    public void load() {
+      List<Instruction> all = new ArrayList<>();
+      for (byte[] bytes : BenchmarkCorpus.load().values()) {
+        ClassModel model = ClassFile.of().parse(bytes);
+        for (MethodModel mm : model.methods()) {
+          mm.elementStream()
+              .filter(e -> e instanceof CodeModel)
+              .forEach(
+                  code ->
+                      ((CodeModel) code).elementStream()
+                          .filter(e -> e instanceof Instruction)
+                          .forEach(e -> all.add((Instruction) e)));
+        }
+      }
+      instructions = all.toArray(Instruction[]::new);
+    }
+  }
+
+  @Benchmark
+  public void classLookup(Corpus corpus, Blackhole bh) {
+    for (Instruction ins : corpus.instructions) {
+      bh.consume(corpus.registry.findHandlerFor(ins.getClass()));
+    }
+  }
+
+  @Benchmark
+  public void opcodeTable(Corpus corpus, Blackhole bh) {
+    for (Instruction ins : corpus.instructions) {
+      bh.consume(corpus.registry.handlerFor(ins));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.glodean.constants.extractor.ExtractionNotifier;
+import org.glodean.constants.extractor.ModelExtractor;
+import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.model.UnitDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole-archive benchmark: the full {@link BenchmarkCorpus} laid out in an in-memory file system
+ * and extracted through {@link BytecodeModelExtractor#forFileSystem} with a shared executor, the
+ * same wiring the server uses for uploaded JARs.
+ *
+ * <p>One operation is one complete extraction of the corpus, so throughput is "archives per
+ * second" and the GC profiler's {@code gc.alloc.rate.norm} is bytes allocated per archive.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarExtractionBenchmark {
+
+  @Param({"1", "4"})
+  public int threads;
+
+  private FileSystem fs;
+  private ExecutorService executor;
+  private ModelExtractorSupplierRepository repository;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    fs = BenchmarkCorpus.toFileSystem(BenchmarkCorpus.load());
+    executor = Executors.newFixedThreadPool(threads);
+    repository =
+        ModelExtractorSupplierRepository.builder()
+            .register(
+                name -> name.endsWith(".class"),
+                BytecodeSourceKind.CLASS_FILE,
+                ClassModelExtractor.supplier(
+                    new AnalysisMerger(new InternalStringConcatPatternSplitter())))
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    executor.close();
+    fs.close();
+  }
+
+  @Benchmark
+  public int extract() throws ModelExtractor.ExtractionException {
+    return BytecodeModelExtractor.forFileSystem(
+            executor, fs, new ExtractionNotifier.Silent(), repository)
+        .extract(new UnitDescriptor(BytecodeSourceKind.JAR, "benchmark-corpus"))
+        .size();
+  }
+}
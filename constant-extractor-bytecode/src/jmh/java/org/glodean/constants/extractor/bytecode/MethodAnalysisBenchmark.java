@@ -0,0 +1,114 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.glodean.constants.extractor.bytecode.Utils.toJavaDescriptor;
+import static org.glodean.constants.extractor.bytecode.Utils.toJavaName;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.CodeModel;
+import java.lang.classfile.MethodModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.glodean.constants.extractor.ModelExtractor;
+import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-method benchmarks for the dataflow engine ({@link BytecodeMethodAnalyzer#run()}) and the
+ * state-to-usage pass ({@link AnalysisMerger#merge}).
+ *
+ * <p>One benchmark operation is one method of the {@link BenchmarkCorpus}; a thread-local cursor
+ * walks the methods round-robin, so the {@link Mode#SampleTime} percentiles describe the
+ * distribution over real method shapes rather than a single hand-picked method. The
+ * {@code retention} parameter compares per-element state storage with block-head summaries.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodAnalysisBenchmark {
+
+  /** A method with code, paired with its declaring class and pre-computed Java names. */
+  record Target(ClassModel owner, MethodModel method, String className, String descriptor) {}
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+    final List<Target> targets = new ArrayList<>();
+    final List<BytecodeMethodAnalyzer> analyzed = new ArrayList<>();
+    final AnalysisMerger merger = new AnalysisMerger(new InternalStringConcatPatternSplitter());
+
+    @Param({"ALL_ELEMENTS", "BLOCK_HEADS"})
+    public StateRetention retention;
+
+    @Setup(Level.Trial)
+    public void load() throws ModelExtractor.ExtractionException {
+      for (byte[] bytes : BenchmarkCorpus.load().values()) {
+        ClassModel model = ClassFile.of().parse(bytes);
+        String className = toJavaName(model.thisClass().asSymbol());
+        for (MethodModel mm : model.methods()) {
+          if (mm.elementStream().noneMatch(e -> e instanceof CodeModel)) {
+            continue;
+          }
+          targets.add(
+              new Target(model, mm, className, toJavaDescriptor(mm.methodType().stringValue())));
+          var analysis =
+              new BytecodeMethodAnalyzer(
+                  model, mm, DefaultRegistrySource.defaultRegistry(), retention);
+          analysis.run();
+          analyzed.add(analysis);
+        }
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+
+    int advance(int size) {
+      int current = next;
+      next = (current + 1) % size;
+      return current;
+    }
+  }
+
+  @Benchmark
+  public void analyze(Corpus corpus, Cursor cursor, Blackhole bh)
+      throws ModelExtractor.ExtractionException {
+    Target target = corpus.targets.get(cursor.advance(corpus.targets.size()));
+    var analysis =
+        new BytecodeMethodAnalyzer(
+            target.owner(), target.method(), DefaultRegistrySource.defaultRegistry(),
+            corpus.retention);
+    analysis.run();
+    bh.consume(analysis.in);
+  }
+
+  @Benchmark
+  public void merge(Corpus corpus, Cursor cursor, Blackhole bh) {
+    int index = cursor.advance(corpus.targets.size());
+    Target target = corpus.targets.get(index);
+    BytecodeMethodAnalyzer analysis = corpus.analyzed.get(index);
+    bh.consume(
+        corpus.merger.merge(
+            target.className(),
+            target.method().methodName().stringValue(),
+            target.descriptor(),
+            analysis.code,
+            analysis.inStates()));
+  }
+}
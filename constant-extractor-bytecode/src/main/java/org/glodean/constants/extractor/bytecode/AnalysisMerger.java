@@ -10,6 +10,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 
 import java.lang.classfile.CodeElement;
+import java.lang.classfile.Instruction;
 import java.lang.classfile.Opcode;
 import java.lang.classfile.instruction.*;
 import java.lang.classfile.instruction.LineNumber;
@@ -23,6 +24,7 @@ import org.glodean.constants.interpreter.FieldStoreContext;
 import org.glodean.constants.interpreter.MethodCallContext;
 import org.glodean.constants.interpreter.ReceiverKind;
 import org.glodean.constants.interpreter.StringConcatenationContext;
+import org.glodean.constants.extractor.ExtractionResultCache;
 import org.glodean.constants.extractor.bytecode.types.Constant;
 import org.glodean.constants.extractor.bytecode.types.ConstantPropagation;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
@@ -99,6 +101,20 @@ public record AnalysisMerger(
     // Public entry point
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns a fingerprint of this merger's configuration, suitable for keying cached
+     * extraction results (see {@link ExtractionResultCache}).
+     *
+     * <p>Includes the {@linkplain ExtractionResultCache#buildVersionOf build} of this module, so
+     * results cached by an earlier release of the analysis are not served by a later one.
+     *
+     * @return the analysis build, the splitter class and the interpreter registry fingerprint
+     */
+    public String fingerprint() {
+        return ExtractionResultCache.buildVersionOf(AnalysisMerger.class) + "|"
+                + patternSplitter.getClass().getName() + "|" + usageInterpreterRegistry.fingerprint();
+    }
+
     /**
      * Merges bytecode-level state information into a multimap of constant value →
      * {@link ConstantUsage}.
@@ -110,7 +126,8 @@ public record AnalysisMerger(
      * @param methodDescriptor Java method descriptor in compact dot-notation
      *                         (e.g. {@code "(java.lang.String)void"})
      * @param code             list of code elements in instruction order
-     * @param in               corresponding IN states (must match {@code code} length)
+     * @param in               corresponding IN states (must match {@code code} length); may be a
+     *                         replaying view, so it is read once per element in ascending order
      * @return multimap of constant values to their usage descriptions
      */
     public Multimap<Object, ConstantUsage> merge(
@@ -120,63 +137,157 @@ public record AnalysisMerger(
             List<CodeElement> code,
             List<State> in) {
 
-        Multimap<Object, ConstantUsage> usages = HashMultimap.create();
-        int currentLineNumber = -1;
+        MethodMerge method = startMethod(className, methodName, methodDescriptor);
         int index = 0;
         for (var entry : code) {
+            // Line numbers carry no state; reading it would cost a replay step in a replaying view.
+            State state = entry instanceof LineNumber || index >= in.size() ? null : in.get(index);
+            method.accept(entry, state);
+            index++;
+        }
+        return method.usages();
+    }
+
+    /**
+     * Starts an incremental merge of one method, for callers that produce IN states as they go
+     * rather than holding them in a list (see {@link StateRetention#FUSED}).
+     *
+     * @param className        dot-separated Java class name
+     * @param methodName       method name
+     * @param methodDescriptor Java method descriptor in compact dot-notation
+     * @return a merge that must be fed every code element of the method in order
+     */
+    MethodMerge startMethod(String className, String methodName, String methodDescriptor) {
+        return new MethodMerge(className, methodName, methodDescriptor);
+    }
+
+    /**
+     * Incremental form of {@link #merge}: receives each code element with its IN state, in
+     * instruction order, and classifies it immediately. The state is not retained, so the caller
+     * may reuse or discard it as soon as {@link #accept} returns.
+     */
+    final class MethodMerge {
+        private final String className;
+        private final String methodName;
+        private final String methodDescriptor;
+        private final Multimap<Object, ConstantUsage> usages = HashMultimap.create();
+        private int currentLineNumber = -1;
+        private int index;
+
+        private MethodMerge(String className, String methodName, String methodDescriptor) {
+            this.className = ResultInterner.intern(className);
+            this.methodName = ResultInterner.intern(methodName);
+            this.methodDescriptor = ResultInterner.intern(methodDescriptor);
+        }
+
+        /**
+         * Classifies the next code element.
+         *
+         * @param entry the element at the next index
+         * @param state its IN state, or {@code null} for unreachable code
+         */
+        void accept(CodeElement entry, State state) {
             if (entry instanceof LineNumber ln) {
                 currentLineNumber = ln.line();
-                index++;
-                continue;
+            } else if (state != null) {
+                UsageLocation location =
+                        locationOf(className, methodName, methodDescriptor, index, currentLineNumber);
+                dispatch(entry, state, usages, location);
             }
+            index++;
+        }
+
+        /** The usages classified so far. */
+        Multimap<Object, ConstantUsage> usages() {
+            return usages;
+        }
+    }
 
-            State state = index < in.size() ? in.get(index) : null;
-            if (state == null) {
-                index++;
-                continue; // unreachable code — skip
+    /**
+     * Cheap pre-scan deciding whether {@link #merge} could report any usage for {@code code},
+     * so that the caller can skip dataflow analysis of the method altogether.
+     *
+     * <p>A usage needs both a constant <em>source</em> — a constant load, or an {@code iinc},
+     * whose increment is propagated as a constant — and a <em>sink</em> that {@link #dispatch}
+     * classifies: a field store, an invocation or an arithmetic operator. {@code invokedynamic}
+     * is always kept because string-concat recipes carry literals of their own, and so are
+     * methods using {@code jsr}/{@code ret}, so that the analyzer still rejects them. Getters,
+     * setters, bridges and delegating methods have no source and are reported as skippable.
+     *
+     * @param code the method's code elements, in any order
+     * @return {@code false} only when analyzing the method can produce no usage
+     */
+    static boolean mayProduceUsages(Iterable<? extends CodeElement> code) {
+        boolean source = false;
+        boolean sink = false;
+        for (CodeElement element : code) {
+            switch (element) {
+                case IncrementInstruction _, InvokeDynamicInstruction _, DiscontinuedInstruction _ -> {
+                    return true;
+                }
+                case ConstantInstruction _ -> source = true;
+                case InvokeInstruction _ -> sink = true;
+                case FieldInstruction fi when fi.opcode() == PUTFIELD || fi.opcode() == PUTSTATIC ->
+                        sink = true;
+                case OperatorInstruction oi when oi.opcode() != ARRAYLENGTH -> sink = true;
+                default -> { /* neither a source nor a sink */ }
+            }
+            if (source && sink) {
+                return true;
             }
-            UsageLocation location =
-                    locationOf(className, methodName, methodDescriptor, index, currentLineNumber);
-            dispatch(entry, state, usages, location);
-            index++;
         }
-        return usages;
+        return false;
     }
 
     // -------------------------------------------------------------------------
     // Instruction dispatch
     // -------------------------------------------------------------------------
 
+    /**
+     * Routes {@code instr} to its classifier. Labels, line numbers and other pseudo-instructions
+     * are skipped up front; real instructions are dispatched on their {@link Opcode.Kind}, an enum
+     * switch that compiles to a table jump instead of a chain of type tests.
+     */
     private void dispatch(
             CodeElement instr,
             State state,
             Multimap<Object, ConstantUsage> usages,
             UsageLocation location) {
 
-        if (instr == null) return;
+        if (!(instr instanceof Instruction ins)) return;
 
-        switch (instr) {
-            case FieldInstruction fi when fi.opcode() == PUTFIELD ->
+        switch (ins.opcode().kind()) {
+            case FIELD_ACCESS -> {
+                FieldInstruction fi = (FieldInstruction) ins;
+                if (fi.opcode() == PUTFIELD) {
                     classifySlot(stackAt(state, TOP), usages, FIELD_STORE,
                             fieldContext(fi, receiverKindOf(stackAt(state, THIRD))),
                             location);
-
-            case FieldInstruction fi when fi.opcode() == PUTSTATIC ->
+                } else if (fi.opcode() == PUTSTATIC) {
                     classifySlot(stackAt(state, TOP), usages, STATIC_FIELD_STORE,
                             fieldContext(fi, ReceiverKind.STATIC),
                             location);
+                }
+            }
 
-            case InvokeInstruction ii -> classifyMethodInvocation(ii, state, usages, location);
+            case INVOKE -> classifyMethodInvocation((InvokeInstruction) ins, state, usages, location);
 
-            case InvokeDynamicInstruction idi when isStringConcatFactory(idi) ->
+            case INVOKE_DYNAMIC -> {
+                InvokeDynamicInstruction idi = (InvokeDynamicInstruction) ins;
+                if (isStringConcatFactory(idi)) {
                     classifyStringConcatenation(idi, state, usages, location);
+                } else {
+                    classifyDynamicInvocation(idi, state, usages, location);
+                }
+            }
 
-            case InvokeDynamicInstruction idi -> classifyDynamicInvocation(idi, state, usages, location);
-
-            case IncrementInstruction ii -> classifyIncrement(ii, state, usages, location);
+            case INCREMENT -> classifyIncrement((IncrementInstruction) ins, state, usages, location);
 
-            case OperatorInstruction oi when oi.opcode() != ARRAYLENGTH ->
-                    classifyArithmetic(oi, state, usages, location);
+            case OPERATOR -> {
+                if (ins.opcode() != ARRAYLENGTH) {
+                    classifyArithmetic((OperatorInstruction) ins, state, usages, location);
+                }
+            }
 
             default -> { /* not a constant-bearing instruction */ }
         }
@@ -197,16 +308,16 @@ public record AnalysisMerger(
         if (ii.opcode() != INVOKESTATIC) {
             PointsToSet receiverSlot = stackAt(state, paramCount + 1);
             ctx = new MethodCallContext(
-                    toJavaName(ii.owner().asSymbol()),
-                    ii.name().stringValue(),
-                    toJavaDescriptor(ii.typeSymbol()),
+                    ResultInterner.intern(toJavaName(ii.owner().asSymbol())),
+                    ResultInterner.intern(ii.name().stringValue()),
+                    ResultInterner.intern(toJavaDescriptor(ii.typeSymbol())),
                     receiverKindOf(receiverSlot));
             classifySlot(receiverSlot, usages, METHOD_INVOCATION_TARGET, ctx, location);
         } else {
             ctx = new MethodCallContext(
-                    toJavaName(ii.owner().asSymbol()),
-                    ii.name().stringValue(),
-                    toJavaDescriptor(ii.typeSymbol()),
+                    ResultInterner.intern(toJavaName(ii.owner().asSymbol())),
+                    ResultInterner.intern(ii.name().stringValue()),
+                    ResultInterner.intern(toJavaDescriptor(ii.typeSymbol())),
                     ReceiverKind.STATIC);
         }
         for (int paramPos = 1; paramPos <= paramCount; paramPos++) {
@@ -239,9 +350,9 @@ public record AnalysisMerger(
             UsageLocation location) {
 
         MethodCallContext ctx = new MethodCallContext(
-                toJavaName(idi.bootstrapMethod().owner()),
-                idi.name().stringValue(),
-                toJavaDescriptor(idi.typeSymbol()),
+                ResultInterner.intern(toJavaName(idi.bootstrapMethod().owner())),
+                ResultInterner.intern(idi.name().stringValue()),
+                ResultInterner.intern(toJavaDescriptor(idi.typeSymbol())),
                 ReceiverKind.STATIC);
 
         int paramCount = idi.typeSymbol().parameterCount();
@@ -296,6 +407,9 @@ public record AnalysisMerger(
             switch (entity) {
                 case Constant<?> c ->
                         usageInterpreterRegistry.interpret(c.value(), usageType, usages, location, context);
+                // A widened set only keeps the bounds of the values it stands for; reporting them
+                // would record usages that no single path is known to make.
+                case ConstantPropagation cp when cp.values().isWidened() -> { }
                 case ConstantPropagation cp ->
                         cp.values().forEach(v -> usageInterpreterRegistry.interpret(v, usageType, usages, location, context));
                 default -> { /* not a constant value — skip */ }
@@ -310,9 +424,9 @@ public record AnalysisMerger(
 
     private static FieldStoreContext fieldContext(FieldInstruction fi, ReceiverKind receiverKind) {
         return new FieldStoreContext(
-                toJavaName(fi.owner().asSymbol()),
-                fi.name().stringValue(),
-                toJavaName(fi.typeSymbol()),
+                ResultInterner.intern(toJavaName(fi.owner().asSymbol())),
+                ResultInterner.intern(fi.name().stringValue()),
+                ResultInterner.intern(toJavaName(fi.typeSymbol())),
                 receiverKind);
     }
 
@@ -356,7 +470,7 @@ public record AnalysisMerger(
     private static ReceiverKind receiverKindOf(PointsToSet slot) {
         if (slot == null || slot.isEmpty()) return ReceiverKind.EXTERNAL_OBJECT;
         boolean isThis = slot.stream()
-                .anyMatch(e -> e instanceof ObjectReference or && or.site().endsWith("::<this>"));
+                .anyMatch(e -> e instanceof ObjectReference or && or.site().isReceiver());
         return isThis ? ReceiverKind.THIS : ReceiverKind.EXTERNAL_OBJECT;
     }
 
@@ -186,8 +186,10 @@ final class AnnotationConstantExtractor {
       String annotationDescriptor, String elementName,
       String className, String methodName, String methodDescriptor,
       TargetKind targetKind, Multimap<Object, ConstantUsage> map) {
-    UsageLocation location = new UsageLocation(className, methodName, methodDescriptor, 0, null);
-    AnnotationValueContext ctx = new AnnotationValueContext(annotationDescriptor, elementName, targetKind);
+    UsageLocation location = new UsageLocation(
+        className, ResultInterner.intern(methodName), ResultInterner.intern(methodDescriptor), 0, null);
+    AnnotationValueContext ctx = new AnnotationValueContext(
+        ResultInterner.intern(annotationDescriptor), ResultInterner.intern(elementName), targetKind);
     registry.interpret(constantValue, UsageType.ANNOTATION_VALUE, map, location, ctx);
   }
 }
@@ -1,5 +1,6 @@
 package org.glodean.constants.extractor.bytecode;
 
+import com.google.common.collect.Multimap;
 import java.lang.classfile.*;
 import java.lang.classfile.attribute.CodeAttribute;
 import java.lang.classfile.instruction.*;
@@ -12,17 +13,29 @@ import org.glodean.constants.extractor.bytecode.handlers.InstructionHandlerRegis
 import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.StackAndParameterEntity;
 import org.glodean.constants.extractor.bytecode.types.State;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
 
 /**
  * Performs a per-method bytecode analysis producing IN/OUT abstract states and a list of discovered
  * method calls.
  *
- * <p>The analyzer builds a conservative control-flow graph, then runs a worklist algorithm to
- * compute per-instruction abstract states using the configured {@link InstructionHandlerRegistry}.
- * The resulting {@code in} and {@code out} lists are public fields used by the merger to extract
- * constant usage information.
+ * <p>The analyzer builds a conservative control-flow graph, groups it into basic blocks and runs a
+ * worklist algorithm to compute per-instruction abstract states using the configured
+ * {@link InstructionHandlerRegistry}. The worklist is a {@link BitSet} indexed by each block's
+ * reverse-postorder position: a block is queued at most once, and the lowest pending position is
+ * always processed first, so loop bodies are re-visited only after everything feeding them has
+ * settled. The resulting {@code in} and {@code out} lists are public fields used by the merger to
+ * extract constant usage information; {@link #blockVisits} and {@link #transfers} record how much
+ * work convergence took.
+ *
+ * <p>With {@link StateRetention#BLOCK_HEADS} only block-head IN states and block-exit OUT states
+ * are stored; {@link #inStates()} then recovers the per-element IN states by replaying each block
+ * forward on demand. {@link StateRetention#FUSED} converges the same way but is meant to be
+ * consumed once through {@link #mergeAndRelease}, which classifies each element while replaying
+ * and frees every block's states as soon as it has been merged.
  */
 final class BytecodeMethodAnalyzer {
   final ClassModel cm;
@@ -34,8 +47,20 @@ final class BytecodeMethodAnalyzer {
   final List<CodeElement> code;
   final int maxLocals;
   final List<String> calls = new ArrayList<>();
+  /** Basic blocks of {@link #code}; {@code null} for methods without a body. */
+  final SuccessorBuilder.BasicBlocks blocks;
+  /** Number of times a basic block was taken off the worklist during {@link #run()}. */
+  int blockVisits;
+  /** Number of single-element transfer functions applied during {@link #run()}. */
+  int transfers;
+  /** {@code false} if {@link #run()} stopped at the iteration safety limit. */
+  boolean converged = true;
+  /** Which states {@link #run()} keeps in {@link #in} and {@link #out}. */
+  final StateRetention retention;
   private final InstructionHandlerRegistry instructionHandlerRegistry;
   private final Map<Label, Set<ClassDesc>> exceptionHandlerStarts;
+  /** Allocation-site tag of each code element, created on its first transfer and reused after. */
+  private final SiteTag[] siteTags;
 
   /**
    * Creates an analyzer with the default instruction handler registry.
@@ -55,7 +80,24 @@ final class BytecodeMethodAnalyzer {
    * @param registry the instruction handler registry to use during transfer
    */
   BytecodeMethodAnalyzer(ClassModel cm, MethodModel mm, InstructionHandlerRegistry registry) {
+    this(cm, mm, registry, StateRetention.ALL_ELEMENTS);
+  }
+
+  /**
+   * Creates an analyzer with a custom instruction handler registry and state retention policy.
+   *
+   * @param cm        the class model containing the method
+   * @param mm        the method to analyze
+   * @param registry  the instruction handler registry to use during transfer
+   * @param retention which abstract states to keep once the analysis has converged
+   */
+  BytecodeMethodAnalyzer(
+      ClassModel cm,
+      MethodModel mm,
+      InstructionHandlerRegistry registry,
+      StateRetention retention) {
     this.cm = cm;
+    this.retention = retention;
     this.methodModel = mm;
     this.instructionHandlerRegistry = registry;
     this.methodTag =
@@ -74,9 +116,12 @@ final class BytecodeMethodAnalyzer {
     if (codeModel == null) {
       this.code = List.of();
       this.exceptionHandlerStarts = Map.of();
+      this.blocks = null;
+      this.siteTags = new SiteTag[0];
       return;
     }
     this.code = codeModel.elementList();
+    this.siteTags = new SiteTag[code.size()];
     for (int i = 0; i < code.size(); i++) {
       in.add(null);
       out.add(null);
@@ -89,13 +134,20 @@ final class BytecodeMethodAnalyzer {
     for (int i = 0; i < built.size() && i < successors.size(); i++) {
       successors.set(i, built.get(i));
     }
+    BitSet handlerHeads = new BitSet(code.size());
+    for (int i = 0; i < code.size(); i++) {
+      if (isHandlerStart(i)) handlerHeads.set(i);
+    }
+    this.blocks = SuccessorBuilder.basicBlocks(successors, handlerHeads);
   }
 
   /**
    * Runs the worklist-based dataflow analysis over the method body.
    *
    * <p>On return, {@link #in} and {@link #out} are populated with per-instruction abstract
-   * states. Methods with no bytecode (abstract/native) are silently skipped.
+   * states, or only with block-head IN and block-exit OUT states under
+   * {@link StateRetention#BLOCK_HEADS} and {@link StateRetention#FUSED}. Methods with no bytecode (abstract/native) are silently
+   * skipped.
    *
    * @throws org.glodean.constants.extractor.ModelExtractor.ExtractionException if an
    *         instruction is encountered for which no handler is registered
@@ -104,7 +156,6 @@ final class BytecodeMethodAnalyzer {
     if (code.isEmpty()) {
       return;
     }
-    var work = new ArrayDeque<Integer>();
     State entry = new State(maxLocals);
     int index = 0;
     if (!methodModel.flags().has(AccessFlag.STATIC)) {
@@ -112,14 +163,15 @@ final class BytecodeMethodAnalyzer {
           0,
           PointsToSet.of(
               new ObjectReference(
-                  cm.thisClass().asSymbol(), cm.thisClass().asInternalName() + "::<this>")));
+                  cm.thisClass().asSymbol(), SiteTag.receiverOf(cm.thisClass().asInternalName()))));
       index++;
     }
 
     String tag = "Param";
     for (var paramType : methodModel.methodTypeSymbol().parameterList()) {
       entry.locals.set(
-          index, PointsToSet.of(StackAndParameterEntity.convert(paramType, tag + "#" + index)));
+          index,
+          PointsToSet.of(StackAndParameterEntity.convert(paramType, SiteTag.of(tag + "#" + index))));
       index++;
       if (paramType.equals(ClassDesc.ofDescriptor("J"))
           || paramType.equals(ClassDesc.ofDescriptor("D"))) {
@@ -128,65 +180,207 @@ final class BytecodeMethodAnalyzer {
     }
 
     in.set(0, entry.copy());
-    out.set(0, entry.copy());
-    work.add(0);
+    if (retention == StateRetention.ALL_ELEMENTS) out.set(0, entry.copy());
+    BitSet work = new BitSet(blocks.reversePostorder().length);
+    work.set(blocks.rpoIndex()[0]);
 
     // Safety limit: in a sound abstract interpretation the worklist converges because
     // states grow monotonically in a finite lattice.  If a bug causes unbounded growth
     // we abort rather than hanging the process.
     int maxIterations = Math.max(25000, code.size() * 50);
-    int iterations = 0;
 
-    while (!work.isEmpty()) {
-      if (++iterations > maxIterations) {
-        break;
-      }
-      int i = work.removeFirst();
-      State in = this.in.get(i);
-      State out = this.out.get(i);
-      if (in == null) { // can happen if multiple predecessors; skip until we have an IN
+    for (int r = work.nextSetBit(0); r >= 0; r = work.nextSetBit(0)) {
+      work.clear(r);
+      blockVisits++;
+      int block = blocks.reversePostorder()[r];
+      int end = blocks.ends()[block];
+      if (retention != StateRetention.ALL_ELEMENTS) {
+        if (!runBlockSummarised(block, maxIterations)) return;
+        for (int s : blocks.successors()[block]) {
+          if (propagate(this.out.get(end - 1), blocks.starts()[s])) work.set(blocks.rpoIndex()[s]);
+        }
         continue;
       }
-      if (out == null) this.out.set(i, out = new State(in.locals.size()));
-      // 1) Compute candidate OUT from current IN (identity for nop/labels/line)
-      State sOut = transfer(i, in.copy());
-      // 2) Grow OUT[i] by union with sOut
-      out.unionWith(sOut);
-      // 3) For each successor s, try to grow IN[s] by OUT[i]; enqueue on growth
-      for (int s : successors.get(i)) {
-        if (s < 0 || s >= code.size()) continue;
-        State propagated = out.copy();
-        // If successor is an exception handler start, the JVM guarantees
-        // the stack holds only the exception reference — clear the stack
-        // so the handler-label transfer can push it cleanly.
-        if (exceptionHandlerStarts.containsKey(code.get(s) instanceof Label l ? l : null)) {
-          propagated.stack.clear();
+      // Walk the block; stop early once an element's IN is unchanged and already transferred.
+      for (int i = blocks.starts()[block]; i < end; i++) {
+        if (++transfers > maxIterations) {
+          converged = false;
+          return;
         }
-        State inS = this.in.get(s);
-
-        if (inS == null) {
-          this.in.set(s, propagated);
-          work.add(s);
-        } else if (inS.unionWith(propagated)) {
-          work.add(s);
+        State in = this.in.get(i);
+        State out = this.out.get(i);
+        if (out == null) this.out.set(i, out = new State(in.locals.size()));
+        // 1) Compute candidate OUT from current IN (identity for nop/labels/line)
+        // 2) Grow OUT[i] by union with the candidate
+        out.unionWith(transfer(i, in.copy(), true));
+        if (i + 1 < end) {
+          // Intra-block edge: the next element has this one as its only predecessor.
+          if (!propagate(out, i + 1) && this.out.get(i + 1) != null) break;
+        } else {
+          // 3) For each successor block, grow its head's IN by OUT[i]; enqueue on growth
+          for (int s : blocks.successors()[block]) {
+            if (propagate(out, blocks.starts()[s])) work.set(blocks.rpoIndex()[s]);
+          }
         }
       }
     }
   }
 
-  private State transfer(int i, State st) throws ModelExtractor.ExtractionException {
+  /**
+   * Transfers the head IN state of {@code block} through the whole block in place and joins the
+   * result into the block exit's OUT state; intra-block states are not stored.
+   *
+   * @return {@code false} if the iteration safety limit was hit
+   */
+  private boolean runBlockSummarised(int block, int maxIterations)
+      throws ModelExtractor.ExtractionException {
+    int end = blocks.ends()[block];
+    State st = this.in.get(blocks.starts()[block]).copy();
+    for (int i = blocks.starts()[block]; i < end; i++) {
+      if (++transfers > maxIterations) {
+        converged = false;
+        return false;
+      }
+      st = transfer(i, st, true);
+    }
+    State exit = this.out.get(end - 1);
+    if (exit == null) {
+      this.out.set(end - 1, st);
+    } else {
+      exit.unionWith(st);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the IN state of every code element, indexed like {@link #code}.
+   *
+   * <p>Under {@link StateRetention#ALL_ELEMENTS} this is {@link #in} itself. Under
+   * {@link StateRetention#BLOCK_HEADS} it is a read-only view that replays the transfer functions
+   * forward from the enclosing block head; reading it in ascending index order costs one transfer
+   * per element, while random access replays from the head. Elements in unreachable blocks are
+   * {@code null} in both modes.
+   *
+   * @return per-element IN states; valid only after {@link #run()}
+   */
+  List<State> inStates() {
+    if (retention == StateRetention.ALL_ELEMENTS || blocks == null) return in;
+    return new BlockReplayView();
+  }
+
+  /**
+   * Merges this method's usages in a single forward pass over the converged block-head states,
+   * then releases them.
+   *
+   * <p>Each block is replayed from its head IN state exactly once, in code order; every element
+   * is handed to the merger with its IN state before the transfer function advances that state in
+   * place, so no per-element copy is made. The block's head state is dropped as soon as the block
+   * has been merged and all OUT states are discarded up front, so after this call the analyzer
+   * holds no abstract states and cannot be merged again. The result is the same as
+   * {@code merger.merge(..., code, inStates())}.
+   *
+   * @param merger           the merger that classifies each element
+   * @param className        dot-separated Java class name
+   * @param methodName       method name
+   * @param methodDescriptor Java method descriptor in compact dot-notation
+   * @return the usages found in this method
+   * @throws ModelExtractor.ExtractionException never in practice, since {@link #run()} already
+   *         transferred every reachable element successfully
+   */
+  Multimap<Object, ConstantUsage> mergeAndRelease(
+      AnalysisMerger merger, String className, String methodName, String methodDescriptor)
+      throws ModelExtractor.ExtractionException {
+    AnalysisMerger.MethodMerge merge = merger.startMethod(className, methodName, methodDescriptor);
+    if (blocks == null) return merge.usages();
+    Collections.fill(out, null);
+    for (int block = 0; block < blocks.count(); block++) {
+      int head = blocks.starts()[block];
+      int end = blocks.ends()[block];
+      State st = in.get(head);
+      in.set(head, null);
+      for (int i = head; i < end; i++) {
+        merge.accept(code.get(i), st);
+        if (st != null && i + 1 < end) st = transfer(i, st, false);
+      }
+    }
+    return merge.usages();
+  }
+
+  /** Replays block-head IN states forward; caches the last state to make sequential reads cheap. */
+  private final class BlockReplayView extends AbstractList<State> {
+    private int cursor = -1;
+    private State current;
+
+    @Override
+    public State get(int index) {
+      Objects.checkIndex(index, code.size());
+      int head = blocks.starts()[blocks.blockOf()[index]];
+      State headIn = in.get(head);
+      if (headIn == null) return null;
+      int from;
+      State st;
+      if (current != null && cursor >= head && cursor <= index) {
+        from = cursor;
+        st = current;
+      } else {
+        from = head;
+        st = headIn;
+      }
+      try {
+        for (int i = from; i < index; i++) st = transfer(i, st.copy(), false);
+      } catch (ModelExtractor.ExtractionException e) {
+        // run() already transferred every element of this block successfully.
+        throw new IllegalStateException(e);
+      }
+      cursor = index;
+      current = st;
+      return st;
+    }
+
+    @Override
+    public int size() {
+      return code.size();
+    }
+  }
+
+  /**
+   * Joins {@code out} into the IN state of element {@code s}.
+   *
+   * @return {@code true} if IN[s] was created or grew
+   */
+  private boolean propagate(State out, int s) {
+    State propagated = out.copy();
+    // If successor is an exception handler start, the JVM guarantees
+    // the stack holds only the exception reference — clear the stack
+    // so the handler-label transfer can push it cleanly.
+    if (isHandlerStart(s)) {
+      propagated.stack.clear();
+    }
+    State inS = this.in.get(s);
+    if (inS == null) {
+      this.in.set(s, propagated);
+      return true;
+    }
+    return inS.unionWith(propagated);
+  }
+
+  private boolean isHandlerStart(int i) {
+    return code.get(i) instanceof Label l && exceptionHandlerStarts.containsKey(l);
+  }
+
+  private State transfer(int i, State st, boolean recordCalls)
+      throws ModelExtractor.ExtractionException {
     var e = code.get(i);
-    var tag = methodTag + "@" + i;
+    var tag = siteTag(i);
     if (e instanceof Instruction ins) {
-      Class<? extends Instruction> runtime = ins.getClass();
-      var handler = instructionHandlerRegistry.findHandlerFor(runtime);
+      var handler = instructionHandlerRegistry.handlerFor(ins);
       if (handler == null) {
         throw new ModelExtractor.ExtractionException(
-            "No handler for instruction: " + runtime.getName());
+            "No handler for instruction: " + ins.getClass().getName());
       }
 
       handler.handle(ins, st, tag);
-      recordInvokeIfNeeded(ins);
+      if (recordCalls) recordInvokeIfNeeded(ins);
       return st;
     }
     if (e instanceof Label label) {
@@ -198,6 +392,15 @@ final class BytecodeMethodAnalyzer {
     return st;
   }
 
+  private SiteTag siteTag(int i) {
+    SiteTag tag = siteTags[i];
+    if (tag == null) {
+      tag = new SiteTag(methodTag, i);
+      siteTags[i] = tag;
+    }
+    return tag;
+  }
+
   private void recordInvokeIfNeeded(Instruction ins) {
     if (ins instanceof InvokeInstruction ii) {
       calls.add(
@@ -219,10 +422,11 @@ final class BytecodeMethodAnalyzer {
   public String report() {
     StringBuilder sb = new StringBuilder();
     sb.append("\n=== Analysis Report for ").append(methodTag).append(" ===\n");
+    List<State> inStates = inStates();
     for (int i = 0; i < code.size(); i++) {
       var e = code.get(i);
       sb.append("%4d: %-30s\n".formatted(i, pretty(e)));
-      State sIn = in.get(i), sOut = out.get(i);
+      State sIn = inStates.get(i), sOut = out.get(i);
       if (sIn != null) sb.append("     IN  ").append(stringify(sIn)).append('\n');
       if (sOut != null) sb.append("     OUT ").append(stringify(sOut)).append('\n');
     }
@@ -230,6 +434,10 @@ final class BytecodeMethodAnalyzer {
       sb.append("  Calls:").append('\n');
       calls.forEach(c -> sb.append("    ").append(c).append('\n'));
     }
+    if (blocks != null) {
+      sb.append("  Convergence: %d block visits, %d transfers over %d blocks%s\n"
+          .formatted(blockVisits, transfers, blocks.count(), converged ? "" : " (limit hit)"));
+    }
     return sb.toString();
   }
 
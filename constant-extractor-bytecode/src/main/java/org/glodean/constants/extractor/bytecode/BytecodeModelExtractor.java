@@ -8,6 +8,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -18,8 +19,9 @@ import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 
 /**
- * Extracts {@link UnitConstants} from bytecode sources — either a {@link FileSystem} (JAR or
- * directory tree) or a {@link ZipInputStream} (nested JAR already in memory).
+ * Extracts {@link UnitConstants} from bytecode sources — a {@link FileSystem} (JAR or
+ * directory tree), a {@link MappedZipArchive} (memory-mapped JAR, possibly nested) or a
+ * {@link ZipInputStream} (nested JAR already in memory).
  *
  * <p>All file-type dispatch is delegated to the injected {@link ModelExtractorSupplierRepository}.
  * This means the extractor is not limited to {@code .class} files: any format registered in the
@@ -37,6 +39,18 @@ import org.glodean.constants.model.UnitDescriptor;
  * ExecutorService pool = Executors.newFixedThreadPool(N);
  * var extractor = BytecodeModelExtractor.forFileSystem(pool, jarFs, merger, notifier, repository);
  * }</pre>
+ *
+ * <p>The archive and chunk entry points optionally take an {@link ExtractionBudget}; submission
+ * then blocks while the bytes queued for analysis plus the results not yet collected exceed it.
+ *
+ * <p>{@link #extract(UnitDescriptor, Consumer)} streams each unit's results to a callback as soon
+ * as its analysis finishes, for callers that write results out rather than keep them.
+ * {@link #extract(UnitDescriptor, Consumer, ExtractionControl)} additionally lets the consumer
+ * pace the feeding thread and abort the extraction.
+ *
+ * <p>The archive and directory entry points also accept {@link ExtractionStages} in place of an
+ * executor: entries are then read, inflated and resolved concurrently on an I/O stage instead of
+ * one after another on the calling thread, and analyzed on a separate CPU stage.
  */
 public final class BytecodeModelExtractor implements ModelExtractor {
 
@@ -50,12 +64,28 @@ public final class BytecodeModelExtractor implements ModelExtractor {
   }
 
   private final ExecutorService executor; // null = create a fresh pool per extract() call
+  private final ExtractionStages stages; // null = entries are read by the feeding thread
+  private final ExtractionBudget budget; // null = unbounded
   private final ExtractionNotifier notifier;
   private final PoolFeeder feeder;
 
   private BytecodeModelExtractor(
       ExecutorService executor, ExtractionNotifier notifier, PoolFeeder feeder) {
+    this(executor, null, notifier, feeder);
+  }
+
+  private BytecodeModelExtractor(
+      ExecutorService executor, ExtractionBudget budget,
+      ExtractionNotifier notifier, PoolFeeder feeder) {
+    this(executor, null, budget, notifier, feeder);
+  }
+
+  private BytecodeModelExtractor(
+      ExecutorService executor, ExtractionStages stages, ExtractionBudget budget,
+      ExtractionNotifier notifier, PoolFeeder feeder) {
     this.executor = executor;
+    this.stages = stages;
+    this.budget = budget;
     this.notifier = notifier;
     this.feeder = feeder;
   }
@@ -102,6 +132,34 @@ public final class BytecodeModelExtractor implements ModelExtractor {
     return forFileSystem(fs, merger, null, new ExtractionNotifier.Silent());
   }
 
+  // -------------------------------------------------------------------------
+  // Factory methods — directory tree (shared executor + explicit repository)
+  // -------------------------------------------------------------------------
+
+  /**
+   * Shared-executor variant. Walks the regular files under {@code root}; descriptors carry each
+   * file's {@code /}-separated path relative to {@code root}, bounded by {@code budget}
+   * ({@code null} = unbounded).
+   */
+  public static BytecodeModelExtractor forDirectory(
+      ExecutorService executor, ExtractionBudget budget, Path root,
+      ExtractionNotifier notifier, ModelExtractorSupplierRepository repository) {
+    return new BytecodeModelExtractor(executor, budget, notifier,
+        directoryFeeder(root, repository));
+  }
+
+  /**
+   * Two-stage variant of {@link #forDirectory(ExecutorService, ExtractionBudget, Path,
+   * ExtractionNotifier, ModelExtractorSupplierRepository)}: files are read on the I/O stage of
+   * {@code stages} and analyzed on its CPU stage.
+   */
+  public static BytecodeModelExtractor forDirectory(
+      ExtractionStages stages, ExtractionBudget budget, Path root,
+      ExtractionNotifier notifier, ModelExtractorSupplierRepository repository) {
+    return new BytecodeModelExtractor(stages.cpuExecutor(), stages, budget, notifier,
+        directoryFeeder(root, repository));
+  }
+
   // -------------------------------------------------------------------------
   // Factory methods — ZipInputStream (shared executor + explicit repository)
   // -------------------------------------------------------------------------
@@ -120,6 +178,56 @@ public final class BytecodeModelExtractor implements ModelExtractor {
     return forZipStream(executor, zis, new ExtractionNotifier.Silent(), repository);
   }
 
+  // -------------------------------------------------------------------------
+  // Factory methods — MappedZipArchive (shared executor + explicit repository)
+  // -------------------------------------------------------------------------
+
+  /**
+   * Shared-executor variant. Reads every file entry of {@code archive}; the caller owns the
+   * archive and must keep it open until {@link #extract} returns.
+   */
+  public static BytecodeModelExtractor forZipArchive(
+      ExecutorService executor, MappedZipArchive archive,
+      ExtractionNotifier notifier, ModelExtractorSupplierRepository repository) {
+    return forZipArchive(executor, null, archive, notifier, repository);
+  }
+
+  /**
+   * Same as {@link #forZipArchive(ExecutorService, MappedZipArchive, ExtractionNotifier,
+   * ModelExtractorSupplierRepository)}, bounded by {@code budget} ({@code null} = unbounded).
+   */
+  public static BytecodeModelExtractor forZipArchive(
+      ExecutorService executor, ExtractionBudget budget, MappedZipArchive archive,
+      ExtractionNotifier notifier, ModelExtractorSupplierRepository repository) {
+    return forZipArchive(executor, budget, archive, archive.entries(), notifier, repository);
+  }
+
+  /**
+   * Same as {@link #forZipArchive(ExecutorService, ExtractionBudget, MappedZipArchive,
+   * ExtractionNotifier, ModelExtractorSupplierRepository)}, restricted to {@code entries}
+   * (e.g., the entries left after skipping unchanged ones). Directory entries are skipped.
+   */
+  public static BytecodeModelExtractor forZipArchive(
+      ExecutorService executor, ExtractionBudget budget, MappedZipArchive archive,
+      List<MappedZipArchive.Entry> entries,
+      ExtractionNotifier notifier, ModelExtractorSupplierRepository repository) {
+    return new BytecodeModelExtractor(executor, budget, notifier,
+        pool -> submitEntries(pool, archive, entries, repository));
+  }
+
+  /**
+   * Two-stage variant of {@link #forZipArchive(ExecutorService, ExtractionBudget,
+   * MappedZipArchive, List, ExtractionNotifier, ModelExtractorSupplierRepository)}: entries are
+   * read and inflated on the I/O stage of {@code stages} and analyzed on its CPU stage.
+   */
+  public static BytecodeModelExtractor forZipArchive(
+      ExtractionStages stages, ExtractionBudget budget, MappedZipArchive archive,
+      List<MappedZipArchive.Entry> entries,
+      ExtractionNotifier notifier, ModelExtractorSupplierRepository repository) {
+    return new BytecodeModelExtractor(stages.cpuExecutor(), stages, budget, notifier,
+        pool -> submitEntries(pool, archive, entries, repository));
+  }
+
   // -------------------------------------------------------------------------
   // Factory methods — ZipInputStream (standalone, class-file-only default)
   // -------------------------------------------------------------------------
@@ -157,13 +265,30 @@ public final class BytecodeModelExtractor implements ModelExtractor {
       List<Path> paths,
       ExtractionNotifier notifier,
       ModelExtractorSupplierRepository repository) throws ExtractionException {
+    return extractPathChunk(executor, null, paths, notifier, repository);
+  }
+
+  /**
+   * Same as {@link #extractPathChunk(ExecutorService, List, ExtractionNotifier,
+   * ModelExtractorSupplierRepository)}, but blocks between entries while {@code budget} is
+   * exhausted, so a chunk of very large classes is only read as fast as analysis frees memory.
+   *
+   * @param budget in-flight byte budget shared with other extractions, or {@code null}
+   */
+  public static Collection<UnitConstants> extractPathChunk(
+      ExecutorService executor,
+      ExtractionBudget budget,
+      List<Path> paths,
+      ExtractionNotifier notifier,
+      ModelExtractorSupplierRepository repository) throws ExtractionException {
     try {
-      var pool = new ExtractionPool(executor, notifier);
+      var pool = new ExtractionPool(executor, notifier, budget);
       for (Path path : paths) {
         String entryName = path.getFileName().toString();
         byte[] bytes = Files.readAllBytes(path);
         repository.resolve(entryName, bytes).ifPresent(supply -> {
-          var desc = new UnitDescriptor(supply.sourceKind(), path.toString(), bytes.length);
+          var desc = new UnitDescriptor(
+              supply.sourceKind(), path.toString(), bytes.length, zipEntryHash(path));
           pool.submit(supply::extractor, path, desc);
         });
       }
@@ -173,18 +298,123 @@ public final class BytecodeModelExtractor implements ModelExtractor {
     }
   }
 
+  /**
+   * Same as {@link #extractPathChunk}, but reads the entries straight out of a
+   * {@link MappedZipArchive} instead of through a ZIP {@link FileSystem}. Descriptors carry the
+   * entry's file-system style path and its {@linkplain MappedZipArchive.Entry#fingerprint()
+   * central-directory fingerprint}, exactly as {@link #extractPathChunk} would produce them.
+   *
+   * @param executor   shared thread pool for parallel analysis of this chunk
+   * @param archive    the archive the entries belong to
+   * @param entries    the (non-directory) entries to read and analyze
+   * @param notifier   progress/error listener
+   * @param repository maps file names to extractors
+   * @return all {@link UnitConstants} produced by {@code entries}
+   */
+  public static Collection<UnitConstants> extractEntryChunk(
+      ExecutorService executor,
+      MappedZipArchive archive,
+      List<MappedZipArchive.Entry> entries,
+      ExtractionNotifier notifier,
+      ModelExtractorSupplierRepository repository) throws ExtractionException {
+    return extractEntryChunk(executor, null, archive, entries, notifier, repository);
+  }
+
+  /**
+   * Same as {@link #extractEntryChunk(ExecutorService, MappedZipArchive, List, ExtractionNotifier,
+   * ModelExtractorSupplierRepository)}, bounded by {@code budget} ({@code null} = unbounded).
+   */
+  public static Collection<UnitConstants> extractEntryChunk(
+      ExecutorService executor,
+      ExtractionBudget budget,
+      MappedZipArchive archive,
+      List<MappedZipArchive.Entry> entries,
+      ExtractionNotifier notifier,
+      ModelExtractorSupplierRepository repository) throws ExtractionException {
+    try {
+      var pool = new ExtractionPool(executor, notifier, budget);
+      submitEntries(pool, archive, entries, repository);
+      return pool.collect();
+    } catch (IOException e) {
+      throw new ExtractionException(e);
+    }
+  }
+
+  /**
+   * Returns a content fingerprint for a ZIP file-system entry taken from the archive's central
+   * directory ({@link MappedZipArchive#fingerprint}), without reading or inflating the entry.
+   *
+   * @param path a path on a ZIP {@link FileSystem}
+   * @return the fingerprint, or {@code null} when {@code path} is not a ZIP entry
+   */
+  public static String zipEntryHash(Path path) {
+    try {
+      var attributes = Files.readAttributes(path, "zip:crc,size");
+      if (attributes.get("crc") instanceof Long crc && attributes.get("size") instanceof Long size) {
+        return MappedZipArchive.fingerprint(crc, size);
+      }
+      return null;
+    } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+      // Not a ZIP file system (or an older provider without the zip view).
+      return null;
+    }
+  }
+
   // -------------------------------------------------------------------------
   // ModelExtractor
   // -------------------------------------------------------------------------
 
   @Override
   public Collection<UnitConstants> extract(UnitDescriptor source) throws ExtractionException {
+    return run(null, null);
+  }
+
+  /**
+   * Every unit's results are passed to {@code sink} as soon as its analysis finishes, on the
+   * worker thread that produced them, and are not retained. A unit's budget reservation is held
+   * until {@code sink} returns, so a blocking sink stops the feeder once the budget is exhausted —
+   * but it also parks a worker of the analysis executor, which may be shared with other
+   * extractions; consumers that need to apply backpressure should use
+   * {@link #extract(UnitDescriptor, Consumer, ExtractionControl)} instead. Returns once all units
+   * are done.
+   *
+   * @param source descriptor of the whole input, as for {@link #extract(UnitDescriptor)}
+   * @param sink   receives each {@link UnitConstants}; called concurrently, must be thread-safe
+   * @throws ExtractionException if the input cannot be read
+   */
+  @Override
+  public void extract(UnitDescriptor source, Consumer<UnitConstants> sink)
+      throws ExtractionException {
+    run(sink, null);
+  }
+
+  /**
+   * Same as {@link #extract(UnitDescriptor, Consumer)}, paced and cancelled by {@code control}:
+   * the feeding thread waits for {@link ExtractionControl#admit()} before each unit, and stops
+   * reading once the control is cancelled. Returns once every submitted unit is done or skipped,
+   * so inputs such as a {@link MappedZipArchive} may be closed as soon as it returns.
+   *
+   * @param source  descriptor of the whole input, as for {@link #extract(UnitDescriptor)}
+   * @param sink    receives each {@link UnitConstants}; called concurrently, must not block
+   * @param control paces and cancels the extraction
+   * @throws ExtractionException if the input cannot be read
+   */
+  public void extract(
+      UnitDescriptor source, Consumer<UnitConstants> sink, ExtractionControl control)
+      throws ExtractionException {
+    run(sink, control);
+  }
+
+  private Collection<UnitConstants> run(
+      Consumer<UnitConstants> sink, ExtractionControl control) throws ExtractionException {
     boolean ownsExecutor = (executor == null);
     ExecutorService exec = ownsExecutor
         ? Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())
         : executor;
     try {
-      var pool = new ExtractionPool(exec, notifier);
+      var pool = stages != null
+          ? new ExtractionPool(stages, notifier, budget, sink, control)
+          : new ExtractionPool(exec, notifier, budget, sink, control);
       feeder.feed(pool);
       return pool.collect();
     } catch (IOException e) {
@@ -223,10 +453,12 @@ public final class BytecodeModelExtractor implements ModelExtractor {
     return (pool) -> {
       try (var walk = Files.walk(fs.getPath("/"))) {
         for (Path path : walk.filter(finalFilter).toList()) {
+          if (pool.cancelled()) return;
           String entryName = path.getFileName().toString();
           byte[] bytes = Files.readAllBytes(path);
           repository.resolve(entryName, bytes).ifPresent(supply -> {
-            var descriptor = new UnitDescriptor(supply.sourceKind(), path.toString(), bytes.length);
+            var descriptor = new UnitDescriptor(
+                supply.sourceKind(), path.toString(), bytes.length, zipEntryHash(path));
             pool.submit(supply::extractor, path, descriptor);
           });
         }
@@ -234,6 +466,67 @@ public final class BytecodeModelExtractor implements ModelExtractor {
     };
   }
 
+  /**
+   * Walks the regular files under {@code root} in a stable order, resolves each by file name via
+   * {@code repository}, and submits matched entries with a root-relative descriptor path.
+   */
+  private static PoolFeeder directoryFeeder(Path root, ModelExtractorSupplierRepository repository) {
+    return pool -> {
+      try (var walk = Files.walk(root)) {
+        for (Path path : walk.filter(Files::isRegularFile).sorted().toList()) {
+          if (pool.cancelled()) return;
+          String relative = root.relativize(path).toString()
+              .replace(path.getFileSystem().getSeparator(), "/");
+          if (pool.staged()) {
+            pool.submit(path, Files.size(path), () -> {
+              byte[] bytes = Files.readAllBytes(path);
+              return repository.resolve(path.getFileName().toString(), bytes)
+                  .map(supply -> new ExtractionPool.ReadUnit(supply::extractor,
+                      new UnitDescriptor(supply.sourceKind(), relative, bytes.length)));
+            });
+            continue;
+          }
+          byte[] bytes = Files.readAllBytes(path);
+          repository.resolve(path.getFileName().toString(), bytes).ifPresent(supply -> {
+            var descriptor = new UnitDescriptor(supply.sourceKind(), relative, bytes.length);
+            pool.submit(supply::extractor, path, descriptor);
+          });
+        }
+      }
+    };
+  }
+
+  /**
+   * Reads the given archive entries, resolves each by file name via {@code repository}, and
+   * submits matched entries to the pool with a per-entry descriptor. Directory entries are
+   * skipped.
+   */
+  private static void submitEntries(
+      ExtractionPool pool, MappedZipArchive archive, List<MappedZipArchive.Entry> entries,
+      ModelExtractorSupplierRepository repository) throws IOException {
+    for (MappedZipArchive.Entry entry : entries) {
+      if (pool.cancelled()) return;
+      if (entry.isDirectory()) {
+        continue;
+      }
+      if (pool.staged()) {
+        pool.submit(Path.of(entry.path()), entry.size(), () -> {
+          byte[] bytes = archive.readAllBytes(entry);
+          return repository.resolve(entry.fileName(), bytes)
+              .map(supply -> new ExtractionPool.ReadUnit(supply::extractor, new UnitDescriptor(
+                  supply.sourceKind(), entry.path(), bytes.length, entry.fingerprint())));
+        });
+        continue;
+      }
+      byte[] bytes = archive.readAllBytes(entry);
+      repository.resolve(entry.fileName(), bytes).ifPresent(supply -> {
+        var descriptor = new UnitDescriptor(
+            supply.sourceKind(), entry.path(), bytes.length, entry.fingerprint());
+        pool.submit(supply::extractor, Path.of(entry.path()), descriptor);
+      });
+    }
+  }
+
   /**
    * Reads all entries from {@code zis} sequentially, resolves each by filename via
    * {@code repository}, and submits matched entries to the pool with a per-entry descriptor.
@@ -242,6 +535,7 @@ public final class BytecodeModelExtractor implements ModelExtractor {
       ZipInputStream zis, ModelExtractorSupplierRepository repository) {
     return (pool) -> {
       for (ZipEntry ze = zis.getNextEntry(); ze != null; ze = zis.getNextEntry()) {
+        if (pool.cancelled()) return;
         if (!ze.isDirectory()) {
           String entryName = Path.of(ze.getName()).getFileName().toString();
           String entryPath = ze.getName(); // captured as effectively-final for the lambda
@@ -1,26 +1,36 @@
 package org.glodean.constants.extractor.bytecode;
 
-import com.google.common.collect.HashMultimap;
+import static org.glodean.constants.extractor.bytecode.Utils.toJavaDescriptor;
+import static org.glodean.constants.extractor.bytecode.Utils.toJavaName;
+
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
+import java.lang.classfile.Attributes;
 import java.lang.classfile.ClassFile;
 import java.lang.classfile.ClassModel;
-import java.lang.classfile.CodeModel;
 import java.lang.classfile.MethodModel;
+import java.lang.classfile.attribute.CodeAttribute;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.glodean.constants.extractor.ModelExtractor;
+import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
 import org.glodean.constants.model.UnitConstant;
 import org.glodean.constants.model.UnitConstant.ConstantUsage;
 import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 
-
-import static org.glodean.constants.extractor.bytecode.Utils.toJavaDescriptor;
-import static org.glodean.constants.extractor.bytecode.Utils.toJavaName;
-
 /**
  * Extracts {@link UnitConstants} from a {@link java.lang.classfile.ClassModel} by analyzing each
  * method's bytecode and merging discovered constants.
@@ -37,12 +47,99 @@ import static org.glodean.constants.extractor.bytecode.Utils.toJavaName;
  *   <li>Does not perform cross-class analysis (each class analyzed independently)</li>
  * </ul>
  *
+ * <p>When {@link #extract} runs on a {@link ForkJoinPool} worker, methods whose bytecode is at
+ * least {@code forkThreshold} bytes long are analyzed as forked sub-tasks, so idle workers can
+ * steal the large methods of a single huge class instead of waiting for one thread to finish it.
+ * Shorter methods, and every method when not running in a fork/join pool, are analyzed inline.
+ * When a method fails, forked methods that have not started are dropped and the running ones
+ * are awaited before the first failure is rethrown.
+ * Per-method usages are merged through a concurrent multimap whose string keys, like the class
+ * name, are deduplicated through {@link ResultInterner}.
+ *
+ * <p>Before a method is analyzed, its instructions are pre-scanned
+ * ({@link AnalysisMerger#mayProduceUsages}); methods in which no constant can reach a classified
+ * instruction skip the dataflow analysis. The {@code counters} count both outcomes across the
+ * extractors they are shared with.
+ *
+ * <p>Methods that do need analysis are first looked up in the {@code methodStore} by their
+ * {@link MethodFingerprint}; a method unchanged since an earlier version of the class reuses the
+ * usages stored for it, and only methods that miss are analyzed and then stored.
+ * The {@code counters} also count the reused ones.
+ *
  * @param model the Java class model to analyze (from Class-File API)
  * @param merger the merger that converts bytecode states to constant usage mappings
+ * @param retention which per-method analysis states are kept between analysis and merge
+ * @param forkThreshold minimum code length, in bytes, of a method analyzed as a forked sub-task
+ * @param methodStore per-method results reused for unchanged methods
+ * @param counters where analyzed, skipped and reused methods are counted
  */
-public record ClassModelExtractor(ClassModel model, AnalysisMerger merger)
+public record ClassModelExtractor(
+    ClassModel model,
+    AnalysisMerger merger,
+    StateRetention retention,
+    int forkThreshold,
+    MethodUsageStore methodStore,
+    MethodAnalysisCounters counters)
     implements ModelExtractor {
 
+  /**
+   * Default {@link #forkThreshold()}: roughly the size at which a method's analysis outweighs
+   * the cost of forking it.
+   */
+  public static final int DEFAULT_FORK_THRESHOLD = 2048;
+
+  /**
+   * Creates an extractor that keeps every per-element analysis state.
+   *
+   * @param model the Java class model to analyze
+   * @param merger the merger that converts bytecode states to constant usage mappings
+   */
+  public ClassModelExtractor(ClassModel model, AnalysisMerger merger) {
+    this(model, merger, StateRetention.ALL_ELEMENTS);
+  }
+
+  /**
+   * Creates an extractor that forks methods of at least {@link #DEFAULT_FORK_THRESHOLD} bytes.
+   *
+   * @param model the Java class model to analyze
+   * @param merger the merger that converts bytecode states to constant usage mappings
+   * @param retention which per-method analysis states to keep
+   */
+  public ClassModelExtractor(ClassModel model, AnalysisMerger merger, StateRetention retention) {
+    this(model, merger, retention, DEFAULT_FORK_THRESHOLD);
+  }
+
+  /**
+   * Creates an extractor that analyzes every method, without a per-method store.
+   *
+   * @param model the Java class model to analyze
+   * @param merger the merger that converts bytecode states to constant usage mappings
+   * @param retention which per-method analysis states to keep
+   * @param forkThreshold minimum code length of a method analyzed as a forked sub-task
+   */
+  public ClassModelExtractor(
+      ClassModel model, AnalysisMerger merger, StateRetention retention, int forkThreshold) {
+    this(model, merger, retention, forkThreshold, MethodUsageStore.NONE);
+  }
+
+  /**
+   * Creates an extractor with counters of its own, see {@link #counters()}.
+   *
+   * @param model the Java class model to analyze
+   * @param merger the merger that converts bytecode states to constant usage mappings
+   * @param retention which per-method analysis states to keep
+   * @param forkThreshold minimum code length of a method analyzed as a forked sub-task
+   * @param methodStore per-method results reused for unchanged methods
+   */
+  public ClassModelExtractor(
+      ClassModel model,
+      AnalysisMerger merger,
+      StateRetention retention,
+      int forkThreshold,
+      MethodUsageStore methodStore) {
+    this(model, merger, retention, forkThreshold, methodStore, new MethodAnalysisCounters());
+  }
+
   /**
    * Returns a supplier that parses raw class-file bytes and creates a
    * {@link ClassModelExtractor} for the given {@link AnalysisMerger}.
@@ -57,14 +154,81 @@ public record ClassModelExtractor(ClassModel model, AnalysisMerger merger)
    * @return a {@code Function<byte[], ModelExtractor>} suitable for repository registration
    */
   public static Function<byte[], ModelExtractor> supplier(AnalysisMerger merger) {
-    return bytes -> new ClassModelExtractor(ClassFile.of().parse(bytes), merger);
+    return supplier(merger, StateRetention.ALL_ELEMENTS);
+  }
+
+  /**
+   * Returns a supplier like {@link #supplier(AnalysisMerger)} whose extractors analyze methods
+   * with the given {@link StateRetention}.
+   *
+   * @param merger the shared merger instance to capture in the supplier
+   * @param retention which per-method analysis states to keep
+   * @return a {@code Function<byte[], ModelExtractor>} suitable for repository registration
+   */
+  public static Function<byte[], ModelExtractor> supplier(
+      AnalysisMerger merger, StateRetention retention) {
+    return supplier(merger, retention, DEFAULT_FORK_THRESHOLD);
+  }
+
+  /**
+   * Returns a supplier like {@link #supplier(AnalysisMerger, StateRetention)} whose extractors
+   * fork methods of at least {@code forkThreshold} bytes of code.
+   *
+   * @param merger the shared merger instance to capture in the supplier
+   * @param retention which per-method analysis states to keep
+   * @param forkThreshold minimum code length of a method analyzed as a forked sub-task
+   * @return a {@code Function<byte[], ModelExtractor>} suitable for repository registration
+   */
+  public static Function<byte[], ModelExtractor> supplier(
+      AnalysisMerger merger, StateRetention retention, int forkThreshold) {
+    return supplier(merger, retention, forkThreshold, MethodUsageStore.NONE);
   }
 
+  /**
+   * Returns a supplier like {@link #supplier(AnalysisMerger, StateRetention, int)} whose
+   * extractors reuse the results of unchanged methods from {@code methodStore}. Its extractors
+   * share counters that nothing else reads; pass them in to observe them.
+   *
+   * @param merger the shared merger instance to capture in the supplier
+   * @param retention which per-method analysis states to keep
+   * @param forkThreshold minimum code length of a method analyzed as a forked sub-task
+   * @param methodStore the shared per-method result store
+   * @return a {@code Function<byte[], ModelExtractor>} suitable for repository registration
+   */
+  public static Function<byte[], ModelExtractor> supplier(
+      AnalysisMerger merger,
+      StateRetention retention,
+      int forkThreshold,
+      MethodUsageStore methodStore) {
+    return supplier(merger, retention, forkThreshold, methodStore, new MethodAnalysisCounters());
+  }
+
+  /**
+   * Returns a supplier like {@link #supplier(AnalysisMerger, StateRetention, int,
+   * MethodUsageStore)} whose extractors count the methods they analyze, skip and reuse in
+   * {@code counters}.
+   *
+   * @param merger the shared merger instance to capture in the supplier
+   * @param retention which per-method analysis states to keep
+   * @param forkThreshold minimum code length of a method analyzed as a forked sub-task
+   * @param methodStore the shared per-method result store
+   * @param counters the counters shared by every extractor the supplier creates
+   * @return a {@code Function<byte[], ModelExtractor>} suitable for repository registration
+   */
+  public static Function<byte[], ModelExtractor> supplier(
+      AnalysisMerger merger,
+      StateRetention retention,
+      int forkThreshold,
+      MethodUsageStore methodStore,
+      MethodAnalysisCounters counters) {
+    return bytes -> new ClassModelExtractor(
+        ClassFile.of().parse(bytes), merger, retention, forkThreshold, methodStore, counters);
+  }
 
   @Override
   public Collection<UnitConstants> extract(UnitDescriptor source) throws ExtractionException {
-    Multimap<Object, ConstantUsage> joinedMap = HashMultimap.create();
-    String javaClassName = toJavaName(model.thisClass().asSymbol());
+    ConcurrentMap<Object, Set<ConstantUsage>> joinedMap = new ConcurrentHashMap<>();
+    String javaClassName = ResultInterner.intern(toJavaName(model.thisClass().asSymbol()));
 
     // Enrich the descriptor with the actual class name derived from the bytecode
     var enriched = new UnitDescriptor(
@@ -72,30 +236,146 @@ public record ClassModelExtractor(ClassModel model, AnalysisMerger merger)
 
     // Extract constants from annotations (class, field, method, parameter level)
     var annotationExtractor = new AnnotationConstantExtractor(merger.usageInterpreterRegistry());
-    joinedMap.putAll(annotationExtractor.extract(model, javaClassName));
+    putAll(joinedMap, annotationExtractor.extract(model, javaClassName));
 
     // Extract compile-time constants from ConstantValue attributes on static final fields
     var staticFieldExtractor = new StaticFinalFieldConstantExtractor(merger.usageInterpreterRegistry());
-    joinedMap.putAll(staticFieldExtractor.extract(model, javaClassName));
+    putAll(joinedMap, staticFieldExtractor.extract(model, javaClassName));
 
-    for (MethodModel mm : model.methods()) {
-      if (mm.elementStream().noneMatch(e -> e instanceof CodeModel)) {
-        continue;
+    boolean canFork = ForkJoinTask.inForkJoinPool();
+    String configuration = methodStore == MethodUsageStore.NONE
+        ? null
+        : merger.fingerprint() + "|" + retention;
+    List<MethodTask> forked = new ArrayList<>();
+    try {
+      for (MethodModel mm : model.methods()) {
+        Optional<CodeAttribute> code = mm.findAttribute(Attributes.code());
+        if (code.isEmpty()) {
+          continue;
+        }
+        if (!AnalysisMerger.mayProduceUsages(code.get())) {
+          counters.skipped();
+          continue;
+        }
+        String fingerprint = null;
+        if (configuration != null) {
+          fingerprint = MethodFingerprint.of(model, mm, code.get(), configuration);
+          Optional<Multimap<Object, ConstantUsage>> stored = methodStore.get(fingerprint);
+          if (stored.isPresent()) {
+            counters.reused();
+            putAll(joinedMap, stored.get());
+            continue;
+          }
+        }
+        counters.analyzed();
+        int weight = code.get().codeLength();
+        // The analyzer is built here so that the lazily-parsed code model is inflated by this
+        // thread; forked tasks only read the resulting element list.
+        var analysis = new BytecodeMethodAnalyzer(
+            model, mm, DefaultRegistrySource.defaultRegistry(), retention);
+        if (canFork && weight >= forkThreshold) {
+          var task = new MethodTask(javaClassName, mm, fingerprint, analysis, joinedMap);
+          task.fork();
+          forked.add(task);
+        } else {
+          analyze(javaClassName, mm, fingerprint, analysis, joinedMap);
+        }
+      }
+      for (MethodTask task : forked) {
+        task.join();
+        if (task.failure != null) {
+          throw task.failure;
+        }
       }
-      var analysis = new BytecodeMethodAnalyzer(model, mm);
-      analysis.run();
-      joinedMap.putAll(merger.merge(
-          javaClassName,
-          mm.methodName().stringValue(),
-          toJavaDescriptor(mm.methodType().stringValue()),
-          analysis.code,
-          analysis.in));
+    } finally {
+      settle(forked);
     }
 
-    Set<UnitConstant> constants = joinedMap.asMap().entrySet().stream()
+    Set<UnitConstant> constants = joinedMap.entrySet().stream()
         .map(entry -> new UnitConstant(entry.getKey(), new HashSet<>(entry.getValue())))
         .collect(Collectors.toSet());
 
     return Set.of(new UnitConstants(enriched, constants));
   }
+
+  /**
+   * Makes sure no forked task outlives {@link #extract}. When a method failed, the tasks still in
+   * this worker's queue are taken back unrun and the others are joined quietly, since only the
+   * first failure is reported. Tasks that already completed are left as they are.
+   */
+  private static void settle(List<MethodTask> forked) {
+    // Newest first, so that each task still queued is on top of this worker's deque.
+    for (int i = forked.size() - 1; i >= 0; i--) {
+      MethodTask task = forked.get(i);
+      if (!task.tryUnfork()) {
+        task.quietlyJoin();
+      }
+    }
+  }
+
+  /**
+   * Runs one method's dataflow analysis and merges its usages into {@code joinedMap}. With a
+   * non-{@code null} {@code fingerprint} the usages are also kept in the {@link #methodStore}.
+   */
+  private void analyze(
+      String javaClassName,
+      MethodModel mm,
+      String fingerprint,
+      BytecodeMethodAnalyzer analysis,
+      ConcurrentMap<Object, Set<ConstantUsage>> joinedMap) throws ExtractionException {
+    analysis.run();
+    String methodName = mm.methodName().stringValue();
+    String descriptor = toJavaDescriptor(mm.methodType().stringValue());
+    Multimap<Object, ConstantUsage> usages = retention == StateRetention.FUSED
+        ? analysis.mergeAndRelease(merger, javaClassName, methodName, descriptor)
+        : merger.merge(javaClassName, methodName, descriptor, analysis.code, analysis.inStates());
+    if (fingerprint != null) {
+      methodStore.put(fingerprint, ImmutableSetMultimap.copyOf(usages));
+    }
+    putAll(joinedMap, usages);
+  }
+
+  private static void putAll(
+      ConcurrentMap<Object, Set<ConstantUsage>> joinedMap, Multimap<Object, ConstantUsage> usages) {
+    for (Map.Entry<Object, Collection<ConstantUsage>> entry : usages.asMap().entrySet()) {
+      joinedMap.computeIfAbsent(
+          ResultInterner.internValue(entry.getKey()), _ -> ConcurrentHashMap.newKeySet())
+          .addAll(entry.getValue());
+    }
+  }
+
+  /**
+   * Forked analysis of one large method. An {@link ExtractionException} is kept in
+   * {@link #failure} and rethrown by {@link #extract} after joining.
+   */
+  private final class MethodTask extends RecursiveAction {
+    private final String javaClassName;
+    private final MethodModel mm;
+    private final String fingerprint;
+    private final BytecodeMethodAnalyzer analysis;
+    private final ConcurrentMap<Object, Set<ConstantUsage>> joinedMap;
+    private ExtractionException failure;
+
+    MethodTask(
+        String javaClassName,
+        MethodModel mm,
+        String fingerprint,
+        BytecodeMethodAnalyzer analysis,
+        ConcurrentMap<Object, Set<ConstantUsage>> joinedMap) {
+      this.javaClassName = javaClassName;
+      this.mm = mm;
+      this.fingerprint = fingerprint;
+      this.analysis = analysis;
+      this.joinedMap = joinedMap;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        analyze(javaClassName, mm, fingerprint, analysis, joinedMap);
+      } catch (ExtractionException e) {
+        failure = e;
+      }
+    }
+  }
 }
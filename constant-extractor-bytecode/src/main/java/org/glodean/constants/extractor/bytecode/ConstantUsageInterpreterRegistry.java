@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode;
 
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Multimap;
+import org.glodean.constants.extractor.ExtractionResultCache;
 import org.glodean.constants.interpreter.ConstantUsageInterpreter;
 import org.glodean.constants.model.UnitConstant;
 
@@ -46,6 +47,23 @@ public class ConstantUsageInterpreterRegistry {
         usages.putAll(value, results);
     }
 
+    /**
+     * Returns a stable description of the registered interpreters, in registration order.
+     *
+     * <p>Each interpreter class is listed with the {@linkplain ExtractionResultCache#buildVersionOf
+     * build} it was loaded from, so two registries with equal fingerprints classify constants
+     * identically and the fingerprint can key cached results.
+     *
+     * @return {@code usageType=interpreterClass@build} entries joined with {@code ;}
+     */
+    public String fingerprint() {
+        StringJoiner joiner = new StringJoiner(";");
+        interpreters.forEach((type, interpreter) -> joiner.add(type.name() + "="
+                + interpreter.getClass().getName() + "@"
+                + ExtractionResultCache.buildVersionOf(interpreter.getClass())));
+        return joiner.toString();
+    }
+
     /**
      * Creates a new {@link Builder} for constructing a {@code ConstantUsageInterpreterRegistry}.
      *
@@ -0,0 +1,62 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.util.function.Function;
+import org.glodean.constants.extractor.ModelExtractor;
+import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.extractor.bytecode.interpreters.AnnotationConstantUsageInterpreter;
+import org.glodean.constants.extractor.bytecode.interpreters.ErrorMessageConstantUsageInterpreter;
+import org.glodean.constants.extractor.bytecode.interpreters.FilePathConstantUsageInterpreter;
+import org.glodean.constants.extractor.bytecode.interpreters.LoggingConstantUsageInterpreter;
+import org.glodean.constants.extractor.bytecode.interpreters.SqlConstantUsageInterpreter;
+import org.glodean.constants.extractor.bytecode.interpreters.UrlResourceConstantUsageInterpreter;
+import org.glodean.constants.model.UnitConstant.UsageType;
+
+/**
+ * Factory for the default bytecode extraction setup shared by the server and the command-line
+ * extractor, so that both classify constants and handle class files the same way.
+ *
+ * <p>Source kinds handled outside this module, such as configuration files, are registered by
+ * the callers next to {@link #registerClassFiles}.
+ */
+public final class DefaultExtractorSource {
+
+  private DefaultExtractorSource() {}
+
+  /**
+   * Returns a registry with the default semantic interpreters: logging, SQL, error-message,
+   * file-path and URL/resource interpreters for method arguments, and the annotation interpreter
+   * for annotation values.
+   *
+   * @return a new immutable registry
+   */
+  public static ConstantUsageInterpreterRegistry interpreterRegistry() {
+    return ConstantUsageInterpreterRegistry.builder()
+        .register(UsageType.METHOD_INVOCATION_PARAMETER, new LoggingConstantUsageInterpreter())
+        .register(UsageType.METHOD_INVOCATION_PARAMETER, new SqlConstantUsageInterpreter())
+        .register(UsageType.METHOD_INVOCATION_PARAMETER, new ErrorMessageConstantUsageInterpreter())
+        .register(UsageType.METHOD_INVOCATION_PARAMETER, new FilePathConstantUsageInterpreter())
+        .register(UsageType.METHOD_INVOCATION_PARAMETER, new UrlResourceConstantUsageInterpreter())
+        .register(UsageType.ANNOTATION_VALUE, new AnnotationConstantUsageInterpreter())
+        .build();
+  }
+
+  /**
+   * Registers {@code classes} for {@code .class} entries as {@link BytecodeSourceKind#CLASS_FILE}.
+   *
+   * <p>The bytes are parsed when the extractor runs rather than when it is resolved, that is on
+   * the analysis worker instead of the thread walking the archive, so a malformed class is
+   * reported as an error of that unit instead of aborting the walk.
+   *
+   * @param builder the repository being built
+   * @param classes creates the extractor of one class file, e.g. a
+   *     {@linkplain ClassModelExtractor#supplier(AnalysisMerger) ClassModelExtractor supplier}
+   * @return {@code builder}, for chaining
+   */
+  public static ModelExtractorSupplierRepository.Builder registerClassFiles(
+      ModelExtractorSupplierRepository.Builder builder, Function<byte[], ModelExtractor> classes) {
+    return builder.register(
+        name -> name.endsWith(".class"),
+        BytecodeSourceKind.CLASS_FILE,
+        bytes -> source -> classes.apply(bytes).extract(source));
+  }
+}
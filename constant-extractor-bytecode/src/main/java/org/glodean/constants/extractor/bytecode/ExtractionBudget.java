@@ -0,0 +1,206 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstants;
+
+/**
+ * Memory budget shared by every {@link ExtractionPool} that bounds how many bytes of extraction
+ * work may be held on the heap at once.
+ *
+ * <p>Two kinds of reservation count against the same capacity:
+ * <ul>
+ *   <li><b>in-flight</b> — the raw bytes of every unit that has been submitted but whose analysis
+ *       has not finished yet (queued tasks keep their {@code byte[]} alive);</li>
+ *   <li><b>retained</b> — an {@linkplain #estimate(Collection) estimate} of the results that have
+ *       been produced but not yet handed back by {@link ExtractionPool#collect()}.</li>
+ * </ul>
+ *
+ * <p>{@link #acquire(long)} blocks the submitting thread while the budget is exhausted, so a chunk
+ * full of huge generated classes is fed to the executor only as fast as memory frees up. To
+ * guarantee progress, a reservation is always granted when nothing is in flight — a single unit
+ * larger than the whole budget is analyzed alone rather than deadlocking, and retained results can
+ * at worst serialize submission, never stop it.
+ *
+ * <p>All methods are thread-safe. A {@link java.util.concurrent.locks.ReentrantLock} is used rather
+ * than monitors so that blocked virtual-thread submitters do not pin their carrier.
+ */
+public final class ExtractionBudget {
+
+  /** Fixed per-unit overhead assumed by {@link #estimate}: descriptor, record headers, set. */
+  private static final long UNIT_OVERHEAD = 128;
+
+  /** Fixed per-constant overhead assumed by {@link #estimate}: record, value box, usage set. */
+  private static final long CONSTANT_OVERHEAD = 96;
+
+  /** Per-usage cost assumed by {@link #estimate}: usage and location records plus metadata map. */
+  private static final long USAGE_OVERHEAD = 192;
+
+  private final long capacity;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final LongAdder waits = new LongAdder();
+  private long inFlight;
+  private long retained;
+
+  /**
+   * Creates a budget.
+   *
+   * @param capacityBytes the number of bytes that may be reserved at once; must be positive
+   */
+  public ExtractionBudget(long capacityBytes) {
+    if (capacityBytes <= 0) {
+      throw new IllegalArgumentException("capacityBytes must be positive");
+    }
+    this.capacity = capacityBytes;
+  }
+
+  /**
+   * Creates a budget sized as a fraction of the JVM's maximum heap ({@link Runtime#maxMemory()}),
+   * so that the same configuration scales with the container it runs in.
+   *
+   * @param heapFraction fraction of the maximum heap, in {@code (0, 1]}
+   * @return a new budget
+   */
+  public static ExtractionBudget ofHeapFraction(double heapFraction) {
+    if (!(heapFraction > 0 && heapFraction <= 1)) {
+      throw new IllegalArgumentException("heapFraction must be in (0, 1]");
+    }
+    return new ExtractionBudget(Math.max(1, (long) (Runtime.getRuntime().maxMemory() * heapFraction)));
+  }
+
+  /**
+   * Reserves {@code bytes} of in-flight budget, blocking while the reservation would exceed the
+   * capacity and other work is still in flight.
+   *
+   * @param bytes the number of input bytes about to be queued for analysis
+   * @throws InterruptedIOException if the calling thread is interrupted while waiting; the
+   *     thread's interrupt flag is restored
+   */
+  public void acquire(long bytes) throws InterruptedIOException {
+    long requested = Math.max(0, bytes);
+    lock.lock();
+    try {
+      if (mustWait(requested)) {
+        waits.increment();
+        do {
+          released.await();
+        } while (mustWait(requested));
+      }
+      inFlight += requested;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for extraction budget");
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Converts a finished unit's in-flight reservation into a retained-results reservation.
+   *
+   * @param inputBytes  the amount previously passed to {@link #acquire(long)}
+   * @param resultBytes the estimated size of the results now held, {@code 0} on failure
+   */
+  void complete(long inputBytes, long resultBytes) {
+    lock.lock();
+    try {
+      inFlight -= Math.max(0, inputBytes);
+      retained += Math.max(0, resultBytes);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases retained-results reservations once the results have been handed to the caller.
+   *
+   * @param resultBytes the sum of the {@code resultBytes} passed to {@link #complete}
+   */
+  void releaseResults(long resultBytes) {
+    if (resultBytes <= 0) {
+      return;
+    }
+    lock.lock();
+    try {
+      retained -= resultBytes;
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The configured capacity in bytes. */
+  public long capacityBytes() {
+    return capacity;
+  }
+
+  /** Bytes reserved for units that are queued or being analyzed. */
+  public long inFlightBytes() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Estimated bytes of results produced but not yet collected. */
+  public long retainedBytes() {
+    lock.lock();
+    try {
+      return retained;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Bytes still available; negative while an oversized unit runs alone. */
+  public long availableBytes() {
+    lock.lock();
+    try {
+      return capacity - inFlight - retained;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Number of {@link #acquire(long)} calls that had to wait for budget. */
+  public long waitCount() {
+    return waits.sum();
+  }
+
+  /**
+   * Rough heap footprint of extraction results: a fixed cost per unit, constant and usage plus
+   * two bytes per character of string values and unit paths. Only used for budgeting, so it
+   * errs on the side of simplicity rather than precision.
+   *
+   * @param results the results of one unit
+   * @return the estimated size in bytes, {@code 0} for {@code null}
+   */
+  public static long estimate(Collection<UnitConstants> results) {
+    if (results == null) {
+      return 0;
+    }
+    long total = 0;
+    for (UnitConstants unit : results) {
+      total += UNIT_OVERHEAD + 2L * unit.source().path().length();
+      for (UnitConstant constant : unit.constants()) {
+        total += CONSTANT_OVERHEAD + (long) USAGE_OVERHEAD * constant.usages().size();
+        if (constant.value() instanceof String s) {
+          total += 2L * s.length();
+        }
+      }
+    }
+    return total;
+  }
+
+  private boolean mustWait(long requested) {
+    return inFlight > 0 && inFlight + retained + requested > capacity;
+  }
+}
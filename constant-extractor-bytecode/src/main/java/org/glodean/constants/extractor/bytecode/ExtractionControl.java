@@ -0,0 +1,34 @@
+package org.glodean.constants.extractor.bytecode;
+
+/**
+ * Lets the consumer of a streaming extraction pace and abort it, see
+ * {@link BytecodeModelExtractor#extract(org.glodean.constants.model.UnitDescriptor,
+ * java.util.function.Consumer, ExtractionControl)}.
+ *
+ * <p>Pacing happens on the feeding thread, before a unit is read or submitted, so analysis
+ * workers — which may belong to a pool shared with other extractions — never wait for the
+ * consumer. The sink itself must not block.
+ */
+public interface ExtractionControl {
+
+  /**
+   * Whether the consumer has gone away. Once {@code true}, no further units are read or
+   * submitted, and submitted units that have not started their analysis yet are skipped.
+   */
+  boolean cancelled();
+
+  /**
+   * Called on the feeding thread before each unit is submitted; blocks while the consumer is
+   * behind. Every admitted unit is later reported through {@link #unitDone()}.
+   *
+   * @return {@code false} if the extraction was cancelled meanwhile; the unit is then dropped
+   * @throws InterruptedException if the feeding thread is interrupted while waiting
+   */
+  boolean admit() throws InterruptedException;
+
+  /**
+   * Called once per admitted unit when it is done — analyzed, skipped or failed — after its
+   * results, if any, were passed to the sink. May be called from any thread.
+   */
+  void unitDone();
+}
@@ -1,18 +1,24 @@
 package org.glodean.constants.extractor.bytecode;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.glodean.constants.extractor.ExtractionNotifier;
@@ -37,48 +43,270 @@ import org.glodean.constants.model.UnitDescriptor;
  * <p>{@link BytecodeModelExtractor} uses this class for both its FileSystem and ZipInputStream
  * modes so that executor lifecycle, {@link ClassModelExtractor} construction, progress tracking,
  * and error handling all live in one place.
+ *
+ * <p>When created with an {@link ExtractionBudget}, {@link #submit} blocks until the unit's
+ * {@linkplain UnitDescriptor#sizeBytes() size} fits into the budget; each finished task trades its
+ * input reservation for an estimate of its results, which is released by {@link #collect()}.
+ *
+ * <p>When created with a result sink, each task hands its results to the sink on the worker
+ * thread as soon as the unit is done instead of keeping them for {@link #collect()}, which then
+ * only waits for completion. Streamed results are not held by the pool, so they do not count
+ * against the budget once handed over.
+ *
+ * <p>When created over {@link ExtractionStages}, feeders may submit units unread; they are then
+ * read on the I/O stage and analyzed on the CPU stage instead of being read one after another
+ * by the feeding thread.
+ *
+ * <p>When created with an {@link ExtractionControl}, {@link #submit} first waits for the control
+ * to admit the unit, and drops it once the control is cancelled; feeders stop reading as soon as
+ * {@link #cancelled()}. Units that were submitted but have not started are skipped rather than
+ * analyzed, so {@link #collect()} returns promptly after a cancellation.
  */
 final class ExtractionPool {
 
   private final ExecutorService executor;
+  private final ExtractionStages stages; // null = units are read by the submitting thread
   private final ExtractionNotifier notifier;
+  private final ExtractionBudget budget; // null = unbounded
+  private final Consumer<UnitConstants> sink; // null = keep results for collect()
+  private final ExtractionControl control; // null = never paced nor cancelled
+  private long retainedBytes; // guarded by this
+  private boolean collected; // guarded by this
   private final List<Future<Collection<UnitConstants>>> futures = new ArrayList<>();
   private final LongAdder processedCounter = new LongAdder();
   private final LongAdder errorCount = new LongAdder();
   private final Map<Class<?>, Integer> exceptions = new ConcurrentHashMap<>();
 
   ExtractionPool(ExecutorService executor, ExtractionNotifier notifier) {
+    this(executor, notifier, null);
+  }
+
+  ExtractionPool(ExecutorService executor, ExtractionNotifier notifier, ExtractionBudget budget) {
+    this(executor, notifier, budget, null);
+  }
+
+  /**
+   * Creates a pool that streams results to {@code sink} ({@code null} keeps them for
+   * {@link #collect()}). The sink is called concurrently from worker threads.
+   */
+  ExtractionPool(
+      ExecutorService executor, ExtractionNotifier notifier, ExtractionBudget budget,
+      Consumer<UnitConstants> sink) {
+    this(executor, notifier, budget, sink, null);
+  }
+
+  /**
+   * Same as {@link #ExtractionPool(ExecutorService, ExtractionNotifier, ExtractionBudget,
+   * Consumer)}, paced and cancelled by {@code control} ({@code null} = never).
+   */
+  ExtractionPool(
+      ExecutorService executor, ExtractionNotifier notifier, ExtractionBudget budget,
+      Consumer<UnitConstants> sink, ExtractionControl control) {
+    this(executor, null, notifier, budget, sink, control);
+  }
+
+  /**
+   * Creates a pool over two {@link ExtractionStages}: analysis runs on their CPU executor, and
+   * units submitted through {@link #submit(Path, long, UnitReader)} are read on their I/O stage.
+   */
+  ExtractionPool(
+      ExtractionStages stages, ExtractionNotifier notifier, ExtractionBudget budget,
+      Consumer<UnitConstants> sink) {
+    this(stages, notifier, budget, sink, null);
+  }
+
+  /**
+   * Same as {@link #ExtractionPool(ExtractionStages, ExtractionNotifier, ExtractionBudget,
+   * Consumer)}, paced and cancelled by {@code control} ({@code null} = never).
+   */
+  ExtractionPool(
+      ExtractionStages stages, ExtractionNotifier notifier, ExtractionBudget budget,
+      Consumer<UnitConstants> sink, ExtractionControl control) {
+    this(stages.cpuExecutor(), stages, notifier, budget, sink, control);
+  }
+
+  private ExtractionPool(
+      ExecutorService executor, ExtractionStages stages, ExtractionNotifier notifier,
+      ExtractionBudget budget, Consumer<UnitConstants> sink, ExtractionControl control) {
     this.executor = executor;
+    this.stages = stages;
     this.notifier = notifier;
-    int threadCount = executor instanceof ThreadPoolExecutor tpe
-        ? tpe.getCorePoolSize()
-        : Runtime.getRuntime().availableProcessors();
+    this.budget = budget;
+    this.sink = sink;
+    this.control = control;
+    int threadCount = switch (executor) {
+      case ThreadPoolExecutor tpe -> tpe.getCorePoolSize();
+      case ForkJoinPool fjp -> fjp.getParallelism();
+      default -> Runtime.getRuntime().availableProcessors();
+    };
     notifier.onExtractionStarted(threadCount);
   }
 
   /**
    * Submits pre-read {@code .class} bytes for bytecode analysis.
    * {@code name} is used only for logging/notifications.
+   *
+   * <p>Blocks while the pool's control withholds admission or its budget is exhausted. If the
+   * calling thread is interrupted while waiting, the unit is not analyzed and is reported as a
+   * failed future by {@link #collect()}; if the control is cancelled, it is dropped.
    */
   void submit(Supplier<ModelExtractor> extractor, Path name, UnitDescriptor source) {
-    futures.add(executor.submit(() -> {
-      notifier.onProcessingClass(name);
-      try {
-        return extractor.get().extract(source);
-      } catch (Exception e) {
-        notifier.onProcessingError(name, e);
-        throw e;
-      } finally {
-        processedCounter.increment();
-        long count = processedCounter.sum();
-        if (count % 1000 == 0) notifier.onProgressUpdate(count);
+    long inputBytes = source.sizeBytes();
+    if (!admit()) return;
+    if (!reserve(inputBytes)) {
+      unitDone();
+      return;
+    }
+    futures.add(executor.submit(() -> analyze(extractor, name, source, inputBytes)));
+  }
+
+  /**
+   * A unit whose bytes have been read and resolved, ready for analysis.
+   *
+   * @param extractor supplies the extractor for the unit's bytes
+   * @param source    the unit's descriptor
+   */
+  record ReadUnit(Supplier<ModelExtractor> extractor, UnitDescriptor source) {}
+
+  /** Reads one unit on the I/O stage; empty if no extractor is registered for it. */
+  @FunctionalInterface
+  interface UnitReader {
+    Optional<ReadUnit> read() throws IOException;
+  }
+
+  /** Whether units can be submitted unread; see {@link #submit(Path, long, UnitReader)}. */
+  boolean staged() {
+    return stages != null;
+  }
+
+  /**
+   * Submits a unit that is read on the I/O stage of the pool's {@link ExtractionStages} and
+   * analyzed on its CPU stage. Only valid when {@link #staged()}.
+   *
+   * <p>Blocks while the budget is exhausted or the I/O stage is saturated. {@code sizeBytes} —
+   * the unit's size as declared before reading, e.g. by a ZIP central directory — is what is
+   * reserved against the budget, since the bytes are not known yet.
+   *
+   * @param name      used only for logging/notifications
+   * @param sizeBytes the declared size of the unit
+   * @param reader    reads and resolves the unit
+   */
+  void submit(Path name, long sizeBytes, UnitReader reader) {
+    if (!admit()) return;
+    if (!reserve(sizeBytes)) {
+      unitDone();
+      return;
+    }
+    try {
+      futures.add(stages.submit(() -> {
+        if (cancelled()) {
+          release(sizeBytes);
+          unitDone();
+          return null;
+        }
+        Optional<ReadUnit> unit;
+        try {
+          unit = reader.read();
+        } catch (Exception e) {
+          notifier.onProcessingError(name, e);
+          release(sizeBytes);
+          processedCounter.increment();
+          unitDone();
+          throw e;
+        }
+        if (unit.isEmpty()) {
+          release(sizeBytes);
+          unitDone();
+          return null;
+        }
+        ReadUnit read = unit.get();
+        return () -> analyze(read.extractor(), name, read.source(), sizeBytes);
+      }));
+    } catch (InterruptedIOException e) {
+      release(sizeBytes);
+      unitDone();
+      futures.add(CompletableFuture.failedFuture(e));
+    }
+  }
+
+  /** Whether the pool's control has been cancelled; feeders stop reading units once it is. */
+  boolean cancelled() {
+    return control != null && control.cancelled();
+  }
+
+  /**
+   * Waits for the control, if any, to admit one more unit. On interruption, records a failed
+   * future; returns {@code false} then and once the control is cancelled.
+   */
+  private boolean admit() {
+    if (control == null) return true;
+    try {
+      return control.admit();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      futures.add(CompletableFuture.failedFuture(
+          new InterruptedIOException("Interrupted while waiting for the consumer")));
+      return false;
+    }
+  }
+
+  private void unitDone() {
+    if (control != null) control.unitDone();
+  }
+
+  /**
+   * Reserves {@code bytes} of the budget, if any. On interruption, records a failed future and
+   * returns {@code false}.
+   */
+  private boolean reserve(long bytes) {
+    if (budget == null) return true;
+    try {
+      budget.acquire(bytes);
+      return true;
+    } catch (InterruptedIOException e) {
+      futures.add(CompletableFuture.failedFuture(e));
+      return false;
+    }
+  }
+
+  private void release(long inputBytes) {
+    if (budget != null) budget.complete(inputBytes, 0);
+  }
+
+  /** Analyzes one unit on a worker thread; the analysis task of both submission paths. */
+  private Collection<UnitConstants> analyze(
+      Supplier<ModelExtractor> extractor, Path name, UnitDescriptor source, long inputBytes)
+      throws Exception {
+    if (cancelled()) {
+      release(inputBytes);
+      unitDone();
+      return List.of();
+    }
+    notifier.onProcessingClass(name);
+    long resultBytes = 0;
+    try {
+      Collection<UnitConstants> result = extractor.get().extract(source);
+      if (sink != null) {
+        result.forEach(sink);
+        return List.of();
       }
-    }));
+      if (budget != null) resultBytes = ExtractionBudget.estimate(result);
+      return result;
+    } catch (Exception e) {
+      notifier.onProcessingError(name, e);
+      throw e;
+    } finally {
+      if (budget != null) retain(inputBytes, resultBytes);
+      unitDone();
+      processedCounter.increment();
+      long count = processedCounter.sum();
+      if (count % 1000 == 0) notifier.onProgressUpdate(count);
+    }
   }
 
   /**
-   * Blocks until all submitted tasks complete, then returns the aggregated results.
-   * Also fires {@link ExtractionNotifier#onExtractionCompleted}.
+   * Blocks until all submitted tasks complete, then returns the aggregated results (empty when
+   * results were streamed to a sink). Also fires {@link ExtractionNotifier#onExtractionCompleted}.
    */
   Collection<UnitConstants> collect() {
     Queue<UnitConstants> result = new ConcurrentLinkedQueue<>();
@@ -96,7 +324,31 @@ final class ExtractionPool {
         notifier.onFutureFailure(e);
       }
     }
+    if (budget != null) releaseRetained();
     notifier.onExtractionCompleted(processedCounter.sum(), errorCount.sum(), exceptions);
     return result;
   }
+
+  /**
+   * Moves a finished task's reservation from in-flight to retained. Results of tasks that finish
+   * after {@link #collect()} gave up on them (interrupted caller) are released straight away.
+   */
+  private void retain(long inputBytes, long resultBytes) {
+    boolean late;
+    synchronized (this) {
+      late = collected;
+      if (!late) retainedBytes += resultBytes;
+    }
+    budget.complete(inputBytes, resultBytes);
+    if (late) budget.releaseResults(resultBytes);
+  }
+
+  private void releaseRetained() {
+    long bytes;
+    synchronized (this) {
+      collected = true;
+      bytes = retainedBytes;
+    }
+    budget.releaseResults(bytes);
+  }
 }
@@ -0,0 +1,207 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-stage execution profile for {@link BytecodeModelExtractor}: an I/O stage that reads,
+ * inflates and resolves units (including the content hash of a result cache lookup), and a CPU
+ * stage that analyzes them, connected by a bounded hand-off queue.
+ *
+ * <p>Without stages, one feeder thread reads every entry in turn and only analysis is parallel,
+ * so inflating and hashing a large archive can leave analysis workers idle. With stages, up to
+ * {@code ioConcurrency} units are read at once on the I/O executor — typically virtual threads —
+ * while the CPU executor, sized to the cores, analyzes those already read. A read unit waits for
+ * a CPU worker in a queue of at most {@code queueCapacity} units; when it is full, readers block
+ * without giving up their read slot, and when all {@code ioConcurrency} slots are taken, the
+ * feeder blocks. So while analysis falls behind, at most {@code ioConcurrency + queueCapacity}
+ * units are held between the stages. The {@link ExtractionBudget}, if any, still bounds the bytes
+ * of all of them together.
+ *
+ * <p>The stages do not own their executors; whoever created them shuts them down. All methods are
+ * thread-safe, and the counters are meant for metrics: {@link #queueDepth()},
+ * {@link #activeReads()} and {@link #activeAnalyses()} are instantaneous, {@link #readNanos()}
+ * and {@link #analysisNanos()} accumulate the time each stage spent busy.
+ */
+public final class ExtractionStages {
+
+  private final ExecutorService ioExecutor;
+  private final ExecutorService cpuExecutor;
+  private final int ioConcurrency;
+  private final int queueCapacity;
+  private final Semaphore readSlots;
+  private final Semaphore queueSlots;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger reading = new AtomicInteger();
+  private final AtomicInteger analyzing = new AtomicInteger();
+  private final LongAdder readNanos = new LongAdder();
+  private final LongAdder analysisNanos = new LongAdder();
+
+  /**
+   * Creates the stages.
+   *
+   * @param ioExecutor    runs the read stage; virtual threads suit it, as readers block on the
+   *                      queue
+   * @param ioConcurrency maximum number of units being read at once; must be positive
+   * @param cpuExecutor   runs the analysis stage
+   * @param queueCapacity maximum number of read units waiting for a CPU worker; must be positive
+   */
+  public ExtractionStages(
+      ExecutorService ioExecutor, int ioConcurrency,
+      ExecutorService cpuExecutor, int queueCapacity) {
+    if (ioConcurrency <= 0) {
+      throw new IllegalArgumentException("ioConcurrency must be positive");
+    }
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("queueCapacity must be positive");
+    }
+    this.ioExecutor = ioExecutor;
+    this.cpuExecutor = cpuExecutor;
+    this.ioConcurrency = ioConcurrency;
+    this.queueCapacity = queueCapacity;
+    this.readSlots = new Semaphore(ioConcurrency);
+    this.queueSlots = new Semaphore(queueCapacity);
+  }
+
+  /** The executor of the analysis stage. */
+  public ExecutorService cpuExecutor() {
+    return cpuExecutor;
+  }
+
+  /** The configured maximum number of concurrent reads. */
+  public int ioConcurrency() {
+    return ioConcurrency;
+  }
+
+  /** The configured capacity of the hand-off queue. */
+  public int queueCapacity() {
+    return queueCapacity;
+  }
+
+  /** The number of CPU-stage workers, as far as the executor type reveals it. */
+  public int cpuThreads() {
+    return switch (cpuExecutor) {
+      case ThreadPoolExecutor tpe -> tpe.getMaximumPoolSize();
+      case ForkJoinPool fjp -> fjp.getParallelism();
+      default -> Runtime.getRuntime().availableProcessors();
+    };
+  }
+
+  /** Read units currently waiting for a CPU worker. */
+  public int queueDepth() {
+    return queued.get();
+  }
+
+  /** Units currently being read. */
+  public int activeReads() {
+    return reading.get();
+  }
+
+  /** Units currently being analyzed. */
+  public int activeAnalyses() {
+    return analyzing.get();
+  }
+
+  /** Total time spent reading units, in nanoseconds. */
+  public long readNanos() {
+    return readNanos.sum();
+  }
+
+  /** Total time spent analyzing units, in nanoseconds. */
+  public long analysisNanos() {
+    return analysisNanos.sum();
+  }
+
+  /**
+   * Runs {@code read} on the I/O stage, then the analysis it returns on the CPU stage. Blocks the
+   * caller while {@link #ioConcurrency()} units hold a read slot. A unit keeps its read slot until
+   * its analysis has a queue slot and was accepted by the CPU executor, so readers cannot run
+   * ahead of a full queue.
+   *
+   * @param read reads a unit and returns its analysis, or {@code null} if there is nothing to
+   *     analyze
+   * @return the analysis result, {@code null} if {@code read} returned {@code null}
+   * @throws InterruptedIOException if the caller is interrupted while waiting; the thread's
+   *     interrupt flag is restored
+   */
+  <T> Future<T> submit(Callable<? extends Callable<T>> read) throws InterruptedIOException {
+    try {
+      readSlots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a read slot");
+    }
+    try {
+      return ioExecutor.submit(() -> {
+        Future<T> result;
+        try {
+          Callable<T> analysis = timedRead(read);
+          if (analysis == null) {
+            return null;
+          }
+          result = enqueue(analysis);
+        } finally {
+          readSlots.release();
+        }
+        return await(result);
+      });
+    } catch (RuntimeException e) {
+      readSlots.release();
+      throw e;
+    }
+  }
+
+  /** Runs {@code read}, counting it as an active read and adding its duration to the I/O time. */
+  private <T> Callable<T> timedRead(Callable<? extends Callable<T>> read) throws Exception {
+    reading.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      return read.call();
+    } finally {
+      readNanos.add(System.nanoTime() - start);
+      reading.decrementAndGet();
+    }
+  }
+
+  /** Queues {@code analysis} for the CPU stage, blocking while the queue is full. */
+  private <T> Future<T> enqueue(Callable<T> analysis) throws InterruptedException {
+    queueSlots.acquire();
+    queued.incrementAndGet();
+    try {
+      return cpuExecutor.submit(() -> {
+        queued.decrementAndGet();
+        queueSlots.release();
+        analyzing.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+          return analysis.call();
+        } finally {
+          analysisNanos.add(System.nanoTime() - start);
+          analyzing.decrementAndGet();
+        }
+      });
+    } catch (RuntimeException e) {
+      queued.decrementAndGet();
+      queueSlots.release();
+      throw e;
+    }
+  }
+
+  /** Waits for an analysis queued by {@link #enqueue}, rethrowing what it threw. */
+  private static <T> T await(Future<T> result) throws Exception {
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception cause) throw cause;
+      throw e;
+    }
+  }
+}
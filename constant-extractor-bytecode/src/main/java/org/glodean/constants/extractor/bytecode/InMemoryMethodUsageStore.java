@@ -0,0 +1,73 @@
+package org.glodean.constants.extractor.bytecode;
+
+import com.google.common.collect.Multimap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
+
+/**
+ * {@link MethodUsageStore} backed by a bounded in-heap LRU map.
+ *
+ * <p>The store lives as long as the process: a redeployment starts empty, so unlike the class
+ * result cache it needs no version key to be invalidated when extraction logic changes.
+ */
+public final class InMemoryMethodUsageStore implements MethodUsageStore {
+
+  private final Map<String, Multimap<Object, ConstantUsage>> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates a store.
+   *
+   * @param maxEntries maximum number of methods kept (least recently used evicted)
+   */
+  public InMemoryMethodUsageStore(int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    }
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<String, Multimap<Object, ConstantUsage>> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public Optional<Multimap<Object, ConstantUsage>> get(String fingerprint) {
+    Multimap<Object, ConstantUsage> found;
+    synchronized (entries) {
+      found = entries.get(fingerprint);
+    }
+    (found == null ? misses : hits).incrementAndGet();
+    return Optional.ofNullable(found);
+  }
+
+  @Override
+  public void put(String fingerprint, Multimap<Object, ConstantUsage> usages) {
+    synchronized (entries) {
+      entries.put(fingerprint, usages);
+    }
+  }
+
+  /** Number of methods whose usages were found in the store. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Number of methods that had to be analyzed. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Number of methods currently held. */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+}
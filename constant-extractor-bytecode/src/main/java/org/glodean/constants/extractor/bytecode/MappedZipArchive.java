@@ -0,0 +1,411 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only ZIP archive backed by a {@link MemorySegment}, typically a memory-mapped JAR file.
+ *
+ * <p>The central directory is parsed once when the archive is opened; entry data is never
+ * touched until {@link #readAllBytes} or {@link #nested} asks for it. Entry bytes are sliced out
+ * of the mapping, so a {@code STORED} nested JAR (the Spring Boot {@code BOOT-INF/lib} layout) is
+ * opened in place by offset without being copied. Only {@code DEFLATED} entries are inflated onto
+ * the heap.
+ *
+ * <p>ZIP64 archives and archives with a prefix (e.g. a launch script prepended to an executable
+ * JAR) are supported; encrypted entries and compression methods other than {@code STORED} and
+ * {@code DEFLATED} are rejected when read.
+ *
+ * <p>An archive opened with {@link #map(Path)} owns its mapping and unmaps it on {@link #close()};
+ * every archive returned by {@link #nested} shares that mapping and must not be used afterwards.
+ * Instances are safe for concurrent reads.
+ */
+public final class MappedZipArchive implements AutoCloseable {
+
+  private static final ValueLayout.OfShort U16 =
+      ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfInt U32 =
+      ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfLong U64 =
+      ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private static final int LOC_SIG = 0x04034b50;
+  private static final int CEN_SIG = 0x02014b50;
+  private static final int END_SIG = 0x06054b50;
+  private static final int ZIP64_END_SIG = 0x06064b50;
+  private static final int ZIP64_LOC_SIG = 0x07064b50;
+  private static final int LOC_HEADER = 30;
+  private static final int CEN_HEADER = 46;
+  private static final int END_HEADER = 22;
+  private static final int ZIP64_LOC_HEADER = 20;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+  private static final long MAX_COMMENT = 0xFFFF;
+  private static final int FLAG_ENCRYPTED = 0x1;
+  private static final int INFLATE_WINDOW = 64 * 1024;
+
+  /**
+   * One central-directory record.
+   *
+   * @param name              entry name as stored, e.g. {@code com/example/Foo.class}
+   * @param method            {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED} (others rejected)
+   * @param flags             general-purpose bit flags
+   * @param crc               CRC-32 of the uncompressed data
+   * @param compressedSize    size of the stored data
+   * @param size              uncompressed size
+   * @param localHeaderOffset offset of the local file header within the archive
+   */
+  public record Entry(
+      String name,
+      int method,
+      int flags,
+      long crc,
+      long compressedSize,
+      long size,
+      long localHeaderOffset) {
+
+    /** Whether this entry is a directory marker rather than a file. */
+    public boolean isDirectory() {
+      return name.endsWith("/");
+    }
+
+    /** The last path segment of {@link #name()}. */
+    public String fileName() {
+      String trimmed = isDirectory() ? name.substring(0, name.length() - 1) : name;
+      return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * The entry's path in the form a ZIP {@link java.nio.file.FileSystem} reports it
+     * ({@code /com/example/Foo.class}), so descriptors match those built from file-system walks.
+     */
+    public String path() {
+      return name.startsWith("/") ? name : "/" + name;
+    }
+
+    /** Central-directory fingerprint; see {@link MappedZipArchive#fingerprint(long, long)}. */
+    public String fingerprint() {
+      return MappedZipArchive.fingerprint(crc, size);
+    }
+  }
+
+  private final MemorySegment content;
+  private final Arena arena; // null for archives that do not own their memory
+  private final List<Entry> entries;
+
+  private MappedZipArchive(MemorySegment content, Arena arena) throws ZipException {
+    this.content = content;
+    this.arena = arena;
+    this.entries = Collections.unmodifiableList(readCentralDirectory(content));
+  }
+
+  /**
+   * Memory-maps {@code file} and parses its central directory.
+   *
+   * @param file a ZIP/JAR file
+   * @return an archive that owns the mapping until {@link #close()}
+   * @throws IOException if the file cannot be mapped or is not a ZIP archive
+   */
+  public static MappedZipArchive map(Path file) throws IOException {
+    Arena arena = Arena.ofShared();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+      return new MappedZipArchive(mapped, arena);
+    } catch (IOException | RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Parses an archive held in memory the caller owns (e.g. {@link MemorySegment#ofArray}).
+   *
+   * @param content the complete archive bytes
+   * @return an archive over {@code content}; {@link #close()} is a no-op
+   * @throws ZipException if {@code content} is not a ZIP archive
+   */
+  public static MappedZipArchive of(MemorySegment content) throws ZipException {
+    return new MappedZipArchive(content, null);
+  }
+
+  /**
+   * Formats the content fingerprint recorded for an entry: {@code crc32:<crc>:<size>}.
+   *
+   * <p>CRC-32 plus uncompressed size is not collision-proof, but it is what the archive itself
+   * records and is enough to recognise an unchanged entry between two builds of the same JAR.
+   *
+   * @param crc  CRC-32 of the uncompressed data
+   * @param size uncompressed size in bytes
+   * @return the fingerprint string
+   */
+  public static String fingerprint(long crc, long size) {
+    return "crc32:%08x:%d".formatted(crc, size);
+  }
+
+  /** All central-directory entries, directories included, in directory order. */
+  public List<Entry> entries() {
+    return entries;
+  }
+
+  /** The whole archive; a slice of the parent mapping for nested archives. */
+  public MemorySegment content() {
+    return content;
+  }
+
+  /**
+   * Returns the uncompressed bytes of {@code entry}. {@code STORED} entries are copied straight
+   * out of the mapping; {@code DEFLATED} entries are inflated into a buffer of the exact size.
+   *
+   * @param entry an entry of this archive
+   * @return a new array holding the entry's data
+   * @throws IOException if the entry is corrupt, encrypted or uses an unsupported method
+   */
+  public byte[] readAllBytes(Entry entry) throws IOException {
+    MemorySegment data = rawData(entry);
+    if (entry.method() == ZipEntry.STORED) {
+      return data.toArray(ValueLayout.JAVA_BYTE);
+    }
+    return inflate(entry, data);
+  }
+
+  /**
+   * Opens a JAR stored inside this archive. A {@code STORED} entry is parsed in place, sharing
+   * this archive's memory; a {@code DEFLATED} one is inflated onto the heap first.
+   *
+   * @param entry an entry of this archive holding a ZIP/JAR
+   * @return the nested archive; closing it is a no-op
+   * @throws IOException if the entry cannot be read or is not a ZIP archive
+   */
+  public MappedZipArchive nested(Entry entry) throws IOException {
+    MemorySegment data = rawData(entry);
+    if (entry.method() == ZipEntry.STORED) {
+      return of(data);
+    }
+    return of(MemorySegment.ofArray(inflate(entry, data)));
+  }
+
+  /** Unmaps the file if this archive owns the mapping. */
+  @Override
+  public void close() {
+    if (arena != null) {
+      arena.close();
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // Entry data
+  // -------------------------------------------------------------------------
+
+  private MemorySegment rawData(Entry entry) throws ZipException {
+    if ((entry.flags() & FLAG_ENCRYPTED) != 0) {
+      throw new ZipException("Encrypted entry not supported: " + entry.name());
+    }
+    if (entry.method() != ZipEntry.STORED && entry.method() != ZipEntry.DEFLATED) {
+      throw new ZipException(
+          "Unsupported compression method " + entry.method() + ": " + entry.name());
+    }
+    long loc = entry.localHeaderOffset();
+    if (loc < 0 || loc + LOC_HEADER > content.byteSize() || u32(loc) != LOC_SIG) {
+      throw new ZipException("Invalid local header for entry: " + entry.name());
+    }
+    long dataStart = loc + LOC_HEADER + u16(loc + 26) + u16(loc + 28);
+    if (dataStart + entry.compressedSize() > content.byteSize()) {
+      throw new ZipException("Entry extends past end of archive: " + entry.name());
+    }
+    return content.asSlice(dataStart, entry.compressedSize());
+  }
+
+  private static byte[] inflate(Entry entry, MemorySegment data) throws ZipException {
+    if (entry.size() > Integer.MAX_VALUE - 8) {
+      throw new ZipException("Entry too large to inflate: " + entry.name());
+    }
+    byte[] out = new byte[(int) entry.size()];
+    // Buffers over a closeable shared mapping cannot be handed to the Inflater directly, so the
+    // compressed bytes are fed through a small window instead of being copied as a whole.
+    byte[] window = new byte[(int) Math.min(data.byteSize(), INFLATE_WINDOW)];
+    Inflater inflater = new Inflater(true);
+    try {
+      long consumed = 0;
+      int off = 0;
+      while (off < out.length) {
+        if (inflater.needsInput()) {
+          int n = (int) Math.min(window.length, data.byteSize() - consumed);
+          if (n == 0) {
+            throw new ZipException("Truncated deflated data for entry: " + entry.name());
+          }
+          MemorySegment.copy(data, ValueLayout.JAVA_BYTE, consumed, window, 0, n);
+          consumed += n;
+          inflater.setInput(window, 0, n);
+        }
+        int produced = inflater.inflate(out, off, out.length - off);
+        if (produced == 0 && !inflater.needsInput()) {
+          throw new ZipException("Corrupt deflated data for entry: " + entry.name());
+        }
+        off += produced;
+      }
+      return out;
+    } catch (DataFormatException e) {
+      throw new ZipException("Corrupt deflated data for entry " + entry.name() + ": " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // Central directory
+  // -------------------------------------------------------------------------
+
+  private static List<Entry> readCentralDirectory(MemorySegment zip) throws ZipException {
+    long end = findEndRecord(zip);
+    long count = u16(zip, end + 10);
+    long cenSize = u32u(zip, end + 12);
+    long cenOffset = u32u(zip, end + 16);
+    long cenEnd = end;
+
+    if (count == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+      long locator = end - ZIP64_LOC_HEADER;
+      if (locator >= 0 && u32(zip, locator) == ZIP64_LOC_SIG) {
+        long zip64End = u64(zip, locator + 8);
+        // The locator records an absolute offset; allow for a prefix by searching backwards.
+        long expected = locator - 56;
+        if (expected >= 0 && u32(zip, expected) == ZIP64_END_SIG) {
+          zip64End = expected;
+        }
+        if (zip64End < 0 || zip64End + 56 > zip.byteSize() || u32(zip, zip64End) != ZIP64_END_SIG) {
+          throw new ZipException("Invalid ZIP64 end of central directory record");
+        }
+        count = u64(zip, zip64End + 32);
+        cenSize = u64(zip, zip64End + 40);
+        cenOffset = u64(zip, zip64End + 48);
+        cenEnd = zip64End;
+      }
+    }
+
+    // Bytes prepended to the archive (launch scripts) shift every recorded offset.
+    long prefix = cenEnd - cenSize - cenOffset;
+    if (prefix < 0) {
+      throw new ZipException("Invalid central directory offset");
+    }
+    long pos = cenOffset + prefix;
+    long limit = pos + cenSize;
+    List<Entry> entries = new ArrayList<>((int) Math.min(count, 1 << 16));
+    while (pos + CEN_HEADER <= limit) {
+      if (u32(zip, pos) != CEN_SIG) {
+        throw new ZipException("Invalid central directory header at offset " + pos);
+      }
+      int flags = u16(zip, pos + 8);
+      int method = u16(zip, pos + 10);
+      long crc = u32u(zip, pos + 16);
+      long compressedSize = u32u(zip, pos + 20);
+      long size = u32u(zip, pos + 24);
+      int nameLength = u16(zip, pos + 28);
+      int extraLength = u16(zip, pos + 30);
+      int commentLength = u16(zip, pos + 32);
+      long localHeaderOffset = u32u(zip, pos + 42);
+
+      long nameStart = pos + CEN_HEADER;
+      if (nameStart + nameLength + extraLength > limit) {
+        throw new ZipException("Central directory entry extends past directory end");
+      }
+      // UTF-8 regardless of the language-encoding flag, as ZipFile and the ZIP file system do.
+      String name = new String(
+          zip.asSlice(nameStart, nameLength).toArray(ValueLayout.JAVA_BYTE),
+          StandardCharsets.UTF_8);
+
+      if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL
+          || localHeaderOffset == 0xFFFFFFFFL) {
+        long[] widened = readZip64Extra(
+            zip, nameStart + nameLength, extraLength, size, compressedSize, localHeaderOffset);
+        size = widened[0];
+        compressedSize = widened[1];
+        localHeaderOffset = widened[2];
+      }
+
+      entries.add(new Entry(
+          name, method, flags, crc, compressedSize, size, localHeaderOffset + prefix));
+      pos = nameStart + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  private static long[] readZip64Extra(
+      MemorySegment zip, long extraStart, int extraLength,
+      long size, long compressedSize, long localHeaderOffset) {
+    long pos = extraStart;
+    long extraEnd = extraStart + extraLength;
+    while (pos + 4 <= extraEnd) {
+      int id = u16(zip, pos);
+      int length = u16(zip, pos + 2);
+      long field = pos + 4;
+      if (id == ZIP64_EXTRA_ID) {
+        // Only the fields whose 32-bit value overflowed are present, in this order.
+        if (size == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+          size = u64(zip, field);
+          field += 8;
+        }
+        if (compressedSize == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+          compressedSize = u64(zip, field);
+          field += 8;
+        }
+        if (localHeaderOffset == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+          localHeaderOffset = u64(zip, field);
+        }
+        break;
+      }
+      pos = field + length;
+    }
+    return new long[] {size, compressedSize, localHeaderOffset};
+  }
+
+  private static long findEndRecord(MemorySegment zip) throws ZipException {
+    long last = zip.byteSize() - END_HEADER;
+    long first = Math.max(0, last - MAX_COMMENT);
+    for (long pos = last; pos >= first; pos--) {
+      if (u32(zip, pos) == END_SIG && pos + END_HEADER + u16(zip, pos + 20) <= zip.byteSize()) {
+        return pos;
+      }
+    }
+    throw new ZipException("End of central directory record not found");
+  }
+
+  // -------------------------------------------------------------------------
+  // Little-endian readers
+  // -------------------------------------------------------------------------
+
+  private int u16(long offset) {
+    return u16(content, offset);
+  }
+
+  private int u32(long offset) {
+    return u32(content, offset);
+  }
+
+  private static int u16(MemorySegment zip, long offset) {
+    return Short.toUnsignedInt(zip.get(U16, offset));
+  }
+
+  private static int u32(MemorySegment zip, long offset) {
+    return zip.get(U32, offset);
+  }
+
+  private static long u32u(MemorySegment zip, long offset) {
+    return Integer.toUnsignedLong(zip.get(U32, offset));
+  }
+
+  private static long u64(MemorySegment zip, long offset) {
+    return zip.get(U64, offset);
+  }
+}
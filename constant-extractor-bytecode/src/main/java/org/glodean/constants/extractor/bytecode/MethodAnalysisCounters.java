@@ -0,0 +1,55 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what happened to the methods seen by the {@link ClassModelExtractor}s of one
+ * {@linkplain ClassModelExtractor#supplier(AnalysisMerger, StateRetention, int, MethodUsageStore,
+ * MethodAnalysisCounters) supplier}: analyzed, skipped by the pre-scan
+ * ({@link AnalysisMerger#mayProduceUsages}), or reused from the {@link MethodUsageStore}.
+ *
+ * <p>An instance is shared by every extractor it is passed to, the way an
+ * {@link ExtractionBudget} is shared by the pools it bounds, so two repositories in the same JVM
+ * (a server and an embedded CLI run, or two tests) keep separate counts. All methods are
+ * thread-safe.
+ */
+public final class MethodAnalysisCounters {
+
+  private final LongAdder analyzed = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder reused = new LongAdder();
+
+  void analyzed() {
+    analyzed.increment();
+  }
+
+  void skipped() {
+    skipped.increment();
+  }
+
+  void reused() {
+    reused.increment();
+  }
+
+  /** Number of methods whose dataflow analysis has run. */
+  public long analyzedMethodCount() {
+    return analyzed.sum();
+  }
+
+  /** Number of methods skipped by the pre-scan because no constant could reach a usage. */
+  public long skippedMethodCount() {
+    return skipped.sum();
+  }
+
+  /** Number of methods whose usages were reused from the method store. */
+  public long reusedMethodCount() {
+    return reused.sum();
+  }
+
+  /** Skipped methods over all methods seen, {@code 0} before the first one. */
+  public double skipRatio() {
+    double skippedCount = skippedMethodCount();
+    double total = skippedCount + analyzedMethodCount() + reusedMethodCount();
+    return total == 0 ? 0 : skippedCount / total;
+  }
+}
@@ -0,0 +1,164 @@
+package org.glodean.constants.extractor.bytecode;
+
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.CodeElement;
+import java.lang.classfile.Instruction;
+import java.lang.classfile.Label;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.Opcode;
+import java.lang.classfile.attribute.CodeAttribute;
+import java.lang.classfile.instruction.ConstantInstruction;
+import java.lang.classfile.instruction.ExceptionCatch;
+import java.lang.classfile.instruction.FieldInstruction;
+import java.lang.classfile.instruction.InvokeDynamicInstruction;
+import java.lang.classfile.instruction.InvokeInstruction;
+import java.lang.classfile.instruction.LineNumber;
+import java.lang.classfile.instruction.NewMultiArrayInstruction;
+import java.lang.classfile.instruction.NewObjectInstruction;
+import java.lang.classfile.instruction.NewReferenceArrayInstruction;
+import java.lang.classfile.instruction.TypeCheckInstruction;
+import java.lang.constant.ConstantDesc;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the key under which a method's usages are kept in a {@link MethodUsageStore}.
+ *
+ * <p>The fingerprint is the SHA-256 of everything the usages of one method depend on: the
+ * extractor configuration, the declaring class and method signature, the code attribute bytes
+ * and the constant-pool entries the instructions reference. Constant-pool indices are not stable
+ * between two compilations of a class — a literal added to one method renumbers the entries
+ * used by every method after it — so the index operands are masked out of the code bytes and the
+ * resolved entries (owner, name and descriptor of members, class names, loadable constants) are
+ * hashed in their place. The element layout, line numbers and exception table are hashed too,
+ * because recorded usages carry element indices and line numbers.
+ */
+final class MethodFingerprint {
+
+  private static final int LABEL = -1;
+  private static final int LINE_NUMBER = -2;
+  private static final int PSEUDO_ELEMENT = -3;
+
+  private MethodFingerprint() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns the fingerprint of one method.
+   *
+   * @param owner the declaring class
+   * @param mm the method
+   * @param code the method's code attribute
+   * @param configuration identifies the extractor configuration that produces the usages
+   * @return lower-case hex SHA-256
+   */
+  static String of(ClassModel owner, MethodModel mm, CodeAttribute code, String configuration) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    putString(digest, configuration);
+    putString(digest, owner.thisClass().asInternalName());
+    putString(digest, mm.methodName().stringValue());
+    putString(digest, mm.methodType().stringValue());
+    putInt(digest, mm.flags().flagsMask());
+    putInt(digest, code.maxStack());
+    putInt(digest, code.maxLocals());
+
+    byte[] bytecode = code.codeArray().clone();
+    int bci = 0;
+    for (CodeElement e : code) {
+      switch (e) {
+        case Instruction ins -> {
+          putInt(digest, ins.opcode().bytecode());
+          putPoolOperand(digest, ins, bytecode, bci);
+          bci += ins.sizeInBytes();
+        }
+        case Label _ -> putInt(digest, LABEL);
+        case LineNumber ln -> {
+          putInt(digest, LINE_NUMBER);
+          putInt(digest, ln.line());
+        }
+        default -> {
+          putInt(digest, PSEUDO_ELEMENT);
+          putString(digest, e.getClass().getName());
+        }
+      }
+    }
+    for (ExceptionCatch handler : code.exceptionHandlers()) {
+      putInt(digest, code.labelToBci(handler.tryStart()));
+      putInt(digest, code.labelToBci(handler.tryEnd()));
+      putInt(digest, code.labelToBci(handler.handler()));
+      putString(digest, handler.catchType().map(c -> c.asInternalName()).orElse(""));
+    }
+    digest.update(bytecode);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Hashes the constant-pool entry referenced by {@code ins}, if any, and zeroes its index
+   * operand at {@code bci + 1} in {@code bytecode}.
+   */
+  private static void putPoolOperand(
+      MessageDigest digest, Instruction ins, byte[] bytecode, int bci) {
+    int width = 2;
+    switch (ins) {
+      case ConstantInstruction.LoadConstantInstruction lc -> {
+        ConstantDesc value = lc.constantValue();
+        putString(digest, value.getClass().getName());
+        putString(digest, String.valueOf(value));
+        if (lc.opcode() == Opcode.LDC) width = 1;
+      }
+      case FieldInstruction fi -> putMember(
+          digest, fi.owner().asInternalName(), fi.name().stringValue(), fi.type().stringValue());
+      case InvokeInstruction ii -> {
+        putMember(
+            digest, ii.owner().asInternalName(), ii.name().stringValue(), ii.type().stringValue());
+        putInt(digest, ii.isInterface() ? 1 : 0);
+      }
+      case InvokeDynamicInstruction indy -> {
+        putMember(
+            digest, indy.bootstrapMethod().toString(), indy.name().stringValue(),
+            indy.type().stringValue());
+        for (ConstantDesc arg : indy.bootstrapArgs()) {
+          putString(digest, arg.getClass().getName());
+          putString(digest, String.valueOf(arg));
+        }
+      }
+      case NewObjectInstruction no -> putString(digest, no.className().asInternalName());
+      case NewReferenceArrayInstruction nra ->
+          putString(digest, nra.componentType().asInternalName());
+      case TypeCheckInstruction tc -> putString(digest, tc.type().asInternalName());
+      case NewMultiArrayInstruction nma -> putString(digest, nma.arrayType().asInternalName());
+      default -> {
+        return;
+      }
+    }
+    for (int i = 1; i <= width; i++) {
+      bytecode[bci + i] = 0;
+    }
+  }
+
+  private static void putMember(MessageDigest digest, String owner, String name, String type) {
+    putString(digest, owner);
+    putString(digest, name);
+    putString(digest, type);
+  }
+
+  private static void putString(MessageDigest digest, String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    putInt(digest, bytes.length);
+    digest.update(bytes);
+  }
+
+  private static void putInt(MessageDigest digest, int v) {
+    digest.update((byte) (v >>> 24));
+    digest.update((byte) (v >>> 16));
+    digest.update((byte) (v >>> 8));
+    digest.update((byte) v);
+  }
+}
@@ -0,0 +1,51 @@
+package org.glodean.constants.extractor.bytecode;
+
+import com.google.common.collect.Multimap;
+import java.util.Optional;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
+
+/**
+ * Per-method store of analysis results, consulted by {@link ClassModelExtractor} before it runs
+ * a method through {@link BytecodeMethodAnalyzer}.
+ *
+ * <p>Entries are keyed by a {@link MethodFingerprint}: a hash of the method's code and of the
+ * constant-pool entries it references, so a method that is unchanged between two versions of its
+ * class maps to the same entry even if the rest of the class changed. Where the content-addressed
+ * {@link org.glodean.constants.extractor.ExtractionResultCache} only helps when a whole class file
+ * is identical, this store makes re-extracting a patched class cost roughly the analysis of the
+ * methods that changed.
+ *
+ * <p>Stored multimaps are shared between callers and must be treated as read-only.
+ * Implementations must be safe for concurrent use.
+ */
+public interface MethodUsageStore {
+
+  /** A store that never holds anything; every method is analyzed. */
+  MethodUsageStore NONE = new MethodUsageStore() {
+    @Override
+    public Optional<Multimap<Object, ConstantUsage>> get(String fingerprint) {
+      return Optional.empty();
+    }
+
+    @Override
+    public void put(String fingerprint, Multimap<Object, ConstantUsage> usages) {
+      // nothing to keep
+    }
+  };
+
+  /**
+   * Returns the usages stored for the method with the given fingerprint, if any.
+   *
+   * @param fingerprint the method fingerprint
+   * @return the stored usages keyed by constant value, or {@link Optional#empty()} on a miss
+   */
+  Optional<Multimap<Object, ConstantUsage>> get(String fingerprint);
+
+  /**
+   * Stores the usages of the method with the given fingerprint, replacing any previous entry.
+   *
+   * @param fingerprint the method fingerprint
+   * @param usages immutable usages keyed by constant value
+   */
+  void put(String fingerprint, Multimap<Object, ConstantUsage> usages);
+}
@@ -0,0 +1,48 @@
+package org.glodean.constants.extractor.bytecode;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Deduplicates the strings that end up in extraction results.
+ *
+ * <p>Every class parsed by the Class-File API yields fresh {@code String} instances for its
+ * names, descriptors and string literals, so a large archive produces the same class names,
+ * method descriptors and common literals ({@code "id"}, {@code "UTF-8"}, …) hundreds of thousands
+ * of times over in the {@link org.glodean.constants.model.UnitConstants} it returns. Routing
+ * them through this interner as usages are recorded collapses each distinct string to one
+ * instance before the results are collected and persisted.
+ *
+ * <p>The pool is concurrent and holds its entries weakly: a string stays pooled only while some
+ * in-flight result still references it, so the pool lives exactly as long as the extractions
+ * that use it and needs no per-upload lifecycle. Only result data is interned; the transient
+ * strings of the dataflow analysis itself are not.
+ */
+final class ResultInterner {
+
+  private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+  private ResultInterner() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns the canonical instance equal to {@code s}.
+   *
+   * @param s the string to intern; may be {@code null}
+   * @return the pooled instance, or {@code null} for {@code null}
+   */
+  static String intern(String s) {
+    return s == null ? null : STRINGS.intern(s);
+  }
+
+  /**
+   * Interns {@code value} if it is a {@code String}; any other constant value is returned as is.
+   *
+   * @param value a constant value
+   * @return the pooled string, or {@code value} itself
+   */
+  static Object internValue(Object value) {
+    return value instanceof String s ? STRINGS.intern(s) : value;
+  }
+}
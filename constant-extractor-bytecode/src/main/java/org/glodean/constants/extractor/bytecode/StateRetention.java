@@ -0,0 +1,30 @@
+package org.glodean.constants.extractor.bytecode;
+
+/**
+ * Controls which abstract states {@link BytecodeMethodAnalyzer} keeps once a method has converged.
+ *
+ * <p>All modes compute the same fixed point; they only trade memory for replay work when the
+ * states are merged.
+ */
+public enum StateRetention {
+  /**
+   * Keep an IN and an OUT state for every code element, including labels and line numbers.
+   * Fastest merge, but peak memory is O(elements × state size).
+   */
+  ALL_ELEMENTS,
+
+  /**
+   * Keep only the IN state of each basic-block head (and the accumulated OUT state of each block
+   * exit). The merger replays the transfer functions forward through each block to recover the
+   * intra-block states on the fly, so peak memory is O(blocks × state size).
+   */
+  BLOCK_HEADS,
+
+  /**
+   * Like {@link #BLOCK_HEADS} during the fixpoint, but the merge is fused into a single forward
+   * replay ({@link BytecodeMethodAnalyzer#mergeAndRelease}): each element is classified while its
+   * state is live, states are advanced in place instead of copied, and each block's head state is
+   * released once the block has been merged.
+   */
+  FUSED
+}
@@ -70,13 +70,18 @@ final class StaticFinalFieldConstantExtractor {
           return;
         }
 
-        String fieldName = fm.fieldName().stringValue();
-        String fieldDescriptor = fm.fieldType().stringValue();
+        String fieldName = ResultInterner.intern(fm.fieldName().stringValue());
+        String fieldDescriptor = ResultInterner.intern(fm.fieldType().stringValue());
 
         // bytecodeOffset=null, lineNumber=0 — field constant attributes have no instruction
         // offset; use line 0 as a sentinel to satisfy UsageLocation's non-null constraint.
         UsageLocation location =
-            new UsageLocation(className, "<field:" + fieldName + ">", fieldDescriptor, null, 0);
+            new UsageLocation(
+                className,
+                ResultInterner.intern("<field:" + fieldName + ">"),
+                fieldDescriptor,
+                null,
+                0);
 
         FieldStoreContext ctx =
             new FieldStoreContext(className, fieldName, fieldDescriptor, ReceiverKind.STATIC);
@@ -119,6 +119,126 @@ final class SuccessorBuilder {
 
   record Successors(List<List<Integer>> successors, Map<Label, Set<ClassDesc>> handlerStarts) {}
 
+  /**
+   * Basic-block view of a successor graph.
+   *
+   * <p>A block is a maximal run of elements {@code [starts[b], ends[b])} where every element but the
+   * last has the next element as its only successor and every element but the first has exactly
+   * one predecessor. Exception edges therefore split blocks: an element inside a try range has the
+   * handler as a second successor and always ends its block.
+   *
+   * @param starts first element index of each block
+   * @param ends exclusive end index of each block
+   * @param blockOf block number of each element
+   * @param successors successor block numbers of each block (out-of-range targets dropped)
+   * @param reversePostorder blocks reachable from block 0, in reverse postorder
+   * @param rpoIndex position of each block in {@code reversePostorder}, or {@code -1} when the block
+   *     is unreachable
+   */
+  record BasicBlocks(
+      int[] starts,
+      int[] ends,
+      int[] blockOf,
+      int[][] successors,
+      int[] reversePostorder,
+      int[] rpoIndex) {
+
+    /** Returns the number of blocks. */
+    int count() {
+      return starts.length;
+    }
+  }
+
+  /**
+   * Groups the per-element {@code successors} into basic blocks and orders them by reverse
+   * postorder from the entry block, so that a forward dataflow pass visits every block after its
+   * non-back-edge predecessors.
+   *
+   * @param successors per-element successor lists as returned by {@link #build}
+   * @param forcedHeads element indices that must start a block (e.g. exception-handler entries);
+   *     may be empty
+   * @return the basic-block decomposition
+   */
+  static BasicBlocks basicBlocks(List<List<Integer>> successors, BitSet forcedHeads) {
+    int n = successors.size();
+    int[] predecessors = new int[n];
+    for (List<Integer> out : successors) {
+      for (int s : out) if (s >= 0 && s < n) predecessors[s]++;
+    }
+
+    BitSet heads = (BitSet) forcedHeads.clone();
+    if (n > 0) heads.set(0);
+    for (int i = 0; i < n; i++) {
+      List<Integer> out = successors.get(i);
+      boolean fallsThroughOnly = out.size() == 1 && out.getFirst() == i + 1;
+      for (int s : out) {
+        if (s < 0 || s >= n) continue;
+        if (!fallsThroughOnly || predecessors[s] != 1) heads.set(s);
+      }
+      if (!fallsThroughOnly && i + 1 < n) heads.set(i + 1);
+    }
+
+    int count = heads.cardinality();
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int[] blockOf = new int[n];
+    int b = -1;
+    for (int i = 0; i < n; i++) {
+      if (heads.get(i)) {
+        if (b >= 0) ends[b] = i;
+        starts[++b] = i;
+      }
+      blockOf[i] = b;
+    }
+    if (b >= 0) ends[b] = n;
+
+    int[][] blockSuccessors = new int[count][];
+    for (int k = 0; k < count; k++) {
+      blockSuccessors[k] =
+          successors.get(ends[k] - 1).stream()
+              .mapToInt(Integer::intValue)
+              .filter(s -> s >= 0 && s < n)
+              .map(s -> blockOf[s])
+              .distinct()
+              .toArray();
+    }
+
+    int[] postorder = new int[count];
+    int visited = 0;
+    if (count > 0) {
+      // Iterative DFS: each frame is (block, index of next successor to explore).
+      boolean[] seen = new boolean[count];
+      int[] stackBlock = new int[count];
+      int[] stackNext = new int[count];
+      int depth = 0;
+      stackBlock[0] = 0;
+      seen[0] = true;
+      while (depth >= 0) {
+        int top = stackBlock[depth];
+        int[] out = blockSuccessors[top];
+        if (stackNext[depth] < out.length) {
+          int s = out[stackNext[depth]++];
+          if (!seen[s]) {
+            seen[s] = true;
+            stackBlock[++depth] = s;
+            stackNext[depth] = 0;
+          }
+        } else {
+          postorder[visited++] = top;
+          depth--;
+        }
+      }
+    }
+    int[] reversePostorder = new int[visited];
+    int[] rpoIndex = new int[count];
+    Arrays.fill(rpoIndex, -1);
+    for (int k = 0; k < visited; k++) {
+      reversePostorder[k] = postorder[visited - 1 - k];
+      rpoIndex[reversePostorder[k]] = k;
+    }
+    return new BasicBlocks(starts, ends, blockOf, blockSuccessors, reversePostorder, rpoIndex);
+  }
+
   /**
    * Best-effort: map exception-table handlers (if present) to handler indices and add the handler
    * as a successor for any instruction in the try range.
@@ -0,0 +1,110 @@
+package org.glodean.constants.extractor.bytecode;
+
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.glodean.constants.extractor.TieredExtractionResultCache;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+
+/**
+ * {@link MethodUsageStore} with a bounded in-heap LRU tier and an on-disk tier that outlives the
+ * process.
+ *
+ * <p>Lookups try the heap first, then the disk directory; a disk hit is promoted into the heap.
+ * Writes go to both tiers. The disk tier is a {@link TieredExtractionResultCache} without a heap
+ * of its own, so it shares that cache's file layout, size limit and least-recently-used eviction;
+ * each method is stored as one unit whose constants carry the method's usages. The fingerprint
+ * already names the merger configuration and the extractor build, so entries written by another
+ * build are never looked up again and simply age out.
+ */
+public final class TieredMethodUsageStore implements MethodUsageStore {
+
+  private final InMemoryMethodUsageStore heap;
+  private final TieredExtractionResultCache disk;
+  private final AtomicLong diskHits = new AtomicLong();
+
+  /**
+   * Creates a store.
+   *
+   * @param maxHeapEntries maximum number of methods kept in memory (least recently used evicted)
+   * @param diskDirectory  directory for the on-disk tier
+   * @param maxDiskBytes   maximum total size of the entry files in {@code diskDirectory}
+   */
+  public TieredMethodUsageStore(int maxHeapEntries, Path diskDirectory, long maxDiskBytes) {
+    this.heap = new InMemoryMethodUsageStore(maxHeapEntries);
+    this.disk = new TieredExtractionResultCache(0, diskDirectory, maxDiskBytes);
+  }
+
+  @Override
+  public Optional<Multimap<Object, ConstantUsage>> get(String fingerprint) {
+    Optional<Multimap<Object, ConstantUsage>> found = heap.get(fingerprint);
+    if (found.isEmpty()) {
+      found = disk.get(fingerprint).map(TieredMethodUsageStore::usagesOf);
+      found.ifPresent(usages -> {
+        diskHits.incrementAndGet();
+        heap.put(fingerprint, usages);
+      });
+    }
+    return found;
+  }
+
+  @Override
+  public void put(String fingerprint, Multimap<Object, ConstantUsage> usages) {
+    heap.put(fingerprint, usages);
+    disk.put(fingerprint, List.of(unitOf(fingerprint, usages)));
+  }
+
+  /** Number of methods whose usages were found in either tier. */
+  public long hitCount() {
+    return heap.hitCount() + diskHits.get();
+  }
+
+  /** Number of methods found on disk (a subset of {@link #hitCount()}). */
+  public long diskHitCount() {
+    return diskHits.get();
+  }
+
+  /** Number of methods that had to be analyzed. */
+  public long missCount() {
+    return heap.missCount() - diskHits.get();
+  }
+
+  /** Number of entry files deleted from the disk tier to keep it under its size limit. */
+  public long diskEvictionCount() {
+    return disk.diskEvictionCount();
+  }
+
+  /** Number of methods currently held in memory. */
+  public int size() {
+    return heap.size();
+  }
+
+  private static UnitConstants unitOf(String fingerprint, Multimap<Object, ConstantUsage> usages) {
+    Set<UnitConstant> constants = new HashSet<>();
+    for (Map.Entry<Object, Collection<ConstantUsage>> entry : usages.asMap().entrySet()) {
+      constants.add(new UnitConstant(entry.getKey(), new HashSet<>(entry.getValue())));
+    }
+    return new UnitConstants(
+        new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, fingerprint), constants);
+  }
+
+  private static Multimap<Object, ConstantUsage> usagesOf(List<UnitConstants> units) {
+    ImmutableSetMultimap.Builder<Object, ConstantUsage> usages = ImmutableSetMultimap.builder();
+    for (UnitConstants unit : units) {
+      for (UnitConstant constant : unit.constants()) {
+        usages.putAll(constant.value(), constant.usages());
+      }
+    }
+    return usages.build();
+  }
+}
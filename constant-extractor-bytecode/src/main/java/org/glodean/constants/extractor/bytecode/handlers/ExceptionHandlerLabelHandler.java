@@ -4,6 +4,7 @@ import java.lang.constant.ClassDesc;
 import java.util.Set;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -26,7 +27,7 @@ public class ExceptionHandlerLabelHandler {
    * @param state      the abstract state to update (stack is cleared and repopulated)
    * @param tag        allocation-site tag used to identify the synthetic reference
    */
-  public void handle(Set<ClassDesc> catchTypes, State state, String tag) {
+  public void handle(Set<ClassDesc> catchTypes, State state, SiteTag tag) {
     state.stack.clear();
     ClassDesc catchType =
         catchTypes.size() == 1
@@ -1,6 +1,7 @@
 package org.glodean.constants.extractor.bytecode.handlers;
 
 import java.lang.classfile.Instruction;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -31,7 +32,7 @@ public interface InstructionHandler<IT extends Instruction> {
    *
    * @param instruction the instruction to handle
    * @param state the current bytecode state (mutated by this method)
-   * @param tag an optional context tag (e.g., method name) for debugging
+   * @param tag allocation-site tag of the instruction, used to label entities it creates
    */
-  void handle(IT instruction, State state, String tag);
+  void handle(IT instruction, State state, SiteTag tag);
 }
@@ -2,6 +2,8 @@ package org.glodean.constants.extractor.bytecode.handlers;
 
 import com.google.common.collect.ImmutableMap;
 import java.lang.classfile.Instruction;
+import java.lang.classfile.Opcode;
+import java.lang.classfile.instruction.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -16,6 +18,15 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>Concurrent caching (avoids repeated reflection-based searches)</li>
  * </ul>
  *
+ * <p><b>Opcode dispatch table:</b> every {@link Opcode} belongs to exactly one
+ * {@link Opcode.Kind}, and every kind to one instruction interface. At {@link Builder#build()}
+ * time the handler for each opcode is resolved once through that interface and stored in an array
+ * indexed by {@link Opcode#ordinal()}, so {@link #handlerFor(Instruction)} — called for every
+ * instruction on every worklist visit — is a single array load. Handlers registered for a
+ * concrete instruction class rather than an interface are still honoured through the
+ * class-based {@link #findHandlerFor(Class)} fallback: the table has no entry for a kind whose
+ * interface has a more specific registered subtype, so the interface handler cannot shadow it.
+ *
  * <p><b>Thread-safety:</b> The registry is immutable after construction. The internal cache
  * uses {@link ConcurrentHashMap} for thread-safe handler resolution during parallel analysis.
  *
@@ -25,7 +36,7 @@ import java.util.concurrent.ConcurrentHashMap;
  *     .put(LoadInstruction.class, new LoadHandler())
  *     .put(StoreInstruction.class, new StoreHandler())
  *     .build();
- * InstructionHandler handler = registry.findHandlerFor(instruction.getClass());
+ * InstructionHandler handler = registry.handlerFor(instruction);
  * }</pre>
  */
 @SuppressWarnings("NullableProblems")
@@ -34,6 +45,8 @@ public final class InstructionHandlerRegistry {
       instructionHandlerMap;
   private final Map<Class<? extends Instruction>, InstructionHandler<?>> cache =
       new ConcurrentHashMap<>();
+  /** Handlers indexed by {@link Opcode#ordinal()}; {@code null} where none is registered. */
+  private final InstructionHandler<?>[] byOpcode;
 
   private final ExceptionHandlerLabelHandler exceptionHandlerLabelHandler =
       new ExceptionHandlerLabelHandler();
@@ -41,6 +54,24 @@ public final class InstructionHandlerRegistry {
   private InstructionHandlerRegistry(
       ImmutableMap<Class<? extends Instruction>, InstructionHandler<?>> instructionHandlerMap) {
     this.instructionHandlerMap = Objects.requireNonNull(instructionHandlerMap);
+    Opcode[] opcodes = Opcode.values();
+    this.byOpcode = new InstructionHandler<?>[opcodes.length];
+    for (Opcode opcode : opcodes) {
+      Class<? extends Instruction> type = instructionType(opcode.kind());
+      if (!hasRegisteredSubtype(type)) {
+        byOpcode[opcode.ordinal()] = findHandlerFor(type);
+      }
+    }
+  }
+
+  /** Whether a handler is registered for a proper subtype of {@code type}. */
+  private boolean hasRegisteredSubtype(Class<? extends Instruction> type) {
+    for (Class<? extends Instruction> registered : instructionHandlerMap.keySet()) {
+      if (registered != type && type.isAssignableFrom(registered)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
@@ -92,6 +123,55 @@ public final class InstructionHandlerRegistry {
     }
   }
 
+  /**
+   * Returns the handler for {@code instruction} from the opcode dispatch table, falling back to
+   * {@link #findHandlerFor(Class)} for instructions whose kind has no interface-level handler or
+   * also has handlers for more specific types.
+   *
+   * @param instruction the instruction about to be interpreted
+   * @return the matching handler, or {@code null} if no handler is registered for it
+   */
+  @SuppressWarnings("unchecked")
+  public InstructionHandler<? super Instruction> handlerFor(Instruction instruction) {
+    InstructionHandler<?> handler = byOpcode[instruction.opcode().ordinal()];
+    if (handler == null) {
+      return findHandlerFor(instruction.getClass());
+    }
+    return (InstructionHandler<? super Instruction>) handler;
+  }
+
+  /** The instruction interface that every opcode of {@code kind} is modelled by. */
+  private static Class<? extends Instruction> instructionType(Opcode.Kind kind) {
+    return switch (kind) {
+      case LOAD -> LoadInstruction.class;
+      case STORE -> StoreInstruction.class;
+      case INCREMENT -> IncrementInstruction.class;
+      case BRANCH -> BranchInstruction.class;
+      case LOOKUP_SWITCH -> LookupSwitchInstruction.class;
+      case TABLE_SWITCH -> TableSwitchInstruction.class;
+      case RETURN -> ReturnInstruction.class;
+      case THROW_EXCEPTION -> ThrowInstruction.class;
+      case FIELD_ACCESS -> FieldInstruction.class;
+      case INVOKE -> InvokeInstruction.class;
+      case INVOKE_DYNAMIC -> InvokeDynamicInstruction.class;
+      case NEW_OBJECT -> NewObjectInstruction.class;
+      case NEW_PRIMITIVE_ARRAY -> NewPrimitiveArrayInstruction.class;
+      case NEW_REF_ARRAY -> NewReferenceArrayInstruction.class;
+      case NEW_MULTI_ARRAY -> NewMultiArrayInstruction.class;
+      case TYPE_CHECK -> TypeCheckInstruction.class;
+      case ARRAY_LOAD -> ArrayLoadInstruction.class;
+      case ARRAY_STORE -> ArrayStoreInstruction.class;
+      case STACK -> StackInstruction.class;
+      case CONVERT -> ConvertInstruction.class;
+      case OPERATOR -> OperatorInstruction.class;
+      case CONSTANT -> ConstantInstruction.class;
+      case MONITOR -> MonitorInstruction.class;
+      case NOP -> NopInstruction.class;
+      case DISCONTINUED_JSR -> DiscontinuedInstruction.JsrInstruction.class;
+      case DISCONTINUED_RET -> DiscontinuedInstruction.RetInstruction.class;
+    };
+  }
+
   /**
    * Finds the best-matching {@link InstructionHandler} for the given runtime instruction class.
    *
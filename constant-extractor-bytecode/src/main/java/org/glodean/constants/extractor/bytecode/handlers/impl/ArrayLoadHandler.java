@@ -5,6 +5,7 @@ import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.StackAndParameterEntity;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -23,7 +24,7 @@ final class ArrayLoadHandler implements InstructionHandler<ArrayLoadInstruction>
    * @param tag diagnostic tag (method@pc) used for created synthetic references
    */
   @Override
-  public void handle(ArrayLoadInstruction instruction, State state, String tag) {
+  public void handle(ArrayLoadInstruction instruction, State state, SiteTag tag) {
     state.stack.removeLast();
     PointsToSet arr = state.stack.removeLast();
     PointsToSet res = new PointsToSet();
@@ -4,6 +4,7 @@ import java.lang.classfile.instruction.ArrayStoreInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.StackAndParameterEntity;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -21,13 +22,13 @@ final class ArrayStoreHandler implements InstructionHandler<ArrayStoreInstructio
    * @param tag diagnostic tag (method@pc)
    */
   @Override
-  public void handle(ArrayStoreInstruction instruction, State state, String tag) {
+  public void handle(ArrayStoreInstruction instruction, State state, SiteTag tag) {
     PointsToSet v = state.stack.removeLast();
     state.stack.removeLast();
     PointsToSet arr = state.stack.removeLast();
     if (arr != null)
       for (StackAndParameterEntity o : arr) {
-        state.arrayElements.computeIfAbsent(o, _ -> new PointsToSet()).addAllFrom(v);
+        State.join(state.arrayElements, o, v);
       }
   }
 }
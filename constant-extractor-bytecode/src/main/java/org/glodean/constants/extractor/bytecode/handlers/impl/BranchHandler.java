@@ -6,6 +6,7 @@ import java.lang.classfile.Opcode;
 import java.lang.classfile.instruction.BranchInstruction;
 import java.util.EnumSet;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -28,7 +29,7 @@ final class BranchHandler implements InstructionHandler<BranchInstruction> {
    * unconditional GOTOs.
    */
   @Override
-  public void handle(BranchInstruction bi, State state, String tag) {
+  public void handle(BranchInstruction bi, State state, SiteTag tag) {
     var opcode = bi.opcode();
     if (opcode == Opcode.GOTO || opcode == Opcode.GOTO_W) {
       return;
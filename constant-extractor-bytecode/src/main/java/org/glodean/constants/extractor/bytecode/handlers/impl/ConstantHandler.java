@@ -6,6 +6,7 @@ import org.glodean.constants.extractor.bytecode.types.ConstantValueNormalizer;
 import org.glodean.constants.extractor.bytecode.types.NumericConstant;
 import org.glodean.constants.extractor.bytecode.types.ObjectConstant;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -22,7 +23,7 @@ final class ConstantHandler implements InstructionHandler<ConstantInstruction> {
    * for all other constant types (e.g., {@link String}, {@link Class}) onto the operand stack.
    */
   @Override
-  public void handle(ConstantInstruction ci, State state, String tag) {
+  public void handle(ConstantInstruction ci, State state, SiteTag tag) {
     var value = ConstantValueNormalizer.normalize(ci.constantValue());
     state.stack.addLast(
         PointsToSet.of(
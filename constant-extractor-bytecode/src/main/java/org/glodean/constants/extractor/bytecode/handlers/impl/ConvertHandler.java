@@ -4,6 +4,7 @@ import java.lang.classfile.instruction.ConvertInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ConvertibleEntity;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -20,7 +21,7 @@ final class ConvertHandler implements InstructionHandler<ConvertInstruction> {
    * {@link ConvertibleEntity} are passed through unchanged.
    */
   @Override
-  public void handle(ConvertInstruction ci, State state, String tag) {
+  public void handle(ConvertInstruction ci, State state, SiteTag tag) {
     var newSet = new PointsToSet();
     state.stack.removeLast().stream()
         .map(
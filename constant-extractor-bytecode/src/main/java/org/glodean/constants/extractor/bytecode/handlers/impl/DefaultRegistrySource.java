@@ -8,18 +8,25 @@ import org.glodean.constants.extractor.bytecode.handlers.InstructionHandlerRegis
  * {@link org.glodean.constants.extractor.bytecode.BytecodeMethodAnalyzer}.
  *
  * <p>Registers one handler per JVM instruction type. All handler instances are
- * stateless and can therefore be shared across analyses.
+ * stateless and can therefore be shared across analyses, so the registry — including its opcode
+ * dispatch table and lookup cache — is built once and shared by every analyzer.
  */
 public final class DefaultRegistrySource {
+  private static final InstructionHandlerRegistry DEFAULT = build();
+
   private DefaultRegistrySource() {}
 
   /**
-   * Builds and returns the default registry with handlers for every JVM instruction type
-   * that is relevant to the constant-propagation analysis.
+   * Returns the default registry with handlers for every JVM instruction type that is relevant
+   * to the constant-propagation analysis.
    *
-   * @return a fully populated, immutable {@link InstructionHandlerRegistry}
+   * @return the shared, fully populated, immutable {@link InstructionHandlerRegistry}
    */
   public static InstructionHandlerRegistry defaultRegistry() {
+    return DEFAULT;
+  }
+
+  private static InstructionHandlerRegistry build() {
     return InstructionHandlerRegistry.builder()
         .put(ArrayLoadInstruction.class, new ArrayLoadHandler())
         .put(ArrayStoreInstruction.class, new ArrayStoreHandler())
@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.DiscontinuedInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -19,7 +20,7 @@ final class DiscontinuedInstructionHandler implements InstructionHandler<Discont
    * @throws UnsupportedOperationException always — JSR/RET are discontinued
    */
   @Override
-  public void handle(DiscontinuedInstruction instruction, State state, String tag) {
+  public void handle(DiscontinuedInstruction instruction, State state, SiteTag tag) {
     throw new UnsupportedOperationException(
         "JSR and RET instructions are discontinued and ignored.");
   }
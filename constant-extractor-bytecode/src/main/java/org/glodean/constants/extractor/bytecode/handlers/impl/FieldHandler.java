@@ -23,7 +23,7 @@ final class FieldHandler implements InstructionHandler<FieldInstruction> {
    * </ul>
    */
   @Override
-  public void handle(FieldInstruction fi, State state, String tag) {
+  public void handle(FieldInstruction fi, State state, SiteTag tag) {
     String owner = fi.owner().asInternalName();
     String name = fi.name().stringValue();
     String desc = fi.typeSymbol().descriptorString();
@@ -33,13 +33,10 @@ final class FieldHandler implements InstructionHandler<FieldInstruction> {
           state.statics.getOrDefault(
               new StaticFieldKey(owner, name, desc),
               PointsToSet.of(StackAndParameterEntity.convert(fi.typeSymbol(), tag)));
-      state.stack.addLast(res.copy());
+      state.stack.addLast(res);
     } else if (m == Opcode.PUTSTATIC) {
       PointsToSet val = state.stack.removeLast();
-      state
-          .statics
-          .computeIfAbsent(new StaticFieldKey(owner, name, desc), _ -> new PointsToSet())
-          .addAllFrom(val);
+      State.join(state.statics, new StaticFieldKey(owner, name, desc), val);
     } else if (m == Opcode.GETFIELD) {
       PointsToSet receiver = state.stack.removeLast();
       PointsToSet res = new PointsToSet();
@@ -59,7 +56,7 @@ final class FieldHandler implements InstructionHandler<FieldInstruction> {
       if (receiver != null)
         for (StackAndParameterEntity o : receiver) {
           var k = new FieldKey(o, owner, name, desc);
-          state.heap.computeIfAbsent(k, _ -> new PointsToSet()).addAllFrom(val);
+          State.join(state.heap, k, val);
         }
     }
   }
@@ -8,6 +8,7 @@ import org.glodean.constants.extractor.bytecode.types.ConstantPropagatingEntity;
 import org.glodean.constants.extractor.bytecode.types.NumericConstant;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.PrimitiveValue;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -24,7 +25,7 @@ final class IncrementHandler implements InstructionHandler<IncrementInstruction>
    * is an opaque reference), the local is replaced with a fresh {@link PrimitiveValue}.
    */
   @Override
-  public void handle(IncrementInstruction ii, State state, String tag) {
+  public void handle(IncrementInstruction ii, State state, SiteTag tag) {
     int var = ii.slot();
     PointsToSet local = state.locals.get(var);
     PointsToSet newSet = new PointsToSet();
@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.InvokeDynamicInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /** Handles dynamic invocation bytecode instructions (e.g., {@code invokedynamic}). */
@@ -16,7 +17,7 @@ final class InvokeDynamicHandler implements InstructionHandler<InvokeDynamicInst
    * @param tag an optional tag for context
    */
   @Override
-  public void handle(InvokeDynamicInstruction idi, State state, String tag) {
+  public void handle(InvokeDynamicInstruction idi, State state, SiteTag tag) {
     int argCount = idi.typeSymbol().parameterCount();
     for (int k = 0; k < argCount; k++) state.stack.removeLast();
     var returnType = idi.typeSymbol().returnType();
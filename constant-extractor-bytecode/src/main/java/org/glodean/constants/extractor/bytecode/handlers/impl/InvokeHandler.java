@@ -8,6 +8,7 @@ import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.PrimitiveValue;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -27,7 +28,7 @@ final class InvokeHandler implements InstructionHandler<InvokeInstruction> {
    * calls. Pushes a {@link PrimitiveValue} or {@link ObjectReference} for non-void returns.
    */
   @Override
-  public void handle(InvokeInstruction ii, State state, String tag) {
+  public void handle(InvokeInstruction ii, State state, SiteTag tag) {
     int argCount = ii.typeSymbol().parameterCount();
     for (int k = 0; k < argCount; k++) state.stack.removeLast();
     if (ii.opcode() != Opcode.INVOKESTATIC) state.stack.removeLast();
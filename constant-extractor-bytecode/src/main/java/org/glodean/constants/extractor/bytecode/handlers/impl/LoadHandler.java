@@ -2,10 +2,11 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.LoadInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
- * Handler for load instructions (e.g., ILOAD, ALOAD). Copies the local variable slot onto the
+ * Handler for load instructions (e.g., ILOAD, ALOAD). Pushes the local variable slot onto the
  * operand stack.
  */
 final class LoadHandler implements InstructionHandler<LoadInstruction> {
@@ -13,12 +14,12 @@ final class LoadHandler implements InstructionHandler<LoadInstruction> {
   /**
    * {@inheritDoc}
    *
-   * <p>Reads the points-to set from the local variable at {@code slot} and pushes a copy
-   * onto the operand stack. Pushes {@code null} if the slot is uninitialised.
+   * <p>Reads the points-to set from the local variable at {@code slot} and pushes it onto the
+   * operand stack. The set is shared, not copied: sets held by a {@link State} are never mutated
+   * in place. Pushes {@code null} if the slot is uninitialised.
    */
   @Override
-  public void handle(LoadInstruction li, State state, String tag) {
-    var variable = state.locals.get(li.slot());
-    state.stack.addLast(variable == null ? null : variable.copy());
+  public void handle(LoadInstruction li, State state, SiteTag tag) {
+    state.stack.addLast(state.locals.get(li.slot()));
   }
 }
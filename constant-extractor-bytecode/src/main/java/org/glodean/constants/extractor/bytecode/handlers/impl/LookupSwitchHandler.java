@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.LookupSwitchInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -10,7 +11,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class LookupSwitchHandler implements InstructionHandler<LookupSwitchInstruction> {
   @Override
-  public void handle(LookupSwitchInstruction lsi, State state, String tag) {
+  public void handle(LookupSwitchInstruction lsi, State state, SiteTag tag) {
     state.stack.removeLast();
   }
 }
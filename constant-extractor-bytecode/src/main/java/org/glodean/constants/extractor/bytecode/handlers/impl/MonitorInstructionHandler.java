@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.MonitorInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -12,7 +13,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class MonitorInstructionHandler implements InstructionHandler<MonitorInstruction> {
   @Override
-  public void handle(MonitorInstruction mi, State state, String tag) {
+  public void handle(MonitorInstruction mi, State state, SiteTag tag) {
     // monitor instructions consume an object reference
     state.stack.removeLast();
   }
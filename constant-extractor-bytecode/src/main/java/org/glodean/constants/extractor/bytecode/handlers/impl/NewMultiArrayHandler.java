@@ -4,6 +4,7 @@ import java.lang.classfile.instruction.NewMultiArrayInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -12,7 +13,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class NewMultiArrayHandler implements InstructionHandler<NewMultiArrayInstruction> {
   @Override
-  public void handle(NewMultiArrayInstruction nmaInstruction, State state, String tag) {
+  public void handle(NewMultiArrayInstruction nmaInstruction, State state, SiteTag tag) {
     for (int k = 0; k < nmaInstruction.dimensions(); k++) {
       state.stack.removeLast();
     }
@@ -5,6 +5,7 @@ import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.StackAndParameterEntity;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -13,7 +14,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class NewObjectIHandler implements InstructionHandler<NewObjectInstruction> {
   @Override
-  public void handle(NewObjectInstruction ni, State state, String tag) {
+  public void handle(NewObjectInstruction ni, State state, SiteTag tag) {
     StackAndParameterEntity o = new ObjectReference(ni.className().asSymbol(), tag);
     state.stack.addLast(PointsToSet.of(o));
   }
@@ -4,6 +4,7 @@ import java.lang.classfile.instruction.NewPrimitiveArrayInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ObjectReference;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -12,7 +13,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class NewPrimitiveArrayHandler implements InstructionHandler<NewPrimitiveArrayInstruction> {
   @Override
-  public void handle(NewPrimitiveArrayInstruction nai, State state, String tag) {
+  public void handle(NewPrimitiveArrayInstruction nai, State state, SiteTag tag) {
     state.stack.removeLast();
     state.stack.addLast(
         PointsToSet.of(new ObjectReference(nai.typeKind().upperBound().arrayType(), tag)));
@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.NopInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -10,7 +11,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class NopHandler implements InstructionHandler<NopInstruction> {
   @Override
-  public void handle(NopInstruction ni, State state, String tag) {
+  public void handle(NopInstruction ni, State state, SiteTag tag) {
     // deliberately no-op
     // for analysis
   }
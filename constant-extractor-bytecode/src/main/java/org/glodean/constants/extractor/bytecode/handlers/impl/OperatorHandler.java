@@ -9,6 +9,7 @@ import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.ConstantPropagatingEntity;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.PrimitiveValue;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -52,7 +53,7 @@ final class OperatorHandler implements InstructionHandler<OperatorInstruction> {
    * </ul>
    */
   @Override
-  public void handle(OperatorInstruction oi, State state, String tag) {
+  public void handle(OperatorInstruction oi, State state, SiteTag tag) {
     var opcode = oi.opcode();
     if (SKIPPED_OPCODES.contains(opcode)) {
       return;
@@ -3,6 +3,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 import java.lang.classfile.TypeKind;
 import java.lang.classfile.instruction.ReturnInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /** Handler for return instructions; pops the return value when present. */
@@ -15,7 +16,7 @@ final class ReturnHandler implements InstructionHandler<ReturnInstruction> {
    * {@code areturn}, etc.). Void returns ({@code return}) leave the stack unchanged.
    */
   @Override
-  public void handle(ReturnInstruction ri, State state, String tag) {
+  public void handle(ReturnInstruction ri, State state, SiteTag tag) {
     if (ri.typeKind() != TypeKind.VOID) {
       state.stack.removeLast();
     }
@@ -10,6 +10,7 @@ import java.util.function.Consumer;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.SizeType;
 import org.glodean.constants.extractor.bytecode.types.StackAndParameterEntity;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /** Handler for stack manipulation instructions (e.g., DUP). Models the simple DUP operation. */
@@ -28,7 +29,7 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
         Opcode.DUP,
         state -> {
           requireSize(state, 1, Opcode.DUP);
-          state.stack.addLast(state.stack.getLast().copy());
+          state.stack.addLast(state.stack.getLast());
         });
 
     size1Handlers.put(
@@ -52,8 +53,8 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           requireSize(state, 2, Opcode.SWAP);
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v2.copy());
+          state.stack.addLast(v1);
+          state.stack.addLast(v2);
         });
 
     size1Handlers.put(
@@ -62,9 +63,9 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           requireSize(state, 2, Opcode.DUP_X1);
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v1);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     size1Handlers.put(
@@ -74,10 +75,10 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
           var v3 = state.stack.removeLast();
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v3.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v1);
+          state.stack.addLast(v3);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     size1Handlers.put(
@@ -86,10 +87,10 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           requireSize(state, 2, Opcode.DUP2);
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     size1Handlers.put(
@@ -99,11 +100,11 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
           var v3 = state.stack.removeLast();
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v3.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
+          state.stack.addLast(v3);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     size1Handlers.put(
@@ -115,21 +116,21 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           var v3 = state.stack.removeLast();
 
           if (getSizeType(v3) == SizeType.DOUBLE_CELL) {
-            state.stack.addLast(v2.copy());
-            state.stack.addLast(v1.copy());
-            state.stack.addLast(v3.copy());
-            state.stack.addLast(v2.copy());
-            state.stack.addLast(v1.copy());
+            state.stack.addLast(v2);
+            state.stack.addLast(v1);
+            state.stack.addLast(v3);
+            state.stack.addLast(v2);
+            state.stack.addLast(v1);
             return;
           }
 
           var v4 = state.stack.removeLast();
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v4.copy());
-          state.stack.addLast(v3.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
+          state.stack.addLast(v4);
+          state.stack.addLast(v3);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     size2Handlers.put(
@@ -153,7 +154,7 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           // duplicate the single category2 value
           requireSize(state, 1, Opcode.DUP2);
           var v1 = state.stack.getLast();
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v1);
         });
 
     size2Handlers.put(
@@ -164,9 +165,9 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           requireSize(state, 2, Opcode.DUP2_X1);
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v1);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     size2Handlers.put(
@@ -178,16 +179,16 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
           var v1 = state.stack.removeLast();
           var v2 = state.stack.removeLast();
           if (getSizeType(v2) == SizeType.DOUBLE_CELL) {
-            state.stack.addLast(v1.copy());
-            state.stack.addLast(v2.copy());
-            state.stack.addLast(v1.copy());
+            state.stack.addLast(v1);
+            state.stack.addLast(v2);
+            state.stack.addLast(v1);
             return;
           }
           var v3 = state.stack.removeLast();
-          state.stack.addLast(v1.copy());
-          state.stack.addLast(v3.copy());
-          state.stack.addLast(v2.copy());
-          state.stack.addLast(v1.copy());
+          state.stack.addLast(v1);
+          state.stack.addLast(v3);
+          state.stack.addLast(v2);
+          state.stack.addLast(v1);
         });
 
     // mark single-cell-only ops as invalid when top is category2
@@ -231,7 +232,7 @@ final class StackHandler implements InstructionHandler<StackInstruction> {
    * {@code dup2_x2}, {@code pop}, {@code pop2}, and {@code swap}.
    */
   @Override
-  public void handle(StackInstruction si, State state, String tag) {
+  public void handle(StackInstruction si, State state, SiteTag tag) {
     var handler = HANDLERS.get(getSizeType(state.stack.getLast())).getOrDefault(si.opcode(), nop());
     handler.accept(state);
   }
@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.TableSwitchInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -12,7 +13,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class TableSwitchHandler implements InstructionHandler<TableSwitchInstruction> {
   @Override
-  public void handle(TableSwitchInstruction tsi, State state, String tag) {
+  public void handle(TableSwitchInstruction tsi, State state, SiteTag tag) {
     // consume key/index
     state.stack.removeLast();
   }
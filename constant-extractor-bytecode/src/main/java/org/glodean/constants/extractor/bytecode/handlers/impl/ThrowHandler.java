@@ -2,6 +2,7 @@ package org.glodean.constants.extractor.bytecode.handlers.impl;
 
 import java.lang.classfile.instruction.ThrowInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -13,7 +14,7 @@ import org.glodean.constants.extractor.bytecode.types.State;
  */
 final class ThrowHandler implements InstructionHandler<ThrowInstruction> {
   @Override
-  public void handle(ThrowInstruction ti, State state, String tag) {
+  public void handle(ThrowInstruction ti, State state, SiteTag tag) {
     // consume throwable reference
     state.stack.removeLast();
     // entry)
@@ -5,6 +5,7 @@ import java.lang.classfile.instruction.TypeCheckInstruction;
 import org.glodean.constants.extractor.bytecode.handlers.InstructionHandler;
 import org.glodean.constants.extractor.bytecode.types.PointsToSet;
 import org.glodean.constants.extractor.bytecode.types.StackAndParameterEntity;
+import org.glodean.constants.extractor.bytecode.types.SiteTag;
 import org.glodean.constants.extractor.bytecode.types.State;
 
 /**
@@ -23,7 +24,7 @@ final class TypeCheckHandler implements InstructionHandler<TypeCheckInstruction>
    * points-to information conservatively).
    */
   @Override
-  public void handle(TypeCheckInstruction tc, State state, String tag) {
+  public void handle(TypeCheckInstruction tc, State state, SiteTag tag) {
     if (tc.opcode() == Opcode.INSTANCEOF) {
       state.stack.removeLast();
       state.stack.addLast(
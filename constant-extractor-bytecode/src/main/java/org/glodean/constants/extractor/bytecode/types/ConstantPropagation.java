@@ -1,18 +1,31 @@
 package org.glodean.constants.extractor.bytecode.types;
 
-import com.google.common.collect.ImmutableSet;
 import java.lang.classfile.TypeKind;
 import java.util.Objects;
 import java.util.Set;
 
 /** Represents a propagated set of numeric constants (merge of multiple numeric constants).
+ *
+ * <p>Values are held in a primitive-backed {@link NumericValueSet}, so merging two propagations
+ * does not box, and a propagation that collects more than {@link PointsToSet#MAX_SIZE} values
+ * widens to per-type bounds instead of growing without limit.
  *
  * @param values the set of possible numeric values
  * @param size the cell size for this propagation
  */
-public record ConstantPropagation(Set<Number> values, SizeType size)
+public record ConstantPropagation(NumericValueSet values, SizeType size)
     implements StackAndParameterEntity, ConstantPropagatingEntity, ConvertibleEntity {
 
+  /**
+   * Creates a {@code ConstantPropagation} from an arbitrary set of numeric values.
+   *
+   * @param values the set of possible numeric values
+   * @param size the cell size for this propagation
+   */
+  public ConstantPropagation(Set<Number> values, SizeType size) {
+    this(NumericValueSet.copyOf(values), size);
+  }
+
   /**
    * Creates a single-cell {@code ConstantPropagation} from the given value set.
    *
@@ -62,19 +75,23 @@ public record ConstantPropagation(Set<Number> values, SizeType size)
   public ConstantPropagatingEntity propagate(ConstantPropagatingEntity constant) {
     return switch (constant) {
       case NumericConstant numericConstant ->
-          new ConstantPropagation(
-              ImmutableSet.<Number>builder().add(numericConstant.value()).addAll(values()).build(),
-              size.bigger(numericConstant.size()));
+          with(values.with(numericConstant.value()), size.bigger(numericConstant.size()));
       case ConstantPropagation propagation ->
-          new ConstantPropagation(
-              ImmutableSet.<Number>builder().addAll(propagation.values()).addAll(values()).build(),
-              size.bigger(propagation.size()));
+          with(values.union(propagation.values()), size.bigger(propagation.size()));
       default -> this;
     };
   }
 
+  /** Returns {@code this} when neither the values nor the size changed. */
+  private ConstantPropagation with(NumericValueSet merged, SizeType mergedSize) {
+    if (merged == values && mergedSize == size) {
+      return this;
+    }
+    return new ConstantPropagation(merged, mergedSize);
+  }
+
   @Override
-  public ConvertibleEntity convertTo(TypeKind targetType, String site) {
+  public ConvertibleEntity convertTo(TypeKind targetType, SiteTag site) {
     return new ConstantPropagation(values, SizeType.fromType(targetType));
   }
 }
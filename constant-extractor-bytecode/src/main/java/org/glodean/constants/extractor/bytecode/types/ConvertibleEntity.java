@@ -20,5 +20,5 @@ public sealed interface ConvertibleEntity extends StackAndParameterEntity
    * @param site       allocation-site tag passed through to any freshly created entities
    * @return a new {@link ConvertibleEntity} of the requested type
    */
-  ConvertibleEntity convertTo(TypeKind targetType, String site);
+  ConvertibleEntity convertTo(TypeKind targetType, SiteTag site);
 }
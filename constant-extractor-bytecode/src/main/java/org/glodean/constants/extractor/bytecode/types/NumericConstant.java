@@ -1,6 +1,5 @@
 package org.glodean.constants.extractor.bytecode.types;
 
-import com.google.common.collect.ImmutableSet;
 import java.lang.classfile.TypeKind;
 
 /**
@@ -42,11 +41,11 @@ public final class NumericConstant extends Constant<Number>
     return switch (constant) {
       case NumericConstant numericConstant ->
           new ConstantPropagation(
-              ImmutableSet.of(value(), numericConstant.value()),
+              NumericValueSet.of(value(), numericConstant.value()),
               size().bigger(numericConstant.size()));
       case ConstantPropagation propagation ->
           new ConstantPropagation(
-              ImmutableSet.<Number>builder().addAll(propagation.values()).add(value()).build(),
+              propagation.values().with(value()),
               size().bigger(propagation.size()));
       default -> this;
     };
@@ -61,7 +60,7 @@ public final class NumericConstant extends Constant<Number>
    * @throws IllegalArgumentException if {@code targetType} is not a supported numeric kind
    */
   @Override
-  public ConvertibleEntity convertTo(TypeKind targetType, String site) {
+  public ConvertibleEntity convertTo(TypeKind targetType, SiteTag site) {
     Number convertedValue =
         switch (targetType) {
           case BYTE -> value().byteValue();
@@ -0,0 +1,352 @@
+package org.glodean.constants.extractor.bytecode.types;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+
+/**
+ * Immutable set of numeric constants backed by primitive arrays, used as the value set of a
+ * {@link ConstantPropagation}.
+ *
+ * <p><b>Representation:</b> every value is stored as a (kind, key) pair in two parallel arrays
+ * sorted by kind and then by key. The kind records the boxed type the value came from
+ * ({@code Byte}, {@code Short}, {@code Integer}, {@code Long}, {@code Float} or {@code Double}),
+ * so {@code 1} and {@code 1L} stay distinct exactly as they would in a {@code Set<Number>}. The
+ * key is the value itself for integral kinds and an order-preserving encoding of the
+ * {@code double} bit pattern for floating-point kinds, so keys of one kind sort numerically.
+ * {@link #union} is therefore a linear merge of two sorted arrays and never boxes; values are
+ * only boxed when the set is iterated.
+ *
+ * <p><b>Widening:</b> once a union would hold more than {@link PointsToSet#MAX_SIZE} values,
+ * the set widens to an interval per kind: only the smallest and largest value of each kind are
+ * kept and {@link #isWidened()} becomes {@code true}. Later unions only stretch those bounds.
+ * Values only ever enter the set as constants that occur in the bytecode, so the bounds are real
+ * constants, the lattice still has finite height, and iterating a widened set yields exactly
+ * those bounds. {@link #mayContain(Number)} answers range membership for widened sets.
+ */
+public final class NumericValueSet extends AbstractSet<Number> {
+
+  private static final byte BYTE_KIND = 0;
+  private static final byte SHORT_KIND = 1;
+  private static final byte INT_KIND = 2;
+  private static final byte LONG_KIND = 3;
+  private static final byte FLOAT_KIND = 4;
+  private static final byte DOUBLE_KIND = 5;
+
+  private static final NumericValueSet EMPTY = new NumericValueSet(new byte[0], new long[0], false);
+
+  private final byte[] kinds;
+  private final long[] keys;
+  private final boolean widened;
+  private int hash;
+
+  private NumericValueSet(byte[] kinds, long[] keys, boolean widened) {
+    this.kinds = kinds;
+    this.keys = keys;
+    this.widened = widened;
+  }
+
+  /**
+   * Creates a set holding the given values, widened if there are more than
+   * {@link PointsToSet#MAX_SIZE} of them.
+   *
+   * @param values {@code Byte}, {@code Short}, {@code Integer}, {@code Long}, {@code Float} or
+   *     {@code Double} values
+   * @return a new set
+   * @throws IllegalArgumentException for any other {@link Number} type
+   */
+  public static NumericValueSet of(Number... values) {
+    return copyOf(Arrays.asList(values));
+  }
+
+  /**
+   * Returns {@code values} itself if it already is a {@code NumericValueSet}, otherwise a new set
+   * holding its elements.
+   *
+   * @param values the values to copy
+   * @return a set equal to {@code values}, widened if it is too large
+   * @throws IllegalArgumentException for an unsupported {@link Number} type
+   */
+  public static NumericValueSet copyOf(Collection<? extends Number> values) {
+    if (values instanceof NumericValueSet set) return set;
+    byte[] kinds = new byte[values.size()];
+    long[] keys = new long[values.size()];
+    int size = 0;
+    for (Number value : values) {
+      byte kind = kindOf(value);
+      long key = keyOf(kind, value);
+      int index = indexOf(kinds, keys, size, kind, key);
+      if (index >= 0) continue;
+      int at = -(index + 1);
+      System.arraycopy(kinds, at, kinds, at + 1, size - at);
+      System.arraycopy(keys, at, keys, at + 1, size - at);
+      kinds[at] = kind;
+      keys[at] = key;
+      size++;
+    }
+    if (size == 0) return EMPTY;
+    return build(kinds, keys, size, false);
+  }
+
+  /** Returns {@code true} if this set has been widened to per-kind bounds. */
+  public boolean isWidened() {
+    return widened;
+  }
+
+  /**
+   * Returns whether {@code value} may be one of the values this set stands for: membership for
+   * an exact set, and lying between the bounds of its kind for a widened set.
+   *
+   * @param value the value to test
+   * @return {@code true} if the value is, or may be, in this set
+   */
+  public boolean mayContain(Number value) {
+    if (!widened) return contains(value);
+    byte kind = kindOf(value);
+    long key = keyOf(kind, value);
+    int low = indexOf(kinds, keys, keys.length, kind, Long.MIN_VALUE);
+    int from = low >= 0 ? low : -(low + 1);
+    return from < keys.length
+        && kinds[from] == kind
+        && compareKeys(kind, keys[from], key) <= 0
+        && compareKeys(kind, key, keys[lastOfKind(from)]) <= 0;
+  }
+
+  /**
+   * Returns the union of this set and {@code value}; see {@link #union}.
+   *
+   * @param value the value to add
+   * @return {@code this} if nothing changes, otherwise a new set
+   */
+  public NumericValueSet with(Number value) {
+    byte kind = kindOf(value);
+    long key = keyOf(kind, value);
+    int index = indexOf(kinds, keys, keys.length, kind, key);
+    if (index >= 0) return this;
+    return union(new NumericValueSet(new byte[] {kind}, new long[] {key}, false));
+  }
+
+  /**
+   * Returns the union of this set and {@code other} without boxing and without mutating either
+   * operand. The result is widened if either operand is widened or if it would hold more than
+   * {@link PointsToSet#MAX_SIZE} values.
+   *
+   * <p>If {@code other} contributes nothing new, this very instance is returned, so callers can
+   * detect growth with a reference comparison.
+   *
+   * @param other the set to join with
+   * @return {@code this} when nothing changes, otherwise a new set
+   */
+  public NumericValueSet union(NumericValueSet other) {
+    if (other == this || other.keys.length == 0) return this;
+    if (keys.length == 0) return other;
+    int n = keys.length, m = other.keys.length;
+    byte[] mergedKinds = new byte[n + m];
+    long[] mergedKeys = new long[n + m];
+    int i = 0, j = 0, size = 0;
+    while (i < n || j < m) {
+      int cmp;
+      if (i == n) {
+        cmp = 1;
+      } else if (j == m) {
+        cmp = -1;
+      } else {
+        cmp = compare(kinds[i], keys[i], other.kinds[j], other.keys[j]);
+      }
+      if (cmp <= 0) {
+        mergedKinds[size] = kinds[i];
+        mergedKeys[size++] = keys[i++];
+        if (cmp == 0) j++;
+      } else {
+        mergedKinds[size] = other.kinds[j];
+        mergedKeys[size++] = other.keys[j++];
+      }
+    }
+    if (size == n && widened == (widened || other.widened)) return this;
+    NumericValueSet result = build(mergedKinds, mergedKeys, size, widened || other.widened);
+    return result.equals(this) ? this : result;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof Number value) || !isSupported(value)) return false;
+    byte kind = kindOf(value);
+    return indexOf(kinds, keys, keys.length, kind, keyOf(kind, value)) >= 0;
+  }
+
+  @Override
+  public Iterator<Number> iterator() {
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < keys.length;
+      }
+
+      @Override
+      public Number next() {
+        if (next >= keys.length) throw new NoSuchElementException();
+        int i = next++;
+        return box(kinds[i], keys[i]);
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (o instanceof NumericValueSet other) {
+      return widened == other.widened
+          && Arrays.equals(keys, other.keys)
+          && Arrays.equals(kinds, other.kinds);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      for (int i = 0; i < keys.length; i++) h += hashOf(kinds[i], keys[i]);
+      hash = h;
+    }
+    return h;
+  }
+
+  /** Lists the values, or the {@code min..max} bounds of each kind once widened. */
+  @Override
+  public String toString() {
+    if (!widened) return super.toString();
+    StringJoiner joiner = new StringJoiner(", ", "[", "]");
+    for (int i = 0; i < keys.length; i = lastOfKind(i) + 1) {
+      int last = lastOfKind(i);
+      joiner.add(last == i
+          ? String.valueOf(box(kinds[i], keys[i]))
+          : box(kinds[i], keys[i]) + ".." + box(kinds[last], keys[last]));
+    }
+    return joiner.toString();
+  }
+
+  // -------------------------------------------------------------------------
+  // Encoding helpers
+  // -------------------------------------------------------------------------
+
+  /** Trims the sorted arrays to {@code size} and widens them if required. */
+  private static NumericValueSet build(byte[] kinds, long[] keys, int size, boolean widened) {
+    if (!widened && size <= PointsToSet.MAX_SIZE) {
+      return new NumericValueSet(
+          size == kinds.length ? kinds : Arrays.copyOf(kinds, size),
+          size == keys.length ? keys : Arrays.copyOf(keys, size),
+          false);
+    }
+    // Keep the first and last entry of each kind run: its minimum and maximum.
+    int bounds = 0;
+    for (int i = 0; i < size; i++) {
+      boolean first = i == 0 || kinds[i - 1] != kinds[i];
+      boolean last = i == size - 1 || kinds[i + 1] != kinds[i];
+      if (first || last) {
+        kinds[bounds] = kinds[i];
+        keys[bounds++] = keys[i];
+      }
+    }
+    return new NumericValueSet(Arrays.copyOf(kinds, bounds), Arrays.copyOf(keys, bounds), true);
+  }
+
+  private int lastOfKind(int from) {
+    int i = from;
+    while (i + 1 < keys.length && kinds[i + 1] == kinds[from]) i++;
+    return i;
+  }
+
+  /** Binary search over the first {@code size} entries; {@code -(insertionPoint + 1)} if absent. */
+  private static int indexOf(byte[] kinds, long[] keys, int size, byte kind, long key) {
+    int low = 0, high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compare(kinds[mid], keys[mid], kind, key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static int compare(byte kindA, long keyA, byte kindB, long keyB) {
+    return kindA != kindB ? Byte.compare(kindA, kindB) : Long.compare(keyA, keyB);
+  }
+
+  private static int compareKeys(byte kind, long a, long b) {
+    return compare(kind, a, kind, b);
+  }
+
+  private static boolean isSupported(Number value) {
+    return value instanceof Byte
+        || value instanceof Short
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Float
+        || value instanceof Double;
+  }
+
+  private static byte kindOf(Number value) {
+    return switch (value) {
+      case Byte _ -> BYTE_KIND;
+      case Short _ -> SHORT_KIND;
+      case Integer _ -> INT_KIND;
+      case Long _ -> LONG_KIND;
+      case Float _ -> FLOAT_KIND;
+      case Double _ -> DOUBLE_KIND;
+      case null -> throw new NullPointerException("value");
+      default -> throw new IllegalArgumentException(
+          "Unsupported numeric constant type: " + value.getClass().getName());
+    };
+  }
+
+  private static long keyOf(byte kind, Number value) {
+    return kind >= FLOAT_KIND
+        ? sortable(Double.doubleToLongBits(value.doubleValue()))
+        : value.longValue();
+  }
+
+  /**
+   * Maps IEEE-754 bits to a {@code long} whose signed order is the numeric order of the doubles
+   * (negative values have their magnitude bits flipped). The mapping is its own inverse.
+   */
+  private static long sortable(long bits) {
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  private static Number box(byte kind, long key) {
+    return switch (kind) {
+      case BYTE_KIND -> (byte) key;
+      case SHORT_KIND -> (short) key;
+      case INT_KIND -> (int) key;
+      case LONG_KIND -> key;
+      case FLOAT_KIND -> (float) Double.longBitsToDouble(sortable(key));
+      default -> Double.longBitsToDouble(sortable(key));
+    };
+  }
+
+  /** The {@code hashCode()} of the boxed value, computed without boxing. */
+  private static int hashOf(byte kind, long key) {
+    return switch (kind) {
+      case BYTE_KIND, SHORT_KIND, INT_KIND -> (int) key;
+      case LONG_KIND -> Long.hashCode(key);
+      case FLOAT_KIND -> Float.hashCode((float) Double.longBitsToDouble(sortable(key)));
+      default -> Double.hashCode(Double.longBitsToDouble(sortable(key)));
+    };
+  }
+}
@@ -10,7 +10,7 @@ import java.util.Objects;
  * (where in the code they were created). This class represents such abstract objects, combining:
  * <ul>
  *   <li><b>descriptor:</b> The object's type (e.g., {@code ClassDesc} for {@code java.lang.String})</li>
- *   <li><b>site:</b> A unique tag identifying the creation point (e.g., "MyClass::method#new@42")</li>
+ *   <li><b>site:</b> A {@link SiteTag} identifying the creation point (e.g., "MyClass::method()V@42")</li>
  * </ul>
  *
  * <p><b>Example:</b> Two {@code new StringBuilder()} calls at different bytecode offsets create
@@ -21,10 +21,21 @@ import java.util.Objects;
  * objects with unknown identity, while constants have known compile-time values.
  *
  * @param descriptor the object's runtime type
- * @param site allocation site tag (e.g., "ClassName::methodName#local2")
+ * @param site allocation site tag (e.g., "ClassName::methodName()V@12")
  */
-public record ObjectReference(ClassDesc descriptor, String site)
+public record ObjectReference(ClassDesc descriptor, SiteTag site)
     implements StackAndParameterEntity {
+
+  /**
+   * Creates a reference whose site is a named tag (see {@link SiteTag#of}).
+   *
+   * @param descriptor the object's runtime type
+   * @param site the site tag text
+   */
+  public ObjectReference(ClassDesc descriptor, String site) {
+    this(descriptor, SiteTag.of(site));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null || getClass() != o.getClass()) return false;
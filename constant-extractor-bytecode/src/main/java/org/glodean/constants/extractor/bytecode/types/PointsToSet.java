@@ -1,7 +1,13 @@
 package org.glodean.constants.extractor.bytecode.types;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * Convenience set type representing possible abstract objects/values a variable or stack slot can
@@ -22,8 +28,20 @@ import java.util.HashSet;
  *
  * <p>The widening threshold is tuned for typical Java methods: high enough to be precise
  * (32 distinct values), but low enough to ensure fast convergence even in pathological cases.
+ *
+ * <p><b>Representation:</b> most slots hold one or two entities, so the set stores up to two
+ * elements in plain fields and only switches to a pair of arrays (elements plus their hash codes,
+ * kept sorted by hash) once a third element arrives. Lookups in the array form are a binary
+ * search on the hash followed by an {@code equals} check among equal hashes; the arrays never
+ * grow beyond {@link #MAX_SIZE}.
+ *
+ * <p><b>Freezing and interning:</b> sets published into a {@link State} are never mutated (see
+ * {@link State} for the sharing rules). {@link #intern()} makes that explicit: it freezes the set
+ * — any later mutation throws {@link UnsupportedOperationException} — caches its hash code and
+ * returns the canonical instance among all equal interned sets, so identical slots in different
+ * states share one object.
  */
-public final class PointsToSet extends HashSet<StackAndParameterEntity> {
+public final class PointsToSet extends AbstractSet<StackAndParameterEntity> {
 
   /**
    * Maximum number of entities tracked per slot. Beyond this, additions are ignored (widening to
@@ -32,6 +50,21 @@ public final class PointsToSet extends HashSet<StackAndParameterEntity> {
    */
   static final int MAX_SIZE = 32;
 
+  /** Number of elements stored inline before switching to the sorted-array form. */
+  private static final int INLINE_CAPACITY = 2;
+
+  private static final Interner<PointsToSet> INTERNER = Interners.newWeakInterner();
+
+  // Inline form (elements == null): up to two entities in first/second.
+  private StackAndParameterEntity first;
+  private StackAndParameterEntity second;
+  // Array form: entities sorted by hash code, hashes[i] == Objects.hashCode(elements[i]).
+  private StackAndParameterEntity[] elements;
+  private int[] hashes;
+  private int size;
+  private boolean frozen;
+  private int frozenHash;
+
   /** Creates an empty {@code PointsToSet}. */
   public PointsToSet() {}
 
@@ -42,26 +75,143 @@ public final class PointsToSet extends HashSet<StackAndParameterEntity> {
    * @param c the initial collection of entities
    */
   public PointsToSet(Collection<StackAndParameterEntity> c) {
-    super(c);
+    addAll(c);
+  }
+
+  private PointsToSet(PointsToSet other) {
+    this.first = other.first;
+    this.second = other.second;
+    this.size = other.size;
+    if (other.elements != null) {
+      this.elements = other.elements.clone();
+      this.hashes = other.hashes.clone();
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (elements == null) {
+      return (size > 0 && Objects.equals(first, o)) || (size > 1 && Objects.equals(second, o));
+    }
+    return o instanceof StackAndParameterEntity e && indexOf(e, Objects.hashCode(e)) >= 0;
   }
 
   @Override
   public boolean add(StackAndParameterEntity e) {
-    if (size() >= MAX_SIZE) return false;
-    return super.add(e);
+    checkMutable();
+    if (elements == null) {
+      if (contains(e)) return false;
+      if (size == 0) {
+        first = e;
+      } else if (size == 1) {
+        second = e;
+      } else {
+        inflate();
+        return insert(e, Objects.hashCode(e));
+      }
+      size++;
+      return true;
+    }
+    return insert(e, Objects.hashCode(e));
   }
 
+  /**
+   * Adds every element of {@code c}, respecting {@link #MAX_SIZE}, and reports whether the set
+   * grew. Each element of {@code c} is visited at most once.
+   */
   @Override
   public boolean addAll(Collection<? extends StackAndParameterEntity> c) {
-    if (size() >= MAX_SIZE) return false;
+    checkMutable();
     boolean changed = false;
     for (StackAndParameterEntity e : c) {
-      if (size() >= MAX_SIZE) break;
-      changed |= super.add(e);
+      if (size >= MAX_SIZE) break;
+      changed |= add(e);
     }
     return changed;
   }
 
+  @Override
+  public boolean remove(Object o) {
+    checkMutable();
+    if (elements == null) {
+      if (size > 1 && Objects.equals(second, o)) {
+        second = null;
+      } else if (size > 0 && Objects.equals(first, o)) {
+        first = second;
+        second = null;
+      } else {
+        return false;
+      }
+      size--;
+      return true;
+    }
+    if (!(o instanceof StackAndParameterEntity e)) return false;
+    int index = indexOf(e, Objects.hashCode(e));
+    if (index < 0) return false;
+    removeAt(index);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    checkMutable();
+    first = second = null;
+    elements = null;
+    hashes = null;
+    size = 0;
+  }
+
+  @Override
+  public Iterator<StackAndParameterEntity> iterator() {
+    return new Iterator<>() {
+      private int next;
+      private int last = -1;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public StackAndParameterEntity next() {
+        if (next >= size) throw new NoSuchElementException();
+        last = next;
+        return get(next++);
+      }
+
+      @Override
+      public void remove() {
+        if (last < 0) throw new IllegalStateException();
+        PointsToSet.this.remove(get(last));
+        next = last;
+        last = -1;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (o instanceof PointsToSet other
+        && frozen
+        && other.frozen
+        && (frozenHash != other.frozenHash || size != other.size)) {
+      return false;
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    if (frozen) return frozenHash;
+    return computeHash();
+  }
+
   /**
    * Factory: creates a singleton {@code PointsToSet} containing {@code o}.
    *
@@ -75,7 +225,8 @@ public final class PointsToSet extends HashSet<StackAndParameterEntity> {
   }
 
   /**
-   * Returns a shallow copy of this set (same elements, independent capacity counter).
+   * Returns a shallow, mutable copy of this set (same elements, independent storage), even if this
+   * set is frozen.
    *
    * @return a new {@code PointsToSet} containing the same entities
    */
@@ -83,6 +234,57 @@ public final class PointsToSet extends HashSet<StackAndParameterEntity> {
     return new PointsToSet(this);
   }
 
+  /**
+   * Freezes this set and returns the canonical interned instance equal to it.
+   *
+   * <p>The returned set is frozen and must be treated as a value. The receiver is frozen as well,
+   * so callers should drop their reference to it in favour of the result.
+   *
+   * @return the shared, frozen instance equal to this set
+   */
+  public PointsToSet intern() {
+    if (!frozen) {
+      frozenHash = computeHash();
+      frozen = true;
+    }
+    return INTERNER.intern(this);
+  }
+
+  /**
+   * Returns {@code true} once this set has been frozen by {@link #intern()}.
+   *
+   * @return whether mutating operations are rejected
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Returns the union of this set and {@code other} without mutating either operand.
+   *
+   * <p>If {@code other} contributes nothing new (it is {@code null}, the same instance, a subset,
+   * or this set is already at {@link #MAX_SIZE}) this very instance is returned, so callers can
+   * detect growth with a reference comparison. Otherwise a new set is allocated lazily on the
+   * first element that is missing, in a single pass over {@code other}.
+   *
+   * @param other the set to join with; may be {@code null}
+   * @return {@code this} when nothing changes, otherwise a new capped set holding both
+   */
+  public PointsToSet union(PointsToSet other) {
+    if (other == null || other == this || size >= MAX_SIZE) return this;
+    if (frozen && other.frozen && frozenHash == other.frozenHash && equals(other)) return this;
+    PointsToSet result = null;
+    for (int i = 0; i < other.size; i++) {
+      StackAndParameterEntity e = other.get(i);
+      if (result == null) {
+        if (contains(e)) continue;
+        result = copy();
+      }
+      if (!result.add(e) && result.size >= MAX_SIZE) break;
+    }
+    return result == null ? this : result;
+  }
+
   /**
    * Adds all elements from {@code other} into this set, respecting {@link #MAX_SIZE}.
    * Does nothing if {@code other} is {@code null}.
@@ -92,4 +294,86 @@ public final class PointsToSet extends HashSet<StackAndParameterEntity> {
   public void addAllFrom(PointsToSet other) {
     if (other != null) this.addAll(other);
   }
+
+  // -------------------------------------------------------------------------
+  // Storage helpers
+  // -------------------------------------------------------------------------
+
+  private StackAndParameterEntity get(int index) {
+    if (elements != null) return elements[index];
+    return index == 0 ? first : second;
+  }
+
+  private void checkMutable() {
+    if (frozen) throw new UnsupportedOperationException("PointsToSet is frozen");
+  }
+
+  private int computeHash() {
+    int h = 0;
+    for (int i = 0; i < size; i++) h += elements != null ? hashes[i] : Objects.hashCode(get(i));
+    return h;
+  }
+
+  /** Moves the inline elements into freshly allocated, hash-sorted arrays. */
+  private void inflate() {
+    elements = new StackAndParameterEntity[INLINE_CAPACITY * 2];
+    hashes = new int[INLINE_CAPACITY * 2];
+    StackAndParameterEntity a = first, b = second;
+    int count = size;
+    first = second = null;
+    size = 0;
+    if (count > 0) insert(a, Objects.hashCode(a));
+    if (count > 1) insert(b, Objects.hashCode(b));
+  }
+
+  /**
+   * Returns the index of {@code e}, or {@code -(insertionPoint + 1)} if it is absent. Only valid
+   * in the array form.
+   */
+  private int indexOf(StackAndParameterEntity e, int hash) {
+    int low = 0, high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int h = hashes[mid];
+      if (h < hash) {
+        low = mid + 1;
+      } else if (h > hash) {
+        high = mid - 1;
+      } else {
+        for (int i = mid; i >= 0 && hashes[i] == hash; i--) {
+          if (Objects.equals(elements[i], e)) return i;
+        }
+        int i = mid + 1;
+        for (; i < size && hashes[i] == hash; i++) {
+          if (Objects.equals(elements[i], e)) return i;
+        }
+        return -(i + 1);
+      }
+    }
+    return -(low + 1);
+  }
+
+  private boolean insert(StackAndParameterEntity e, int hash) {
+    int index = indexOf(e, hash);
+    if (index >= 0 || size >= MAX_SIZE) return false;
+    int at = -(index + 1);
+    if (size == elements.length) {
+      int capacity = Math.min(MAX_SIZE, elements.length * 2);
+      elements = Arrays.copyOf(elements, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    System.arraycopy(elements, at, elements, at + 1, size - at);
+    System.arraycopy(hashes, at, hashes, at + 1, size - at);
+    elements[at] = e;
+    hashes[at] = hash;
+    size++;
+    return true;
+  }
+
+  private void removeAt(int index) {
+    int tail = size - index - 1;
+    System.arraycopy(elements, index + 1, elements, index, tail);
+    System.arraycopy(hashes, index + 1, hashes, index, tail);
+    elements[--size] = null;
+  }
 }
@@ -16,9 +16,19 @@ import java.util.Objects;
  * @param descriptor the JVM primitive type descriptor (e.g., {@link java.lang.constant.ConstantDescs#CD_int})
  * @param site       allocation-site tag that identifies where this value was produced
  */
-public record PrimitiveValue(ClassDesc descriptor, String site)
+public record PrimitiveValue(ClassDesc descriptor, SiteTag site)
     implements ConstantPropagatingEntity, ConvertibleEntity {
 
+  /**
+   * Creates a value whose site is a named tag (see {@link SiteTag#of}).
+   *
+   * @param descriptor the JVM primitive type descriptor
+   * @param site       the site tag text
+   */
+  public PrimitiveValue(ClassDesc descriptor, String site) {
+    this(descriptor, SiteTag.of(site));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null || getClass() != o.getClass()) return false;
@@ -49,7 +59,7 @@ public record PrimitiveValue(ClassDesc descriptor, String site)
   }
 
   @Override
-  public ConvertibleEntity convertTo(TypeKind targetType, String site) {
+  public ConvertibleEntity convertTo(TypeKind targetType, SiteTag site) {
     return new PrimitiveValue(targetType.upperBound(), site);
   }
 }
@@ -0,0 +1,63 @@
+package org.glodean.constants.extractor.bytecode.types;
+
+import java.util.Objects;
+
+/**
+ * Allocation-site tag of an {@link ObjectReference} or {@link PrimitiveValue}: where in the
+ * analyzed code an abstract value was produced.
+ *
+ * <p>A tag is a {@code (scope, index)} pair. For values created by an instruction the scope is
+ * the enclosing method ({@code "pkg/Owner::name(desc)"}) and the index is the position of the
+ * instruction in the method's code; values that exist on method entry (parameters and the
+ * receiver) carry a named scope and {@link #NO_INDEX}. The scope string is shared by every tag of
+ * a method, so creating a tag never builds text: the familiar {@code "scope@index"} form is only
+ * rendered by {@link #toString()}, when a report or a persisted result asks for it.
+ *
+ * @param scope the method or entry-value name the tag belongs to
+ * @param index the code element index inside {@code scope}, or {@link #NO_INDEX}
+ */
+public record SiteTag(String scope, int index) {
+
+  /** Index of tags that name an entry value rather than an instruction. */
+  public static final int NO_INDEX = -1;
+
+  private static final String RECEIVER_SUFFIX = "::<this>";
+
+  public SiteTag {
+    Objects.requireNonNull(scope, "scope");
+  }
+
+  /**
+   * Creates a named tag without an instruction index.
+   *
+   * @param name the tag text (e.g., {@code "Param#1"})
+   * @return a tag rendering as {@code name}
+   */
+  public static SiteTag of(String name) {
+    return new SiteTag(name, NO_INDEX);
+  }
+
+  /**
+   * Creates the tag of the implicit {@code this} parameter of an instance method.
+   *
+   * @param ownerInternalName internal name of the declaring class
+   * @return a tag rendering as {@code "pkg/Owner::<this>"}
+   */
+  public static SiteTag receiverOf(String ownerInternalName) {
+    return of(ownerInternalName + RECEIVER_SUFFIX);
+  }
+
+  /**
+   * Returns {@code true} if this tag marks the implicit {@code this} parameter.
+   *
+   * @return whether this tag was created by {@link #receiverOf}
+   */
+  public boolean isReceiver() {
+    return index == NO_INDEX && scope.endsWith(RECEIVER_SUFFIX);
+  }
+
+  @Override
+  public String toString() {
+    return index == NO_INDEX ? scope : scope + "@" + index;
+  }
+}
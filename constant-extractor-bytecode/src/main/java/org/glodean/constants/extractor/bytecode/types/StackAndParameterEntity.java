@@ -59,7 +59,7 @@ public sealed interface StackAndParameterEntity
    * @return a new {@link StackAndParameterEntity} of the appropriate subtype
    * @throws IllegalArgumentException if {@code type} is the {@code void} descriptor
    */
-  static StackAndParameterEntity convert(ClassDesc type, String tag) {
+  static StackAndParameterEntity convert(ClassDesc type, SiteTag tag) {
     if (type.isPrimitive()) {
       return new PrimitiveValue(type, tag);
     }
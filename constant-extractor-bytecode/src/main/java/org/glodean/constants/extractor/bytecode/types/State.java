@@ -20,6 +20,15 @@ import java.util.*;
  *
  * <p><b>Points-to sets</b> track possible runtime values. For constants, the set contains
  * a {@link Constant}; for objects, it contains {@link ObjectReference}s.
+ *
+ * <p><b>Structural sharing:</b> a {@link PointsToSet} that has been placed into a state is treated
+ * as immutable. {@link #copy()} therefore only duplicates the slot containers (lists and maps) and
+ * shares every set with the original; a slot that has to grow is replaced with a new set (see
+ * {@link PointsToSet#union(PointsToSet)} and {@link #join(Map, Object, PointsToSet)}) instead of
+ * being mutated. Sets written by a join are {@linkplain PointsToSet#intern() interned}, so they
+ * are frozen and equal slots across states share one instance. Instruction handlers may freely
+ * build and mutate sets they allocate themselves before pushing or storing them, but must never
+ * mutate a set read out of a state.
  */
 public final class State {
   /** Operand stack (points-to sets for each stack position). */
@@ -43,22 +52,49 @@ public final class State {
     this.stack = new ArrayList<>();
   }
 
+  private State(State other) {
+    this.locals = new ArrayList<>(other.locals);
+    this.stack = new ArrayList<>(other.stack);
+    this.heap.putAll(other.heap);
+    this.statics.putAll(other.statics);
+    this.arrayElements.putAll(other.arrayElements);
+  }
+
   /**
-   * Returns a deep copy of this state; all points-to sets are cloned so that mutations
-   * to the copy do not affect the original.
+   * Returns a copy of this state that shares every points-to set with the original.
+   *
+   * <p>Only the slot containers are duplicated, so pushing, popping or re-assigning slots in the
+   * copy never affects the original. Because published sets are never mutated in place, sharing
+   * them is safe and makes a copy cost proportional to the number of slots rather than the number
+   * of tracked entities.
    *
-   * @return an independent deep copy of this {@code State}
+   * @return an independent copy of this {@code State}
    */
   public State copy() {
-    State s = new State(locals.size());
-    for (int i = 0; i < locals.size(); i++)
-      s.locals.set(i, locals.get(i) == null ? null : locals.get(i).copy());
-    for (int i = 0; i < stack.size(); i++)
-      s.stack.add(stack.get(i) == null ? null : stack.get(i).copy());
-    heap.forEach((k, v) -> s.heap.put(k, v.copy()));
-    statics.forEach((k, v) -> s.statics.put(k, v.copy()));
-    arrayElements.forEach((k, v) -> s.arrayElements.put(k, v.copy()));
-    return s;
+    return new State(this);
+  }
+
+  /**
+   * Joins {@code value} into the slot {@code key} of {@code target} without mutating the set that
+   * is currently stored there: the slot is replaced by the union when it grows.
+   *
+   * <p>Used by handlers that widen heap, static or array-element slots
+   * ({@code PUTFIELD}, {@code PUTSTATIC}, {@code xASTORE}).
+   *
+   * @param target the state map to update ({@link #heap}, {@link #statics} or
+   *     {@link #arrayElements})
+   * @param key the slot key
+   * @param value the set to join in; {@code null} only materialises an empty slot
+   * @param <K> the key type of the map
+   */
+  public static <K> void join(Map<K, PointsToSet> target, K key, PointsToSet value) {
+    PointsToSet current = target.get(key);
+    if (current == null) {
+      target.put(key, (value == null ? new PointsToSet() : value).intern());
+    } else {
+      PointsToSet joined = current.union(value);
+      if (joined != current) target.put(key, joined.intern());
+    }
   }
 
   /**
@@ -74,30 +110,10 @@ public final class State {
   public boolean unionWith(State src) {
     boolean changed = false;
     // Locals
-    for (int i = 0; i < locals.size(); i++) {
-      PointsToSet a = locals.get(i), b = src.locals.get(i);
-      if (b == null) continue;
-      if (a == null) {
-        locals.set(i, b.copy());
-        changed = true;
-      } else if (a.addAll(b)) {
-        changed = true;
-      }
-    }
+    changed |= unionSlots(this.locals, src.locals, locals.size());
 
     int min = Math.min(stack.size(), src.stack.size());
-    for (int i = 0; i < min; i++) {
-      PointsToSet a = stack.get(i), b = src.stack.get(i);
-      if (b == null) continue;
-      if (a == null) {
-        stack.set(i, b.copy());
-        changed = true;
-      } else {
-        if (a.addAll(b)) {
-          changed = true;
-        }
-      }
-    }
+    changed |= unionSlots(this.stack, src.stack, min);
 
     // Only extend the stack if it was previously empty (initial merge);
     // otherwise differing depths are caused by divergent control flow and
@@ -106,7 +122,7 @@ public final class State {
       for (int i = min; i < src.stack.size(); i++) {
         PointsToSet set = src.stack.get(i);
         if (set == null) continue;
-        stack.add(set.copy());
+        stack.add(set);
         changed = true;
       }
     }
@@ -117,14 +133,29 @@ public final class State {
     return changed;
   }
 
+  private static boolean unionSlots(List<PointsToSet> dst, List<PointsToSet> src, int count) {
+    boolean ch = false;
+    for (int i = 0; i < count; i++) {
+      PointsToSet a = dst.get(i), b = src.get(i);
+      if (b == null || a == b) continue;
+      PointsToSet joined = a == null ? b : a.union(b);
+      if (joined != a) {
+        dst.set(i, joined.intern());
+        ch = true;
+      }
+    }
+    return ch;
+  }
+
   private static <K> boolean unionMap(Map<K, PointsToSet> dst, Map<K, PointsToSet> src) {
     boolean ch = false;
     for (var e : src.entrySet()) {
       PointsToSet cur = dst.get(e.getKey());
-      if (cur == null) {
-        dst.put(e.getKey(), e.getValue().copy());
+      PointsToSet joined = cur == null ? e.getValue() : cur.union(e.getValue());
+      if (joined != cur) {
+        dst.put(e.getKey(), joined.intern());
         ch = true;
-      } else if (cur.addAll(e.getValue())) ch = true;
+      }
     }
     return ch;
   }
@@ -21,6 +21,8 @@
  *       (locals, stack, heap, statics)</li>
  *   <li><b>{@link org.glodean.constants.extractor.bytecode.types.PointsToSet}:</b> Set of possible values
  *       with widening at 32 elements</li>
+ *   <li><b>{@link org.glodean.constants.extractor.bytecode.types.NumericValueSet}:</b> Unboxed value set of a
+ *       {@code ConstantPropagation}, widening to per-type bounds at 32 values</li>
  *   <li><b>{@link org.glodean.constants.extractor.bytecode.types.FieldKey}/{@link org.glodean.constants.extractor.bytecode.types.StaticFieldKey}:</b>
  *       Keys for abstract heap/static storage</li>
  * </ul>
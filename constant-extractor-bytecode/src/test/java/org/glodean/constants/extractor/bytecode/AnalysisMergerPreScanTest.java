@@ -0,0 +1,99 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.classfile.ClassFile.ACC_STATIC;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.classfile.Attributes;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.util.function.Consumer;
+import org.glodean.constants.model.UnitDescriptor;
+import org.glodean.constants.samples.Greeter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AnalysisMerger#mayProduceUsages}, the pre-scan that lets
+ * {@link ClassModelExtractor} skip dataflow analysis of methods that cannot yield a usage.
+ */
+@DisplayName("AnalysisMerger – method pre-scan")
+class AnalysisMergerPreScanTest {
+
+  private static final ClassDesc OWNER = ClassDesc.ofInternalName("org/example/PreScan");
+
+  /** Builds a one-method class with the given body and pre-scans that method's code. */
+  private static boolean scan(MethodTypeDesc type, Consumer<CodeBuilder> body) {
+    byte[] bytes = ClassFile.of().build(OWNER, cb ->
+        cb.withMethod("m", type, ACC_PUBLIC | ACC_STATIC, mb -> mb.withCode(body)));
+    var method = ClassFile.of().parse(bytes).methods().getFirst();
+    return AnalysisMerger.mayProduceUsages(method.findAttribute(Attributes.code()).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("A getter has no constant source and is skippable")
+  void getterIsSkippable() {
+    assertFalse(scan(MethodTypeDesc.of(CD_int, OWNER), code -> code
+        .aload(0)
+        .getfield(OWNER, "value", CD_int)
+        .ireturn()));
+  }
+
+  @Test
+  @DisplayName("A setter has no constant source and is skippable")
+  void setterIsSkippable() {
+    assertFalse(scan(MethodTypeDesc.ofDescriptor("(Lorg/example/PreScan;I)V"), code -> code
+        .aload(0)
+        .iload(1)
+        .putfield(OWNER, "value", CD_int)
+        .return_()));
+  }
+
+  @Test
+  @DisplayName("A constant that is only returned reaches no sink and is skippable")
+  void returnedConstantIsSkippable() {
+    assertFalse(scan(MethodTypeDesc.of(CD_int), code -> code
+        .bipush(42)
+        .ireturn()));
+  }
+
+  @Test
+  @DisplayName("A constant passed to an invocation must be analyzed")
+  void constantArgumentIsAnalyzed() {
+    assertTrue(scan(MethodTypeDesc.ofDescriptor("()V"), code -> code
+        .bipush(7)
+        .invokestatic(OWNER, "log", MethodTypeDesc.of(CD_int, CD_int))
+        .pop()
+        .return_()));
+  }
+
+  @Test
+  @DisplayName("An iinc introduces a constant and must be analyzed")
+  void incrementIsAnalyzed() {
+    assertTrue(scan(MethodTypeDesc.of(CD_int, CD_int), code -> code
+        .iinc(0, 1)
+        .iload(0)
+        .ireturn()));
+  }
+
+  @Test
+  @DisplayName("Skipping trivial methods leaves extraction results unchanged")
+  void skippingDoesNotChangeResults() throws Exception {
+    var model = TestUtils.convertClassToModel(Greeter.class);
+    var merger = new AnalysisMerger(new InternalStringConcatPatternSplitter());
+    var extractor = new ClassModelExtractor(model, merger);
+
+    var result = extractor.extract(new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "x"));
+
+    long seen = extractor.counters().skippedMethodCount()
+        + extractor.counters().analyzedMethodCount();
+    long withCode = model.methods().stream()
+        .filter(m -> m.findAttribute(Attributes.code()).isPresent())
+        .count();
+    assertEquals(withCode, seen, "every method with code is either analyzed or skipped");
+    assertFalse(result.iterator().next().constants().isEmpty());
+  }
+}
@@ -9,9 +9,16 @@ import java.lang.classfile.Opcode;
 import java.lang.classfile.instruction.BranchInstruction;
 import java.lang.classfile.instruction.ReturnInstruction;
 import java.lang.classfile.instruction.ThrowInstruction;
+import java.lang.classfile.MethodModel;
 import java.util.List;
+import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
+import org.glodean.constants.extractor.bytecode.types.State;
+import org.glodean.constants.samples.ArrayFunctionality;
 import org.glodean.constants.samples.Greeter;
 import org.glodean.constants.samples.SimpleIfElse;
+import org.glodean.constants.samples.SimpleIteration;
+import org.glodean.constants.samples.SwitchFunctionality;
+import org.glodean.constants.samples.ThrowingMethodSample;
 import org.junit.jupiter.api.Test;
 
 class BytecodeMethodAnalyzerTest {
@@ -95,4 +102,65 @@ class BytecodeMethodAnalyzerTest {
         foundFormatted || foundLength,
         "Expected recorded calls to include String.formatted or String.length");
   }
+
+  @Test
+  void testRun_reportsConvergenceForLoop() throws IOException {
+    var cm = TestUtils.convertClassToModel(SimpleIteration.class);
+    var mm =
+        cm.methods().stream()
+            .filter(m -> m.methodName().stringValue().equals("sum"))
+            .findFirst()
+            .orElseThrow();
+    var analyzer = new BytecodeMethodAnalyzer(cm, mm);
+    analyzer.run();
+
+    assertTrue(analyzer.converged);
+    assertTrue(analyzer.blocks.count() < analyzer.code.size(), "elements are grouped into blocks");
+    // The loop header is revisited once the back edge brings new state, but no block is
+    // visited more often than the lattice height requires.
+    assertTrue(analyzer.blockVisits > analyzer.blocks.count());
+    assertTrue(analyzer.blockVisits <= 3 * analyzer.blocks.count());
+    assertTrue(analyzer.transfers >= analyzer.code.size());
+    assertTrue(analyzer.report().contains("Convergence: " + analyzer.blockVisits + " block visits"));
+    for (int i = 0; i < analyzer.code.size(); i++) {
+      if (analyzer.code.get(i) instanceof ReturnInstruction) {
+        assertNotNull(analyzer.in.get(i), "return must be reached");
+      }
+    }
+  }
+
+  @Test
+  void testRun_blockHeadRetentionReplaysTheSameStates() throws Exception {
+    for (Class<?> sample :
+        List.of(
+            SimpleIteration.class,
+            SimpleIfElse.class,
+            SwitchFunctionality.class,
+            Greeter.class,
+            ThrowingMethodSample.class,
+            ArrayFunctionality.class)) {
+      var cm = TestUtils.convertClassToModel(sample);
+      for (MethodModel mm : cm.methods()) {
+        var full = new BytecodeMethodAnalyzer(cm, mm);
+        var heads =
+            new BytecodeMethodAnalyzer(
+                cm, mm, DefaultRegistrySource.defaultRegistry(), StateRetention.BLOCK_HEADS);
+        full.run();
+        heads.run();
+        if (full.code.isEmpty()) continue;
+
+        String where = sample.getSimpleName() + "::" + mm.methodName().stringValue();
+        List<State> replayed = heads.inStates();
+        for (int i = 0; i < full.code.size(); i++) {
+          boolean head = heads.blocks.starts()[heads.blocks.blockOf()[i]] == i;
+          if (!head) assertNull(heads.in.get(i), where + "@" + i + " must not be retained");
+          assertEquals(full.in.get(i), replayed.get(i), where + "@" + i);
+        }
+        // Random access replays from the block head and agrees with the sequential walk.
+        int last = full.code.size() - 1;
+        assertEquals(full.in.get(last), replayed.get(last), where);
+        assertEquals(full.in.get(0), replayed.get(0), where);
+      }
+    }
+  }
 }
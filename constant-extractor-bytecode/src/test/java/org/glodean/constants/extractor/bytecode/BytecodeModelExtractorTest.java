@@ -8,12 +8,15 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
@@ -320,6 +323,65 @@ class BytecodeModelExtractorTest {
     }
   }
 
+  // -------------------------------------------------------------------------
+  // forDirectory + streaming extract
+  // -------------------------------------------------------------------------
+
+  @Nested
+  @DisplayName("forDirectory — streaming extraction")
+  class DirectoryStreamingTests {
+
+    @Test
+    @DisplayName("Streams one UnitConstants per class and retains nothing")
+    void streamsEachUnitToTheSink() throws Exception {
+      try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix());
+           ExecutorService exec = Executors.newFixedThreadPool(2)) {
+
+        Path dir = Files.createDirectories(fs.getPath("/out/classes/pkg"));
+        Files.write(dir.resolve("Greeter.class"), loadClassBytes(Greeter.class));
+        Files.write(dir.resolve("SimpleIteration.class"), loadClassBytes(SimpleIteration.class));
+        Files.writeString(dir.resolve("notes.txt"), "ignored");
+
+        var budget = new ExtractionBudget(1 << 20);
+        var extractor = BytecodeModelExtractor.forDirectory(
+            exec, budget, fs.getPath("/out/classes"), new ExtractionNotifier.Silent(),
+            extensionRepository());
+        Queue<UnitConstants> streamed = new ConcurrentLinkedQueue<>();
+        extractor.extract(anyDescriptor(), streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertEquals(extractor.extract(anyDescriptor()).size(), streamed.size());
+        assertEquals(0, budget.inFlightBytes(), "no input left reserved");
+        assertEquals(0, budget.retainedBytes(), "streamed results are not retained");
+      }
+    }
+
+    @Test
+    @DisplayName("Descriptors carry root-relative paths")
+    void descriptorsAreRootRelative() throws Exception {
+      try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix());
+           ExecutorService exec = Executors.newFixedThreadPool(1)) {
+
+        Path dir = Files.createDirectories(fs.getPath("/root/nested"));
+        Files.write(dir.resolve("Greeter.class"), loadClassBytes(Greeter.class));
+        List<String> paths = new java.util.ArrayList<>();
+        ModelExtractorSupplierRepository recording = ModelExtractorSupplierRepository.builder()
+            .register(name -> name.endsWith(".class"), BytecodeSourceKind.CLASS_FILE,
+                bytes -> source -> {
+                  paths.add(source.path());
+                  return List.of();
+                })
+            .build();
+
+        BytecodeModelExtractor.forDirectory(
+                exec, null, fs.getPath("/root"), new ExtractionNotifier.Silent(), recording)
+            .extract(anyDescriptor(), _ -> {});
+
+        assertEquals(List.of("nested/Greeter.class"), paths);
+      }
+    }
+  }
+
   // -------------------------------------------------------------------------
   // forZipStream — standalone (internal default repository)
   // -------------------------------------------------------------------------
@@ -548,6 +610,61 @@ class BytecodeModelExtractorTest {
   // Custom ModelExtractorSupplierRepository
   // -------------------------------------------------------------------------
 
+  // -------------------------------------------------------------------------
+  // forZipArchive / extractEntryChunk — memory-mapped archives
+  // -------------------------------------------------------------------------
+
+  @Nested
+  @DisplayName("forZipArchive / extractEntryChunk")
+  class ZipArchiveTests {
+
+    @Test
+    @DisplayName("Extracts classes from an archive with file-system style descriptors")
+    void extractsFromArchive() throws Exception {
+      var baos = new ByteArrayOutputStream();
+      try (var zos = new ZipOutputStream(baos)) {
+        zos.putNextEntry(new ZipEntry("org/"));
+        zos.closeEntry();
+        zos.putNextEntry(new ZipEntry("org/Greeter.class"));
+        zos.write(loadClassBytes(Greeter.class));
+        zos.closeEntry();
+      }
+      var archive = MappedZipArchive.of(MemorySegment.ofArray(baos.toByteArray()));
+      try (ExecutorService exec = Executors.newFixedThreadPool(2)) {
+        Collection<UnitConstants> result = BytecodeModelExtractor
+            .forZipArchive(exec, archive, new ExtractionNotifier.Silent(), extensionRepository())
+            .extract(anyDescriptor());
+
+        assertEquals(1, result.size(), "Directory entry must be skipped");
+        assertEquals(
+            archive.entries().get(1).fingerprint(),
+            result.iterator().next().source().contentHash());
+      }
+    }
+
+    @Test
+    @DisplayName("extractEntryChunk only reads the given entries")
+    void entryChunkReadsOnlyGivenEntries() throws Exception {
+      var baos = new ByteArrayOutputStream();
+      try (var zos = new ZipOutputStream(baos)) {
+        zos.putNextEntry(new ZipEntry("Greeter.class"));
+        zos.write(loadClassBytes(Greeter.class));
+        zos.closeEntry();
+        zos.putNextEntry(new ZipEntry("SimpleIteration.class"));
+        zos.write(loadClassBytes(SimpleIteration.class));
+        zos.closeEntry();
+      }
+      var archive = MappedZipArchive.of(MemorySegment.ofArray(baos.toByteArray()));
+      try (ExecutorService exec = Executors.newFixedThreadPool(2)) {
+        Collection<UnitConstants> result = BytecodeModelExtractor.extractEntryChunk(
+            exec, archive, archive.entries().subList(0, 1),
+            new ExtractionNotifier.Silent(), extensionRepository());
+
+        assertEquals(1, result.size());
+      }
+    }
+  }
+
   @Nested
   @DisplayName("Custom ModelExtractorSupplierRepository")
   class CustomRepositoryTests {
@@ -11,7 +11,11 @@ import java.lang.classfile.ClassModel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import org.glodean.constants.interpreter.ConstantUsageInterpreter;
 import org.glodean.constants.model.UnitConstant;
 import org.glodean.constants.model.UnitConstant.ConstantUsage;
 import org.glodean.constants.model.UnitConstant.UsageLocation;
@@ -24,6 +28,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.FieldSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 @DisplayName("ClassModelExtractor Tests")
 class ClassModelExtractorTest {
@@ -145,6 +150,29 @@ class ClassModelExtractorTest {
               constant(0, ARITHMETIC_OPERAND),
               constant(1, ARITHMETIC_OPERAND)));
     }
+
+    @Test
+    @DisplayName("Should not report the bounds of a widened value set as exact arguments")
+    void skipWidenedArguments() throws IOException {
+      var actual = extractConstants(WideSwitch.class);
+
+      Map<String, Set<Object>> arguments = new HashMap<>();
+      for (var constant : actual.constants()) {
+        for (var usage : constant.usages()) {
+          if (usage.structuralType() == METHOD_INVOCATION_PARAMETER) {
+            arguments.computeIfAbsent(usage.location().methodName(), _ -> new HashSet<>())
+                .add(constant.value());
+          }
+        }
+      }
+      assertEquals(Set.of(1, 30, 20, 10), arguments.get("narrow"));
+      // Entering wide() at case 0..8 adds more than 32 constants to delay, so those paths only
+      // keep bounds; their largest addends reach the call on no path that is tracked exactly.
+      assertTrue(arguments.get("wide").containsAll(Set.of(1, 610)));
+      for (int i = 0; i <= 8; i++) {
+        assertFalse(arguments.get("wide").contains(1000 - 10 * i), "case " + i);
+      }
+    }
   }
 
   @Nested
@@ -265,9 +293,16 @@ class ClassModelExtractorTest {
     @FieldSource("invalidInputs")
     @DisplayName("Should throw IllegalArgumentException for invalid stack operations")
     void extractForFailingStackOperations(Supplier<byte[]> code) {
+      // The extractor's pre-scan skips methods without a constant reaching a sink, so the
+      // analyzer is run directly to check that malformed stack operations are rejected.
       assertThrows(
           IllegalArgumentException.class,
-          () -> extractConstants(ClassFile.of().parse(code.get())));
+          () -> {
+            var model = ClassFile.of().parse(code.get());
+            for (var method : model.methods()) {
+              new BytecodeMethodAnalyzer(model, method).run();
+            }
+          });
     }
   }
 
@@ -311,4 +346,92 @@ class ClassModelExtractorTest {
           actual, "org.glodean.constants.samples.MultiArrayFunctionality", Set.of());
     }
   }
+
+  @Nested
+  @DisplayName("Fork/Join Method Splitting Tests")
+  class ForkJoinTests {
+
+    private Collection<UnitConstants> extractIn(ForkJoinPool pool, ClassModel model)
+        throws Exception {
+      var extractor = new ClassModelExtractor(model, analysisMerger, StateRetention.ALL_ELEMENTS, 0);
+      var descriptor = new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "x");
+      return pool.submit(() -> extractor.extract(descriptor)).get();
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {
+        Greeter.class, SwitchFunctionality.class, ThrowingMethodSample.class, SimpleIteration.class})
+    @DisplayName("Forking every method yields the same constants as inline analysis")
+    void forkedMatchesInline(Class<?> sample) throws Exception {
+      var model = convertClassToModel(sample);
+      var inline = new ClassModelExtractor(model, analysisMerger)
+          .extract(new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "x"));
+
+      try (var pool = new ForkJoinPool(4)) {
+        assertEquals(inline, extractIn(pool, model));
+      }
+    }
+
+    @Test
+    @DisplayName("A failure in a forked method surfaces from extract")
+    void forkedFailurePropagates() throws Exception {
+      byte[] clazz = Files.readAllBytes(Path.of("src/test/resources/samples/JsrExample.class"));
+
+      try (var pool = new ForkJoinPool(2)) {
+        var thrown = assertThrows(
+            ExecutionException.class, () -> extractIn(pool, ClassFile.of().parse(clazz)));
+        assertInstanceOf(UnsupportedOperationException.class, thrown.getCause());
+      }
+    }
+
+    @Test
+    @DisplayName("No forked method is still analyzed once a failure surfaced from extract")
+    void failureSettlesForkedMethods() throws Exception {
+      var calls = new AtomicInteger();
+      var running = new AtomicInteger();
+      ConstantUsageInterpreter interpreter = new ConstantUsageInterpreter() {
+        @Override
+        public ConstantUsage interpret(
+            UsageLocation location, ConstantUsageInterpreter.InterpretationContext context) {
+          if (location.methodName().startsWith("<field:")) {
+            return null;
+          }
+          running.incrementAndGet();
+          try {
+            if (calls.getAndIncrement() == 0) {
+              throw new IllegalStateException("interpreter failed");
+            }
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            running.decrementAndGet();
+          }
+          return null;
+        }
+
+        @Override
+        public boolean canInterpret(UnitConstant.UsageType type) {
+          return true;
+        }
+      };
+      var registry = ConstantUsageInterpreterRegistry.builder();
+      for (UnitConstant.UsageType type : UnitConstant.UsageType.values()) {
+        registry.register(type, interpreter);
+      }
+      var merger = new AnalysisMerger(new InternalStringConcatPatternSplitter(), registry.build());
+      var extractor = new ClassModelExtractor(
+          convertClassToModel(Greeter.class), merger, StateRetention.ALL_ELEMENTS, 0);
+
+      try (var pool = new ForkJoinPool(4)) {
+        var thrown = assertThrows(ExecutionException.class, () -> pool.submit(
+            () -> extractor.extract(new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "x"))).get());
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+        assertEquals(0, running.get());
+        int settled = calls.get();
+        Thread.sleep(200);
+        assertEquals(settled, calls.get());
+      }
+    }
+  }
 }
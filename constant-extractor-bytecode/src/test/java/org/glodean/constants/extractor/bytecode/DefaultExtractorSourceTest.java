@@ -0,0 +1,58 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.model.UnitDescriptor;
+import org.glodean.constants.samples.Greeter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DefaultExtractorSource")
+class DefaultExtractorSourceTest {
+
+  private static ModelExtractorSupplierRepository repository() {
+    var merger = new AnalysisMerger(
+        new InternalStringConcatPatternSplitter(), DefaultExtractorSource.interpreterRegistry());
+    return DefaultExtractorSource.registerClassFiles(
+            ModelExtractorSupplierRepository.builder(), ClassModelExtractor.supplier(merger))
+        .build();
+  }
+
+  @Test
+  @DisplayName("Every caller gets registries that classify constants alike")
+  void interpreterRegistriesMatch() {
+    assertEquals(
+        DefaultExtractorSource.interpreterRegistry().fingerprint(),
+        DefaultExtractorSource.interpreterRegistry().fingerprint());
+  }
+
+  @Test
+  @DisplayName("Class files are extracted")
+  void extractsClassFiles() throws Exception {
+    byte[] bytes;
+    try (InputStream in = Greeter.class.getResourceAsStream("Greeter.class")) {
+      bytes = in.readAllBytes();
+    }
+
+    var supply = repository().resolve("Greeter.class", bytes).orElseThrow();
+
+    assertEquals(BytecodeSourceKind.CLASS_FILE, supply.sourceKind());
+    var units = supply.extractor()
+        .extract(new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "Greeter.class"));
+    assertEquals(
+        "org.glodean.constants.samples.Greeter", units.iterator().next().source().path());
+  }
+
+  @Test
+  @DisplayName("A malformed class file fails when extracted, not when resolved")
+  void parsesWhenExtracting() {
+    var supply = repository().resolve("Broken.class", new byte[] {1, 2, 3}).orElseThrow();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> supply.extractor()
+            .extract(new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "Broken.class")));
+  }
+}
@@ -0,0 +1,151 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.glodean.constants.extractor.ExtractionNotifier;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstant.UsageLocation;
+import org.glodean.constants.model.UnitConstant.UsageType;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ExtractionBudget Tests")
+class ExtractionBudgetTest {
+
+  private static UnitDescriptor sized(String path, long size) {
+    return new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, path, size);
+  }
+
+  @Test
+  @DisplayName("Rejects a non-positive capacity")
+  void rejectsNonPositiveCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new ExtractionBudget(0));
+    assertThrows(IllegalArgumentException.class, () -> ExtractionBudget.ofHeapFraction(0));
+    assertThrows(IllegalArgumentException.class, () -> ExtractionBudget.ofHeapFraction(1.5));
+  }
+
+  @Test
+  @DisplayName("Reservations within capacity are granted and tracked")
+  void grantsWithinCapacity() throws Exception {
+    var budget = new ExtractionBudget(100);
+    budget.acquire(40);
+    budget.acquire(60);
+
+    assertEquals(100, budget.inFlightBytes());
+    assertEquals(0, budget.availableBytes());
+
+    budget.complete(40, 10);
+    assertEquals(60, budget.inFlightBytes());
+    assertEquals(10, budget.retainedBytes());
+
+    budget.releaseResults(10);
+    assertEquals(40, budget.availableBytes());
+    assertEquals(0, budget.waitCount());
+  }
+
+  @Test
+  @DisplayName("A unit larger than the whole budget runs alone instead of deadlocking")
+  void oversizedUnitIsGrantedWhenIdle() throws Exception {
+    var budget = new ExtractionBudget(10);
+    budget.acquire(1_000);
+
+    assertEquals(1_000, budget.inFlightBytes());
+    assertTrue(budget.availableBytes() < 0);
+  }
+
+  @Test
+  @DisplayName("acquire blocks until in-flight work completes")
+  void blocksUntilReleased() throws Exception {
+    var budget = new ExtractionBudget(100);
+    budget.acquire(80);
+    var acquired = new CountDownLatch(1);
+
+    Thread waiter = Thread.ofVirtual().start(() -> {
+      try {
+        budget.acquire(50);
+        acquired.countDown();
+      } catch (Exception e) {
+        throw new AssertionError(e);
+      }
+    });
+
+    assertFalse(acquired.await(200, TimeUnit.MILLISECONDS), "must wait while budget is exhausted");
+    budget.complete(80, 0);
+    assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    waiter.join();
+    assertEquals(50, budget.inFlightBytes());
+    assertEquals(1, budget.waitCount());
+  }
+
+  @Test
+  @DisplayName("Interrupting a waiting submitter raises InterruptedIOException")
+  void interruptedWaitFails() throws Exception {
+    var budget = new ExtractionBudget(10);
+    budget.acquire(10);
+    var failed = new AtomicBoolean();
+
+    Thread waiter = Thread.ofVirtual().start(() -> {
+      try {
+        budget.acquire(10);
+      } catch (InterruptedIOException e) {
+        failed.set(Thread.currentThread().isInterrupted());
+      }
+    });
+    while (budget.waitCount() == 0) Thread.onSpinWait();
+    waiter.interrupt();
+    waiter.join(5_000);
+
+    assertTrue(failed.get(), "interrupt flag must be restored");
+    assertEquals(10, budget.inFlightBytes());
+  }
+
+  @Test
+  @DisplayName("estimate grows with constants, usages and string length")
+  void estimateGrowsWithContent() {
+    var location = new UsageLocation("a.B", "m", "()V", 0, null);
+    var usage = new UnitConstant.ConstantUsage(
+        UsageType.METHOD_INVOCATION_PARAMETER, null, location, 1.0, new LinkedHashMap<>());
+    var empty = List.of(new UnitConstants(sized("a/B.class", 1), Set.of()));
+    var small = List.of(new UnitConstants(
+        sized("a/B.class", 1), Set.of(new UnitConstant("x", Set.of(usage)))));
+    var large = List.of(new UnitConstants(
+        sized("a/B.class", 1), Set.of(new UnitConstant("x".repeat(1_000), Set.of(usage)))));
+
+    assertEquals(0, ExtractionBudget.estimate(null));
+    assertTrue(ExtractionBudget.estimate(empty) > 0);
+    assertTrue(ExtractionBudget.estimate(small) > ExtractionBudget.estimate(empty));
+    assertTrue(ExtractionBudget.estimate(large) > ExtractionBudget.estimate(small));
+  }
+
+  @Test
+  @DisplayName("A budgeted pool returns every reservation once collected")
+  void poolReleasesBudgetAfterCollect() {
+    var budget = new ExtractionBudget(64);
+    try (ExecutorService exec = Executors.newFixedThreadPool(4)) {
+      var pool = new ExtractionPool(exec, new ExtractionNotifier.Silent(), budget);
+      for (int i = 0; i < 20; i++) {
+        String name = "C" + i + ".class";
+        pool.submit(
+            () -> source -> List.of(new UnitConstants(source, Set.of())),
+            Path.of(name),
+            sized(name, 40));
+      }
+
+      assertEquals(20, pool.collect().size());
+    }
+    assertEquals(0, budget.inFlightBytes());
+    assertEquals(0, budget.retainedBytes());
+  }
+}
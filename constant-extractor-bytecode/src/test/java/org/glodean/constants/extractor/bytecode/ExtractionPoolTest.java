@@ -390,4 +390,78 @@ class ExtractionPoolTest {
       }
     }
   }
+
+  @Nested
+  @DisplayName("ExtractionControl")
+  class ControlTests {
+
+    /** Control admitting every unit until cancelled, counting units admitted and done. */
+    static class CountingControl implements ExtractionControl {
+      final java.util.concurrent.atomic.AtomicInteger admitted =
+          new java.util.concurrent.atomic.AtomicInteger();
+      final java.util.concurrent.atomic.AtomicInteger done =
+          new java.util.concurrent.atomic.AtomicInteger();
+      volatile boolean cancelled;
+
+      @Override
+      public boolean cancelled() {
+        return cancelled;
+      }
+
+      @Override
+      public boolean admit() {
+        if (cancelled) return false;
+        admitted.incrementAndGet();
+        return true;
+      }
+
+      @Override
+      public void unitDone() {
+        done.incrementAndGet();
+      }
+    }
+
+    @Test
+    @DisplayName("Skips queued units once cancelled and reports every admitted unit done")
+    void skipsQueuedUnitsOnceCancelled() throws InterruptedException {
+      var notifier = new TrackingNotifier();
+      var control = new CountingControl();
+      var budget = new ExtractionBudget(1_000);
+      var started = new java.util.concurrent.CountDownLatch(1);
+      var release = new java.util.concurrent.CountDownLatch(1);
+      var analyzed = new java.util.concurrent.atomic.AtomicInteger();
+      try (ExecutorService exec = Executors.newSingleThreadExecutor()) {
+        var pool = new ExtractionPool(exec, notifier, budget, _ -> {}, control);
+        pool.submit(() -> _ -> {
+          analyzed.incrementAndGet();
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return List.of();
+        }, Path.of("Blocking.class"), descriptor("Blocking.class"));
+        for (int i = 0; i < 3; i++) {
+          pool.submit(() -> _ -> {
+            analyzed.incrementAndGet();
+            return List.of();
+          }, Path.of("Queued.class"), descriptor("Queued.class"));
+        }
+
+        started.await();
+        control.cancelled = true;
+        pool.submit(() -> successExtractor("Late.class"), Path.of("Late.class"),
+            descriptor("Late.class"));
+        assertTrue(pool.cancelled());
+        release.countDown();
+        pool.collect();
+
+        assertEquals(1, analyzed.get(), "queued units must not be analyzed after cancellation");
+        assertEquals(4, control.admitted.get());
+        assertEquals(4, control.done.get());
+        assertEquals(0, budget.inFlightBytes());
+      }
+    }
+  }
 }
@@ -0,0 +1,166 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.List;
+import org.glodean.constants.extractor.ExtractionResultCache;
+import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.extractor.TieredExtractionResultCache;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+import org.glodean.constants.samples.Greeter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Class-file results served from a {@link TieredExtractionResultCache} via the repository. */
+class ExtractionResultCacheTest {
+
+  private static final AnalysisMerger MERGER =
+      new AnalysisMerger(new InternalStringConcatPatternSplitter());
+
+  private static byte[] greeterBytes() throws Exception {
+    try (InputStream in = Greeter.class.getResourceAsStream("Greeter.class")) {
+      return in.readAllBytes();
+    }
+  }
+
+  private static ModelExtractorSupplierRepository repository(TieredExtractionResultCache cache) {
+    return ModelExtractorSupplierRepository.builder()
+        .register(
+            name -> name.endsWith(".class"),
+            BytecodeSourceKind.CLASS_FILE,
+            ClassModelExtractor.supplier(MERGER))
+        .cache(cache, MERGER.fingerprint(), BytecodeSourceKind.CLASS_FILE)
+        .build();
+  }
+
+  private static Collection<UnitConstants> extract(
+      ModelExtractorSupplierRepository repository, byte[] bytes, String hash) throws Exception {
+    var descriptor =
+        new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "x/Greeter.class", bytes.length, hash);
+    return repository.resolve("Greeter.class", bytes).orElseThrow().extractor().extract(descriptor);
+  }
+
+  @Test
+  void identicalBytesAreAnalyzedOnce() throws Exception {
+    var cache = new TieredExtractionResultCache(10, null);
+    var repository = repository(cache);
+    byte[] bytes = greeterBytes();
+
+    var computed = extract(repository, bytes, "first");
+    var cached = extract(repository, bytes, "second");
+
+    assertEquals(1, cache.missCount());
+    assertEquals(1, cache.hitCount());
+    UnitConstants unit = cached.iterator().next();
+    assertEquals("second", unit.source().contentHash());
+    assertEquals(computed.iterator().next().source().path(), unit.source().path());
+    assertEquals(computed.iterator().next().constants(), unit.constants());
+  }
+
+  @Test
+  void diskTierSurvivesAFreshHeap(@TempDir Path dir) throws Exception {
+    byte[] bytes = greeterBytes();
+    var computed = extract(repository(new TieredExtractionResultCache(10, dir)), bytes, "h");
+
+    var restarted = new TieredExtractionResultCache(10, dir);
+    var reloaded = extract(repository(restarted), bytes, "h");
+
+    assertEquals(1, restarted.diskHitCount());
+    assertEquals(0, restarted.missCount());
+    assertEquals(List.copyOf(computed), List.copyOf(reloaded));
+  }
+
+  @Test
+  void differentFingerprintsDoNotShareEntries() throws Exception {
+    var cache = new TieredExtractionResultCache(10, null);
+    byte[] bytes = greeterBytes();
+    extract(repository(cache), bytes, "h");
+    var other =
+        ModelExtractorSupplierRepository.builder()
+            .register(
+                name -> name.endsWith(".class"),
+                BytecodeSourceKind.CLASS_FILE,
+                ClassModelExtractor.supplier(MERGER))
+            .cache(cache, MERGER.fingerprint() + "|other", BytecodeSourceKind.CLASS_FILE)
+            .build();
+    extract(other, bytes, "h");
+
+    assertEquals(2, cache.missCount());
+    assertEquals(2, cache.heapSize());
+  }
+
+  @Test
+  void diskTierEvictsLeastRecentlyUsedEntriesOverItsLimit(@TempDir Path dir) throws Exception {
+    List<UnitConstants> results = List.copyOf(extract(repository(
+        new TieredExtractionResultCache(10, null)), greeterBytes(), "h"));
+    var sizing = new TieredExtractionResultCache(0, dir.resolve("sizing"));
+    sizing.put(key(0), results);
+    long entrySize = sizing.diskSize();
+
+    // Room for four and a half entries; a trim keeps three.
+    var cache = new TieredExtractionResultCache(0, dir, 4 * entrySize + entrySize / 2);
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < 4; i++) {
+      cache.put(key(i), results);
+      Files.setLastModifiedTime(file(dir, i), FileTime.fromMillis(now - 10_000 + i * 1_000));
+    }
+    assertTrue(cache.get(key(0)).isPresent());
+    cache.put(key(4), results);
+
+    assertEquals(2, cache.diskEvictionCount());
+    assertTrue(Files.exists(file(dir, 0)));
+    assertFalse(Files.exists(file(dir, 1)));
+    assertFalse(Files.exists(file(dir, 2)));
+    assertTrue(Files.exists(file(dir, 3)));
+    assertTrue(Files.exists(file(dir, 4)));
+    assertEquals(3 * entrySize, cache.diskSize());
+    assertEquals(3 * entrySize, new TieredExtractionResultCache(0, dir).diskSize());
+  }
+
+  @Test
+  void oversizedDiskTierIsTrimmedOnStartup(@TempDir Path dir) throws Exception {
+    List<UnitConstants> results = List.copyOf(extract(repository(
+        new TieredExtractionResultCache(10, null)), greeterBytes(), "h"));
+    var cache = new TieredExtractionResultCache(0, dir);
+    for (int i = 0; i < 4; i++) {
+      cache.put(key(i), results);
+    }
+    long entrySize = cache.diskSize() / 4;
+
+    var restarted = new TieredExtractionResultCache(0, dir, 2 * entrySize);
+
+    assertEquals(3, restarted.diskEvictionCount());
+    assertEquals(entrySize, restarted.diskSize());
+  }
+
+  @Test
+  void fingerprintsNameTheExtractorBuild() {
+    String build = ExtractionResultCache.buildVersionOf(AnalysisMerger.class);
+    var registry = ConstantUsageInterpreterRegistry.builder()
+        .register(
+            UnitConstant.UsageType.FIELD_STORE,
+            ConstantUsageInterpreterRegistry.NoOpConstantUsageInterpreter.forType(
+                UnitConstant.UsageType.FIELD_STORE))
+        .build();
+
+    assertTrue(new AnalysisMerger(new InternalStringConcatPatternSplitter(), registry)
+        .fingerprint().startsWith(build + "|"));
+    assertTrue(registry.fingerprint().endsWith("@" + build));
+  }
+
+  private static String key(int i) {
+    return ExtractionResultCache.keyOf(new byte[] {(byte) i}, "test");
+  }
+
+  private static Path file(Path dir, int i) {
+    String key = key(i);
+    return dir.resolve(key.substring(0, 2)).resolve(key + ".bin");
+  }
+}
@@ -0,0 +1,230 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.glodean.constants.extractor.ExtractionNotifier;
+import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+import org.glodean.constants.samples.Greeter;
+import org.glodean.constants.samples.SimpleIteration;
+import org.glodean.constants.samples.SwitchFunctionality;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ExtractionStages} and the staged {@link BytecodeModelExtractor} factories. */
+@DisplayName("ExtractionStages Tests")
+class ExtractionStagesTest {
+
+  private final AnalysisMerger merger = new AnalysisMerger(new InternalStringConcatPatternSplitter());
+
+  private static byte[] loadClassBytes(Class<?> clazz) throws IOException {
+    String resource = clazz.getName().replace('.', '/') + ".class";
+    try (InputStream is = clazz.getClassLoader().getResourceAsStream(resource)) {
+      assertNotNull(is, "Could not locate class resource: " + resource);
+      return is.readAllBytes();
+    }
+  }
+
+  private ModelExtractorSupplierRepository extensionRepository() {
+    return ModelExtractorSupplierRepository.builder()
+        .register(
+            name -> name.endsWith(".class"),
+            BytecodeSourceKind.CLASS_FILE,
+            ClassModelExtractor.supplier(merger))
+        .build();
+  }
+
+  private static MappedZipArchive archiveOf(Class<?>... classes) throws IOException {
+    var baos = new ByteArrayOutputStream();
+    try (var zos = new ZipOutputStream(baos)) {
+      zos.putNextEntry(new ZipEntry("org/"));
+      zos.closeEntry();
+      for (Class<?> clazz : classes) {
+        zos.putNextEntry(new ZipEntry("org/" + clazz.getSimpleName() + ".class"));
+        zos.write(loadClassBytes(clazz));
+        zos.closeEntry();
+      }
+    }
+    return MappedZipArchive.of(MemorySegment.ofArray(baos.toByteArray()));
+  }
+
+  private static UnitDescriptor anyDescriptor() {
+    return new UnitDescriptor(BytecodeSourceKind.JAR, "test.jar");
+  }
+
+  /** Orders units by path so that results of different runs compare regardless of order. */
+  private static List<UnitConstants> sorted(Collection<UnitConstants> units) {
+    return units.stream()
+        .sorted(java.util.Comparator.comparing(u -> u.source().path()))
+        .toList();
+  }
+
+  private static void awaitCondition(java.util.function.BooleanSupplier condition)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  @DisplayName("Rejects non-positive concurrency and queue capacity")
+  void rejectsNonPositiveSizes() {
+    try (ExecutorService exec = Executors.newSingleThreadExecutor()) {
+      assertThrows(IllegalArgumentException.class, () -> new ExtractionStages(exec, 0, exec, 1));
+      assertThrows(IllegalArgumentException.class, () -> new ExtractionStages(exec, 1, exec, 0));
+    }
+  }
+
+  @Test
+  @DisplayName("Staged archive extraction yields the same units as the single-feeder path")
+  void stagedArchiveMatchesUnstaged() throws Exception {
+    var archive = archiveOf(Greeter.class, SimpleIteration.class, SwitchFunctionality.class);
+    try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+         ExecutorService cpu = Executors.newFixedThreadPool(2)) {
+      var stages = new ExtractionStages(io, 4, cpu, 1);
+      var budget = new ExtractionBudget(1 << 20);
+
+      Collection<UnitConstants> staged = BytecodeModelExtractor
+          .forZipArchive(stages, budget, archive, archive.entries(),
+              new ExtractionNotifier.Silent(), extensionRepository())
+          .extract(anyDescriptor());
+      Collection<UnitConstants> unstaged = BytecodeModelExtractor
+          .forZipArchive(cpu, archive, new ExtractionNotifier.Silent(), extensionRepository())
+          .extract(anyDescriptor());
+
+      assertEquals(3, staged.size());
+      assertEquals(sorted(unstaged), sorted(staged));
+      assertEquals(0, stages.queueDepth());
+      assertEquals(0, stages.activeReads());
+      assertEquals(0, stages.activeAnalyses());
+      assertTrue(stages.readNanos() > 0, "read time is accounted");
+      assertTrue(stages.analysisNanos() > 0, "analysis time is accounted");
+      assertEquals(0, budget.inFlightBytes(), "no input left reserved");
+      assertEquals(0, budget.retainedBytes(), "collected results are released");
+    }
+  }
+
+  @Test
+  @DisplayName("A unit that fails to read is reported and the others are still extracted")
+  void stagedDirectoryReportsReadFailures() throws Exception {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix());
+         ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+         ExecutorService cpu = Executors.newFixedThreadPool(2)) {
+      Path dir = Files.createDirectories(fs.getPath("/classes/pkg"));
+      Files.write(dir.resolve("Greeter.class"), loadClassBytes(Greeter.class));
+      Files.write(dir.resolve("Broken.class"), new byte[] {1, 2, 3});
+      var notifier = new ExtractionPoolTest.TrackingNotifier();
+
+      List<UnitConstants> streamed = new ArrayList<>();
+      BytecodeModelExtractor
+          .forDirectory(new ExtractionStages(io, 2, cpu, 2), null, fs.getPath("/classes"),
+              notifier, extensionRepository())
+          .extract(anyDescriptor(), unit -> {
+            synchronized (streamed) {
+              streamed.add(unit);
+            }
+          });
+
+      assertEquals(1, streamed.size());
+      assertEquals(Greeter.class.getName(), streamed.getFirst().source().path());
+      assertEquals(1, notifier.processingErrors.size(), "the malformed class is reported");
+      assertEquals(1, notifier.completedErrors);
+    }
+  }
+
+  @Test
+  @DisplayName("Read units beyond the queue capacity wait for a CPU worker")
+  void queueIsBounded() throws Exception {
+    try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+         ExecutorService cpu = Executors.newSingleThreadExecutor()) {
+      var stages = new ExtractionStages(io, 4, cpu, 1);
+      var release = new CountDownLatch(1);
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        int value = i;
+        results.add(stages.submit(() -> () -> {
+          release.await();
+          return value;
+        }));
+      }
+
+      // one unit is analyzed, one waits in the queue, the third holds no queue slot
+      awaitCondition(() -> stages.activeAnalyses() == 1 && stages.queueDepth() == 1);
+      assertEquals(1, stages.queueDepth());
+      release.countDown();
+
+      for (int i = 0; i < 3; i++) {
+        assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(0, stages.queueDepth());
+      assertEquals(0, stages.activeAnalyses());
+    }
+  }
+
+  @Test
+  @DisplayName("Readers stop once the read slots and the queue are full")
+  void readsAreBoundedWhileAnalysisIsBlocked() throws Exception {
+    try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+         ExecutorService feeder = Executors.newSingleThreadExecutor();
+         ExecutorService cpu = Executors.newSingleThreadExecutor()) {
+      var stages = new ExtractionStages(io, 2, cpu, 1);
+      var release = new CountDownLatch(1);
+      cpu.submit(() -> {
+        release.await();
+        return null;
+      });
+      var reads = new AtomicInteger();
+      Future<List<Future<Integer>>> submitted;
+      try {
+        submitted = feeder.submit(() -> {
+          List<Future<Integer>> results = new ArrayList<>();
+          for (int i = 0; i < 10; i++) {
+            int value = i;
+            results.add(stages.submit(() -> {
+              reads.incrementAndGet();
+              return () -> value;
+            }));
+          }
+          return results;
+        });
+
+        // one unit waits in the queue, two more hold the read slots while waiting for it
+        awaitCondition(() -> stages.queueDepth() == 1 && reads.get() == 3);
+        Thread.sleep(100);
+        assertEquals(3, reads.get(), "no reads beyond ioConcurrency + queueCapacity");
+        assertFalse(submitted.isDone(), "the feeder waits for a read slot");
+      } finally {
+        release.countDown();
+      }
+
+      List<Future<Integer>> results = submitted.get(5, TimeUnit.SECONDS);
+      for (int i = 0; i < 10; i++) {
+        assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(10, reads.get());
+    }
+  }
+}
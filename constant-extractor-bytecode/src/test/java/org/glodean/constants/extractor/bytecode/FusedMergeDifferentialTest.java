@@ -0,0 +1,102 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.glodean.constants.extractor.bytecode.Utils.toJavaDescriptor;
+import static org.glodean.constants.extractor.bytecode.Utils.toJavaName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.MethodModel;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
+import org.glodean.constants.samples.Greeter;
+import org.glodean.constants.samples.SimpleIteration;
+import org.glodean.constants.samples.SwitchFunctionality;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Differential tests for {@link StateRetention#FUSED}: the single-pass
+ * {@link BytecodeMethodAnalyzer#mergeAndRelease} must yield exactly the usages of the two-pass
+ * {@link AnalysisMerger#merge} over the replayed states of {@link StateRetention#BLOCK_HEADS},
+ * which converges to the same block-head states.
+ */
+@DisplayName("Fused merge – differential tests")
+class FusedMergeDifferentialTest {
+
+  /** Bounds the JDK corpus so that the test stays in the unit-test time budget. */
+  private static final int JDK_CLASS_LIMIT = 120;
+
+  private final AnalysisMerger merger = new AnalysisMerger(new InternalStringConcatPatternSplitter());
+
+  /**
+   * Compares both merge strategies on one method.
+   *
+   * @return {@code false} if the method could not be analyzed and was not compared
+   */
+  private boolean assertSameUsages(ClassModel cm, MethodModel mm) {
+    String className = toJavaName(cm.thisClass().asSymbol());
+    String methodName = mm.methodName().stringValue();
+    String descriptor = toJavaDescriptor(mm.methodType().stringValue());
+    try {
+      var twoPass = new BytecodeMethodAnalyzer(
+          cm, mm, DefaultRegistrySource.defaultRegistry(), StateRetention.BLOCK_HEADS);
+      twoPass.run();
+      var fused = new BytecodeMethodAnalyzer(
+          cm, mm, DefaultRegistrySource.defaultRegistry(), StateRetention.FUSED);
+      fused.run();
+      if (!twoPass.converged || !fused.converged) return false;
+
+      assertEquals(
+          merger.merge(className, methodName, descriptor, twoPass.code, twoPass.inStates()),
+          fused.mergeAndRelease(merger, className, methodName, descriptor),
+          () -> className + "::" + methodName + descriptor);
+      assertTrue(fused.in.stream().allMatch(s -> s == null), "fused merge must release IN states");
+      assertTrue(fused.out.stream().allMatch(s -> s == null), "fused merge must release OUT states");
+      return true;
+    } catch (Exception e) {
+      return false; // analysis limitations are covered elsewhere; only compare what both can do
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(classes = {Greeter.class, SwitchFunctionality.class, SimpleIteration.class})
+  @DisplayName("Sample classes merge identically")
+  void samplesMergeIdentically(Class<?> sample) throws Exception {
+    ClassModel cm = TestUtils.convertClassToModel(sample);
+    for (MethodModel mm : cm.methods()) {
+      assertTrue(assertSameUsages(cm, mm), () -> "sample method must be analyzable: " + mm);
+    }
+  }
+
+  @Test
+  @DisplayName("JDK java.util classes merge identically")
+  void jdkClassesMergeIdentically() throws Exception {
+    Path root = FileSystems.getFileSystem(URI.create("jrt:/")).getPath("/modules/java.base/java/util");
+    List<Path> classes;
+    try (Stream<Path> files = Files.list(root)) {
+      classes = files
+          .filter(p -> p.toString().endsWith(".class"))
+          .sorted()
+          .limit(JDK_CLASS_LIMIT)
+          .toList();
+    }
+    assertFalse(classes.isEmpty());
+
+    int compared = 0;
+    for (Path file : classes) {
+      ClassModel cm = ClassFile.of().parse(file);
+      for (MethodModel mm : cm.methods()) {
+        if (assertSameUsages(cm, mm)) compared++;
+      }
+    }
+    assertTrue(compared > 0, "at least some JDK methods must be compared");
+  }
+}
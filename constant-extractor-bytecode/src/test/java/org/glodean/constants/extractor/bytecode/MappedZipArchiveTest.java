@@ -0,0 +1,144 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("MappedZipArchive Tests")
+class MappedZipArchiveTest {
+
+  @TempDir Path tempDir;
+
+  /** Builds a ZIP; entries whose name ends in {@code .jar} or {@code .stored} are STORED. */
+  private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+    var baos = new ByteArrayOutputStream();
+    try (var zos = new ZipOutputStream(baos)) {
+      for (var e : entries.entrySet()) {
+        var entry = new ZipEntry(e.getKey());
+        if (e.getKey().endsWith(".jar") || e.getKey().endsWith(".stored")) {
+          var crc = new CRC32();
+          crc.update(e.getValue());
+          entry.setMethod(ZipEntry.STORED);
+          entry.setSize(e.getValue().length);
+          entry.setCrc(crc.getValue());
+        }
+        zos.putNextEntry(entry);
+        zos.write(e.getValue());
+        zos.closeEntry();
+      }
+    }
+    return baos.toByteArray();
+  }
+
+  private static byte[] text(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static MappedZipArchive.Entry entry(MappedZipArchive archive, String name) {
+    return archive.entries().stream()
+        .filter(e -> e.name().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  @DisplayName("Reads STORED and DEFLATED entries from a mapped file")
+  void readsStoredAndDeflatedEntries() throws Exception {
+    var entries = new LinkedHashMap<String, byte[]>();
+    entries.put("dir/", new byte[0]);
+    entries.put("dir/a.txt", text("a".repeat(1000)));
+    entries.put("dir/b.stored", text("plain"));
+    Path file = Files.write(tempDir.resolve("x.zip"), zip(entries));
+
+    try (var archive = MappedZipArchive.map(file)) {
+      assertEquals(3, archive.entries().size());
+      assertTrue(entry(archive, "dir/").isDirectory());
+
+      var deflated = entry(archive, "dir/a.txt");
+      assertEquals(ZipEntry.DEFLATED, deflated.method());
+      assertEquals("a.txt", deflated.fileName());
+      assertEquals("/dir/a.txt", deflated.path());
+      assertArrayEquals(entries.get("dir/a.txt"), archive.readAllBytes(deflated));
+
+      var stored = entry(archive, "dir/b.stored");
+      assertEquals(ZipEntry.STORED, stored.method());
+      assertArrayEquals(entries.get("dir/b.stored"), archive.readAllBytes(stored));
+    }
+  }
+
+  @Test
+  @DisplayName("Fingerprint is the central-directory CRC-32 and size")
+  void fingerprintMatchesCrcAndSize() throws Exception {
+    byte[] content = text("hello");
+    var crc = new CRC32();
+    crc.update(content);
+    var archive = MappedZipArchive.of(MemorySegment.ofArray(zip(Map.of("h.txt", content))));
+
+    assertEquals(
+        "crc32:%08x:%d".formatted(crc.getValue(), content.length),
+        archive.entries().get(0).fingerprint());
+  }
+
+  @Test
+  @DisplayName("A STORED nested JAR is a view of the outer archive, not a copy")
+  void storedNestedJarSharesOuterMemory() throws Exception {
+    byte[] inner = zip(Map.of("com/x/Inner.class", text("inner-bytes")));
+    Path file = Files.write(
+        tempDir.resolve("fat.jar"), zip(Map.of("BOOT-INF/lib/inner.jar", inner)));
+
+    try (var outer = MappedZipArchive.map(file)) {
+      var nested = outer.nested(entry(outer, "BOOT-INF/lib/inner.jar"));
+
+      assertEquals(inner.length, nested.content().byteSize());
+      assertTrue(nested.content().isMapped(), "nested content must come from the outer mapping");
+      assertArrayEquals(
+          text("inner-bytes"), nested.readAllBytes(entry(nested, "com/x/Inner.class")));
+    }
+  }
+
+  @Test
+  @DisplayName("A DEFLATED nested JAR is inflated and still readable")
+  void deflatedNestedJarIsInflated() throws Exception {
+    byte[] inner = zip(Map.of("a.txt", text("deflated inner")));
+    var outer = MappedZipArchive.of(MemorySegment.ofArray(zip(Map.of("inner.zip", inner))));
+
+    var nested = outer.nested(outer.entries().get(0));
+
+    assertArrayEquals(text("deflated inner"), nested.readAllBytes(nested.entries().get(0)));
+  }
+
+  @Test
+  @DisplayName("Bytes prepended to the archive (launch script) are tolerated")
+  void toleratesPrefixedArchive() throws Exception {
+    byte[] body = zip(Map.of("a.txt", text("after the script")));
+    byte[] script = text("#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n");
+    byte[] prefixed = Arrays.copyOf(script, script.length + body.length);
+    System.arraycopy(body, 0, prefixed, script.length, body.length);
+
+    var archive = MappedZipArchive.of(MemorySegment.ofArray(prefixed));
+
+    assertArrayEquals(text("after the script"), archive.readAllBytes(archive.entries().get(0)));
+  }
+
+  @Test
+  @DisplayName("Non-ZIP content is rejected")
+  void rejectsNonZipContent() {
+    assertThrows(
+        ZipException.class, () -> MappedZipArchive.of(MemorySegment.ofArray(new byte[] {0, 1, 2})));
+  }
+}
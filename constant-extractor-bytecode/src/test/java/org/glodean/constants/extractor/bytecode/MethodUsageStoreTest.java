@@ -0,0 +1,143 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.classfile.ClassFile.ACC_STATIC;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.classfile.Attributes;
+import java.lang.classfile.ClassBuilder;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.attribute.CodeAttribute;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for per-method result reuse: {@link MethodFingerprint} keys and a
+ * {@link ClassModelExtractor} backed by an {@link InMemoryMethodUsageStore} or a
+ * {@link TieredMethodUsageStore}.
+ */
+@DisplayName("Method usage store – incremental re-analysis")
+class MethodUsageStoreTest {
+
+  private static final ClassDesc OWNER = ClassDesc.ofInternalName("org/example/Patched");
+  private static final MethodTypeDesc INT_TO_INT = MethodTypeDesc.of(CD_int, CD_int);
+  private static final MethodTypeDesc VOID = MethodTypeDesc.ofDescriptor("()V");
+
+  private final AnalysisMerger merger = new AnalysisMerger(new InternalStringConcatPatternSplitter());
+
+  private static ClassModel build(Consumer<ClassBuilder> methods) {
+    return ClassFile.of().parse(ClassFile.of().build(OWNER, methods));
+  }
+
+  /** A method passing {@code value} to {@code target}. */
+  private static Consumer<ClassBuilder> caller(String name, String target, int value) {
+    return cb -> cb.withMethod(name, VOID, ACC_PUBLIC | ACC_STATIC, mb -> mb.withCode(code -> code
+        .sipush(value)
+        .invokestatic(OWNER, target, INT_TO_INT)
+        .pop()
+        .return_()));
+  }
+
+  private static ClassModel version1() {
+    return build(caller("stable", "log", 7));
+  }
+
+  /** Adds a method in front of {@code stable}, shifting its constant-pool indices. */
+  private static ClassModel version2() {
+    return build(caller("added", "audit", 300).andThen(caller("stable", "log", 7)));
+  }
+
+  private static MethodModel method(ClassModel cm, String name) {
+    return cm.methods().stream()
+        .filter(m -> m.methodName().equalsString(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static CodeAttribute code(MethodModel mm) {
+    return mm.findAttribute(Attributes.code()).orElseThrow();
+  }
+
+  private static String fingerprint(ClassModel cm, String name) {
+    MethodModel mm = method(cm, name);
+    return MethodFingerprint.of(cm, mm, code(mm), "config");
+  }
+
+  private UnitConstants extract(ClassModel cm, MethodUsageStore store) throws Exception {
+    return extract(cm, store, new MethodAnalysisCounters());
+  }
+
+  private UnitConstants extract(
+      ClassModel cm, MethodUsageStore store, MethodAnalysisCounters counters) throws Exception {
+    return new ClassModelExtractor(cm, merger, StateRetention.ALL_ELEMENTS, 0, store, counters)
+        .extract(new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "x"))
+        .iterator()
+        .next();
+  }
+
+  @Test
+  @DisplayName("Renumbered constant-pool entries keep the fingerprint")
+  void fingerprintIgnoresConstantPoolRenumbering() {
+    ClassModel v1 = version1();
+    ClassModel v2 = version2();
+
+    assertFalse(
+        Arrays.equals(code(method(v1, "stable")).codeArray(), code(method(v2, "stable")).codeArray()),
+        "the unchanged method must reference different pool indices");
+    assertEquals(fingerprint(v1, "stable"), fingerprint(v2, "stable"));
+  }
+
+  @Test
+  @DisplayName("Changed code, referenced members or configuration change the fingerprint")
+  void fingerprintTracksWhatUsagesDependOn() {
+    String base = fingerprint(version1(), "stable");
+
+    assertNotEquals(base, fingerprint(build(caller("stable", "log", 8)), "stable"));
+    assertNotEquals(base, fingerprint(build(caller("stable", "trace", 7)), "stable"));
+    MethodModel mm = method(version1(), "stable");
+    assertNotEquals(base, MethodFingerprint.of(version1(), mm, code(mm), "other"));
+  }
+
+  @Test
+  @DisplayName("Unchanged methods of a patched class reuse stored usages")
+  void unchangedMethodsAreNotReanalyzed() throws Exception {
+    var store = new InMemoryMethodUsageStore(100);
+    extract(version1(), store);
+    assertEquals(0, store.hitCount());
+    assertEquals(1, store.missCount());
+
+    var counters = new MethodAnalysisCounters();
+    UnitConstants incremental = extract(version2(), store, counters);
+
+    assertEquals(1, store.hitCount(), "stable is reused");
+    assertEquals(2, store.missCount(), "only added is analyzed");
+    assertEquals(1, counters.reusedMethodCount());
+    assertEquals(1, counters.analyzedMethodCount());
+    assertEquals(extract(version2(), MethodUsageStore.NONE).constants(), incremental.constants());
+  }
+
+  @Test
+  @DisplayName("Methods stored on disk are reused after a restart")
+  void diskTierOutlivesTheStore(@TempDir Path dir) throws Exception {
+    extract(version1(), new TieredMethodUsageStore(100, dir, Long.MAX_VALUE));
+
+    var restarted = new TieredMethodUsageStore(100, dir, Long.MAX_VALUE);
+    UnitConstants incremental = extract(version2(), restarted);
+
+    assertEquals(1, restarted.hitCount(), "stable is read back from disk");
+    assertEquals(1, restarted.diskHitCount());
+    assertEquals(1, restarted.missCount(), "only added is analyzed");
+    assertEquals(extract(version2(), MethodUsageStore.NONE).constants(), incremental.constants());
+  }
+}
@@ -0,0 +1,64 @@
+package org.glodean.constants.extractor.bytecode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+import org.glodean.constants.samples.Greeter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ResultInterner Tests")
+class ResultInternerTest {
+
+  @Test
+  @DisplayName("Equal strings collapse to one instance; other values pass through")
+  void internsStringsOnly() {
+    String a = new String("UTF-8");
+    String b = new String("UTF-8");
+
+    assertSame(ResultInterner.intern(a), ResultInterner.intern(b));
+    assertSame(ResultInterner.intern(a), ResultInterner.internValue(b));
+    assertNull(ResultInterner.intern(null));
+    Integer boxed = 1_000;
+    assertSame(boxed, ResultInterner.internValue(boxed));
+  }
+
+  @Test
+  @DisplayName("Two extractions of the same class share values and location strings")
+  void extractionResultsShareStrings() throws Exception {
+    var merger = new AnalysisMerger(new InternalStringConcatPatternSplitter());
+    var source = new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "Greeter.class");
+
+    var first = new ClassModelExtractor(TestUtils.convertClassToModel(Greeter.class), merger)
+        .extract(source);
+    var second = new ClassModelExtractor(TestUtils.convertClassToModel(Greeter.class), merger)
+        .extract(source);
+
+    Map<Object, Object> firstStrings = strings(first);
+    assertFalse(firstStrings.isEmpty());
+    for (Object s : strings(second).keySet()) {
+      assertTrue(firstStrings.containsKey(s), () -> "not shared between extractions: " + s);
+    }
+  }
+
+  /** Every string value, class, method name and descriptor in the results, by identity. */
+  private static Map<Object, Object> strings(Collection<UnitConstants> results) {
+    Map<Object, Object> strings = new IdentityHashMap<>();
+    for (UnitConstants unit : results) {
+      for (UnitConstant constant : unit.constants()) {
+        if (constant.value() instanceof String s) strings.put(s, s);
+        for (var usage : constant.usages()) {
+          strings.put(usage.location().className(), usage.location().className());
+          strings.put(usage.location().methodName(), usage.location().methodName());
+          strings.put(usage.location().methodDescriptor(), usage.location().methodDescriptor());
+        }
+      }
+    }
+    return strings;
+  }
+}
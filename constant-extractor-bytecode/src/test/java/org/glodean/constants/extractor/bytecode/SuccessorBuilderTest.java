@@ -9,6 +9,8 @@ import java.lang.classfile.attribute.SourceFileAttribute;
 import java.lang.classfile.instruction.*;
 import java.lang.constant.ClassDesc;
 import java.lang.constant.MethodTypeDesc;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -213,4 +215,54 @@ class SuccessorBuilderTest {
     // instruction inside try (index of first loadConstant) should contain handler index
     assertTrue(successors.stream().anyMatch(list -> !list.isEmpty()));
   }
+
+  @Test
+  void testBasicBlocksSplitAtBranchesAndTargets() {
+    var succ =
+        generateInstructions(
+                cb -> {
+                  var target = cb.newLabel();
+                  cb.loadConstant(0);
+                  cb.branch(Opcode.IFEQ, target);
+                  cb.loadConstant(1);
+                  cb.pop();
+                  cb.labelBinding(target);
+                  cb.loadConstant(2);
+                  cb.pop();
+                  cb.return_();
+                })
+            .successors();
+
+    var blocks = SuccessorBuilder.basicBlocks(succ, new BitSet());
+    assertEquals(3, blocks.count());
+    // [iconst_0, ifeq] | [iconst_1, pop] | [label, iconst_2, pop, return]
+    assertArrayEquals(new int[] {0, 2, 4}, blocks.starts());
+    assertArrayEquals(new int[] {2, 4, succ.size()}, blocks.ends());
+    assertArrayEquals(new int[] {1, 2}, Arrays.stream(blocks.successors()[0]).sorted().toArray());
+    assertArrayEquals(new int[] {2}, blocks.successors()[1]);
+    assertEquals(0, blocks.successors()[2].length);
+    // entry first, join block last
+    assertEquals(0, blocks.reversePostorder()[0]);
+    assertEquals(2, blocks.reversePostorder()[2]);
+  }
+
+  @Test
+  void testBasicBlocksHonourForcedHeadsAndUnreachableCode() {
+    var succ =
+        generateInstructions(
+                cb -> {
+                  cb.nop();
+                  cb.nop();
+                  cb.return_();
+                  cb.nop(); // unreachable
+                })
+            .successors();
+
+    BitSet forced = new BitSet();
+    forced.set(1);
+    var blocks = SuccessorBuilder.basicBlocks(succ, forced);
+    assertArrayEquals(new int[] {0, 1, 3}, blocks.starts());
+    assertEquals(-1, blocks.rpoIndex()[2], "code after return is not reachable");
+    assertEquals(2, blocks.reversePostorder().length);
+  }
 }
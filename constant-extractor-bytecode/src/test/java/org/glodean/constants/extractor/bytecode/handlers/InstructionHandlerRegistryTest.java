@@ -0,0 +1,123 @@
+package org.glodean.constants.extractor.bytecode.handlers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.classfile.Attributes;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeModel;
+import java.lang.classfile.Instruction;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.instruction.LoadInstruction;
+import java.lang.classfile.instruction.NopInstruction;
+import java.lang.classfile.instruction.StackInstruction;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.util.ArrayList;
+import java.util.List;
+import org.glodean.constants.extractor.bytecode.handlers.impl.DefaultRegistrySource;
+import org.glodean.constants.samples.Greeter;
+import org.glodean.constants.samples.SwitchFunctionality;
+import org.glodean.constants.samples.SyncSample;
+import org.glodean.constants.samples.ThrowingMethodSample;
+import org.glodean.constants.samples.TypeCheckingFunctionality;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("InstructionHandlerRegistry Tests")
+class InstructionHandlerRegistryTest {
+
+  private static List<Instruction> instructionsOf(Class<?> sample) throws Exception {
+    String resource = sample.getName().replace('.', '/') + ".class";
+    byte[] bytes;
+    try (var is = sample.getClassLoader().getResourceAsStream(resource)) {
+      bytes = is.readAllBytes();
+    }
+    List<Instruction> instructions = new ArrayList<>();
+    for (MethodModel mm : ClassFile.of().parse(bytes).methods()) {
+      mm.findAttribute(Attributes.code()).ifPresent(code -> {
+        for (var e : (CodeModel) code) {
+          if (e instanceof Instruction ins) instructions.add(ins);
+        }
+      });
+    }
+    return instructions;
+  }
+
+  @ParameterizedTest
+  @ValueSource(classes = {
+      Greeter.class,
+      SwitchFunctionality.class,
+      SyncSample.class,
+      ThrowingMethodSample.class,
+      TypeCheckingFunctionality.class})
+  @DisplayName("Opcode table resolves the same handler as the class-based lookup")
+  void opcodeTableMatchesClassLookup(Class<?> sample) throws Exception {
+    var registry = DefaultRegistrySource.defaultRegistry();
+    for (Instruction ins : instructionsOf(sample)) {
+      var expected = registry.findHandlerFor(ins.getClass());
+      assertNotNull(expected, () -> "no handler for " + ins);
+      assertSame(expected, registry.handlerFor(ins), () -> ins.opcode().name());
+    }
+  }
+
+  @Test
+  @DisplayName("The default registry is built once and shared")
+  void defaultRegistryIsShared() {
+    assertSame(DefaultRegistrySource.defaultRegistry(), DefaultRegistrySource.defaultRegistry());
+  }
+
+  @Test
+  @DisplayName("Handlers registered for a concrete class are found through the fallback")
+  void concreteClassRegistrationFallsBack() {
+    byte[] bytes = ClassFile.of().build(ClassDesc.of("x.Y"), cb ->
+        cb.withMethod("m", MethodTypeDesc.ofDescriptor("()V"), ClassFile.ACC_STATIC,
+            mb -> mb.withCode(code -> code.nop().return_())));
+    Instruction nop = null;
+    var method = ClassFile.of().parse(bytes).methods().getFirst();
+    for (var e : method.findAttribute(Attributes.code()).orElseThrow()) {
+      if (e instanceof NopInstruction n) nop = n;
+    }
+    assertNotNull(nop);
+    InstructionHandler<Instruction> handler = (ins, state, tag) -> {};
+    @SuppressWarnings("unchecked")
+    Class<Instruction> concrete = (Class<Instruction>) nop.getClass();
+
+    var registry = InstructionHandlerRegistry.builder().put(concrete, handler).build();
+
+    assertSame(handler, registry.handlerFor(nop));
+    assertNull(InstructionHandlerRegistry.builder()
+        .put(LoadInstruction.class, (ins, state, tag) -> {})
+        .build()
+        .handlerFor(nop));
+  }
+
+  @Test
+  @DisplayName("A concrete-class handler wins over the handler for its interface")
+  void concreteClassRegistrationOverridesInterface() {
+    byte[] bytes = ClassFile.of().build(ClassDesc.of("x.Y"), cb ->
+        cb.withMethod("m", MethodTypeDesc.ofDescriptor("()V"), ClassFile.ACC_STATIC,
+            mb -> mb.withCode(code -> code.nop().aconst_null().pop().return_())));
+    List<Instruction> instructions = new ArrayList<>();
+    for (var e : ClassFile.of().parse(bytes).methods().getFirst()
+        .findAttribute(Attributes.code()).orElseThrow()) {
+      if (e instanceof Instruction ins) instructions.add(ins);
+    }
+    Instruction nop = instructions.getFirst();
+    InstructionHandler<Instruction> specific = (ins, state, tag) -> {};
+    InstructionHandler<Instruction> general = (ins, state, tag) -> {};
+    InstructionHandler<Instruction> stack = (ins, state, tag) -> {};
+    @SuppressWarnings("unchecked")
+    Class<Instruction> concrete = (Class<Instruction>) nop.getClass();
+
+    var registry = InstructionHandlerRegistry.builder()
+        .put(NopInstruction.class, general)
+        .put(concrete, specific)
+        .put(StackInstruction.class, stack)
+        .build();
+
+    assertSame(specific, registry.handlerFor(nop));
+    assertSame(stack, registry.handlerFor(instructions.get(2)), "pop keeps its table entry");
+  }
+}
@@ -49,10 +49,29 @@ class ConstantPropagationTest {
   @Test
   void convertTo_returnsPropagationWithTargetSize() {
     ConstantPropagation p = new ConstantPropagation(Set.of(7));
-    var converted = p.convertTo(TypeKind.LONG, "site");
+    var converted = p.convertTo(TypeKind.LONG, SiteTag.of("site"));
     assertTrue(converted instanceof ConstantPropagation);
     ConstantPropagation cp = (ConstantPropagation) converted;
     assertEquals(SizeType.fromType(TypeKind.LONG), cp.size());
     assertTrue(containsNumeric(cp.values(), 7));
   }
+
+  @Test
+  void propagate_returnsSameInstanceWhenNothingChanges() {
+    ConstantPropagation p = new ConstantPropagation(Set.of(1, 2));
+    assertSame(p, p.propagate(new NumericConstant(2)));
+    assertSame(p, p.propagate(new ConstantPropagation(Set.of(1))));
+  }
+
+  @Test
+  void propagate_widensInsteadOfGrowingWithoutBound() {
+    ConstantPropagatingEntity acc = new NumericConstant(0);
+    for (int i = 1; i <= PointsToSet.MAX_SIZE * 4; i++) {
+      acc = acc.propagate(new NumericConstant(i));
+    }
+    ConstantPropagation cp = (ConstantPropagation) acc;
+    assertTrue(cp.values().isWidened());
+    assertEquals(Set.of(0, PointsToSet.MAX_SIZE * 4), cp.values());
+    assertTrue(cp.values().mayContain(PointsToSet.MAX_SIZE));
+  }
 }
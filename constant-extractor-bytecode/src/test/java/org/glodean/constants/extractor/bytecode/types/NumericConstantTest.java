@@ -59,7 +59,7 @@ class NumericConstantTest {
   @Test
   void convertTo_performsNumericNarrowingAndWidening() {
     NumericConstant n = new NumericConstant(130); // fits into int but not byte as positive >127
-    var converted = n.convertTo(TypeKind.BYTE, "site");
+    var converted = n.convertTo(TypeKind.BYTE, SiteTag.of("site"));
     assertTrue(converted instanceof NumericConstant);
     Number v = ((NumericConstant) converted).value();
     assertEquals((byte) 130, v.byteValue());
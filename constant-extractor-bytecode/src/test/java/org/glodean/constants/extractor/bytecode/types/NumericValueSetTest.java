@@ -0,0 +1,96 @@
+package org.glodean.constants.extractor.bytecode.types;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for NumericValueSet behaviors. */
+class NumericValueSetTest {
+
+  private static NumericValueSet range(int from, int toExclusive) {
+    List<Number> values = new ArrayList<>();
+    for (int i = from; i < toExclusive; i++) values.add(i);
+    return NumericValueSet.copyOf(values);
+  }
+
+  @Test
+  void behavesLikeASetOfBoxedNumbers() {
+    NumericValueSet set = NumericValueSet.of(3, 1L, 2.5d, -0.5f, (byte) 7, (short) 9, 3);
+    Set<Number> boxed = Set.of(3, 1L, 2.5d, -0.5f, (byte) 7, (short) 9);
+
+    assertEquals(6, set.size());
+    assertEquals(boxed, set);
+    assertEquals(set, boxed);
+    assertEquals(boxed.hashCode(), set.hashCode());
+    assertEquals(boxed, new HashSet<>(set));
+    assertTrue(set.contains(1L));
+    assertFalse(set.contains(1), "Integer 1 and Long 1 are distinct values");
+    assertFalse(set.contains("3"));
+  }
+
+  @Test
+  void floatingPointValuesRoundTrip() {
+    NumericValueSet set =
+        NumericValueSet.of(-0.0d, 0.0d, Double.NaN, Double.NEGATIVE_INFINITY, Float.MIN_VALUE);
+
+    assertEquals(Set.of(-0.0d, 0.0d, Double.NaN, Double.NEGATIVE_INFINITY, Float.MIN_VALUE), set);
+  }
+
+  @Test
+  void union_returnsSameInstanceWhenNothingIsAdded() {
+    NumericValueSet a = NumericValueSet.of(1, 2, 3);
+
+    assertSame(a, a.union(NumericValueSet.of(2, 3)));
+    assertSame(a, a.with(1));
+    assertSame(a, a.union(NumericValueSet.of()));
+
+    NumericValueSet grown = a.union(NumericValueSet.of(4));
+    assertNotSame(a, grown);
+    assertEquals(Set.of(1, 2, 3, 4), grown);
+    assertEquals(Set.of(1, 2, 3), a, "operands must not be mutated");
+  }
+
+  @Test
+  void union_widensToBoundsPastTheCap() {
+    NumericValueSet full = range(0, PointsToSet.MAX_SIZE);
+    assertFalse(full.isWidened());
+
+    NumericValueSet widened = full.union(NumericValueSet.of(100, 5L));
+
+    assertTrue(widened.isWidened());
+    assertEquals(Set.of(0, 100, 5L), widened, "only the bounds of each kind are enumerated");
+    assertTrue(widened.mayContain(50));
+    assertTrue(widened.mayContain(5L));
+    assertFalse(widened.mayContain(101));
+    assertFalse(widened.mayContain(50L));
+    assertFalse(widened.mayContain(1.0d));
+    assertEquals("[0..100, 5]", widened.toString());
+  }
+
+  @Test
+  void widenedSetsOnlyStretchTheirBounds() {
+    NumericValueSet widened = range(0, PointsToSet.MAX_SIZE + 1);
+    assertTrue(widened.isWidened());
+    assertEquals(Set.of(0, PointsToSet.MAX_SIZE), widened);
+
+    assertSame(widened, widened.with(7), "a value inside the bounds adds nothing");
+    assertNotEquals(
+        widened, NumericValueSet.of(0, PointsToSet.MAX_SIZE), "widened and exact sets differ");
+
+    NumericValueSet stretched = widened.with(-1);
+    assertEquals(Set.of(-1, PointsToSet.MAX_SIZE), stretched);
+    assertTrue(stretched.isWidened());
+    assertTrue(NumericValueSet.of(5).union(widened).isWidened());
+  }
+
+  @Test
+  void rejectsUnsupportedNumberTypes() {
+    assertThrows(IllegalArgumentException.class, () -> NumericValueSet.of(BigInteger.ONE));
+    assertFalse(NumericValueSet.of(1).contains(BigInteger.ONE));
+  }
+}
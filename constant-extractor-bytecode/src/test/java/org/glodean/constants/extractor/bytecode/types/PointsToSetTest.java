@@ -0,0 +1,107 @@
+package org.glodean.constants.extractor.bytecode.types;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for the compact, internable {@link PointsToSet}. */
+class PointsToSetTest {
+
+  private static PointsToSet numbers(int from, int to) {
+    PointsToSet set = new PointsToSet();
+    for (int i = from; i < to; i++) set.add(new NumericConstant(i));
+    return set;
+  }
+
+  @Test
+  void behavesLikeASetAcrossInlineAndArrayForms() {
+    PointsToSet set = new PointsToSet();
+    Set<StackAndParameterEntity> reference = new HashSet<>();
+    for (int i = 0; i < 10; i++) {
+      var e = new NumericConstant(i * 7919);
+      assertEquals(reference.add(e), set.add(e));
+      assertFalse(set.add(e), "duplicates are rejected");
+      assertEquals(reference, set);
+      assertEquals(reference.hashCode(), set.hashCode());
+    }
+    for (var e : reference) assertTrue(set.contains(e));
+    assertFalse(set.contains(new NumericConstant(-1)));
+    assertFalse(set.contains("not an entity"));
+  }
+
+  @Test
+  void distinguishesEntitiesWithCollidingHashes() {
+    // "Aa" and "BB" share String.hashCode(), and Integer 2112 matches both.
+    var aa = new ObjectConstant("Aa");
+    var bb = new ObjectConstant("BB");
+    var number = new NumericConstant(2112);
+    PointsToSet set = numbers(0, 3);
+    assertTrue(set.add(aa));
+    assertTrue(set.add(bb));
+    assertTrue(set.add(number));
+    assertFalse(set.add(new ObjectConstant("BB")));
+    assertEquals(6, set.size());
+    assertTrue(set.remove(bb));
+    assertTrue(set.contains(aa));
+    assertFalse(set.contains(bb));
+    assertTrue(set.contains(number));
+  }
+
+  @Test
+  void capsAtMaxSize() {
+    PointsToSet set = numbers(0, PointsToSet.MAX_SIZE);
+    assertFalse(set.add(new NumericConstant(-1)));
+    assertFalse(set.addAll(numbers(100, 110)));
+    assertEquals(PointsToSet.MAX_SIZE, set.size());
+    assertEquals(PointsToSet.MAX_SIZE, new PointsToSet(numbers(0, 100)).size());
+  }
+
+  @Test
+  void addAllReportsGrowth() {
+    PointsToSet set = numbers(0, 3);
+    assertFalse(set.addAll(numbers(1, 3)));
+    assertTrue(set.addAll(numbers(2, 5)));
+    assertEquals(numbers(0, 5), set);
+  }
+
+  @Test
+  void iteratorRemoveWorksInBothForms() {
+    for (int size : new int[] {2, 5}) {
+      PointsToSet set = numbers(0, size);
+      var it = set.iterator();
+      while (it.hasNext()) {
+        if (it.next() instanceof NumericConstant n && n.value().intValue() % 2 == 0) it.remove();
+      }
+      assertEquals(size / 2, set.size());
+      set.forEach(e -> assertEquals(1, ((NumericConstant) e).value().intValue() % 2));
+    }
+  }
+
+  @Test
+  void internReturnsCanonicalFrozenInstance() {
+    PointsToSet a = numbers(0, 4).intern();
+    PointsToSet b = numbers(0, 4).intern();
+    assertSame(a, b);
+    assertTrue(a.isFrozen());
+    assertThrows(UnsupportedOperationException.class, () -> a.add(new NumericConstant(9)));
+    assertThrows(UnsupportedOperationException.class, a::clear);
+
+    PointsToSet copy = a.copy();
+    assertFalse(copy.isFrozen());
+    assertTrue(copy.add(new NumericConstant(9)));
+    assertEquals(4, a.size());
+  }
+
+  @Test
+  void unionOfFrozenSetsLeavesOperandsUntouched() {
+    PointsToSet a = numbers(0, 2).intern();
+    PointsToSet b = numbers(1, 3).intern();
+    PointsToSet joined = a.union(b);
+    assertNotSame(a, joined);
+    assertEquals(numbers(0, 3), joined);
+    assertSame(a, a.union(numbers(0, 1).intern()));
+    assertEquals(2, a.size());
+  }
+}
@@ -0,0 +1,43 @@
+package org.glodean.constants.extractor.bytecode.types;
+
+import static java.lang.constant.ConstantDescs.CD_String;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for SiteTag behaviors. */
+class SiteTagTest {
+
+  @Test
+  void rendersLazilyInTheLegacyFormat() {
+    assertEquals("pkg/Owner::m()V@12", new SiteTag("pkg/Owner::m()V", 12).toString());
+    assertEquals("Param#1", SiteTag.of("Param#1").toString());
+    assertEquals("pkg/Owner::<this>", SiteTag.receiverOf("pkg/Owner").toString());
+  }
+
+  @Test
+  void entitiesRenderTheirSiteUnchanged() {
+    var site = new SiteTag("pkg/Owner::m()V", 3);
+
+    assertEquals(
+        "Ljava/lang/String;@pkg/Owner::m()V@3", new ObjectReference(CD_String, site).toString());
+    assertEquals("I@Param#0", new PrimitiveValue(CD_int, "Param#0").toString());
+  }
+
+  @Test
+  void equalityIsByScopeAndIndex() {
+    assertEquals(new SiteTag("m", 1), new SiteTag(new String("m"), 1));
+    assertNotEquals(new SiteTag("m", 1), new SiteTag("m", 2));
+    assertNotEquals(SiteTag.of("m@1"), new SiteTag("m", 1));
+    assertEquals(
+        new ObjectReference(CD_String, "x"), new ObjectReference(CD_String, SiteTag.of("x")));
+  }
+
+  @Test
+  void onlyReceiverTagsAreReceivers() {
+    assertTrue(SiteTag.receiverOf("pkg/Owner").isReceiver());
+    assertFalse(SiteTag.of("Param#0").isReceiver());
+    assertFalse(new SiteTag("pkg/Owner::<this>", 0).isReceiver());
+  }
+}
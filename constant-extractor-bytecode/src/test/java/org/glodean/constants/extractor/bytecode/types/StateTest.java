@@ -0,0 +1,95 @@
+package org.glodean.constants.extractor.bytecode.types;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for the structurally shared {@link State} representation. */
+class StateTest {
+
+  private static final StaticFieldKey FIELD = new StaticFieldKey("a/B", "f", "I");
+
+  @Test
+  void copy_sharesSetsButNotContainers() {
+    State original = new State(2);
+    PointsToSet local = PointsToSet.of(new NumericConstant(1));
+    original.locals.set(0, local);
+    original.stack.add(PointsToSet.of(new NumericConstant(2)));
+    original.statics.put(FIELD, PointsToSet.of(new NumericConstant(3)));
+
+    State copy = original.copy();
+    assertSame(local, copy.locals.get(0), "unchanged slots are shared");
+    assertEquals(original, copy);
+
+    copy.stack.removeLast();
+    copy.locals.set(1, PointsToSet.of(new NumericConstant(4)));
+    assertEquals(1, original.stack.size(), "popping the copy must not affect the original");
+    assertNull(original.locals.get(1), "re-assigning a slot must not affect the original");
+  }
+
+  @Test
+  void unionWith_replacesGrownSlotsWithoutMutatingSharedSets() {
+    PointsToSet shared = PointsToSet.of(new NumericConstant(1));
+    State target = new State(1);
+    target.locals.set(0, shared);
+    State other = target.copy();
+    State src = new State(1);
+    src.locals.set(0, PointsToSet.of(new NumericConstant(2)));
+
+    assertTrue(target.unionWith(src));
+    assertEquals(2, target.locals.get(0).size());
+    assertNotSame(shared, target.locals.get(0));
+    assertEquals(1, shared.size(), "the shared set must stay untouched");
+    assertSame(shared, other.locals.get(0));
+  }
+
+  @Test
+  void unionWith_reportsNoChangeForSubsets() {
+    State target = new State(1);
+    PointsToSet set = PointsToSet.of(new NumericConstant(1));
+    set.add(new NumericConstant(2));
+    target.locals.set(0, set);
+    target.statics.put(FIELD, set);
+    State src = new State(1);
+    src.locals.set(0, PointsToSet.of(new NumericConstant(2)));
+    src.statics.put(FIELD, PointsToSet.of(new NumericConstant(1)));
+
+    assertFalse(target.unionWith(src));
+    assertSame(set, target.locals.get(0));
+    assertSame(set, target.statics.get(FIELD));
+  }
+
+  @Test
+  void join_replacesSlotOnlyWhenItGrows() {
+    State state = new State(0);
+    PointsToSet first = PointsToSet.of(new NumericConstant(1));
+    State.join(state.statics, FIELD, first);
+    assertSame(first, state.statics.get(FIELD));
+
+    State.join(state.statics, FIELD, PointsToSet.of(new NumericConstant(1)));
+    assertSame(first, state.statics.get(FIELD));
+
+    State.join(state.statics, FIELD, PointsToSet.of(new NumericConstant(2)));
+    assertEquals(2, state.statics.get(FIELD).size());
+    assertEquals(1, first.size());
+
+    StaticFieldKey other = new StaticFieldKey("a/B", "g", "I");
+    State.join(state.statics, other, null);
+    assertTrue(state.statics.get(other).isEmpty());
+  }
+
+  @Test
+  void union_respectsMaxSize() {
+    PointsToSet full = new PointsToSet();
+    for (int i = 0; i < PointsToSet.MAX_SIZE; i++) full.add(new NumericConstant(i));
+    assertSame(full, full.union(PointsToSet.of(new NumericConstant(-1))));
+
+    PointsToSet almost = new PointsToSet();
+    for (int i = 0; i < PointsToSet.MAX_SIZE - 1; i++) almost.add(new NumericConstant(i));
+    PointsToSet extra = new PointsToSet();
+    for (int i = 100; i < 110; i++) extra.add(new NumericConstant(i));
+    PointsToSet joined = almost.union(extra);
+    assertEquals(PointsToSet.MAX_SIZE, joined.size());
+    assertEquals(PointsToSet.MAX_SIZE - 1, almost.size());
+  }
+}
@@ -0,0 +1,103 @@
+package org.glodean.constants.samples;
+
+public class WideSwitch {
+  public static String narrow(int code) {
+    int delay = 1;
+    switch (code) {
+      case 0:
+        delay += 30;
+      case 1:
+        delay += 20;
+      case 2:
+        delay += 10;
+    }
+    return Integer.toHexString(delay);
+  }
+
+  public static String wide(int code) {
+    int delay = 1;
+    switch (code) {
+      case 0:
+        delay += 1000;
+      case 1:
+        delay += 990;
+      case 2:
+        delay += 980;
+      case 3:
+        delay += 970;
+      case 4:
+        delay += 960;
+      case 5:
+        delay += 950;
+      case 6:
+        delay += 940;
+      case 7:
+        delay += 930;
+      case 8:
+        delay += 920;
+      case 9:
+        delay += 910;
+      case 10:
+        delay += 900;
+      case 11:
+        delay += 890;
+      case 12:
+        delay += 880;
+      case 13:
+        delay += 870;
+      case 14:
+        delay += 860;
+      case 15:
+        delay += 850;
+      case 16:
+        delay += 840;
+      case 17:
+        delay += 830;
+      case 18:
+        delay += 820;
+      case 19:
+        delay += 810;
+      case 20:
+        delay += 800;
+      case 21:
+        delay += 790;
+      case 22:
+        delay += 780;
+      case 23:
+        delay += 770;
+      case 24:
+        delay += 760;
+      case 25:
+        delay += 750;
+      case 26:
+        delay += 740;
+      case 27:
+        delay += 730;
+      case 28:
+        delay += 720;
+      case 29:
+        delay += 710;
+      case 30:
+        delay += 700;
+      case 31:
+        delay += 690;
+      case 32:
+        delay += 680;
+      case 33:
+        delay += 670;
+      case 34:
+        delay += 660;
+      case 35:
+        delay += 650;
+      case 36:
+        delay += 640;
+      case 37:
+        delay += 630;
+      case 38:
+        delay += 620;
+      case 39:
+        delay += 610;
+    }
+    return Integer.toHexString(delay);
+  }
+}
@@ -0,0 +1,337 @@
+package org.glodean.constants.cli;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.glodean.constants.extractor.ExtractionNotifier;
+import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.extractor.bytecode.AnalysisMerger;
+import org.glodean.constants.extractor.bytecode.BytecodeModelExtractor;
+import org.glodean.constants.extractor.bytecode.BytecodeSourceKind;
+import org.glodean.constants.extractor.bytecode.ClassModelExtractor;
+import org.glodean.constants.extractor.bytecode.DefaultExtractorSource;
+import org.glodean.constants.extractor.bytecode.ExtractionBudget;
+import org.glodean.constants.extractor.bytecode.InternalStringConcatPatternSplitter;
+import org.glodean.constants.extractor.bytecode.MappedZipArchive;
+import org.glodean.constants.extractor.bytecode.StateRetention;
+import org.glodean.constants.extractor.configfile.ConfigFileSourceKind;
+import org.glodean.constants.extractor.configfile.PropertiesConstantsExtractor;
+import org.glodean.constants.extractor.configfile.YamlConstantsExtractor;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+
+/**
+ * Command-line entry point that extracts constants from a JAR or a directory without the server,
+ * the database or the result cache, for use in CI pipelines.
+ *
+ * <p>Every unit (class file, YAML or properties file) is written to standard output as one
+ * NDJSON line as soon as its analysis finishes; results are not collected in memory, so heap use
+ * is bounded by {@code --max-heap-budget} rather than by the size of the input. A throughput
+ * summary is printed to standard error at the end:
+ * <pre>
+ * constant-extractor [--threads N] [--max-heap-budget SIZE] &lt;jar-or-directory&gt;
+ * </pre>
+ *
+ * <p>Exit status is {@value #EXIT_OK} on success, {@value #EXIT_UNIT_ERRORS} if some units could
+ * not be analyzed (the others are still written) and {@value #EXIT_FAILURE} for invalid
+ * arguments, an unreadable input or a failed write to standard output.
+ *
+ * <p>The extraction setup is the server's default, shared through {@link DefaultExtractorSource}:
+ * the same interpreter registrations and file-name registry, with {@link StateRetention#FUSED} since no per-element states are needed.
+ * Nested JARs are not expanded.
+ */
+public final class ExtractCli {
+
+  /** All units were extracted and written. */
+  static final int EXIT_OK = 0;
+
+  /** Some units failed to extract; the remaining units were written. */
+  static final int EXIT_UNIT_ERRORS = 1;
+
+  /** Invalid arguments, unreadable input or broken output. */
+  static final int EXIT_FAILURE = 2;
+
+  /** Share of the maximum heap used as the in-flight budget when none is given. */
+  static final double DEFAULT_HEAP_FRACTION = 0.25;
+
+  static final String USAGE =
+      """
+      usage: constant-extractor [--threads N] [--max-heap-budget SIZE] <jar-or-directory>
+
+        --threads N              worker threads (default: available processors)
+        --max-heap-budget SIZE   bytes of class data and results in flight, with an optional
+                                 k, m or g suffix (default: 25% of the maximum heap)
+        -h, --help               print this help
+
+      Writes one JSON object per extracted unit to standard output and a throughput
+      summary to standard error.
+      """;
+
+  private ExtractCli() {
+    // prevent instantiation
+  }
+
+  /**
+   * Runs the extractor and exits with its status.
+   *
+   * @param args command-line arguments, see {@link #USAGE}
+   */
+  public static void main(String[] args) {
+    System.exit(run(args, System.out, System.err));
+  }
+
+  /**
+   * Runs the extractor.
+   *
+   * @param args command-line arguments
+   * @param out receives the NDJSON lines
+   * @param err receives diagnostics and the summary
+   * @return the exit status
+   */
+  static int run(String[] args, OutputStream out, PrintStream err) {
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      err.println("error: " + e.getMessage());
+      err.print(USAGE);
+      return EXIT_FAILURE;
+    }
+    if (options.help()) {
+      err.print(USAGE);
+      return EXIT_OK;
+    }
+    if (!Files.exists(options.input())) {
+      err.println("error: no such file or directory: " + options.input());
+      return EXIT_FAILURE;
+    }
+
+    var budget = options.maxHeapBudget() > 0
+        ? new ExtractionBudget(options.maxHeapBudget())
+        : ExtractionBudget.ofHeapFraction(DEFAULT_HEAP_FRACTION);
+    var writer = new NdjsonWriter(out);
+    var stats = new Stats();
+    var notifier = new ErrorReporter(err);
+    Consumer<UnitConstants> sink = unit -> {
+      stats.record(unit);
+      writer.accept(unit);
+    };
+
+    long start = System.nanoTime();
+    try (var executor = new ForkJoinPool(options.threads())) {
+      extract(options.input(), executor, budget, notifier, sink);
+    } catch (IOException e) {
+      writer.flush();
+      err.println("error: " + options.input() + ": " + e.getMessage());
+      return EXIT_FAILURE;
+    }
+    long elapsedNanos = System.nanoTime() - start;
+
+    writer.flush();
+    if (writer.checkError()) {
+      err.println("error: failed to write to standard output");
+      return EXIT_FAILURE;
+    }
+    err.println(stats.summary(elapsedNanos, notifier.errors()));
+    return notifier.errors() > 0 ? EXIT_UNIT_ERRORS : EXIT_OK;
+  }
+
+  private static void extract(
+      Path input, ForkJoinPool executor, ExtractionBudget budget,
+      ExtractionNotifier notifier, Consumer<UnitConstants> sink) throws IOException {
+    var repository = repository();
+    if (Files.isDirectory(input)) {
+      BytecodeModelExtractor.forDirectory(executor, budget, input, notifier, repository)
+          .extract(new UnitDescriptor(BytecodeSourceKind.DIRECTORY, input.toString()), sink);
+      return;
+    }
+    try (var archive = MappedZipArchive.map(input)) {
+      BytecodeModelExtractor.forZipArchive(executor, budget, archive, notifier, repository)
+          .extract(new UnitDescriptor(BytecodeSourceKind.JAR, input.toString()), sink);
+    }
+  }
+
+  /** Builds the server's default file-name registry, without the result cache. */
+  static ModelExtractorSupplierRepository repository() {
+    var merger = new AnalysisMerger(
+        new InternalStringConcatPatternSplitter(), DefaultExtractorSource.interpreterRegistry());
+    return DefaultExtractorSource.registerClassFiles(
+            ModelExtractorSupplierRepository.builder(),
+            ClassModelExtractor.supplier(
+                merger, StateRetention.FUSED, ClassModelExtractor.DEFAULT_FORK_THRESHOLD))
+        .register(
+            n -> n.endsWith(".yml") || n.endsWith(".yaml"),
+            ConfigFileSourceKind.YAML,
+            YamlConstantsExtractor::new)
+        .register(
+            n -> n.endsWith(".properties"),
+            ConfigFileSourceKind.PROPERTIES,
+            PropertiesConstantsExtractor::new)
+        .build();
+  }
+
+  /**
+   * Parses a byte count such as {@code 512}, {@code 64k}, {@code 256m} or {@code 2g}; suffixes
+   * are binary multiples and case-insensitive.
+   *
+   * @param text the size
+   * @return the size in bytes
+   * @throws IllegalArgumentException if {@code text} is not a positive size
+   */
+  static long parseSize(String text) {
+    String s = text.trim().toLowerCase(Locale.ROOT);
+    int shift = 0;
+    if (!s.isEmpty()) {
+      switch (s.charAt(s.length() - 1)) {
+        case 'k' -> shift = 10;
+        case 'm' -> shift = 20;
+        case 'g' -> shift = 30;
+        default -> {
+          // plain bytes
+        }
+      }
+    }
+    if (shift > 0) s = s.substring(0, s.length() - 1);
+    long value;
+    try {
+      value = Long.parseLong(s);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("invalid size: " + text);
+    }
+    if (value <= 0 || value > (Long.MAX_VALUE >> shift)) {
+      throw new IllegalArgumentException("invalid size: " + text);
+    }
+    return value << shift;
+  }
+
+  /**
+   * Parsed command line.
+   *
+   * @param input the JAR or directory to extract
+   * @param threads worker thread count
+   * @param maxHeapBudget in-flight byte budget, or {@code 0} for the heap-fraction default
+   * @param help whether only the usage text was requested
+   */
+  record Options(Path input, int threads, long maxHeapBudget, boolean help) {
+
+    static Options parse(String[] args) {
+      Path input = null;
+      int threads = Runtime.getRuntime().availableProcessors();
+      long maxHeapBudget = 0;
+      for (int i = 0; i < args.length; i++) {
+        String arg = args[i];
+        String name = arg;
+        String value = null;
+        int eq = arg.indexOf('=');
+        if (arg.startsWith("--") && eq > 0) {
+          name = arg.substring(0, eq);
+          value = arg.substring(eq + 1);
+        }
+        switch (name) {
+          case "-h", "--help" -> {
+            return new Options(null, threads, maxHeapBudget, true);
+          }
+          case "--threads" -> {
+            if (value == null) value = next(args, ++i, name);
+            try {
+              threads = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+              throw new IllegalArgumentException("invalid thread count: " + value);
+            }
+            if (threads <= 0) {
+              throw new IllegalArgumentException("thread count must be positive: " + value);
+            }
+          }
+          case "--max-heap-budget" -> {
+            if (value == null) value = next(args, ++i, name);
+            maxHeapBudget = parseSize(value);
+          }
+          default -> {
+            if (arg.startsWith("-")) {
+              throw new IllegalArgumentException("unknown option: " + arg);
+            }
+            if (input != null) {
+              throw new IllegalArgumentException("more than one input given");
+            }
+            input = Path.of(arg);
+          }
+        }
+      }
+      if (input == null) {
+        throw new IllegalArgumentException("no input given");
+      }
+      return new Options(input, threads, maxHeapBudget, false);
+    }
+
+    private static String next(String[] args, int i, String option) {
+      if (i >= args.length) {
+        throw new IllegalArgumentException(option + " requires a value");
+      }
+      return args[i];
+    }
+  }
+
+  /** Counts written units, class files and their bytes for the throughput summary. */
+  private static final class Stats {
+    private final LongAdder units = new LongAdder();
+    private final LongAdder classes = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    void record(UnitConstants unit) {
+      units.increment();
+      bytes.add(unit.source().sizeBytes());
+      if (unit.source().sourceKind() == BytecodeSourceKind.CLASS_FILE) classes.increment();
+    }
+
+    String summary(long elapsedNanos, long errors) {
+      double seconds = Math.max(elapsedNanos, 1) / 1e9;
+      double megabytes = bytes.sum() / 1e6;
+      return String.format(
+          Locale.ROOT,
+          "extracted %d units (%d classes, %.1f MB) in %.2f s: %.0f classes/s, %.1f MB/s,"
+              + " %d errors",
+          units.sum(), classes.sum(), megabytes, seconds,
+          classes.sum() / seconds, megabytes / seconds, errors);
+    }
+  }
+
+  /** Reports failed units on standard error and keeps their count. */
+  private static final class ErrorReporter extends ExtractionNotifier.Silent {
+    private final PrintStream err;
+    private final AtomicLong errors = new AtomicLong();
+
+    ErrorReporter(PrintStream err) {
+      this.err = err;
+    }
+
+    @Override
+    public void onProcessingError(Path path, Exception error) {
+      err.println("error: " + path + ": " + error.getMessage());
+    }
+
+    @Override
+    public void onFutureFailure(Exception error) {
+      // Failed units were already reported by onProcessingError.
+      if (!(error instanceof ExecutionException)) err.println("error: " + error);
+    }
+
+    @Override
+    public void onExtractionCompleted(
+        long totalProcessed, long totalExceptions, Map<Class<?>, Integer> exceptionsByType) {
+      errors.set(totalExceptions);
+    }
+
+    long errors() {
+      return errors.get();
+    }
+  }
+}
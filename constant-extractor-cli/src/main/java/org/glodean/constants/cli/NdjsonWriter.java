@@ -0,0 +1,236 @@
+package org.glodean.constants.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.glodean.constants.extractor.bytecode.types.StructuredConstantValue;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
+import org.glodean.constants.model.UnitConstant.CoreSemanticType;
+import org.glodean.constants.model.UnitConstant.SemanticType;
+import org.glodean.constants.model.UnitConstant.UsageLocation;
+import org.glodean.constants.model.UnitConstants;
+
+/**
+ * Writes {@link UnitConstants} as newline-delimited JSON, one unit per line.
+ *
+ * <p>A line has the shape
+ * <pre>{@code
+ * {"kind":"CLASS_FILE","path":"com.acme.Foo","sizeBytes":1234,"contentHash":null,
+ *  "constants":[{"value":"SELECT 1","valueType":"String","usages":[{
+ *    "structuralType":"METHOD_INVOCATION_PARAMETER",
+ *    "semanticKind":"CORE","semanticType":"SQL_FRAGMENT",
+ *    "className":"com.acme.Foo","methodName":"load","methodDescriptor":"()void",
+ *    "bytecodeOffset":12,"lineNumber":40,"confidence":0.9,"metadata":{}}]}]}
+ * }</pre>
+ * Values use the same storage form and type token as the server's database: structured bytecode
+ * constants (method handles, condy, class literals) render through
+ * {@link StructuredConstantValue}, everything else through {@code toString()}. Constants and
+ * usages are sorted so that two scans of the same input produce identical lines.
+ *
+ * <p>{@link #accept} may be called concurrently from extraction workers; each line is rendered
+ * outside the lock and written whole. Write failures do not throw — check {@link #checkError()}
+ * after {@link #flush()}, as with {@link PrintStream}.
+ */
+final class NdjsonWriter implements Consumer<UnitConstants> {
+
+  private static final Comparator<UsageLocation> LOCATION_ORDER = Comparator
+      .comparing(UsageLocation::className)
+      .thenComparing(UsageLocation::methodName)
+      .thenComparing(UsageLocation::methodDescriptor)
+      .thenComparing(
+          UsageLocation::bytecodeOffset, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(UsageLocation::lineNumber, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private static final Comparator<ConstantUsage> USAGE_ORDER = Comparator
+      .comparing(ConstantUsage::location, LOCATION_ORDER)
+      .thenComparing(ConstantUsage::structuralType)
+      .thenComparing(
+          u -> semanticName(u.semanticType()), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final PrintStream out;
+
+  /**
+   * Creates a writer over {@code out}; output is buffered until {@link #flush()}.
+   *
+   * @param out the destination, typically {@code System.out}
+   */
+  NdjsonWriter(OutputStream out) {
+    this.out =
+        new PrintStream(new BufferedOutputStream(out, 1 << 16), false, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void accept(UnitConstants unit) {
+    String line = render(unit);
+    synchronized (out) {
+      out.append(line).append('\n');
+    }
+  }
+
+  /** Flushes buffered lines to the underlying stream. */
+  void flush() {
+    out.flush();
+  }
+
+  /**
+   * Returns {@code true} if writing to the underlying stream failed.
+   *
+   * @return whether any line may have been lost
+   */
+  boolean checkError() {
+    return out.checkError();
+  }
+
+  /**
+   * Renders one unit as a single JSON line without the trailing newline.
+   *
+   * @param unit the extraction result of one unit
+   * @return the JSON object
+   */
+  static String render(UnitConstants unit) {
+    var sb = new StringBuilder(256);
+    var source = unit.source();
+    sb.append("{\"kind\":");
+    string(sb, source.sourceKind().name());
+    sb.append(",\"path\":");
+    string(sb, source.path());
+    sb.append(",\"sizeBytes\":").append(source.sizeBytes());
+    sb.append(",\"contentHash\":");
+    string(sb, source.contentHash());
+    sb.append(",\"constants\":[");
+    var constants = unit.constants().stream()
+        .sorted(Comparator.comparing((UnitConstant c) -> valueType(c.value()))
+            .thenComparing(c -> storageValue(c.value())))
+        .toList();
+    for (int i = 0; i < constants.size(); i++) {
+      if (i > 0) sb.append(',');
+      constant(sb, constants.get(i));
+    }
+    return sb.append("]}").toString();
+  }
+
+  private static void constant(StringBuilder sb, UnitConstant constant) {
+    sb.append("{\"value\":");
+    string(sb, storageValue(constant.value()));
+    sb.append(",\"valueType\":");
+    string(sb, valueType(constant.value()));
+    sb.append(",\"usages\":[");
+    var usages = constant.usages().stream().sorted(USAGE_ORDER).toList();
+    for (int i = 0; i < usages.size(); i++) {
+      if (i > 0) sb.append(',');
+      usage(sb, usages.get(i));
+    }
+    sb.append("]}");
+  }
+
+  private static void usage(StringBuilder sb, ConstantUsage usage) {
+    UsageLocation location = usage.location();
+    sb.append("{\"structuralType\":");
+    string(sb, usage.structuralType().name());
+    sb.append(",\"semanticKind\":");
+    string(sb, usage.semanticType() == null
+        ? null
+        : usage.semanticType() instanceof CoreSemanticType ? "CORE" : "CUSTOM");
+    sb.append(",\"semanticType\":");
+    string(sb, semanticName(usage.semanticType()));
+    sb.append(",\"className\":");
+    string(sb, location.className());
+    sb.append(",\"methodName\":");
+    string(sb, location.methodName());
+    sb.append(",\"methodDescriptor\":");
+    string(sb, location.methodDescriptor());
+    sb.append(",\"bytecodeOffset\":").append(location.bytecodeOffset());
+    sb.append(",\"lineNumber\":").append(location.lineNumber());
+    sb.append(",\"confidence\":");
+    value(sb, usage.confidence());
+    sb.append(",\"metadata\":");
+    value(sb, usage.metadata());
+    sb.append('}');
+  }
+
+  private static String semanticName(SemanticType type) {
+    return switch (type) {
+      case null -> null;
+      case CoreSemanticType core -> core.name();
+      default -> type.category();
+    };
+  }
+
+  private static String storageValue(Object value) {
+    return value instanceof StructuredConstantValue structured
+        ? structured.storageValue()
+        : String.valueOf(value);
+  }
+
+  private static String valueType(Object value) {
+    return value instanceof StructuredConstantValue structured
+        ? structured.constantValueType()
+        : value.getClass().getSimpleName();
+  }
+
+  /** Appends an arbitrary metadata value: maps, iterables, finite numbers and booleans natively. */
+  private static void value(StringBuilder sb, Object value) {
+    switch (value) {
+      case null -> sb.append("null");
+      case Boolean b -> sb.append(b);
+      case Double d when d.isNaN() || d.isInfinite() -> string(sb, d.toString());
+      case Float f when f.isNaN() || f.isInfinite() -> string(sb, f.toString());
+      case Number n -> sb.append(n);
+      case Map<?, ?> map -> {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+          if (!first) sb.append(',');
+          first = false;
+          string(sb, String.valueOf(e.getKey()));
+          sb.append(':');
+          value(sb, e.getValue());
+        }
+        sb.append('}');
+      }
+      case Iterable<?> items -> {
+        sb.append('[');
+        boolean first = true;
+        for (Object item : items) {
+          if (!first) sb.append(',');
+          first = false;
+          value(sb, item);
+        }
+        sb.append(']');
+      }
+      default -> string(sb, storageValue(value));
+    }
+  }
+
+  /** Appends {@code s} as a JSON string literal, or {@code null}. */
+  static void string(StringBuilder sb, String s) {
+    if (s == null) {
+      sb.append("null");
+      return;
+    }
+    sb.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"' -> sb.append("\\\"");
+        case '\\' -> sb.append("\\\\");
+        case '\n' -> sb.append("\\n");
+        case '\r' -> sb.append("\\r");
+        case '\t' -> sb.append("\\t");
+        default -> {
+          if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+        }
+      }
+    }
+    sb.append('"');
+  }
+}
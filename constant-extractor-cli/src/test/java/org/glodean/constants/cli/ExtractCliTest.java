@@ -0,0 +1,163 @@
+package org.glodean.constants.cli;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("ExtractCli")
+class ExtractCliTest {
+
+  @TempDir Path temp;
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    return ExtractCli.run(args, out, new PrintStream(err, true, StandardCharsets.UTF_8));
+  }
+
+  private List<String> lines() {
+    return out.toString(StandardCharsets.UTF_8).lines().toList();
+  }
+
+  private static byte[] classBytes() throws IOException {
+    try (InputStream in = NdjsonWriter.class.getResourceAsStream("NdjsonWriter.class")) {
+      return in.readAllBytes();
+    }
+  }
+
+  @Test
+  @DisplayName("A directory is streamed as one line per class and config file")
+  void extractsDirectory() throws Exception {
+    Path classes = Files.createDirectories(temp.resolve("app/org/glodean/constants/cli"));
+    Files.write(classes.resolve("NdjsonWriter.class"), classBytes());
+    Files.writeString(temp.resolve("app/application.properties"), "server.port=8080\n");
+    Files.writeString(temp.resolve("app/application.yml"), "spring:\n  profiles: prod\n");
+
+    assertEquals(ExtractCli.EXIT_OK, run("--threads", "2", temp.resolve("app").toString()));
+
+    List<String> lines = lines();
+    assertEquals(3, lines.size());
+    assertTrue(lines.stream().anyMatch(l -> l.startsWith(
+        "{\"kind\":\"CLASS_FILE\",\"path\":\"org.glodean.constants.cli.NdjsonWriter\"")));
+    assertTrue(lines.stream().anyMatch(l -> l.contains("\"value\":\"8080\"")));
+    assertTrue(lines.stream().anyMatch(l -> l.startsWith("{\"kind\":\"YAML\"")), lines::toString);
+    String summary = err.toString(StandardCharsets.UTF_8);
+    assertTrue(summary.contains("extracted 3 units (1 classes"), summary);
+    assertTrue(summary.contains("classes/s"), summary);
+    assertTrue(summary.contains("MB/s"), summary);
+  }
+
+  @Test
+  @DisplayName("A JAR is streamed entry by entry")
+  void extractsJar() throws Exception {
+    Path jar = temp.resolve("app.jar");
+    try (var zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+      zip.putNextEntry(new ZipEntry("org/glodean/constants/cli/NdjsonWriter.class"));
+      zip.write(classBytes());
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      zip.write("Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    }
+
+    assertEquals(ExtractCli.EXIT_OK, run("--max-heap-budget=64m", jar.toString()));
+
+    List<String> lines = lines();
+    assertEquals(1, lines.size());
+    assertTrue(lines.getFirst().contains("\"valueType\":\"String\""));
+  }
+
+  @Test
+  @DisplayName("Units that fail to parse are reported and set exit status 1")
+  void reportsUnitErrors() throws Exception {
+    Path dir = Files.createDirectories(temp.resolve("broken"));
+    Files.write(dir.resolve("Broken.class"), new byte[] {1, 2, 3});
+    Files.writeString(dir.resolve("ok.properties"), "a=b\n");
+
+    assertEquals(ExtractCli.EXIT_UNIT_ERRORS, run(dir.toString()));
+
+    assertEquals(1, lines().size());
+    String diagnostics = err.toString(StandardCharsets.UTF_8);
+    assertTrue(diagnostics.contains("Broken.class"), diagnostics);
+    assertTrue(diagnostics.contains("1 errors"), diagnostics);
+  }
+
+  @Test
+  @DisplayName("An unreadable archive exits with status 2")
+  void rejectsCorruptArchive() throws Exception {
+    Path jar = Files.write(temp.resolve("corrupt.jar"), new byte[] {1, 2, 3});
+
+    assertEquals(ExtractCli.EXIT_FAILURE, run(jar.toString()));
+
+    assertEquals(0, out.size());
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("error: " + jar), err::toString);
+  }
+
+  @Test
+  @DisplayName("A failed write to standard output exits with status 2")
+  void reportsBrokenOutput() throws Exception {
+    Path dir = Files.createDirectories(temp.resolve("config"));
+    Files.writeString(dir.resolve("ok.properties"), "a=b\n");
+    OutputStream broken = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("broken pipe");
+      }
+    };
+
+    int status = ExtractCli.run(
+        new String[] {dir.toString()}, broken, new PrintStream(err, true, StandardCharsets.UTF_8));
+
+    assertEquals(ExtractCli.EXIT_FAILURE, status);
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("failed to write"), err::toString);
+  }
+
+  @Test
+  @DisplayName("Invalid arguments print usage and exit with status 2")
+  void rejectsInvalidArguments() {
+    assertEquals(ExtractCli.EXIT_FAILURE, run());
+    assertEquals(ExtractCli.EXIT_FAILURE, run("--threads", "0", "app.jar"));
+    assertEquals(ExtractCli.EXIT_FAILURE, run("--threads=many", "app.jar"));
+    assertEquals(ExtractCli.EXIT_FAILURE, run("--max-heap-budget", "lots", "app.jar"));
+    assertEquals(ExtractCli.EXIT_FAILURE, run("--threads"));
+    assertEquals(ExtractCli.EXIT_FAILURE, run("--verbose", "app.jar"));
+    assertEquals(ExtractCli.EXIT_FAILURE, run("a.jar", "b.jar"));
+    assertEquals(ExtractCli.EXIT_FAILURE, run(temp.resolve("missing.jar").toString()));
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("usage: constant-extractor"));
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  @DisplayName("--help prints usage and exits with status 0")
+  void printsHelp() {
+    assertEquals(ExtractCli.EXIT_OK, run("--help"));
+    assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("usage:"));
+  }
+
+  @Test
+  @DisplayName("Sizes accept binary k, m and g suffixes")
+  void parsesSizes() {
+    assertEquals(512, ExtractCli.parseSize("512"));
+    assertEquals(64L << 10, ExtractCli.parseSize("64k"));
+    assertEquals(256L << 20, ExtractCli.parseSize("256M"));
+    assertEquals(2L << 30, ExtractCli.parseSize("2g"));
+    assertThrows(IllegalArgumentException.class, () -> ExtractCli.parseSize("0"));
+    assertThrows(IllegalArgumentException.class, () -> ExtractCli.parseSize("-1k"));
+    assertThrows(IllegalArgumentException.class, () -> ExtractCli.parseSize("lots"));
+    assertThrows(IllegalArgumentException.class, () -> ExtractCli.parseSize("g"));
+  }
+}
@@ -0,0 +1,102 @@
+package org.glodean.constants.cli;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import org.glodean.constants.extractor.bytecode.BytecodeSourceKind;
+import org.glodean.constants.model.UnitConstant;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
+import org.glodean.constants.model.UnitConstant.CoreSemanticType;
+import org.glodean.constants.model.UnitConstant.CustomSemanticType;
+import org.glodean.constants.model.UnitConstant.UsageLocation;
+import org.glodean.constants.model.UnitConstant.UsageType;
+import org.glodean.constants.model.UnitConstants;
+import org.glodean.constants.model.UnitDescriptor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("NdjsonWriter")
+class NdjsonWriterTest {
+
+  private static final UsageLocation LOAD =
+      new UsageLocation("com.acme.Repo", "load", "()void", 12, 40);
+
+  private static UnitConstants unit(UnitConstant... constants) {
+    return new UnitConstants(
+        new UnitDescriptor(BytecodeSourceKind.CLASS_FILE, "com.acme.Repo", 1234, null),
+        Set.of(constants));
+  }
+
+  @Test
+  @DisplayName("Renders a unit with classified usages and metadata on one line")
+  void rendersUnit() {
+    var metadata = new LinkedHashMap<String, Object>();
+    metadata.put("arg", 0);
+    metadata.put("tags", List.of("a", true));
+    var sql = new UnitConstant("SELECT 1", Set.of(new ConstantUsage(
+        UsageType.METHOD_INVOCATION_PARAMETER, CoreSemanticType.SQL_FRAGMENT, LOAD, 0.9,
+        metadata)));
+
+    assertEquals(
+        "{\"kind\":\"CLASS_FILE\",\"path\":\"com.acme.Repo\",\"sizeBytes\":1234,"
+            + "\"contentHash\":null,\"constants\":[{\"value\":\"SELECT 1\","
+            + "\"valueType\":\"String\",\"usages\":["
+            + "{\"structuralType\":\"METHOD_INVOCATION_PARAMETER\",\"semanticKind\":\"CORE\","
+            + "\"semanticType\":\"SQL_FRAGMENT\",\"className\":\"com.acme.Repo\","
+            + "\"methodName\":\"load\",\"methodDescriptor\":\"()void\","
+            + "\"bytecodeOffset\":12,\"lineNumber\":40,"
+            + "\"confidence\":0.9,\"metadata\":{\"arg\":0,\"tags\":[\"a\",true]}}]}]}",
+        NdjsonWriter.render(unit(sql)));
+  }
+
+  @Test
+  @DisplayName("Constants and usages are ordered deterministically")
+  void ordersConstantsAndUsages() {
+    var early = new UsageLocation("com.acme.Repo", "load", "()void", 3, null);
+    var number = new UnitConstant(42, Set.of(
+        new ConstantUsage(UsageType.FIELD_STORE, null, LOAD, 0.0),
+        new ConstantUsage(
+            UsageType.FIELD_STORE, new CustomSemanticType("billing", "Billing"), early, 0.5)));
+    var text =
+        new UnitConstant("b", Set.of(new ConstantUsage(UsageType.FIELD_STORE, null, LOAD, 0)));
+
+    String line = NdjsonWriter.render(unit(text, number));
+
+    assertTrue(
+        line.indexOf("\"valueType\":\"Integer\"") < line.indexOf("\"valueType\":\"String\""));
+    assertTrue(line.contains(
+        "\"usages\":[{\"structuralType\":\"FIELD_STORE\",\"semanticKind\":\"CUSTOM\","
+            + "\"semanticType\":\"billing\""));
+    assertTrue(line.contains("\"bytecodeOffset\":12,\"lineNumber\":40"));
+    assertTrue(line.contains("\"bytecodeOffset\":3,\"lineNumber\":null"));
+    assertEquals(line, NdjsonWriter.render(unit(number, text)));
+  }
+
+  @Test
+  @DisplayName("Strings are escaped as JSON")
+  void escapesStrings() {
+    var sb = new StringBuilder();
+    NdjsonWriter.string(sb, "a\"b\\c\n\t\u0001\u2028é");
+    assertEquals("\"a\\\"b\\\\c\\n\\t\\u0001\\u2028é\"", sb.toString());
+  }
+
+  @Test
+  @DisplayName("Each unit is written as one newline-terminated UTF-8 line")
+  void writesLines() {
+    var bytes = new ByteArrayOutputStream();
+    var writer = new NdjsonWriter(bytes);
+    writer.accept(unit());
+    writer.accept(unit(new UnitConstant("é", Set.of())));
+    writer.flush();
+
+    String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n", -1);
+    assertEquals(3, lines.length);
+    assertEquals("", lines[2]);
+    assertTrue(lines[1].contains("\"value\":\"é\""));
+    assertFalse(writer.checkError());
+  }
+}
@@ -18,7 +18,7 @@ import org.springframework.validation.annotation.Validated;
  *
  * <p>{@code semanticType} accepts the type name as exposed by {@code /metadata/semantic-types}
  * (e.g. {@code LOG_MESSAGE} for core types, {@code my-custom} for custom ones).
- * The DB-level {@code semantic_type_kind} column value is inferred at query time via
+ * The DB-level semantic type kind ({@code CORE} or {@code CUSTOM}) is inferred at query time via
  * {@link org.glodean.constants.store.SemanticTypeStore} — callers do not need to supply it.
  */
 public record UnitListingRequest(
@@ -31,7 +31,7 @@ public record UnitListingRequest(
     String structuralType,
     // Optional — semantic type name as returned by /metadata/semantic-types, e.g. LOG_MESSAGE
     String semanticType,
-    // Optional — constant_value_type column value, e.g. String, Integer, Long
+    // Optional — constant_values.value_type column value, e.g. String, Integer, Long
     String constantValueType,
     // Zero-based page index; null is treated as 0
     @PositiveOrZero
@@ -1,26 +1,36 @@
 package org.glodean.constants.services;
 
 import java.io.IOException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.zip.ZipInputStream;
 import org.glodean.constants.extractor.ModelExtractor;
 import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
 import org.glodean.constants.extractor.bytecode.BytecodeModelExtractor;
+import org.glodean.constants.extractor.bytecode.BytecodeSourceKind;
+import org.glodean.constants.extractor.bytecode.ExtractionBudget;
+import org.glodean.constants.extractor.bytecode.ExtractionControl;
+import org.glodean.constants.extractor.bytecode.ExtractionStages;
+import org.glodean.constants.extractor.bytecode.MappedZipArchive;
 import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
+import org.glodean.constants.util.DigestUtils;
 import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 /**
@@ -31,8 +41,11 @@ import reactor.core.scheduler.Schedulers;
  *       file name derived from {@link UnitDescriptor#path()} (e.g. {@code "Foo.class"}).
  *       The same extension-based predicates used by the JAR/ZIP walkers therefore apply here
  *       too — no separate source-kind lookup is required.</li>
- *   <li><b>JAR file:</b> Opens the JAR as a native ZipFileSystem directly from the provided
- *       {@link Path} — no in-memory copy is made. The FileSystem is closed after extraction.</li>
+ *   <li><b>JAR file:</b> Memory-maps the JAR from the provided {@link Path} as a
+ *       {@link MappedZipArchive} and reads entries from the mapping — no whole-file copy is
+ *       made. The mapping is released after extraction.</li>
+ *   <li><b>Mapped archive:</b> Used for nested JARs sliced out of a mapped fat JAR; delegates
+ *       to {@link BytecodeModelExtractor#forZipArchive}.</li>
  *   <li><b>JAR via ZipInputStream:</b> Used for nested JARs already read into memory; delegates
  *       to {@link BytecodeModelExtractor#forZipStream}.</li>
  * </ul>
@@ -42,23 +55,66 @@ import reactor.core.scheduler.Schedulers;
  * {@link ExtractionServiceConfiguration}) directly to {@link BytecodeModelExtractor} for
  * internal parallelism.  The pool is reused across calls — no thread-pool creation overhead
  * per extraction.  The streaming path additionally uses {@code Schedulers.boundedElastic()}
- * for the outer blocking callables (file-walk and chunk submission) to avoid a deadlock that
+ * for the outer blocking work (entry listing and entry submission) to avoid a deadlock that
  * would occur if those blocking waits were scheduled on the analysis executor itself.
+ *
+ * <p>JAR extractions (streaming or not) share one {@link ExtractionBudget}: entry submission
+ * blocks while the bytes queued for analysis plus uncollected results exceed it, so concurrent
+ * uploads of large generated classes are throttled by memory rather than by entry count.
+ *
+ * <p>When an {@link ExtractionStages} bean is present, mapped-archive extractions read, inflate
+ * and hash entries on its virtual-thread I/O stage and analyze them on the same analysis pool,
+ * with a bounded queue in between, instead of reading every entry on one feeding thread.
+ *
+ * <p>Units streamed from a JAR carry a {@linkplain #reuseKey reuse key} as their content hash:
+ * the entry's central-directory fingerprint tagged with the
+ * {@linkplain ModelExtractorSupplierRepository#fingerprint() extractor configuration}, so a later
+ * upload only carries over units analysed under the configuration, and the extractor build, it
+ * would use itself.
  */
 @Service
 public class ConcreteExtractionService implements ExtractionService {
 
   private static final LoggingExtractionNotifier NOTIFIER = new LoggingExtractionNotifier();
 
+  /** Longest a partial batch of streamed units waits for more before it is emitted. */
+  static final Duration BATCH_MAX_WAIT = Duration.ofSeconds(1);
+
   private final ExecutorService bytecodeAnalysisExecutor;
   private final ModelExtractorSupplierRepository bytecodeExtractorRepository;
+  private final ExtractionBudget extractionBudget; // null = unbounded
+  private final ExtractionStages extractionStages; // null = entries read by the feeding thread
+  private final String reuseTag;
+
+  /** Creates a service without an in-flight byte budget. */
+  public ConcreteExtractionService(
+      ExecutorService bytecodeAnalysisExecutor,
+      ModelExtractorSupplierRepository bytecodeExtractorRepository) {
+    this(bytecodeAnalysisExecutor, bytecodeExtractorRepository, null);
+  }
+
+  /** Creates a service whose archive extractions read entries on the feeding thread. */
+  public ConcreteExtractionService(
+      ExecutorService bytecodeAnalysisExecutor,
+      ModelExtractorSupplierRepository bytecodeExtractorRepository,
+      ExtractionBudget extractionBudget) {
+    this(bytecodeAnalysisExecutor, bytecodeExtractorRepository, extractionBudget,
+        Optional.empty());
+  }
 
   @Autowired
   public ConcreteExtractionService(
       @Qualifier("bytecodeAnalysisExecutor") ExecutorService bytecodeAnalysisExecutor,
-      ModelExtractorSupplierRepository bytecodeExtractorRepository) {
+      ModelExtractorSupplierRepository bytecodeExtractorRepository,
+      ExtractionBudget extractionBudget,
+      Optional<ExtractionStages> extractionStages) {
     this.bytecodeAnalysisExecutor = bytecodeAnalysisExecutor;
     this.bytecodeExtractorRepository = bytecodeExtractorRepository;
+    this.extractionBudget = extractionBudget;
+    this.extractionStages = extractionStages.orElse(null);
+    this.reuseTag = '@' + DigestUtils.hexEncode(DigestUtils.newSha256().digest(
+        bytecodeExtractorRepository.fingerprint().getBytes(StandardCharsets.UTF_8)))
+        .substring(0, 16);
   }
 
   @Timed(value = "extraction.class", description = "Time to extract a class file")
@@ -79,50 +135,219 @@ public class ConcreteExtractionService implements ExtractionService {
   @Override
   public Collection<UnitConstants> extractJarFile(Path jarPath, UnitDescriptor descriptor)
       throws ModelExtractor.ExtractionException {
-    try (FileSystem fs = FileSystems.newFileSystem(jarPath, (ClassLoader) null)) {
-      return BytecodeModelExtractor
-          .forFileSystem(bytecodeAnalysisExecutor, fs, NOTIFIER, bytecodeExtractorRepository)
-          .extract(descriptor);
-    } catch (ModelExtractor.ExtractionException e) {
-      throw e;
+    try (MappedZipArchive archive = MappedZipArchive.map(jarPath)) {
+      return extractZipArchive(archive, descriptor);
     } catch (IOException e) {
       throw new ModelExtractor.ExtractionException(e);
     }
   }
 
   /**
-   * Truly lazy streaming extraction. The {@link FileSystem} is opened once and kept alive via
-   * {@link Flux#using}. All regular-file paths are listed upfront (cheap — no bytes read),
-   * then {@link Flux#buffer(int)} partitions them into chunks. {@code concatMap} processes one
-   * chunk at a time: reads bytes for those paths, runs {@link BytecodeModelExtractor#extractPathChunk},
-   * and emits the results — so bytes and futures from chunk N are GC-eligible before chunk N+1
-   * bytes are read.
+   * Truly lazy streaming extraction. The JAR is memory-mapped for the duration of one
+   * {@link BytecodeModelExtractor} run. All file entries are listed upfront from the central
+   * directory (cheap — no entry data touched), and each unit's results are pushed through
+   * {@link BytecodeModelExtractor#extract(UnitDescriptor, java.util.function.Consumer,
+   * ExtractionControl)} as it finishes; {@link Flux#bufferTimeout} groups them into batches of at
+   * most {@code batchSize} units, or fewer after {@link #BATCH_MAX_WAIT}, so the first batch
+   * reaches storage while the rest of the JAR is still being analyzed.
    */
   @Timed(value = "extraction.jar.streaming", description = "Time to stream-extract a JAR file")
   @Override
   public Flux<List<UnitConstants>> extractJarFileStreaming(
       Path jarPath, int batchSize) {
-    return Flux.using(
-        () -> FileSystems.newFileSystem(jarPath, (ClassLoader) null),
-        fs -> Mono.fromCallable(() -> {
-                    try (var walk = Files.walk(fs.getPath("/"))) {
-                      return walk.filter(Files::isRegularFile).toList();
-                    }
-                  })
-                  .subscribeOn(Schedulers.boundedElastic())
-                  .flatMapMany(allPaths -> Flux.fromIterable(allPaths).buffer(batchSize))
-                  .concatMap(pathChunk ->
-                      Mono.fromCallable(() ->
-                              BytecodeModelExtractor.extractPathChunk(
-                                  bytecodeAnalysisExecutor, pathChunk,
-                                  NOTIFIER,
-                                  bytecodeExtractorRepository))
-                          .subscribeOn(Schedulers.boundedElastic())
-                          .map(ArrayList::new)
-                          .filter(list -> !list.isEmpty())),
-        fs -> {
-          try { fs.close(); } catch (IOException ignored) {}
-        });
+    return extractJarFileStreaming(jarPath, batchSize, Map.of())
+        .map(StreamedChunk::units)
+        .filter(list -> !list.isEmpty());
+  }
+
+  /**
+   * Same pipeline as {@link #extractJarFileStreaming(Path, int)}, except that entries whose
+   * {@link #reuseKey} is in {@code reusableHashes} are dropped before any of their bytes are
+   * read.
+   */
+  @Timed(value = "extraction.jar.streaming", description = "Time to stream-extract a JAR file")
+  @Override
+  public Flux<StreamedChunk> extractJarFileStreaming(
+      Path jarPath, int batchSize, Map<String, String> reusableHashes) {
+    var reused = new AtomicReference<Set<String>>(Set.of());
+    return attachReused(
+        streamUnits(jarPath, reusableHashes, reused::set, batchSize)
+            .bufferTimeout(batchSize, BATCH_MAX_WAIT, true),
+        reused);
+  }
+
+  /**
+   * Adapts the push-based extraction of {@code jarPath} to a {@link Flux} that honours downstream
+   * demand.
+   *
+   * <p>The archive is mapped, planned and extracted on {@code Schedulers.boundedElastic()}, and
+   * unmapped only once the extraction call has returned, so no worker can still be slicing it.
+   * Analysis workers hand finished units to the sink without ever waiting: they may belong to the
+   * analysis pool shared by every upload, and a worker parked on one slow consumer would stall
+   * the others. Instead, a {@link Backlog} holds the feeding thread back while {@code capacity}
+   * units are in flight or emitted but not yet requested, and the units are delivered downstream
+   * from a separate bounded queue on {@code Schedulers.boundedElastic()}. Cancellation stops the
+   * feeder and skips the units that have not been analyzed yet.
+   *
+   * @param onPlanned receives the unit names carried over unchanged, before any unit is emitted
+   */
+  private Flux<UnitConstants> streamUnits(
+      Path jarPath, Map<String, String> reusableHashes, Consumer<Set<String>> onPlanned,
+      int capacity) {
+    var descriptor = new UnitDescriptor(BytecodeSourceKind.JAR, jarPath.toString());
+    return Flux.<UnitConstants>create(emitter -> {
+          var backlog = new Backlog(capacity);
+          emitter.onRequest(backlog::request);
+          emitter.onDispose(backlog::cancel);
+          try (MappedZipArchive archive = MappedZipArchive.map(jarPath)) {
+            ExtractionPlan plan = planExtraction(archive, reusableHashes);
+            onPlanned.accept(plan.reused());
+            archiveExtractor(archive, plan.toExtract()).extract(descriptor, unit -> {
+              if (backlog.emitted()) emitter.next(withReuseKey(unit));
+            }, backlog);
+            emitter.complete();
+          } catch (IOException | RuntimeException e) {
+            emitter.error(e);
+          }
+        })
+        // Deliver requests on the requesting thread: the thread running the extraction is
+        // blocked until it completes and could not process them.
+        .subscribeOn(Schedulers.boundedElastic(), false)
+        .publishOn(Schedulers.boundedElastic(), capacity);
+  }
+
+  /**
+   * Downstream demand of one streaming extraction, which admits units to the extraction while
+   * fewer than {@code capacity} of them are in flight or emitted but not yet requested. Only the
+   * feeding thread waits here; analysis workers never do.
+   */
+  private static final class Backlog implements ExtractionControl {
+    private final int capacity;
+    private long requested;
+    private long emitted;
+    private int inFlight;
+    private boolean cancelled;
+
+    Backlog(int capacity) {
+      this.capacity = Math.max(1, capacity);
+    }
+
+    synchronized void request(long n) {
+      requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+      notifyAll();
+    }
+
+    synchronized void cancel() {
+      cancelled = true;
+      notifyAll();
+    }
+
+    /** Counts one unit handed downstream; {@code false} if cancelled and it should be dropped. */
+    synchronized boolean emitted() {
+      if (cancelled) return false;
+      emitted++;
+      return true;
+    }
+
+    @Override
+    public synchronized boolean cancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public synchronized boolean admit() throws InterruptedException {
+      while (!cancelled && inFlight + undelivered() >= capacity) {
+        wait();
+      }
+      if (cancelled) return false;
+      inFlight++;
+      return true;
+    }
+
+    @Override
+    public synchronized void unitDone() {
+      inFlight--;
+      notifyAll();
+    }
+
+    private long undelivered() {
+      return requested == Long.MAX_VALUE ? 0 : Math.max(0, emitted - requested);
+    }
+  }
+
+  /** Entries still to be read and analysed, and unit names carried over unchanged. */
+  private record ExtractionPlan(List<MappedZipArchive.Entry> toExtract, Set<String> reused) {}
+
+  /** Lists every file entry of {@code archive} and sets aside those matching {@code reusableHashes}. */
+  private ExtractionPlan planExtraction(
+      MappedZipArchive archive, Map<String, String> reusableHashes) {
+    List<MappedZipArchive.Entry> toExtract = new ArrayList<>();
+    Set<String> reused = new HashSet<>();
+    for (MappedZipArchive.Entry entry : archive.entries()) {
+      if (entry.isDirectory()) {
+        continue;
+      }
+      String unitName = reusableHashes.get(reuseKey(entry.fingerprint()));
+      if (unitName != null && isUnitOfEntry(unitName, entry.path())) {
+        reused.add(unitName);
+      } else {
+        toExtract.add(entry);
+      }
+    }
+    return new ExtractionPlan(toExtract, reused);
+  }
+
+  /**
+   * Returns the content hash recorded for a unit streamed from an entry with the given
+   * central-directory fingerprint: the fingerprint tagged with a digest of the extractor
+   * configuration and build. Units stored under another configuration or by another build, or
+   * through a path that records the bare fingerprint, never match and are extracted again.
+   */
+  String reuseKey(String entryFingerprint) {
+    return entryFingerprint + reuseTag;
+  }
+
+  /** Replaces the entry fingerprint recorded in {@code unit} with its {@link #reuseKey}. */
+  private UnitConstants withReuseKey(UnitConstants unit) {
+    UnitDescriptor source = unit.source();
+    if (source.contentHash() == null) {
+      return unit;
+    }
+    return new UnitConstants(
+        new UnitDescriptor(source.sourceKind(), source.path(), source.sizeBytes(),
+            reuseKey(source.contentHash())),
+        unit.constants());
+  }
+
+  /**
+   * Guards against fingerprint collisions and moved entries: config files are named by their
+   * entry path, classes by their Java name, which must match the entry's path suffix.
+   */
+  private static boolean isUnitOfEntry(String unitName, String entryPath) {
+    if (entryPath.equals(unitName)) {
+      return true;
+    }
+    if (!entryPath.endsWith(".class")) {
+      return false;
+    }
+    String dotted = entryPath.substring(0, entryPath.length() - ".class".length())
+        .replace('/', '.')
+        .replace('$', '.');
+    return dotted.endsWith("." + unitName);
+  }
+
+  /**
+   * Attaches {@code reused} — set once the archive has been planned, before the first unit is
+   * emitted — to the first chunk, emitting an empty one when nothing was extracted so the reused
+   * names still reach the store.
+   */
+  private static Flux<StreamedChunk> attachReused(
+      Flux<List<UnitConstants>> chunks, AtomicReference<Set<String>> reused) {
+    return chunks
+        .defaultIfEmpty(List.of())
+        .index()
+        .map(t -> new StreamedChunk(t.getT2(), t.getT1() == 0 ? reused.get() : Set.of()))
+        .filter(chunk -> !chunk.units().isEmpty() || !chunk.reusedUnits().isEmpty());
   }
 
   @Timed(value = "extraction.zip_stream", description = "Time to extract a JAR via ZipInputStream")
@@ -133,4 +358,22 @@ public class ConcreteExtractionService implements ExtractionService {
         .forZipStream(bytecodeAnalysisExecutor, zis, bytecodeExtractorRepository)
         .extract(descriptor);
   }
+
+  @Timed(value = "extraction.zip_archive", description = "Time to extract a mapped ZIP archive")
+  @Override
+  public Collection<UnitConstants> extractZipArchive(
+      MappedZipArchive archive, UnitDescriptor descriptor)
+      throws ModelExtractor.ExtractionException {
+    return archiveExtractor(archive, archive.entries()).extract(descriptor);
+  }
+
+  /** Extractor over {@code entries} of {@code archive}, staged when stages are configured. */
+  private BytecodeModelExtractor archiveExtractor(
+      MappedZipArchive archive, List<MappedZipArchive.Entry> entries) {
+    return extractionStages != null
+        ? BytecodeModelExtractor.forZipArchive(extractionStages, extractionBudget, archive,
+            entries, NOTIFIER, bytecodeExtractorRepository)
+        : BytecodeModelExtractor.forZipArchive(bytecodeAnalysisExecutor, extractionBudget,
+            archive, entries, NOTIFIER, bytecodeExtractorRepository);
+  }
 }
@@ -9,6 +9,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -41,7 +42,9 @@ import static org.glodean.constants.util.LogSanitizer.sanitize;
  *       Paths whose {@code snapshotId} is identical in both versions are skipped entirely.</li>
  *   <li>Fire one batched 2-table SQL query per side ({@code unit_constants JOIN constant_usages}).
  *       Path is recovered in-memory via an inverted {@code snapshotId → path} map.</li>
- *   <li>Group rows by path + constant value and compute added / removed / changed entries.</li>
+ *   <li>Group rows by path + constant value hash and compute added / removed / changed entries.
+ *       Values are matched by their {@code constant_values} hash, never by comparing text, and
+ *       entries keep the value order in which the query returns the rows.</li>
  * </ol>
  */
 @Service
@@ -90,9 +93,9 @@ public class DiffService {
 
           Map<Long, String> snapshotToPath = invertedIndex(fromMap, toMap);
 
-          Mono<Map<String, Map<String, List<UsageDetail>>>> fromConstsMono =
+          Mono<Map<String, Map<UUID, ValueUsages>>> fromConstsMono =
               loadConstantsForSnapshots(cats.fromSnapshotIds(), snapshotToPath);
-          Mono<Map<String, Map<String, List<UsageDetail>>>> toConstsMono =
+          Mono<Map<String, Map<UUID, ValueUsages>>> toConstsMono =
               loadConstantsForSnapshots(cats.toSnapshotIds(), snapshotToPath);
 
           return Mono.zip(fromConstsMono, toConstsMono)
@@ -219,8 +222,8 @@ public class DiffService {
 
   private static List<UnitDiff> buildUnitDiffs(
       PathCategories cats,
-      Map<String, Map<String, List<UsageDetail>>> fromConsts,
-      Map<String, Map<String, List<UsageDetail>>> toConsts) {
+      Map<String, Map<UUID, ValueUsages>> fromConsts,
+      Map<String, Map<UUID, ValueUsages>> toConsts) {
 
     List<UnitDiff> units = new ArrayList<>();
 
@@ -248,7 +251,7 @@ public class DiffService {
 
   // ── Reactive data loading ─────────────────────────────────────────────────
 
-  private Mono<Map<String, Map<String, List<UsageDetail>>>> loadConstantsForSnapshots(
+  private Mono<Map<String, Map<UUID, ValueUsages>>> loadConstantsForSnapshots(
       Set<Long> snapshotIds, Map<Long, String> snapshotToPath) {
     return diffRepo.loadForSnapshots(snapshotIds)
         .collectList()
@@ -257,16 +260,21 @@ public class DiffService {
 
   // ── In-memory diff helpers ────────────────────────────────────────────────
 
-  /** Groups flat DB rows into {@code path → (constantValue → [usageDetails])}. */
-  private static Map<String, Map<String, List<UsageDetail>>> groupByPathAndValue(
+  /** The usages of one constant value within one unit, keyed by the hash of the value. */
+  private record ValueUsages(String value, String valueType, List<UsageDetail> usages) {}
+
+  /** Groups flat DB rows into {@code path → (valueHash → value + [usageDetails])}. */
+  private static Map<String, Map<UUID, ValueUsages>> groupByPathAndValue(
       List<ConstantDiffRow> rows, Map<Long, String> snapshotToPath) {
-    Map<String, Map<String, List<UsageDetail>>> result = new LinkedHashMap<>();
+    Map<String, Map<UUID, ValueUsages>> result = new LinkedHashMap<>();
     for (ConstantDiffRow row : rows) {
       String path = snapshotToPath.get(row.snapshotId());
       if (path == null) continue; // should never happen
       result
           .computeIfAbsent(path, ignored -> new LinkedHashMap<>())
-          .computeIfAbsent(row.constantValue(), ignored -> new ArrayList<>())
+          .computeIfAbsent(row.valueHash(), ignored -> new ValueUsages(
+              row.constantValue(), row.constantValueType(), new ArrayList<>()))
+          .usages()
           .add(toUsageDetail(row));
     }
     return result;
@@ -285,31 +293,34 @@ public class DiffService {
   }
 
   private static List<ConstantDiffEntry> buildAddedEntries(
-      Map<String, List<UsageDetail>> toConstants) {
-    return toConstants.entrySet().stream()
-        .map(e -> new ConstantDiffEntry(e.getKey(), null, List.of(), e.getValue()))
+      Map<UUID, ValueUsages> toConstants) {
+    return toConstants.values().stream()
+        .map(v -> new ConstantDiffEntry(v.value(), v.valueType(), List.of(), v.usages()))
         .toList();
   }
 
   private static List<ConstantDiffEntry> buildRemovedEntries(
-      Map<String, List<UsageDetail>> fromConstants) {
-    return fromConstants.entrySet().stream()
-        .map(e -> new ConstantDiffEntry(e.getKey(), null, e.getValue(), List.of()))
+      Map<UUID, ValueUsages> fromConstants) {
+    return fromConstants.values().stream()
+        .map(v -> new ConstantDiffEntry(v.value(), v.valueType(), v.usages(), List.of()))
         .toList();
   }
 
   private static List<ConstantDiffEntry> compareConstants(
-      Map<String, List<UsageDetail>> fromC, Map<String, List<UsageDetail>> toC) {
-    Set<String> allValues = new LinkedHashSet<>();
-    allValues.addAll(fromC.keySet());
-    allValues.addAll(toC.keySet());
+      Map<UUID, ValueUsages> fromC, Map<UUID, ValueUsages> toC) {
+    Set<UUID> allHashes = new LinkedHashSet<>();
+    allHashes.addAll(fromC.keySet());
+    allHashes.addAll(toC.keySet());
 
     List<ConstantDiffEntry> entries = new ArrayList<>();
-    for (String value : allValues) {
-      List<UsageDetail> fromUsages = canonicallySorted(fromC.getOrDefault(value, List.of()));
-      List<UsageDetail> toUsages   = canonicallySorted(toC.getOrDefault(value, List.of()));
+    for (UUID hash : allHashes) {
+      ValueUsages from = fromC.get(hash);
+      ValueUsages to   = toC.get(hash);
+      List<UsageDetail> fromUsages = from == null ? List.of() : canonicallySorted(from.usages());
+      List<UsageDetail> toUsages   = to   == null ? List.of() : canonicallySorted(to.usages());
       if (!fromUsages.equals(toUsages)) {
-        entries.add(new ConstantDiffEntry(value, null, fromUsages, toUsages));
+        ValueUsages value = from != null ? from : to;
+        entries.add(new ConstantDiffEntry(value.value(), value.valueType(), fromUsages, toUsages));
       }
     }
     return entries;
@@ -3,8 +3,11 @@ package org.glodean.constants.services;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipInputStream;
 import org.glodean.constants.extractor.ModelExtractor;
+import org.glodean.constants.extractor.bytecode.MappedZipArchive;
 import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 import reactor.core.publisher.Flux;
@@ -36,22 +39,41 @@ public interface ExtractionService {
       throws ModelExtractor.ExtractionException;
 
   /**
-   * Truly lazy, streaming extraction of a JAR file. Opens the JAR's {@link java.nio.file.FileSystem},
-   * walks all regular entries, partitions them into chunks of {@code batchSize} paths, and emits
-   * one {@link List} per non-empty chunk via {@code concatMap} — so the JVM can GC each chunk's
-   * raw bytes, {@link java.util.concurrent.Future}s, and {@link UnitConstants} objects before the
-   * next chunk's bytes are even read from disk.
+   * Truly lazy, streaming extraction of a JAR file. Memory-maps the JAR as a
+   * {@link MappedZipArchive}, lists its file entries from the central directory and analyzes
+   * them in parallel, emitting units in batches of up to {@code batchSize} as they finish — a
+   * batch does not wait for the slowest class of a fixed group of entries, and a partial batch is
+   * emitted after a short delay so the first results reach the caller early. Entries are only
+   * read as fast as downstream demand and the extraction budget allow.
    *
-   * <p>The {@link java.nio.file.FileSystem} stays open for the lifetime of the returned
-   * {@link Flux} and is closed automatically on completion, error, or cancellation.
+   * <p>The mapping stays open for the lifetime of the returned {@link Flux} and is released
+   * automatically on completion, error, or cancellation.
    *
    * @param jarPath    path to the JAR file on disk
-   * @param batchSize  maximum number of file-system entries (paths) per emitted chunk
-   * @return a cold {@link Flux} that emits one {@code List<UnitConstants>} per non-empty chunk
+   * @param batchSize  maximum number of units per emitted batch
+   * @return a cold {@link Flux} that emits one non-empty {@code List<UnitConstants>} per batch
    */
   Flux<List<UnitConstants>> extractJarFileStreaming(
       Path jarPath, int batchSize);
 
+  /**
+   * Streaming extraction that skips entries already analysed in an earlier version.
+   *
+   * <p>Each entry's central-directory fingerprint ({@link MappedZipArchive.Entry#fingerprint()}),
+   * tagged with the extractor configuration, is looked up in {@code reusableHashes}; emitted
+   * units record the same tagged value as their content hash, so only units stored under the
+   * current configuration ever match. A hit whose unit name matches the entry is neither read
+   * nor analysed and is reported through {@link StreamedChunk#reusedUnits()} instead. All reused
+   * names are attached to the first emitted chunk, which is emitted even when it has no units.
+   *
+   * @param jarPath        path to the JAR file on disk
+   * @param batchSize      maximum number of units per emitted chunk
+   * @param reusableHashes content hash → unit name for units that can be carried over
+   * @return a cold {@link Flux} of chunks; at least one chunk is emitted if anything was reused
+   */
+  Flux<StreamedChunk> extractJarFileStreaming(
+      Path jarPath, int batchSize, Map<String, String> reusableHashes);
+
   /**
    * Walks a {@link ZipInputStream} and extracts constants from all {@code .class} entries.
    * Reading is sequential; analysis is parallelised internally. The caller owns the stream.
@@ -63,4 +85,25 @@ public interface ExtractionService {
    */
   Collection<UnitConstants> extractZipStream(ZipInputStream zis, UnitDescriptor descriptor)
       throws ModelExtractor.ExtractionException;
+
+  /**
+   * Extracts constants from every entry of an already-open archive, typically a nested JAR
+   * sliced out of a memory-mapped fat JAR. Reading is sequential; analysis is parallelised
+   * internally. The caller owns the archive.
+   *
+   * @param archive    open archive (for a {@code STORED} nested JAR, a view of the outer mapping)
+   * @param descriptor metadata describing this unit (e.g. the nested JAR filename)
+   * @return the extracted {@link UnitConstants} for all recognised entries
+   * @throws ModelExtractor.ExtractionException if an entry cannot be read
+   */
+  Collection<UnitConstants> extractZipArchive(MappedZipArchive archive, UnitDescriptor descriptor)
+      throws ModelExtractor.ExtractionException;
+
+  /**
+   * One chunk of a {@linkplain #extractJarFileStreaming(Path, int, Map) deduplicating} stream.
+   *
+   * @param units       units extracted from this chunk's entries
+   * @param reusedUnits names of units whose entries were skipped as unchanged
+   */
+  record StreamedChunk(List<UnitConstants> units, Set<String> reusedUnits) {}
 }
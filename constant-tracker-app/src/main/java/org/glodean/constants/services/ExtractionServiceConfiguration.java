@@ -1,29 +1,42 @@
 package org.glodean.constants.services;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import org.glodean.constants.extractor.ExtractionResultCache;
 import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.extractor.TieredExtractionResultCache;
 import org.glodean.constants.extractor.bytecode.AnalysisMerger;
 import org.glodean.constants.extractor.bytecode.BytecodeSourceKind;
 import org.glodean.constants.extractor.bytecode.ClassModelExtractor;
 import org.glodean.constants.extractor.bytecode.ConstantUsageInterpreterRegistry;
+import org.glodean.constants.extractor.bytecode.DefaultExtractorSource;
+import org.glodean.constants.extractor.bytecode.ExtractionBudget;
+import org.glodean.constants.extractor.bytecode.ExtractionStages;
+import org.glodean.constants.extractor.bytecode.InMemoryMethodUsageStore;
+import org.glodean.constants.extractor.bytecode.MethodAnalysisCounters;
+import org.glodean.constants.extractor.bytecode.MethodUsageStore;
+import org.glodean.constants.extractor.bytecode.StateRetention;
+import org.glodean.constants.extractor.bytecode.TieredMethodUsageStore;
 import org.glodean.constants.extractor.configfile.ConfigFileSourceKind;
 import org.glodean.constants.extractor.configfile.PropertiesConstantsExtractor;
 import org.glodean.constants.extractor.configfile.YamlConstantsExtractor;
 import org.glodean.constants.extractor.bytecode.InternalStringConcatPatternSplitter;
 import org.glodean.constants.extractor.bytecode.StringConcatPatternSplitter;
-import org.glodean.constants.extractor.bytecode.interpreters.AnnotationConstantUsageInterpreter;
-import org.glodean.constants.extractor.bytecode.interpreters.ErrorMessageConstantUsageInterpreter;
-import org.glodean.constants.extractor.bytecode.interpreters.FilePathConstantUsageInterpreter;
-import org.glodean.constants.extractor.bytecode.interpreters.LoggingConstantUsageInterpreter;
-import org.glodean.constants.extractor.bytecode.interpreters.SqlConstantUsageInterpreter;
-import org.glodean.constants.extractor.bytecode.interpreters.UrlResourceConstantUsageInterpreter;
-import org.glodean.constants.model.UnitConstant.UsageType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import jakarta.annotation.PreDestroy;
@@ -50,17 +63,24 @@ public class ExtractionServiceConfiguration {
 
   private ExecutorService bytecodeAnalysisExecutor;
   private ExecutorService blockingIoExecutor;
+  private ExecutorService pipelineIoExecutor;
 
   /**
-   * Shared fixed-thread-pool used by all bytecode extractions.
-   * Sized to {@link Runtime#availableProcessors()} — CPU-bound workload.
+   * Shared work-stealing {@link ForkJoinPool} used by all bytecode extractions.
+   * Sized to {@link Runtime#availableProcessors()} by default — CPU-bound workload. Running class
+   * analysis on fork/join workers lets {@link ClassModelExtractor} fork the large methods of a
+   * single class so that idle workers steal them instead of waiting on one straggler.
    * Shut down on application context close via {@link #shutdownBytecodeExecutor()}.
+   *
+   * @param cpuThreads worker count ({@code constants.extraction.pipeline.cpu-threads});
+   *                   {@code 0} uses one per available processor
    */
   @Bean
-  ExecutorService bytecodeAnalysisExecutor() {
-    int threads = Runtime.getRuntime().availableProcessors();
+  ExecutorService bytecodeAnalysisExecutor(
+      @Value("${constants.extraction.pipeline.cpu-threads:0}") int cpuThreads) {
+    int threads = cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors();
     logger.atInfo().log("Creating shared bytecode analysis executor with {} threads", threads);
-    this.bytecodeAnalysisExecutor = Executors.newFixedThreadPool(threads);
+    this.bytecodeAnalysisExecutor = new ForkJoinPool(threads);
     return this.bytecodeAnalysisExecutor;
   }
 
@@ -89,6 +109,10 @@ public class ExtractionServiceConfiguration {
       logger.atInfo().log("Shutting down blocking I/O executor");
       blockingIoExecutor.close();
     }
+    if (pipelineIoExecutor != null) {
+      logger.atInfo().log("Shutting down extraction I/O executor");
+      pipelineIoExecutor.close();
+    }
   }
 
   /**
@@ -106,28 +130,21 @@ public class ExtractionServiceConfiguration {
    * Creates the {@link ConstantUsageInterpreterRegistry} that maps structural usage types to
    * semantic interpreters.
    *
-   * <p>Currently registers a {@link LoggingConstantUsageInterpreter} for
-   * {@link UsageType#METHOD_INVOCATION_PARAMETER}. Add additional
-   * {@code .register(...)} calls here to plug in new semantic classifiers.
+   * <p>Uses the {@linkplain DefaultExtractorSource#interpreterRegistry() default interpreters}
+   * shared with the command-line extractor; new semantic classifiers are registered there.
    *
    * @return an immutable registry with all registered interpreters
    */
   @Bean
   ConstantUsageInterpreterRegistry interpreterRegistry() {
-    return ConstantUsageInterpreterRegistry.builder()
-        .register(UsageType.METHOD_INVOCATION_PARAMETER, new LoggingConstantUsageInterpreter())
-        .register(UsageType.METHOD_INVOCATION_PARAMETER, new SqlConstantUsageInterpreter())
-        .register(UsageType.METHOD_INVOCATION_PARAMETER, new ErrorMessageConstantUsageInterpreter())
-        .register(UsageType.METHOD_INVOCATION_PARAMETER, new FilePathConstantUsageInterpreter())
-        .register(UsageType.METHOD_INVOCATION_PARAMETER, new UrlResourceConstantUsageInterpreter())
-        .register(UsageType.ANNOTATION_VALUE, new AnnotationConstantUsageInterpreter())
-        .build();
+    return DefaultExtractorSource.interpreterRegistry();
   }
 
   /**
    * Unified {@link ModelExtractorSupplierRepository} covering all supported source kinds:
    * <ul>
-   *   <li>{@link BytecodeSourceKind#CLASS_FILE} — via {@link ClassModelExtractor#supplier}</li>
+   *   <li>{@link BytecodeSourceKind#CLASS_FILE} — via {@link ClassModelExtractor#supplier},
+   *       registered by {@link DefaultExtractorSource#registerClassFiles}</li>
    *   <li>{@link ConfigFileSourceKind#YAML} — via {@link YamlConstantsExtractor}</li>
    *   <li>{@link ConfigFileSourceKind#PROPERTIES} — via {@link PropertiesConstantsExtractor}</li>
    * </ul>
@@ -135,16 +152,50 @@ public class ExtractionServiceConfiguration {
    * <p>To add a new source kind, add a {@code .register(...)} call here.
    * No changes to controllers or services are required.
    *
-   * @param merger the shared {@link AnalysisMerger} bean
+   * <p>When an {@link ExtractionResultCache} bean is present, class-file results are cached by
+   * content hash, so identical classes across uploads (shaded libraries, unchanged classes between
+   * versions) skip parsing and analysis. The cache fingerprint combines the merger configuration
+   * with {@code constants.extraction.cache.version}. The merger fingerprint already names the
+   * extractor build, so the version only needs a bump to drop results of the same build.
+   * The same fingerprint is set on the repository whether or not the cache is enabled, and tags
+   * the content hashes that incremental uploads compare, so changing either also stops units
+   * from being carried over from a parent version.
+   * When a {@link MethodUsageStore} bean is present, classes that miss that cache still reuse the
+   * results of their unchanged methods.
+   *
+   * @param merger       the shared {@link AnalysisMerger} bean
+   * @param retention    which per-method analysis states to keep
+   *                     ({@code constants.analysis.state-retention}, default {@code ALL_ELEMENTS})
+   * @param forkThreshold minimum code length of a method analyzed as a forked sub-task
+   *                     ({@code constants.analysis.fork-threshold})
+   * @param resultCache  the class-file result cache, absent when caching is disabled
+   * @param cacheVersion extraction logic version folded into the fingerprint
+   * @param methodStore  the per-method result store, absent when disabled
+   * @param counters     where class-file extractors count analyzed, skipped and reused methods
    * @return a single immutable repository used by all extraction entry points
    */
   @Bean
-  ModelExtractorSupplierRepository modelExtractorSupplierRepository(AnalysisMerger merger) {
-    return ModelExtractorSupplierRepository.builder()
-        .register(
-            name -> name.endsWith(".class"),
-            BytecodeSourceKind.CLASS_FILE,
-            ClassModelExtractor.supplier(merger))
+  ModelExtractorSupplierRepository modelExtractorSupplierRepository(
+      AnalysisMerger merger,
+      @Value("${constants.analysis.state-retention:ALL_ELEMENTS}") StateRetention retention,
+      @Value("${constants.analysis.fork-threshold:" + ClassModelExtractor.DEFAULT_FORK_THRESHOLD
+          + "}") int forkThreshold,
+      Optional<ExtractionResultCache> resultCache,
+      @Value("${constants.extraction.cache.version:1}") String cacheVersion,
+      Optional<MethodUsageStore> methodStore,
+      MethodAnalysisCounters counters) {
+    String fingerprint = merger.fingerprint() + "|v" + cacheVersion;
+    var builder = ModelExtractorSupplierRepository.builder().fingerprint(fingerprint);
+    resultCache.ifPresent(
+        cache -> builder.cache(cache, fingerprint, BytecodeSourceKind.CLASS_FILE));
+    return DefaultExtractorSource.registerClassFiles(
+            builder,
+            ClassModelExtractor.supplier(
+                merger,
+                retention,
+                forkThreshold,
+                methodStore.orElse(MethodUsageStore.NONE),
+                counters))
         .register(
             n -> n.endsWith(".yml") || n.endsWith(".yaml"),
             ConfigFileSourceKind.YAML,
@@ -156,6 +207,241 @@ public class ExtractionServiceConfiguration {
         .build();
   }
 
+  /**
+   * Content-addressed cache of class-file extraction results, with a bounded in-heap tier and
+   * an optional, size-bounded on-disk tier. Hit, disk-hit, miss and disk eviction counts are
+   * exported as {@code extraction.cache.*} counters.
+   *
+   * @param heapEntries   maximum entries kept in memory
+   *                      ({@code constants.extraction.cache.heap-entries})
+   * @param diskDirectory on-disk tier directory; blank disables it
+   *                      ({@code constants.extraction.cache.disk-dir})
+   * @param diskMaxBytes  size of the on-disk tier above which its least recently used entries
+   *                      are deleted ({@code constants.extraction.cache.disk-max-bytes})
+   * @param meterRegistry registry for the cache counters
+   * @return the shared result cache
+   */
+  @Bean
+  @ConditionalOnProperty(
+      name = "constants.extraction.cache.enabled", havingValue = "true", matchIfMissing = true)
+  TieredExtractionResultCache extractionResultCache(
+      @Value("${constants.extraction.cache.heap-entries:20000}") int heapEntries,
+      @Value("${constants.extraction.cache.disk-dir:}") String diskDirectory,
+      @Value("${constants.extraction.cache.disk-max-bytes:"
+          + TieredExtractionResultCache.DEFAULT_MAX_DISK_BYTES + "}") long diskMaxBytes,
+      MeterRegistry meterRegistry) {
+    Path disk = diskDirectory.isBlank() ? null : Path.of(diskDirectory);
+    logger.atInfo().log(
+        "Creating extraction result cache: {} heap entries, disk tier {}",
+        heapEntries, disk == null ? "disabled" : disk + " (max " + diskMaxBytes + " bytes)");
+    var cache = new TieredExtractionResultCache(heapEntries, disk, diskMaxBytes);
+    FunctionCounter.builder("extraction.cache.hits", cache, TieredExtractionResultCache::hitCount)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "extraction.cache.disk.hits", cache, TieredExtractionResultCache::diskHitCount)
+        .register(meterRegistry);
+    FunctionCounter.builder("extraction.cache.misses", cache, TieredExtractionResultCache::missCount)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "extraction.cache.disk.evictions", cache, TieredExtractionResultCache::diskEvictionCount)
+        .register(meterRegistry);
+    return cache;
+  }
+
+  /**
+   * Per-method result store: methods whose code fingerprint was seen before, typically the
+   * unchanged methods of a class patched between two versions, reuse their usages instead of
+   * being analyzed again. When the result cache has a disk tier, the store keeps one too, in its
+   * {@code methods} subdirectory, so a restart does not lose what was learned. Hit and miss
+   * counts are exported as {@code extraction.method_store.*} counters, plus disk hit and
+   * eviction counts when the disk tier is enabled.
+   *
+   * @param maxEntries    maximum methods kept in memory
+   *                      ({@code constants.extraction.method-store.max-entries})
+   * @param diskDirectory the result cache's on-disk tier directory; blank keeps methods in memory
+   *                      only ({@code constants.extraction.cache.disk-dir})
+   * @param diskMaxBytes  size of the method store's disk tier above which its least recently
+   *                      used entries are deleted
+   *                      ({@code constants.extraction.method-store.disk-max-bytes})
+   * @param meterRegistry registry for the store counters
+   * @return the shared method store
+   */
+  @Bean
+  @ConditionalOnProperty(
+      name = "constants.extraction.method-store.enabled", havingValue = "true",
+      matchIfMissing = true)
+  MethodUsageStore methodUsageStore(
+      @Value("${constants.extraction.method-store.max-entries:200000}") int maxEntries,
+      @Value("${constants.extraction.cache.disk-dir:}") String diskDirectory,
+      @Value("${constants.extraction.method-store.disk-max-bytes:"
+          + TieredExtractionResultCache.DEFAULT_MAX_DISK_BYTES + "}") long diskMaxBytes,
+      MeterRegistry meterRegistry) {
+    if (diskDirectory.isBlank()) {
+      logger.atInfo().log("Creating method usage store: {} entries", maxEntries);
+      var store = new InMemoryMethodUsageStore(maxEntries);
+      FunctionCounter.builder(
+              "extraction.method_store.hits", store, InMemoryMethodUsageStore::hitCount)
+          .register(meterRegistry);
+      FunctionCounter.builder(
+              "extraction.method_store.misses", store, InMemoryMethodUsageStore::missCount)
+          .register(meterRegistry);
+      return store;
+    }
+    Path disk = Path.of(diskDirectory).resolve("methods");
+    logger.atInfo().log(
+        "Creating method usage store: {} entries, disk tier {} (max {} bytes)",
+        maxEntries, disk, diskMaxBytes);
+    var store = new TieredMethodUsageStore(maxEntries, disk, diskMaxBytes);
+    FunctionCounter.builder(
+            "extraction.method_store.hits", store, TieredMethodUsageStore::hitCount)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "extraction.method_store.disk.hits", store, TieredMethodUsageStore::diskHitCount)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "extraction.method_store.misses", store, TieredMethodUsageStore::missCount)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "extraction.method_store.disk.evictions", store,
+            TieredMethodUsageStore::diskEvictionCount)
+        .register(meterRegistry);
+    return store;
+  }
+
+  /**
+   * In-flight memory budget shared by all JAR extractions. Input bytes queued for analysis and
+   * estimated results not yet collected count against it; submission blocks once it is
+   * exhausted. The budget's state is exported as {@code extraction.budget.*} gauges plus an
+   * {@code extraction.budget.waits} counter of submissions that had to wait.
+   *
+   * @param capacityBytes explicit capacity ({@code constants.extraction.budget.capacity-bytes});
+   *                      {@code 0} derives it from the maximum heap
+   * @param heapFraction  fraction of {@link Runtime#maxMemory()} used when no explicit capacity
+   *                      is set ({@code constants.extraction.budget.heap-fraction})
+   * @param meterRegistry registry for the budget meters
+   * @return the shared budget
+   */
+  @Bean
+  ExtractionBudget extractionBudget(
+      @Value("${constants.extraction.budget.capacity-bytes:0}") long capacityBytes,
+      @Value("${constants.extraction.budget.heap-fraction:0.25}") double heapFraction,
+      MeterRegistry meterRegistry) {
+    var budget = capacityBytes > 0
+        ? new ExtractionBudget(capacityBytes)
+        : ExtractionBudget.ofHeapFraction(heapFraction);
+    logger.atInfo().log("Creating extraction budget of {} bytes", budget.capacityBytes());
+    Gauge.builder("extraction.budget.capacity", budget, ExtractionBudget::capacityBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("extraction.budget.in_flight", budget, ExtractionBudget::inFlightBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("extraction.budget.retained", budget, ExtractionBudget::retainedBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("extraction.budget.available", budget, ExtractionBudget::availableBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    FunctionCounter.builder("extraction.budget.waits", budget, ExtractionBudget::waitCount)
+        .register(meterRegistry);
+    return budget;
+  }
+
+  /**
+   * Two-stage extraction pipeline for mapped archives: entries are read, inflated and hashed on
+   * virtual threads, and analyzed on {@code bytecodeAnalysisExecutor}, with a bounded queue in
+   * between; at most {@code ioConcurrency + queueCapacity} read entries wait for analysis at
+   * once. Exported as {@code extraction.pipeline.*} meters: queue depth and capacity, active
+   * reads and analyses, CPU-stage utilisation (active analyses over workers) and the busy time of
+   * each stage.
+   *
+   * @param cpuExecutor    the analysis stage
+   * @param ioConcurrency  maximum entries read at once
+   *                       ({@code constants.extraction.pipeline.io-concurrency});
+   *                       {@code 0} uses four per analysis worker
+   * @param queueCapacity  maximum read entries waiting for analysis
+   *                       ({@code constants.extraction.pipeline.queue-capacity});
+   *                       {@code 0} uses two per analysis worker
+   * @param meterRegistry  registry for the pipeline meters
+   * @return the shared stages
+   */
+  @Bean
+  @ConditionalOnProperty(
+      name = "constants.extraction.pipeline.enabled", havingValue = "true", matchIfMissing = true)
+  ExtractionStages extractionStages(
+      @Qualifier("bytecodeAnalysisExecutor") ExecutorService cpuExecutor,
+      @Value("${constants.extraction.pipeline.io-concurrency:0}") int ioConcurrency,
+      @Value("${constants.extraction.pipeline.queue-capacity:0}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    this.pipelineIoExecutor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("extract-io-", 0).factory());
+    int workers = cpuExecutor instanceof ForkJoinPool pool
+        ? pool.getParallelism()
+        : Runtime.getRuntime().availableProcessors();
+    var stages = new ExtractionStages(
+        pipelineIoExecutor, ioConcurrency > 0 ? ioConcurrency : 4 * workers,
+        cpuExecutor, queueCapacity > 0 ? queueCapacity : 2 * workers);
+    logger.atInfo().log(
+        "Creating extraction pipeline: {} concurrent reads, queue of {}, {} analysis workers",
+        stages.ioConcurrency(), stages.queueCapacity(), workers);
+    Gauge.builder("extraction.pipeline.queue.depth", stages, ExtractionStages::queueDepth)
+        .register(meterRegistry);
+    Gauge.builder("extraction.pipeline.queue.capacity", stages, ExtractionStages::queueCapacity)
+        .register(meterRegistry);
+    Gauge.builder("extraction.pipeline.io.active", stages, ExtractionStages::activeReads)
+        .register(meterRegistry);
+    Gauge.builder("extraction.pipeline.cpu.active", stages, ExtractionStages::activeAnalyses)
+        .register(meterRegistry);
+    Gauge.builder("extraction.pipeline.cpu.utilization", stages,
+            s -> (double) s.activeAnalyses() / s.cpuThreads())
+        .register(meterRegistry);
+    FunctionCounter.builder("extraction.pipeline.io.busy", stages, s -> s.readNanos() / 1e9)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    FunctionCounter.builder("extraction.pipeline.cpu.busy", stages, s -> s.analysisNanos() / 1e9)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    return stages;
+  }
+
+  /**
+   * Exports how many methods went through dataflow analysis, how many the pre-scan skipped and
+   * how many were reused from the method store ({@code extraction.methods.analyzed} /
+   * {@code extraction.methods.skipped} / {@code extraction.methods.reused} counters), plus the
+   * {@code extraction.methods.skip_ratio} gauge of skipped over all methods seen.
+   *
+   * @param counters the counters shared by the class-file extractors of this application
+   * @return a binder registered automatically with the application's meter registry
+   */
+  @Bean
+  MeterBinder methodAnalysisMetrics(MethodAnalysisCounters counters) {
+    return registry -> {
+      FunctionCounter.builder(
+              "extraction.methods.analyzed", counters, MethodAnalysisCounters::analyzedMethodCount)
+          .register(registry);
+      FunctionCounter.builder(
+              "extraction.methods.skipped", counters, MethodAnalysisCounters::skippedMethodCount)
+          .register(registry);
+      FunctionCounter.builder(
+              "extraction.methods.reused", counters, MethodAnalysisCounters::reusedMethodCount)
+          .register(registry);
+      Gauge.builder("extraction.methods.skip_ratio", counters, MethodAnalysisCounters::skipRatio)
+          .register(registry);
+    };
+  }
+
+  /**
+   * Creates the method counters shared by the class-file extractors of the
+   * {@link #modelExtractorSupplierRepository repository}, so its metrics only count this
+   * application's extractions.
+   *
+   * @return a new set of counters
+   */
+  @Bean
+  MethodAnalysisCounters methodAnalysisCounters() {
+    return new MethodAnalysisCounters();
+  }
+
   /**
    * Creates the {@link AnalysisMerger} shared by all extractors.
    *
@@ -1,21 +1,16 @@
 package org.glodean.constants.services;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.DigestInputStream;
-import java.security.MessageDigest;
 import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
-import java.util.zip.ZipInputStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.glodean.constants.extractor.ModelExtractor;
 import org.glodean.constants.extractor.bytecode.BytecodeSourceKind;
+import org.glodean.constants.extractor.bytecode.MappedZipArchive;
 import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 import org.glodean.constants.store.JarBatch;
@@ -51,9 +46,9 @@ public class NestedJarExtractionService {
 
     private static final Logger logger = LogManager.getLogger(NestedJarExtractionService.class);
 
-    /** Holds a nested JAR's raw bytes together with its identity before full extraction. */
-    private record NestedJarCandidate(String jarName, byte[] bytes, String hash) {
-        long size() { return bytes.length; }
+    /** Holds an opened nested JAR together with its identity before full extraction. */
+    private record NestedJarCandidate(String jarName, MappedZipArchive archive, String hash) {
+        long size() { return archive.content().byteSize(); }
     }
 
     /** Pairs the JAR-level descriptor with the class files extracted from it. */
@@ -92,7 +87,9 @@ public class NestedJarExtractionService {
      * <p>The outer JAR's class files and config files form the first batch(es) under
      * {@code outerDescriptor}; each embedded JAR produces its own batch(es) under its
      * own JAR descriptor.  The version is resolved once so all batches land in the same
-     * project version.
+     * project version.  Outer-JAR entries whose central-directory CRC and size match a unit
+     * of the parent version are not re-extracted; the first outer batch lists them in
+     * {@link JarBatch#reusedUnits()} instead.
      *
      * <p>Each emitted {@link JarBatch} should be stored atomically in its own transaction
      * by the caller (e.g. via
@@ -123,8 +120,8 @@ public class NestedJarExtractionService {
     }
 
     /**
-     * Opens {@code outerJarPath} as a ZipFileSystem and extracts constants from each new
-     * nested JAR, emitting {@link JarBatch} elements.
+     * Memory-maps {@code outerJarPath} and extracts constants from each new nested JAR,
+     * emitting {@link JarBatch} elements.
      *
      * @param outerJarPath path to the outer JAR file on disk
      * @param project      project identifier
@@ -143,9 +140,13 @@ public class NestedJarExtractionService {
 
     private Flux<JarBatch> streamOuterJar(
             Path outerJarPath, UnitDescriptor outerDescriptor, String project, int version) {
-        return extractionService.extractJarFileStreaming(outerJarPath, batchSize)
+        // Entries unchanged since the parent version are carried over instead of re-analysed.
+        return projectVersionService.reusableContentHashes(project, version)
+                .flatMapMany(reusable ->
+                        extractionService.extractJarFileStreaming(outerJarPath, batchSize, reusable))
                 .index()
-                .map(t -> new JarBatch(outerDescriptor, t.getT2(), t.getT1() == 0))
+                .map(t -> new JarBatch(
+                        outerDescriptor, t.getT2().units(), t.getT1() == 0, t.getT2().reusedUnits()))
                 .doOnComplete(() -> logger.atInfo().log(
                         "Finished streaming outer JAR {} for project={} v{}",
                         outerJarPath.getFileName(), LogSanitizer.sanitize(project), version));
@@ -161,24 +162,24 @@ public class NestedJarExtractionService {
             Path outerJarPath, String trackingJarName, String project, int version) {
         String fatJarName = trackingJarName != null ? trackingJarName : outerJarPath.getFileName().toString();
         return Flux.using(
-                () -> FileSystems.newFileSystem(outerJarPath, (ClassLoader) null),
-                outerFs -> listAndExtractNested(outerFs, fatJarName, trackingJarName, project, version),
-                NestedJarExtractionService::closeQuietly
+                () -> MappedZipArchive.map(outerJarPath),
+                outer -> listAndExtractNested(outer, fatJarName, trackingJarName, project, version),
+                MappedZipArchive::close
         );
     }
 
     private Flux<JarBatch> listAndExtractNested(
-            FileSystem outerFs, String fatJarName, String trackingJarName, String project, int version) {
-        return Mono.fromCallable(() -> listNestedJarEntries(outerFs))
+            MappedZipArchive outer, String fatJarName, String trackingJarName, String project, int version) {
+        return Mono.fromCallable(() -> listNestedJarEntries(outer))
                 .subscribeOn(blockingIoScheduler)
                 .flatMap(paths -> logAndUpdateTotal(paths, fatJarName, trackingJarName, project, version))
                 .flatMapMany(Flux::fromIterable)
-                .concatMap(entryPath ->
-                        processNestedJarEntry(entryPath, fatJarName, trackingJarName, project, version));
+                .concatMap(entry ->
+                        processNestedJarEntry(outer, entry, fatJarName, trackingJarName, project, version));
     }
 
-    private Mono<List<Path>> logAndUpdateTotal(
-            List<Path> paths, String fatJarName, String trackingJarName, String project, int version) {
+    private Mono<List<MappedZipArchive.Entry>> logAndUpdateTotal(
+            List<MappedZipArchive.Entry> paths, String fatJarName, String trackingJarName, String project, int version) {
         if (paths.isEmpty()) {
             logger.atDebug().log("No nested JARs found in {}", fatJarName);
             return Mono.just(paths);
@@ -192,15 +193,17 @@ public class NestedJarExtractionService {
     }
 
     /**
-     * Processes a single nested JAR entry: reads, deduplicates, extracts, and chunks.
+     * Processes a single nested JAR entry: opens, deduplicates, extracts, and chunks.
+     * A {@code STORED} nested JAR is read in place from the outer mapping.
      * Updates tracking counters whether the JAR was extracted or skipped (already indexed).
      * On error, skips the JAR and increments the failed counter.
      */
     private Flux<JarBatch> processNestedJarEntry(
-            Path entryPath, String fatJarName, String trackingJarName, String project, int version) {
+            MappedZipArchive outer, MappedZipArchive.Entry entry,
+            String fatJarName, String trackingJarName, String project, int version) {
         boolean tracking = trackingJarName != null;
 
-        Flux<JarBatch> batches = Mono.fromCallable(() -> readCandidate(entryPath))
+        Flux<JarBatch> batches = Mono.fromCallable(() -> readCandidate(outer, entry))
                 .subscribeOn(blockingIoScheduler)
                 .flatMap(candidate -> skipIfAlreadyIndexed(candidate, project, version))
                 .flatMapMany(this::extractAndChunk);
@@ -211,7 +214,7 @@ public class NestedJarExtractionService {
                         : Flux.empty())
                 .onErrorResume(e -> {
                     logger.atWarn().withThrowable(e)
-                            .log("Failed to process nested JAR '{}' — skipping", entryPath.getFileName());
+                            .log("Failed to process nested JAR '{}' — skipping", entry.fileName());
                     return (tracking
                             ? incrementNestedFailed(project, version, fatJarName)
                             : Mono.<Void>empty())
@@ -302,50 +305,37 @@ public class NestedJarExtractionService {
         return jarExtractionRepository.incrementNestedFailed(project, version, jarName, OffsetDateTime.now()).then();
     }
 
-    private List<Path> listNestedJarEntries(FileSystem outerFs) throws IOException {
-        try (var walk = Files.walk(outerFs.getPath("/"))) {
-            return walk.filter(p -> Files.isRegularFile(p) && isNestedJarPath(p))
-                    .toList();
-        }
+    private List<MappedZipArchive.Entry> listNestedJarEntries(MappedZipArchive outer) {
+        return outer.entries().stream()
+                .filter(e -> !e.isDirectory() && isNestedJarPath(e.path()))
+                .toList();
     }
 
-    private NestedJarCandidate readCandidate(Path nestedPath) throws IOException {
-        MessageDigest digest = DigestUtils.newSha256();
-        String jarName = nestedPath.getFileName().toString();
-        try (DigestInputStream dis = new DigestInputStream(Files.newInputStream(nestedPath), digest)) {
-            byte[] bytes = dis.readAllBytes();
-            String hash = DigestUtils.hexEncode(digest.digest());
-            return new NestedJarCandidate(jarName, bytes, hash);
-        }
-
+    private NestedJarCandidate readCandidate(MappedZipArchive outer, MappedZipArchive.Entry entry)
+            throws IOException {
+        MappedZipArchive nested = outer.nested(entry);
+        // Hashes straight from the mapping; a STORED JAR is never copied onto the heap.
+        String hash = DigestUtils.sha256Hex(nested.content());
+        return new NestedJarCandidate(entry.fileName(), nested, hash);
     }
 
-    private ExtractionResult extractFromCandidate(NestedJarCandidate candidate) throws IOException {
+    private ExtractionResult extractFromCandidate(NestedJarCandidate candidate)
+            throws ModelExtractor.ExtractionException {
         var descriptor = new UnitDescriptor(
                 BytecodeSourceKind.JAR, candidate.jarName(), candidate.size(), candidate.hash());
-        try (var zis = new ZipInputStream(new ByteArrayInputStream(candidate.bytes()))) {
-            Collection<UnitConstants> result = extractionService.extractZipStream(zis, descriptor);
-            logger.atInfo().log("Extracted '{}': {} class unit(s)", candidate.jarName(), result.size());
-            return new ExtractionResult(descriptor, result);
-        }
+        Collection<UnitConstants> result = extractionService.extractZipArchive(candidate.archive(), descriptor);
+        logger.atInfo().log("Extracted '{}': {} class unit(s)", candidate.jarName(), result.size());
+        return new ExtractionResult(descriptor, result);
     }
 
     // -------------------------------------------------------------------------
     // Path classification
     // -------------------------------------------------------------------------
 
-    private boolean isNestedJarPath(Path path) {
-        String s = path.toString();
-        if (!s.endsWith(".jar")) return false;
-        return s.startsWith("/BOOT-INF/lib/")
-                || s.startsWith("/WEB-INF/lib/")
-                || path.getNameCount() == 1;
-    }
-
-    private static void closeQuietly(FileSystem fs) {
-        try {
-            fs.close();
-        } catch (IOException ignored) {
-        }
+    private boolean isNestedJarPath(String path) {
+        if (!path.endsWith(".jar")) return false;
+        return path.startsWith("/BOOT-INF/lib/")
+                || path.startsWith("/WEB-INF/lib/")
+                || path.lastIndexOf('/') == 0;
     }
 }
@@ -1,7 +1,11 @@
 package org.glodean.constants.services;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.glodean.constants.store.VersionIncrementer;
@@ -205,6 +209,85 @@ public class ProjectVersionService {
         });
   }
 
+  /**
+   * Returns the units that an upload into {@code version} can carry over from its parent
+   * version without re-extracting them, indexed by content hash.
+   *
+   * <p>The index covers the parent's <em>effective</em> units (own rows override inherited ones,
+   * deletions along the chain are honoured). Units deleted in {@code version} itself, units
+   * stored without a hash, and hashes shared by more than one unit are left out, so every hit
+   * names exactly one unit that version inheritance will resolve.
+   *
+   * @param project the project identifier
+   * @param version the version being uploaded into
+   * @return {@code contentHash → unitName}; empty when the version has no parent
+   */
+  public Mono<Map<String, String>> reusableContentHashes(String project, int version) {
+    return versionRepo
+        .findByProjectAndVersion(project, version)
+        .filter(versionEntity -> versionEntity.parentVersion() != null)
+        .flatMap(versionEntity -> Mono.zip(
+            collectEffectiveHashes(project, versionEntity.parentVersion()),
+            deletedUnits(project, version)))
+        .map(tuple -> indexByHash(tuple.getT1(), tuple.getT2()))
+        .defaultIfEmpty(Map.of());
+  }
+
+  private static Map<String, String> indexByHash(
+      Map<String, String> hashByUnit, Set<String> deleted) {
+    Map<String, String> unitByHash = new HashMap<>();
+    Set<String> ambiguous = new HashSet<>();
+    hashByUnit.forEach((unitName, hash) -> {
+      if (hash == null || deleted.contains(unitName) || ambiguous.contains(hash)) {
+        return;
+      }
+      if (unitByHash.putIfAbsent(hash, unitName) != null) {
+        unitByHash.remove(hash);
+        ambiguous.add(hash);
+      }
+    });
+    return unitByHash;
+  }
+
+  /**
+   * Collects the effective {@code unitName → contentHash} map for a version, mirroring
+   * {@link #collectInheritedPaths}. Hashes may be {@code null}.
+   */
+  private Mono<Map<String, String>> collectEffectiveHashes(String project, int version) {
+    Mono<Map<String, String>> ownHashes = snapshotRepo
+        .findContentHashesByProjectAndVersion(project, version)
+        .<Map<String, String>>collect(
+            HashMap::new, (map, row) -> map.put(row.unitName(), row.contentHash()));
+
+    return versionRepo
+        .findByProjectAndVersion(project, version)
+        .flatMap(versionEntity -> {
+          Integer parentVersion = versionEntity.parentVersion();
+          if (parentVersion == null) {
+            return ownHashes;
+          }
+          return Mono.zip(
+                  collectEffectiveHashes(project, parentVersion),
+                  deletedUnits(project, version),
+                  ownHashes)
+              .map(tuple -> {
+                // Own entries always win over inherited ones
+                Map<String, String> merged = new HashMap<>(tuple.getT1());
+                merged.keySet().removeAll(tuple.getT2());
+                merged.putAll(tuple.getT3());
+                return merged;
+              });
+        })
+        .switchIfEmpty(ownHashes);
+  }
+
+  private Mono<Set<String>> deletedUnits(String project, int version) {
+    return deletionRepo
+        .findAllByProjectAndVersion(project, version)
+        .map(VersionDeletionEntity::unitPath)
+        .collect(Collectors.toSet());
+  }
+
   /**
    * Collects all effective class-file paths for a version by joining
    * {@code unit_snapshots.unit_name} values through {@code unit_descriptors}
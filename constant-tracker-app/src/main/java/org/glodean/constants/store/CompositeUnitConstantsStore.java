@@ -94,8 +94,9 @@ public class CompositeUnitConstantsStore implements UnitConstantsStore {
    * purge old snapshots for that container before inserting, so large JARs that span
    * multiple batches don't accidentally wipe their own earlier inserts.
    *
-   * <p>Removal tracking compares the set of class-file paths uploaded in this run
-   * against paths inherited from the parent version, auto-deleting any that disappeared.
+   * <p>Removal tracking compares the set of class-file paths uploaded in this run (stored or
+   * reused from the parent version) against paths inherited from the parent version,
+   * auto-deleting any that disappeared.
    */
   @Override
   public Mono<Void> storeAllStreaming(Flux<JarBatch> stream, String project) {
@@ -105,13 +106,19 @@ public class CompositeUnitConstantsStore implements UnitConstantsStore {
           int version = versionEntity.version();
           return stream
               .concatMap(batch -> {
-                // Collect class-file paths for removal tracking (not JAR paths).
+                // Collect class-file paths for removal tracking (not JAR paths). Reused units
+                // are present in this upload even though nothing is stored for them.
                 Set<String> classFilePaths = batch.units().stream()
                     .map(uc -> uc.source().path())
-                    .collect(Collectors.toSet());
-                return postgresService
-                    .storeBatch(batch.containerDescriptor(), batch.units(),
-                        batch.firstBatch(), project, version)
+                    .collect(Collectors.toCollection(HashSet::new));
+                classFilePaths.addAll(batch.reusedUnits());
+                // storeBatch skips empty batches entirely, so a container whose units were all
+                // reused still needs its stale rows in this version cleared explicitly.
+                Mono<?> write = batch.units().isEmpty() && batch.firstBatch()
+                    ? postgresService.clearContainer(batch.containerDescriptor(), project, version)
+                    : postgresService.storeBatch(batch.containerDescriptor(), batch.units(),
+                        batch.firstBatch(), project, version);
+                return write
                     .thenReturn(classFilePaths)
                     .onErrorResume(e -> {
                       logger.atError().withThrowable(e).log(
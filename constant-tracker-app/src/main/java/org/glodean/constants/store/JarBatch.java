@@ -1,6 +1,7 @@
 package org.glodean.constants.store;
 
 import java.util.List;
+import java.util.Set;
 import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 
@@ -13,11 +14,23 @@ import org.glodean.constants.model.UnitDescriptor;
  * least one batch; large JARs produce multiple consecutive batches that all share
  * the same {@code containerDescriptor}.
  *
+ * <p>{@code reusedUnits} names units whose entry bytes are unchanged from the parent version.
+ * They were not re-extracted and are not stored again; version inheritance serves them, and
+ * removal tracking counts them as present in this upload.
+ *
  * @param containerDescriptor the JAR-level descriptor (path = JAR filename, kind = JAR)
  * @param units               class/config files extracted from this chunk of the JAR
  * @param firstBatch          {@code true} only for the first chunk emitted for a given container
+ * @param reusedUnits         unit names carried over unchanged from the parent version
  */
 public record JarBatch(
     UnitDescriptor containerDescriptor,
     List<UnitConstants> units,
-    boolean firstBatch) {}
+    boolean firstBatch,
+    Set<String> reusedUnits) {
+
+  /** Creates a batch with no reused units. */
+  public JarBatch(UnitDescriptor containerDescriptor, List<UnitConstants> units, boolean firstBatch) {
+    this(containerDescriptor, units, firstBatch, Set.of());
+  }
+}
@@ -1,11 +1,20 @@
 package org.glodean.constants.store.postgres;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +29,10 @@ import org.glodean.constants.store.UnitConstantsStore;
 import org.glodean.constants.store.Constants;
 import org.glodean.constants.store.postgres.entity.*;
 import org.glodean.constants.store.postgres.repository.*;
+import org.glodean.constants.store.postgres.SnapshotPayloadCodec.EncodedPayload;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedConstantRow;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedUsageRow;
+import org.glodean.constants.store.postgres.repository.projection.SnapshotIdRow;
 import org.glodean.constants.store.solr.SolrOutboxPayload;
 
 import org.jspecify.annotations.NonNull;
@@ -36,8 +49,10 @@ import static org.glodean.constants.util.LogSanitizer.sanitize;
  * PostgreSQL R2DBC-backed implementation of {@link UnitConstantsStore}.
  *
  * <p>Persists a {@link org.glodean.constants.model.UnitDescriptor} as a row in
- * {@code unit_descriptors} (project + version + source metadata) and stores the full
- * {@link UnitConstants} JSON in a child {@code unit_snapshots} row.
+ * {@code unit_descriptors} (project + version + source metadata) and each unit as a child
+ * {@code unit_snapshots} row, with its constants and usages normalized into
+ * {@code unit_constants} and {@code constant_usages}. A full payload of the unit is kept in the
+ * snapshot row only if a {@link SnapshotPayloadMode} other than {@code NONE} is configured.
  *
  * <p>Version assignment is delegated to {@code CompositeUnitConstantsStore};
  * the {@link #store(UnitConstants, String)} overload throws {@link UnsupportedOperationException}.
@@ -46,11 +61,13 @@ import static org.glodean.constants.util.LogSanitizer.sanitize;
 public class PostgresService implements UnitConstantsStore {
 
   private static final Logger logger = LogManager.getLogger(PostgresService.class);
-  private static final ObjectMapper JSON = createMapper();
+  private static final ObjectMapper JSON = withSemanticTypeMixin(new ObjectMapper());
 
+  /** Maximum rows bound into one bulk INSERT, keeping each statement's arrays bounded. */
+  static final int BULK_ROWS = 5_000;
 
-  private static ObjectMapper createMapper() {
-    var mapper = new ObjectMapper();
+  /** Registers the polymorphic type handling of semantic types on {@code mapper}. */
+  static <M extends ObjectMapper> M withSemanticTypeMixin(M mapper) {
     mapper.addMixIn(UnitConstant.SemanticType.class, SemanticTypeMixin.class);
     return mapper;
   }
@@ -69,6 +86,9 @@ public class PostgresService implements UnitConstantsStore {
   private final UnitConstantRepository constantRepo;
   private final ConstantUsageRepository usageRepo;
   private final SolrOutboxRepository solrOutboxRepo;
+  private final SequenceIdAllocator idAllocator;
+  private final SnapshotPayloadCodec payloadCodec;
+  private final UsageDictionaries dictionaries;
 
   @Autowired
   public PostgresService(
@@ -76,12 +96,18 @@ public class PostgresService implements UnitConstantsStore {
       UnitSnapshotRepository snapshotRepo,
        UnitConstantRepository constantRepo,
       ConstantUsageRepository usageRepo,
-      SolrOutboxRepository solrOutboxRepo) {
+      SolrOutboxRepository solrOutboxRepo,
+      SequenceIdAllocator idAllocator,
+      SnapshotPayloadCodec payloadCodec,
+      UsageDictionaries dictionaries) {
     this.descriptorRepo = descriptorRepo;
     this.snapshotRepo = snapshotRepo;
     this.constantRepo = constantRepo;
     this.usageRepo = usageRepo;
     this.solrOutboxRepo = solrOutboxRepo;
+    this.idAllocator = idAllocator;
+    this.payloadCodec = payloadCodec;
+    this.dictionaries = dictionaries;
   }
 
   /**
@@ -140,16 +166,45 @@ public class PostgresService implements UnitConstantsStore {
                 .then(Mono.just(batch)));
   }
 
+  /**
+   * Deletes every snapshot stored directly under {@code containerDescriptor} in the given
+   * version, without inserting anything.
+   *
+   * <p>Used when a re-upload reuses all of a container's units from the parent version: the
+   * units are then served through version inheritance, and rows left by an earlier upload into
+   * the same open version must not shadow them.
+   *
+   * @param containerDescriptor JAR-level descriptor (path = JAR filename)
+   * @param project             owning project identifier
+   * @param version             target project version
+   * @return completes once the snapshots (and, by cascade, their constants) are gone
+   */
+  @Transactional
+  public Mono<Void> clearContainer(
+      UnitDescriptor containerDescriptor, String project, int version) {
+    return descriptorRepo
+        .findByProjectAndPathAndVersion(project, containerDescriptor.path(), version)
+        .flatMap(descriptor -> snapshotRepo.deleteAllByDescriptorId(descriptor.id()));
+  }
+
   // -------------------------------------------------------------------------
   // Batch persistence helpers
   // -------------------------------------------------------------------------
 
   /**
-   * Inserts one {@link UnitSnapshotEntity} per class file in {@code batch} under
-   * {@code descriptor}, then streams constants and usages for each snapshot.
+   * Upserts one {@link UnitSnapshotEntity} per class file in {@code batch} under
+   * {@code descriptor}, then bulk-inserts the constants and usages of all snapshots.
+   *
+   * <p>Constant and usage ids are reserved up front through {@link SequenceIdAllocator}, so every
+   * row is built in memory with its foreign key already set. Each table is then written with one
+   * multi-row statement per {@link #BULK_ROWS} rows, binding every column as an array, without
+   * waiting for generated ids in between. The distinct values of the whole batch are upserted
+   * into {@code constant_values} once, before the constants that reference them by hash.
    */
   private Mono<Void> persistBatch(UnitDescriptorEntity descriptor, List<UnitConstants> batch) {
-    record SnapshotSpec(String unitName, String json, List<UnitConstant> constants) {}
+    record SnapshotSpec(
+        String unitName, EncodedPayload payload, String contentHash,
+        List<UnitConstant> constants) {}
 
     // De-duplicate within the batch: a JAR may contain duplicate ZIP entries with the same path.
     // LinkedHashMap preserves encounter order; first occurrence wins.
@@ -158,46 +213,139 @@ public class PostgresService implements UnitConstantsStore {
             uc -> uc.source().path(),
             uc -> new SnapshotSpec(
                 uc.source().path(),
-                serializeUnitConstantsJson(uc, uc.source().sourceKind().name()),
+                encodePayload(uc, uc.source().sourceKind().name()),
+                uc.source().contentHash(),
                 List.copyOf(uc.constants())),
             (a, ignore) -> a,        // first occurrence wins
             java.util.LinkedHashMap::new))
         .values().stream().toList();
 
     // Use UPSERT so duplicate entries from duplicate ZIP entries never raise a constraint error.
-    return Flux.fromIterable(specs)
-        .concatMap(s -> snapshotRepo.upsert(descriptor.id(), s.unitName(), s.json()))
-        .index()
-        .concatMap(t -> persistConstantsForSnapshot(
-            t.getT2(), specs.get(t.getT1().intValue()).constants()))
+    return snapshotRepo
+        .upsertAll(descriptor.id(),
+            specs.stream().map(SnapshotSpec::unitName).toArray(String[]::new),
+            specs.stream().map(spec -> spec.payload().json()).toArray(String[]::new),
+            specs.stream().map(spec -> base64(spec.payload().blob())).toArray(String[]::new),
+            specs.stream().map(SnapshotSpec::contentHash).toArray(String[]::new))
+        .collectMap(SnapshotIdRow::unitName, SnapshotIdRow::id)
+        .flatMap(snapshotIds -> {
+          List<PendingConstant> pending = specs.stream()
+              .flatMap(spec -> spec.constants().stream()
+                  .map(uc -> new PendingConstant(snapshotIds.get(spec.unitName()), uc)))
+              .toList();
+          return insertPending(pending);
+        });
+  }
+
+  /** Reserves ids for {@code pending} and their usages, then inserts them. */
+  private Mono<Void> insertPending(List<PendingConstant> pending) {
+    int usageCount = pending.stream().mapToInt(p -> p.constant().usages().size()).sum();
+    return Mono.zip(
+            idAllocator.allocate(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE, pending.size()),
+            idAllocator.allocate(SequenceIdAllocator.CONSTANT_USAGES_SEQUENCE, usageCount))
+        .flatMap(ids -> insertRows(pending, ids.getT1(), ids.getT2()));
+  }
+
+  /** A constant of a stored snapshot whose row has not been inserted yet. */
+  private record PendingConstant(Long snapshotId, UnitConstant constant) {}
+
+  /**
+   * Inserts {@code pending} and their usages under the reserved ids. The statements of one table
+   * are independent and subscribed together, so the driver pipelines them on the connection;
+   * constants start once every value they reference is stored, and usages once every constant
+   * they reference is in and their dictionary ids are resolved.
+   */
+  private Mono<Void> insertRows(
+      List<PendingConstant> pending, long[] constantIds, long[] usageIds) {
+    List<UnitConstantEntity> constants = new java.util.ArrayList<>(pending.size());
+    List<ResolvedUsageRow> usages = new java.util.ArrayList<>(usageIds.length);
+    // Sorted by hash so that concurrent batches storing the same new values lock them in one order.
+    Map<UUID, ConstantValue> values = new TreeMap<>();
+    for (int i = 0; i < pending.size(); i++) {
+      UnitConstant uc = pending.get(i).constant();
+      String value = sanitizeForPostgres(toStorageValue(uc.value()));
+      String valueType = resolveValueType(uc.value());
+      UUID hash = valueHash(valueType, value);
+      constants.add(new UnitConstantEntity(constantIds[i], pending.get(i).snapshotId(), hash));
+      values.putIfAbsent(hash, new ConstantValue(hash, value, valueType));
+      for (UnitConstant.ConstantUsage usage : uc.usages()) {
+        usages.add(buildUsageRow(usageIds[usages.size()], constantIds[i], usage));
+      }
+    }
+    Mono<Boolean> constantsInserted = Flux.mergeSequential(Lists.transform(
+            Lists.partition(List.copyOf(values.values()), BULK_ROWS), this::upsertValues))
+        .thenMany(Flux.mergeSequential(
+            Lists.transform(Lists.partition(constants, BULK_ROWS), this::insertConstants)))
+        .then(Mono.just(true));
+    return Mono.zip(dictionaries.resolve(usages), constantsInserted)
+        .flatMapMany(ready -> Flux.mergeSequential(Lists.transform(
+            Lists.partition(usages, BULK_ROWS), chunk -> insertUsages(chunk, ready.getT1()))))
         .then();
   }
 
-  /** Inserts all constants (and their usages) for a single snapshot. */
-  private Flux<ConstantUsageEntity> persistConstantsForSnapshot(
-      UnitSnapshotEntity snapshot, List<UnitConstant> constants) {
-    if (constants.isEmpty()) return Flux.empty();
+  /** A row of {@code constant_values}, keyed by the {@link #valueHash} of its type and value. */
+  private record ConstantValue(UUID hash, String value, String valueType) {}
 
-    record ConstantWithUsages(UnitConstantEntity entity,
-                              Set<UnitConstant.ConstantUsage> usages) {}
+  /** Stores the {@code values} that are not in {@code constant_values} yet. */
+  private Mono<Integer> upsertValues(List<ConstantValue> values) {
+    return constantRepo.upsertValues(
+        values.stream().map(ConstantValue::hash).toArray(UUID[]::new),
+        values.stream().map(ConstantValue::value).toArray(String[]::new),
+        values.stream().map(ConstantValue::valueType).toArray(String[]::new));
+  }
 
-    List<ConstantWithUsages> contexts = constants.stream()
-        .map(uc -> new ConstantWithUsages(
-            new UnitConstantEntity(null, snapshot.id(),
-                sanitizeForPostgres(toStorageValue(uc.value())),
-                resolveValueType(uc.value())),
-            uc.usages()))
-        .toList();
+  /** Inserts {@code constants} in one statement, referencing their values by hash. */
+  private Mono<Integer> insertConstants(List<UnitConstantEntity> constants) {
+    return constantRepo.insertAll(
+        constants.stream().map(UnitConstantEntity::id).toArray(Long[]::new),
+        constants.stream().map(UnitConstantEntity::snapshotId).toArray(Long[]::new),
+        constants.stream().map(UnitConstantEntity::valueHash).toArray(UUID[]::new));
+  }
 
-    return constantRepo.saveAll(contexts.stream().map(ConstantWithUsages::entity).toList())
-        .index()
-        .concatMap(t -> {
-          List<ConstantUsageEntity> usageEntities =
-              contexts.get(t.getT1().intValue()).usages().stream()
-                  .map(u -> buildUsageEntity(t.getT2().id(), u))
-                  .toList();
-          return usageEntities.isEmpty() ? Flux.empty() : usageRepo.saveAll(usageEntities);
-        });
+  /** Inserts {@code usages} in one statement, referencing their values by dictionary id. */
+  private Mono<Integer> insertUsages(
+      List<ResolvedUsageRow> usages, UsageDictionaries.Ids dictionaryIds) {
+    int n = usages.size();
+    Long[] ids = new Long[n];
+    Long[] constantIds = new Long[n];
+    String[] structuralTypes = new String[n];
+    Integer[] semanticTypeIds = new Integer[n];
+    Integer[] classIds = new Integer[n];
+    Integer[] methodIds = new Integer[n];
+    Integer[] descriptorIds = new Integer[n];
+    Integer[] offsets = new Integer[n];
+    Integer[] lineNumbers = new Integer[n];
+    Double[] confidences = new Double[n];
+    String[] metadata = new String[n];
+    for (int i = 0; i < n; i++) {
+      ConstantUsageEntity u = toUsageEntity(usages.get(i), dictionaryIds);
+      ids[i] = u.id();
+      constantIds[i] = u.constantId();
+      structuralTypes[i] = u.structuralType();
+      semanticTypeIds[i] = u.semanticTypeId();
+      classIds[i] = u.locationClassId();
+      methodIds[i] = u.locationMethodId();
+      descriptorIds[i] = u.locationDescriptorId();
+      offsets[i] = u.locationBytecodeOffset();
+      lineNumbers[i] = u.locationLineNumber();
+      confidences[i] = u.confidence();
+      metadata[i] = u.metadata();
+    }
+    return usageRepo.insertAll(ids, constantIds, structuralTypes, semanticTypeIds, classIds,
+        methodIds, descriptorIds, offsets, lineNumbers, confidences, metadata);
+  }
+
+  /** The {@code constant_usages} row of {@code usage}, its strings replaced by dictionary ids. */
+  private static ConstantUsageEntity toUsageEntity(
+      ResolvedUsageRow usage, UsageDictionaries.Ids dictionaryIds) {
+    return new ConstantUsageEntity(
+        usage.id(), usage.constantId(), usage.structuralType(),
+        dictionaryIds.semanticType(usage),
+        dictionaryIds.className(usage),
+        dictionaryIds.methodName(usage),
+        dictionaryIds.methodDescriptor(usage),
+        usage.locationBytecodeOffset(), usage.locationLineNumber(),
+        usage.confidence(), usage.metadata());
   }
 
   @Override
@@ -208,14 +356,15 @@ public class PostgresService implements UnitConstantsStore {
     String sourceKind = source.sourceKind().name();
     long sizeBytes = source.sizeBytes();
     String contentHash = source.contentHash();
-    String unitConstantsJson = serializeUnitConstantsJson(constants, sourceKind);
+    EncodedPayload payload = encodePayload(constants, sourceKind);
 
     logger.atInfo().log(
         "Storing to PostgreSQL: {} (kind={}, size={}) project={} version={}",
         sanitize(sourcePath), sourceKind, sizeBytes, sanitize(project), version);
 
     return upsertDescriptor(project, version, sourceKind, sourcePath, sizeBytes, contentHash)
-        .flatMap(descriptor -> upsertSnapshot(descriptor, sourcePath, unitConstantsJson))
+        .flatMap(descriptor -> snapshotRepo.upsert(
+            descriptor.id(), sourcePath, payload.json(), base64(payload.blob()), null))
         .flatMap(this::replaceNormalizedRows)
         .flatMap(snapshot -> persistConstantsAndUsages(snapshot, constants))
         .doOnNext(snapshot -> logger.atInfo().log(
@@ -241,16 +390,6 @@ public class PostgresService implements UnitConstantsStore {
             saved.id(), project, version, sourceKind, sourcePath, sizeBytes, contentHash)));
   }
 
-  private Mono<UnitSnapshotEntity> upsertSnapshot(
-      UnitDescriptorEntity descriptor, String sourcePath, String json) {
-    return snapshotRepo
-        .findByDescriptorIdAndUnitName(descriptor.id(), sourcePath)
-        .flatMap(existing -> snapshotRepo.save(
-            new UnitSnapshotEntity(existing.id(), descriptor.id(), sourcePath, json)))
-        .switchIfEmpty(snapshotRepo.save(
-            new UnitSnapshotEntity(null, descriptor.id(), sourcePath, json)));
-  }
-
   // -------------------------------------------------------------------------
   // Normalised rows — used by single-file store() only
   // -------------------------------------------------------------------------
@@ -263,7 +402,7 @@ public class PostgresService implements UnitConstantsStore {
   private Mono<UnitSnapshotEntity> replaceNormalizedRows(UnitSnapshotEntity snapshot) {
     return constantRepo
         .findAllBySnapshotId(snapshot.id())
-        .map(UnitConstantEntity::id)
+        .map(ResolvedConstantRow::id)
         .collectList()
         .flatMap(ids -> {
           if (ids.isEmpty()) return Mono.just(snapshot);
@@ -278,9 +417,27 @@ public class PostgresService implements UnitConstantsStore {
   /** Inserts constants + usages for a single snapshot (single-file {@code store()} path). */
   private Mono<UnitSnapshotEntity> persistConstantsAndUsages(
       UnitSnapshotEntity snapshot, UnitConstants constants) {
-    return Flux.fromIterable(constants.constants())
-        .concatMap(uc -> saveConstantWithUsages(snapshot, uc))
-        .then(Mono.just(snapshot));
+    return insertPending(constants.constants().stream()
+            .map(uc -> new PendingConstant(snapshot.id(), uc))
+            .toList())
+        .thenReturn(snapshot);
+  }
+
+  /**
+   * Returns the key of a value in {@code constant_values}: the md5 of {@code valueType:value},
+   * held as a UUID. It must stay equal to {@code md5(value_type || ':' || value)::uuid}, which the
+   * V8 migration used for the values stored before it.
+   */
+  static UUID valueHash(String valueType, String value) {
+    byte[] md5;
+    try {
+      md5 = MessageDigest.getInstance("MD5")
+          .digest((valueType + ':' + value).getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not available", e);
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(md5);
+    return new UUID(bytes.getLong(), bytes.getLong());
   }
 
   /**
@@ -296,7 +453,7 @@ public class PostgresService implements UnitConstantsStore {
    * <p>Valid surrogate <em>pairs</em> (high immediately followed by low) are kept as-is;
    * they represent valid supplementary Unicode characters that encode correctly to UTF-8.
    */
-  private static String sanitizeForPostgres(String s) {
+  static String sanitizeForPostgres(String s) {
     if (s == null) return null;
     s = s.replace("\0", "\\0");
     // Fast path: if no surrogate code units are present, return immediately.
@@ -327,21 +484,8 @@ public class PostgresService implements UnitConstantsStore {
     return sb;
   }
 
-  private Flux<ConstantUsageEntity> saveConstantWithUsages(
-      UnitSnapshotEntity snapshot, UnitConstant uc) {
-    String valueStr = sanitizeForPostgres(toStorageValue(uc.value()));
-    String valueType = resolveValueType(uc.value());
-    var entity = new UnitConstantEntity(null, snapshot.id(), valueStr, valueType);
-    return constantRepo.save(entity)
-        .flatMapMany(saved -> {
-          var usageEntities = uc.usages().stream()
-              .map(usage -> buildUsageEntity(saved.id(), usage))
-              .toList();
-          return usageRepo.saveAll(usageEntities);
-        });
-  }
-
-  private ConstantUsageEntity buildUsageEntity(Long constantId, UnitConstant.ConstantUsage usage) {
+  private ResolvedUsageRow buildUsageRow(
+      Long id, Long constantId, UnitConstant.ConstantUsage usage) {
     var loc = usage.location();
     var sem = usage.semanticType();
     String semKind = sem instanceof CoreSemanticType ? "CORE" : "CUSTOM";
@@ -355,8 +499,8 @@ public class PostgresService implements UnitConstantsStore {
     }
     String semDisplay = sem instanceof CustomSemanticType cust ? cust.displayName() : null;
     String semDesc = sem instanceof CustomSemanticType cust ? cust.description() : null;
-    return new ConstantUsageEntity(
-        null, constantId,
+    return new ResolvedUsageRow(
+        id, constantId,
         usage.structuralType().name(),
         semKind, semName, semDisplay, semDesc,
         sanitizeForPostgres(loc.className()),
@@ -431,23 +575,27 @@ public class PostgresService implements UnitConstantsStore {
     return value.getClass().getSimpleName();
   }
 
-  private String serializeUnitConstantsJson(UnitConstants constants, String sourceKind) {
-    try {
-      var payload = new java.util.HashMap<String, Object>();
-      payload.put("source", constants.source());
-      payload.put("sourceKind", sourceKind);
-      // Normalize constant values to JSON-safe primitives so JDK internal types
-      // (e.g. ClassOrInterfaceDescImpl) don't cause Jackson module-access failures.
-      var normalized = constants.constants().stream()
-          .map(uc -> Map.of("value", toJsonSafeValue(uc.value()), "usages", uc.usages()))
-          .toList();
-      payload.put("constants", normalized);
-      return sanitizeForPostgres(JSON.writeValueAsString(payload));
-    } catch (JsonProcessingException e) {
-      logger.atWarn().withThrowable(e).log(
-          "Failed to serialise UnitConstants to JSON; storing empty object");
-      return "{}";
-    }
+  /**
+   * Encodes the full {@link UnitConstants} payload of a snapshot in the configured
+   * {@link SnapshotPayloadMode}; in {@link SnapshotPayloadMode#NONE} nothing is built.
+   */
+  private EncodedPayload encodePayload(UnitConstants constants, String sourceKind) {
+    if (payloadCodec.mode() == SnapshotPayloadMode.NONE) return EncodedPayload.NONE;
+    var payload = new java.util.HashMap<String, Object>();
+    payload.put("source", constants.source());
+    payload.put("sourceKind", sourceKind);
+    // Normalize constant values to JSON-safe primitives so JDK internal types
+    // (e.g. ClassOrInterfaceDescImpl) don't cause Jackson module-access failures.
+    var normalized = constants.constants().stream()
+        .map(uc -> Map.of("value", toJsonSafeValue(uc.value()), "usages", uc.usages()))
+        .toList();
+    payload.put("constants", normalized);
+    return payloadCodec.encode(payload);
+  }
+
+  /** Encodes a binary payload for transport as a text parameter. */
+  private static String base64(byte[] blob) {
+    return blob == null ? null : Base64.getEncoder().encodeToString(blob);
   }
 
   private String serializeJson(Object value) {
@@ -473,7 +621,7 @@ public class PostgresService implements UnitConstantsStore {
   /**
    * Looks up constants for a versioned unit key ({@code project:unitPath:version}).
    *
-   * <p>Returns each unique constant value with its type token and the full semantic + structural
+   * <p>Returns each unique constant (value and type) with its type token and the full semantic + structural
    * usage information sourced from the {@code unit_constants} and {@code constant_usages} tables.
    *
    * <p>Results are cached in the {@value Constants#DATA_LOCATION} cache.
@@ -494,8 +642,10 @@ public class PostgresService implements UnitConstantsStore {
       return Mono.error(new IllegalArgumentException("Invalid version in key: " + key));
     }
 
-    // Local carrier record: one UnitConstantEntity + its resolved UsageInfo list.
-    record RawEntry(String value, String valueType, List<GetUnitConstantsReply.UsageInfo> usages) {}
+    // Local carrier record: one constant row + its resolved UsageInfo list.
+    record RawEntry(
+        UUID valueHash, String value, String valueType,
+        List<GetUnitConstantsReply.UsageInfo> usages) {}
 
     return snapshotRepo.findByProjectAndVersionAndUnitName(project, version, unitPath)
         .doFirst(() -> logger.atInfo().log(
@@ -508,16 +658,18 @@ public class PostgresService implements UnitConstantsStore {
                     .map(PostgresService::toUsageInfo)
                     .collectList()
                     .map(usages -> new RawEntry(
+                        constant.valueHash(),
                         constant.constantValue(),
                         constant.constantValueType(),
                         usages)))
             .collectList()
             .map(rawEntries -> {
-              // Merge entries that share the same constant value string.
-              Map<String, RawEntry> merged = new LinkedHashMap<>();
+              // Merge entries that share the same constant; the value hash covers the type, so
+              // e.g. the String "1" and the Integer 1 stay separate entries.
+              Map<UUID, RawEntry> merged = new LinkedHashMap<>();
               for (RawEntry e : rawEntries) {
-                merged.merge(e.value(), e, (a, b) -> new RawEntry(
-                    a.value(), a.valueType(),
+                merged.merge(e.valueHash(), e, (a, b) -> new RawEntry(
+                    a.valueHash(), a.value(), a.valueType(),
                     Stream.concat(a.usages().stream(), b.usages().stream()).toList()));
               }
               List<GetUnitConstantsReply.ConstantEntry> entries = merged.values().stream()
@@ -527,8 +679,21 @@ public class PostgresService implements UnitConstantsStore {
             }));
   }
 
-  /** Converts a {@link ConstantUsageEntity} row to a {@link GetUnitConstantsReply.UsageInfo}. */
-  private static GetUnitConstantsReply.UsageInfo toUsageInfo(ConstantUsageEntity e) {
+  /**
+   * Returns the full payload stored with a unit, decoded from whichever
+   * {@link SnapshotPayloadMode} it was written in.
+   *
+   * @return the payload tree; empty if the unit is unknown or was stored without a payload
+   */
+  public Mono<JsonNode> findSnapshotPayload(String project, int version, String unitName) {
+    return snapshotRepo.findPayloadByProjectAndVersionAndUnitName(project, version, unitName)
+        .flatMap(row -> Mono.fromCallable(() -> payloadCodec
+            .decode(row.unitConstantsJson(), row.unitConstantsBlob())
+            .orElse(null)));
+  }
+
+  /** Converts a {@link ResolvedUsageRow} to a {@link GetUnitConstantsReply.UsageInfo}. */
+  private static GetUnitConstantsReply.UsageInfo toUsageInfo(ResolvedUsageRow e) {
     var sem = new GetUnitConstantsReply.SemanticTypeInfo(
         e.semanticTypeKind(), e.semanticTypeName(),
         e.semanticDisplayName(), e.semanticDescription());
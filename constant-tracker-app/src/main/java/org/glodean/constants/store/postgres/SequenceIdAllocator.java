@@ -0,0 +1,103 @@
+package org.glodean.constants.store.postgres;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out primary keys drawn from PostgreSQL sequences ahead of the {@code INSERT}, so that
+ * parent and child rows can be built in memory with their foreign keys already set and written
+ * without waiting for generated ids.
+ *
+ * <p>Ids are reserved in blocks: a request the in-process pool cannot satisfy fetches the
+ * missing ids plus {@code blockSize} more with a single
+ * {@code SELECT nextval(...) FROM generate_series(...)}, and later requests are served from the
+ * surplus without a round trip. Sequence values are never rolled back, so ids reserved inside a
+ * transaction that later fails stay unique; they are simply skipped, as with {@code BIGSERIAL}
+ * defaults. Ids are unique but neither contiguous nor ordered across callers.
+ */
+@Component
+public class SequenceIdAllocator {
+
+  private static final Logger logger = LogManager.getLogger(SequenceIdAllocator.class);
+
+  /** Sequence behind {@code unit_constants.id}. */
+  public static final String UNIT_CONSTANTS_SEQUENCE = "unit_constants_id_seq";
+
+  /** Sequence behind {@code constant_usages.id}. */
+  public static final String CONSTANT_USAGES_SEQUENCE = "constant_usages_id_seq";
+
+  private static final String RESERVE_SQL =
+      "SELECT nextval(CAST(:sequence AS regclass)) AS id FROM generate_series(1, :count)";
+
+  private final DatabaseClient db;
+  private final int blockSize;
+  private final Map<String, ArrayDeque<Long>> pools = new HashMap<>(); // guarded by this
+
+  /**
+   * Creates the allocator.
+   *
+   * @param db        client used to reserve ids
+   * @param blockSize ids reserved beyond each request that the pool cannot serve
+   *                  ({@code constants.store.id-block-size})
+   */
+  public SequenceIdAllocator(
+      DatabaseClient db, @Value("${constants.store.id-block-size:10000}") int blockSize) {
+    if (blockSize < 0) {
+      throw new IllegalArgumentException("blockSize must not be negative");
+    }
+    this.db = db;
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * Returns {@code count} unused ids of {@code sequence}.
+   *
+   * @param sequence name of the sequence, e.g. {@link #UNIT_CONSTANTS_SEQUENCE}
+   * @param count    number of ids needed
+   * @return the ids, in no particular order
+   */
+  public Mono<long[]> allocate(String sequence, int count) {
+    if (count == 0) return Mono.just(new long[0]);
+    long[] ids = new long[count];
+    int taken = take(sequence, ids);
+    if (taken == count) return Mono.just(ids);
+
+    int missing = count - taken;
+    logger.atDebug().log("Reserving {} ids from {}", missing + blockSize, sequence);
+    return db.sql(RESERVE_SQL)
+        .bind("sequence", sequence)
+        .bind("count", missing + blockSize)
+        .map((row, ignore) -> row.get("id", Long.class))
+        .all()
+        .collectList()
+        .map(reserved -> {
+          for (int i = 0; i < missing; i++) {
+            ids[taken + i] = reserved.get(i);
+          }
+          give(sequence, reserved.subList(missing, reserved.size()));
+          return ids;
+        });
+  }
+
+  /** Fills {@code ids} from the pool as far as it reaches; returns how many were filled. */
+  private synchronized int take(String sequence, long[] ids) {
+    ArrayDeque<Long> pool = pools.get(sequence);
+    int n = 0;
+    while (pool != null && n < ids.length && !pool.isEmpty()) {
+      ids[n++] = pool.poll();
+    }
+    return n;
+  }
+
+  private synchronized void give(String sequence, Iterable<Long> surplus) {
+    ArrayDeque<Long> pool = pools.computeIfAbsent(sequence, ignore -> new ArrayDeque<>());
+    surplus.forEach(pool::add);
+  }
+}
@@ -0,0 +1,146 @@
+package org.glodean.constants.store.postgres;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.common.base.Utf8;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes the full {@code UnitConstants} payload of a snapshot according to the configured
+ * {@link SnapshotPayloadMode}, and decodes stored payloads of any mode.
+ *
+ * <p>A {@link SnapshotPayloadMode#SMILE_DEFLATE} blob is one format byte followed by a deflate
+ * stream of Smile, with repeated strings such as class and method names written as
+ * back-references. Deflate at {@link Deflater#BEST_SPEED} keeps the codec in the JDK.
+ *
+ * <p>Every encoded byte is counted in {@code store.snapshot.payload.bytes}, tagged by mode, so
+ * the ingest volume of the modes can be compared.
+ */
+@Component
+public class SnapshotPayloadCodec {
+
+  private static final Logger logger = LogManager.getLogger(SnapshotPayloadCodec.class);
+
+  /** Leading byte of a {@link SnapshotPayloadMode#SMILE_DEFLATE} blob. */
+  static final byte SMILE_DEFLATE_FORMAT = 1;
+
+  private static final ObjectMapper JSON = PostgresService.withSemanticTypeMixin(new ObjectMapper());
+  private static final ObjectMapper SMILE = PostgresService.withSemanticTypeMixin(
+      SmileMapper.builder()
+          .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+          // lone surrogates do occur in class file constants; write U+FFFD instead of failing
+          .enable(SmileGenerator.Feature.LENIENT_UTF_ENCODING)
+          .build());
+
+  /** A payload ready to be stored; at most one of the columns is set. */
+  public record EncodedPayload(String json, byte[] blob) {
+
+    /** The payload of {@link SnapshotPayloadMode#NONE}. */
+    public static final EncodedPayload NONE = new EncodedPayload(null, null);
+  }
+
+  private final SnapshotPayloadMode mode;
+  private final Counter payloadBytes;
+
+  /**
+   * Creates the codec.
+   *
+   * @param mode          payload written for new snapshots ({@code constants.store.snapshot-payload})
+   * @param meterRegistry registry of the {@code store.snapshot.payload.bytes} counter
+   */
+  public SnapshotPayloadCodec(
+      @Value("${constants.store.snapshot-payload:NONE}") SnapshotPayloadMode mode,
+      MeterRegistry meterRegistry) {
+    this.mode = mode;
+    this.payloadBytes = Counter.builder("store.snapshot.payload.bytes")
+        .description("Bytes of snapshot payload written to unit_snapshots")
+        .baseUnit("bytes")
+        .tag("mode", mode.name())
+        .register(meterRegistry);
+  }
+
+  /** The mode new payloads are encoded in. */
+  public SnapshotPayloadMode mode() {
+    return mode;
+  }
+
+  /**
+   * Encodes {@code payload} in the configured mode.
+   *
+   * @return the columns to store; {@link EncodedPayload#NONE} in {@link SnapshotPayloadMode#NONE}
+   *     mode or if {@code payload} cannot be serialized
+   */
+  public EncodedPayload encode(Object payload) {
+    try {
+      return switch (mode) {
+        case NONE -> EncodedPayload.NONE;
+        case JSON -> {
+          String json = PostgresService.sanitizeForPostgres(JSON.writeValueAsString(payload));
+          payloadBytes.increment(Utf8.encodedLength(json));
+          yield new EncodedPayload(json, null);
+        }
+        case SMILE_DEFLATE -> {
+          byte[] blob = deflate(SMILE.writeValueAsBytes(payload));
+          payloadBytes.increment(blob.length);
+          yield new EncodedPayload(null, blob);
+        }
+      };
+    } catch (IOException e) {
+      logger.atWarn().withThrowable(e).log(
+          "Failed to encode snapshot payload as {}; storing none", mode);
+      return EncodedPayload.NONE;
+    }
+  }
+
+  /**
+   * Decodes a stored payload, whatever mode it was written in.
+   *
+   * @param json the {@code unit_constants_json} column, may be {@code null}
+   * @param blob the {@code unit_constants_blob} column, may be {@code null}
+   * @return the payload tree, or empty if the snapshot was stored without one
+   * @throws IOException if the stored payload is malformed or of an unknown format
+   */
+  public Optional<JsonNode> decode(String json, byte[] blob) throws IOException {
+    if (blob != null && blob.length > 0) {
+      if (blob[0] != SMILE_DEFLATE_FORMAT) {
+        throw new IOException("Unknown snapshot payload format " + blob[0]);
+      }
+      try (InputStream in = new InflaterInputStream(
+          new ByteArrayInputStream(blob, 1, blob.length - 1))) {
+        return Optional.of(SMILE.readTree(in));
+      }
+    }
+    if (json != null && !json.isEmpty()) {
+      return Optional.of(JSON.readTree(json));
+    }
+    return Optional.empty();
+  }
+
+  private static byte[] deflate(byte[] data) throws IOException {
+    var out = new ByteArrayOutputStream(data.length / 2 + 16);
+    out.write(SMILE_DEFLATE_FORMAT);
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    try (OutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+      deflating.write(data);
+    } finally {
+      deflater.end();
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,17 @@
+package org.glodean.constants.store.postgres;
+
+/**
+ * How {@link PostgresService} keeps the full {@code UnitConstants} payload of a snapshot next to
+ * its normalized {@code unit_constants} and {@code constant_usages} rows.
+ *
+ * <p>The payload duplicates the normalized rows, which every query reads instead, so it is not
+ * written by default.
+ */
+public enum SnapshotPayloadMode {
+  /** No payload; both payload columns stay {@code NULL}. */
+  NONE,
+  /** JSON text in {@code unit_snapshots.unit_constants_json}. */
+  JSON,
+  /** Smile, deflated, in {@code unit_snapshots.unit_constants_blob}. */
+  SMILE_DEFLATE
+}
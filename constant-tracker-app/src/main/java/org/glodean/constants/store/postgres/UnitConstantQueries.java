@@ -23,8 +23,11 @@ import reactor.core.publisher.Flux;
  * trick that is unreliable with some R2DBC drivers.
  *
  * <p>{@link SemanticTypeStore} is used to resolve a caller-supplied {@code semanticType} name
- * (as returned by {@code /metadata/semantic-types}) into the two DB columns
- * {@code semantic_type_kind} and {@code semantic_type_name}.
+ * (as returned by {@code /metadata/semantic-types}) into the two {@code usage_semantic_types}
+ * dictionary columns {@code kind} and {@code name}. The filter selects the matching dictionary
+ * ids, so usage rows are compared by integer id and the dictionary is joined only where its
+ * name is returned. Constants likewise reference their value by hash into {@code constant_values};
+ * values are grouped by hash and the {@code constantValueType} filter selects matching hashes.
  *
  * <p>Two queries are provided:
  * <ul>
@@ -55,15 +58,17 @@ public class UnitConstantQueries {
       " GROUP BY ds.path, ds.unit_name ORDER BY ds.path, ds.unit_name LIMIT :limit OFFSET :offset";
   // GROUP BY + ORDER BY live in CONSTANT_DETAILS_SUFFIX — filters are appended between the two.
   private static final String CONSTANT_DETAILS_PREFIX = """
-      SELECT uc.constant_value             AS constantValue,
-             uc.constant_value_type        AS constantValueType,
+      SELECT cv.value                      AS constantValue,
+             cv.value_type                 AS constantValueType,
              cu.structural_type            AS structuralType,
-             cu.semantic_type_name         AS semanticType,
+             st.name                       AS semanticType,
              cu.confidence                 AS confidence,
              cu.metadata                   AS metadata,
              COUNT(*)                      AS occurrenceCount
       FROM unit_constants  uc
+      JOIN constant_values cv ON cv.hash        = uc.value_hash
       JOIN constant_usages cu ON cu.constant_id = uc.id
+      JOIN usage_semantic_types st ON st.id = cu.semantic_type_id
       WHERE uc.snapshot_id IN (
         SELECT s.id
         FROM unit_snapshots   s
@@ -72,9 +77,9 @@ public class UnitConstantQueries {
       )
       """;
   private static final String CONSTANT_DETAILS_SUFFIX =
-      " GROUP BY uc.constant_value, uc.constant_value_type, cu.structural_type,"
-      + " cu.semantic_type_name, cu.confidence, cu.metadata"
-      + " ORDER BY occurrenceCount DESC, uc.constant_value LIMIT :limit OFFSET :offset";
+      " GROUP BY uc.value_hash, cv.value, cv.value_type, cu.structural_type,"
+      + " st.name, cu.confidence, cu.metadata"
+      + " ORDER BY occurrenceCount DESC, cv.value LIMIT :limit OFFSET :offset";
   private final DatabaseClient db;
   private final SemanticTypeStore semanticTypeStore;
   public UnitConstantQueries(DatabaseClient db, SemanticTypeStore semanticTypeStore) {
@@ -117,7 +122,7 @@ public class UnitConstantQueries {
   }
   // -- private -----------------------------------------------------------------
   /**
-   * Resolved pair of {@code semantic_type_kind} and {@code semantic_type_name} derived from a
+   * Resolved pair of {@code usage_semantic_types.kind} and {@code name} derived from a
    * single caller-supplied semantic type name via {@link SemanticTypeStore}.
    */
   private record ResolvedSemantic(String kind, String name) {}
@@ -155,9 +160,13 @@ public class UnitConstantQueries {
     ResolvedSemantic semantic = resolveSemantic(req.semanticType());
     var sql = new StringBuilder(sqlPrefix);
     if (req.structuralType()    != null) sql.append(" AND cu.structural_type    = :structuralType");
-    if (semantic                != null) sql.append(" AND cu.semantic_type_kind = :semanticTypeKind"
-                                                  + " AND cu.semantic_type_name = :semanticTypeName");
-    if (req.constantValueType() != null) sql.append(" AND uc.constant_value_type = :constantValueType");
+    if (semantic                != null) sql.append(" AND cu.semantic_type_id IN (SELECT id"
+                                                  + " FROM usage_semantic_types"
+                                                  + " WHERE kind = :semanticTypeKind"
+                                                  + " AND name = :semanticTypeName)");
+    if (req.constantValueType() != null) sql.append(" AND uc.value_hash IN (SELECT hash"
+                                                  + " FROM constant_values"
+                                                  + " WHERE value_type = :constantValueType)");
     sql.append(sqlSuffix);
     log.debug("UnitConstantQueries sql: {}", sql);
     var spec = db.sql(sql.toString())
@@ -0,0 +1,238 @@
+package org.glodean.constants.store.postgres;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedUsageRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the repeated strings of {@code constant_usages} rows — class name, method name, method
+ * descriptor and semantic type — to the ids of their dictionary rows, inserting values seen for
+ * the first time.
+ *
+ * <p>Each dictionary keeps the ids of recently used values in a bounded in-process LRU, so that
+ * a batch whose classes and semantic types were all seen before resolves without a round trip.
+ * Only ids of rows that were already committed are cached: a row inserted by the current call
+ * may still be rolled back with its transaction, and is cached the next time it is looked up.
+ * Dictionary rows are never deleted, so a cached id stays valid for the life of the process.
+ */
+@Component
+public class UsageDictionaries {
+
+  private static final Logger logger = LogManager.getLogger(UsageDictionaries.class);
+
+  /** A semantic type as stored in {@code usage_semantic_types}; CORE types have no texts. */
+  public record SemanticTypeKey(
+      String kind, String name, String displayName, String description) {
+
+    static SemanticTypeKey of(ResolvedUsageRow usage) {
+      return new SemanticTypeKey(usage.semanticTypeKind(), usage.semanticTypeName(),
+          usage.semanticDisplayName(), usage.semanticDescription());
+    }
+  }
+
+  /** Dictionary ids of the values of a set of usages. */
+  public record Ids(
+      Map<SemanticTypeKey, Integer> semanticTypes,
+      Map<String, Integer> classNames,
+      Map<String, Integer> methodNames,
+      Map<String, Integer> methodDescriptors) {
+
+    /** The semantic type id of {@code usage}. */
+    public Integer semanticType(ResolvedUsageRow usage) {
+      return semanticTypes.get(SemanticTypeKey.of(usage));
+    }
+
+    /** The class name id of {@code usage}. */
+    public Integer className(ResolvedUsageRow usage) {
+      return classNames.get(usage.locationClassName());
+    }
+
+    /** The method name id of {@code usage}. */
+    public Integer methodName(ResolvedUsageRow usage) {
+      return methodNames.get(usage.locationMethodName());
+    }
+
+    /** The method descriptor id of {@code usage}. */
+    public Integer methodDescriptor(ResolvedUsageRow usage) {
+      return methodDescriptors.get(usage.locationMethodDescriptor());
+    }
+  }
+
+  /** A resolved dictionary value; {@code inserted} if the current statement created its row. */
+  record Entry(Object key, int id, boolean inserted) {}
+
+  /** Attempts per lookup; a retry picks up rows committed concurrently after the first one. */
+  private static final int ATTEMPTS = 2;
+
+  private static final String STRING_SQL = """
+      WITH input AS (
+        SELECT DISTINCT v FROM unnest(CAST(:values AS text[])) AS t(v)
+      ), inserted AS (
+        INSERT INTO %1$s (value)
+        SELECT v FROM input
+        ON CONFLICT ((md5(value))) DO NOTHING
+        RETURNING id, value
+      )
+      SELECT id, value, TRUE AS inserted FROM inserted
+      UNION ALL
+      SELECT d.id, d.value, FALSE AS inserted
+      FROM %1$s d
+      JOIN input ON md5(d.value) = md5(input.v) AND d.value = input.v
+      """;
+
+  private static final String SEMANTIC_TYPE_SQL = """
+      WITH input AS (
+        SELECT DISTINCT k, n, dn, ds
+        FROM unnest(CAST(:kinds AS text[]), CAST(:names AS text[]),
+                    CAST(:displayNames AS text[]), CAST(:descriptions AS text[]))
+             AS t(k, n, dn, ds)
+      ), inserted AS (
+        INSERT INTO usage_semantic_types (kind, name, display_name, description)
+        SELECT k, n, dn, ds FROM input
+        ON CONFLICT (kind, name, display_name, (md5(description))) DO NOTHING
+        RETURNING id, kind, name, display_name, description
+      )
+      SELECT id, kind, name, display_name, description, TRUE AS inserted FROM inserted
+      UNION ALL
+      SELECT s.id, s.kind, s.name, s.display_name, s.description, FALSE AS inserted
+      FROM usage_semantic_types s
+      JOIN input ON s.kind = input.k
+                AND s.name IS NOT DISTINCT FROM input.n
+                AND s.display_name IS NOT DISTINCT FROM input.dn
+                AND s.description IS NOT DISTINCT FROM input.ds
+      """;
+
+  private final DatabaseClient db;
+  private final Map<String, Map<Object, Integer>> caches = new HashMap<>();
+
+  /**
+   * Creates the dictionaries.
+   *
+   * @param db        client used to look up and insert dictionary rows
+   * @param cacheSize ids cached per dictionary ({@code constants.store.dictionary-cache-size})
+   */
+  public UsageDictionaries(
+      DatabaseClient db, @Value("${constants.store.dictionary-cache-size:50000}") int cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("cacheSize must not be negative");
+    }
+    this.db = db;
+    for (String table : List.of("usage_semantic_types", "usage_class_names",
+        "usage_method_names", "usage_method_descriptors")) {
+      caches.put(table, new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Integer> eldest) {
+          return size() > cacheSize;
+        }
+      });
+    }
+  }
+
+  /**
+   * Returns the dictionary ids of every value used by {@code usages}, inserting missing ones.
+   * Must run in the transaction that inserts the usages.
+   */
+  public Mono<Ids> resolve(Collection<ResolvedUsageRow> usages) {
+    return Mono.zip(
+            resolve("usage_semantic_types", usages, SemanticTypeKey::of, this::lookupSemanticTypes),
+            resolve("usage_class_names", usages, ResolvedUsageRow::locationClassName,
+                values -> lookupStrings("usage_class_names", values)),
+            resolve("usage_method_names", usages, ResolvedUsageRow::locationMethodName,
+                values -> lookupStrings("usage_method_names", values)),
+            resolve("usage_method_descriptors", usages,
+                ResolvedUsageRow::locationMethodDescriptor,
+                values -> lookupStrings("usage_method_descriptors", values)))
+        .map(ids -> new Ids(ids.getT1(), ids.getT2(), ids.getT3(), ids.getT4()));
+  }
+
+  /** Resolves the distinct keys of one dictionary: from the cache first, then the table. */
+  private <K> Mono<Map<K, Integer>> resolve(
+      String table,
+      Collection<ResolvedUsageRow> usages,
+      Function<ResolvedUsageRow, K> key,
+      Function<List<K>, Mono<List<Entry>>> lookup) {
+    Set<K> keys = new LinkedHashSet<>();
+    usages.forEach(usage -> keys.add(key.apply(usage)));
+    Map<K, Integer> ids = new HashMap<>(keys.size() * 2);
+    List<K> missing = new ArrayList<>();
+    Map<Object, Integer> cache = caches.get(table);
+    synchronized (cache) {
+      for (K k : keys) {
+        Integer id = cache.get(k);
+        if (id != null) ids.put(k, id);
+        else missing.add(k);
+      }
+    }
+    if (missing.isEmpty()) return Mono.just(ids);
+    logger.atDebug().log("Resolving {} of {} values in {}", missing.size(), keys.size(), table);
+    return fetch(table, missing, lookup, ids, ATTEMPTS);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <K> Mono<Map<K, Integer>> fetch(
+      String table,
+      List<K> missing,
+      Function<List<K>, Mono<List<Entry>>> lookup,
+      Map<K, Integer> ids,
+      int attempts) {
+    return lookup.apply(missing).flatMap(entries -> {
+      Map<Object, Integer> cache = caches.get(table);
+      synchronized (cache) {
+        for (Entry e : entries) {
+          ids.put((K) e.key(), e.id());
+          if (!e.inserted()) cache.put(e.key(), e.id());
+        }
+      }
+      List<K> stillMissing = missing.stream().filter(k -> !ids.containsKey(k)).toList();
+      if (stillMissing.isEmpty()) return Mono.just(ids);
+      // rows inserted by a concurrent transaction that committed after our snapshot was taken
+      if (attempts > 1) return fetch(table, stillMissing, lookup, ids, attempts - 1);
+      return Mono.error(new IllegalStateException(
+          "Could not resolve " + stillMissing.size() + " values in " + table));
+    });
+  }
+
+  private Mono<List<Entry>> lookupStrings(String table, List<String> values) {
+    return db.sql(STRING_SQL.formatted(table))
+        .bind("values", values.toArray(String[]::new))
+        .map((row, ignore) -> new Entry(
+            row.get("value", String.class),
+            row.get("id", Integer.class),
+            Boolean.TRUE.equals(row.get("inserted", Boolean.class))))
+        .all()
+        .collectList();
+  }
+
+  private Mono<List<Entry>> lookupSemanticTypes(List<SemanticTypeKey> keys) {
+    return db.sql(SEMANTIC_TYPE_SQL)
+        .bind("kinds", keys.stream().map(SemanticTypeKey::kind).toArray(String[]::new))
+        .bind("names", keys.stream().map(SemanticTypeKey::name).toArray(String[]::new))
+        .bind("displayNames",
+            keys.stream().map(SemanticTypeKey::displayName).toArray(String[]::new))
+        .bind("descriptions",
+            keys.stream().map(SemanticTypeKey::description).toArray(String[]::new))
+        .map((row, ignore) -> new Entry(
+            new SemanticTypeKey(
+                row.get("kind", String.class),
+                row.get("name", String.class),
+                row.get("display_name", String.class),
+                row.get("description", String.class)),
+            row.get("id", Integer.class),
+            Boolean.TRUE.equals(row.get("inserted", Boolean.class))))
+        .all()
+        .collectList();
+  }
+}
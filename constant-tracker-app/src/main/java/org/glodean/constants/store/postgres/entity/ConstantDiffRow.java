@@ -1,5 +1,7 @@
 package org.glodean.constants.store.postgres.entity;
 
+import java.util.UUID;
+
 /**
  * Flat projection of a joined unit_constants + constant_usages row, used by {@link DiffRepository}.
  *
@@ -7,9 +9,12 @@ package org.glodean.constants.store.postgres.entity;
  * The caller maps {@code snapshotId → path} using the already-resolved effective snapshot map.
  *
  * <p>One row is produced per usage observation; a single constant value may produce multiple rows.
+ * {@code valueHash} identifies the value and its type, so rows can be matched without comparing
+ * the value text.
  */
 public record ConstantDiffRow(
     long snapshotId,
+    UUID valueHash,
     String constantValue,
     String constantValueType,
     String structuralType,
@@ -3,19 +3,22 @@ package org.glodean.constants.store.postgres.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
-/** R2DBC entity for a single constant usage observation in the {@code constant_usages} table. */
+/**
+ * R2DBC entity for a single constant usage observation in the {@code constant_usages} table.
+ *
+ * <p>The table stores the semantic type and location strings as ids of dictionary rows (see
+ * {@link org.glodean.constants.store.postgres.UsageDictionaries}); reads join the values back in
+ * as a {@link org.glodean.constants.store.postgres.repository.projection.ResolvedUsageRow}.
+ */
 @Table("constant_usages")
 public record ConstantUsageEntity(
     @Id Long id,
     Long constantId,
     String structuralType,
-    String semanticTypeKind, // 'CORE' or 'CUSTOM'
-    String semanticTypeName, // CoreSemanticType.name() or CustomSemanticType.category()
-    String semanticDisplayName, // CUSTOM only
-    String semanticDescription, // CUSTOM only
-    String locationClassName,
-    String locationMethodName,
-    String locationMethodDescriptor,
+    Integer semanticTypeId,
+    Integer locationClassId,
+    Integer locationMethodId,
+    Integer locationDescriptorId,
     Integer locationBytecodeOffset,
     Integer locationLineNumber,
     double confidence,
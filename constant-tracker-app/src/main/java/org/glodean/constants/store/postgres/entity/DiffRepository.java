@@ -2,6 +2,7 @@ package org.glodean.constants.store.postgres.entity;
 
 import java.util.Collection;
 import java.util.Objects;
+import java.util.UUID;
 
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
@@ -11,7 +12,8 @@ import reactor.core.publisher.Flux;
  * Raw SQL repository for the diff endpoint.
  *
  * <p>Loads all constant + usage rows for a given set of snapshot IDs in a single
- * batched 2-table query, avoiding N+1 round trips. Path resolution is done in-memory
+ * batched query, avoiding N+1 round trips. The usage dictionaries and {@code constant_values}
+ * are joined by primary key to restore the location, semantic type and value strings. Path resolution is done in-memory
  * by the caller using the already-resolved {@code snapshotId → path} map.
  */
 @Repository
@@ -26,23 +28,29 @@ public class DiffRepository {
     private static final String SQL =
             """
                     SELECT uc.snapshot_id,
-                           uc.constant_value,
-                           uc.constant_value_type,
+                           uc.value_hash,
+                           cv.value        AS constant_value,
+                           cv.value_type   AS constant_value_type,
                            cu.structural_type,
-                           cu.semantic_type_kind,
-                           cu.semantic_type_name,
-                           cu.semantic_display_name,
-                           cu.semantic_description,
-                           cu.location_class_name,
-                           cu.location_method_name,
-                           cu.location_method_descriptor,
+                           st.kind         AS semantic_type_kind,
+                           st.name         AS semantic_type_name,
+                           st.display_name AS semantic_display_name,
+                           st.description  AS semantic_description,
+                           cn.value        AS location_class_name,
+                           mn.value        AS location_method_name,
+                           md.value        AS location_method_descriptor,
                            cu.location_bytecode_offset,
                            cu.location_line_number,
                            cu.confidence
                     FROM unit_constants uc
+                    JOIN constant_values cv ON cv.hash = uc.value_hash
                     JOIN constant_usages cu ON cu.constant_id = uc.id
+                    JOIN usage_semantic_types     st ON st.id = cu.semantic_type_id
+                    JOIN usage_class_names        cn ON cn.id = cu.location_class_id
+                    JOIN usage_method_names       mn ON mn.id = cu.location_method_id
+                    JOIN usage_method_descriptors md ON md.id = cu.location_descriptor_id
                     WHERE uc.snapshot_id = ANY(:snapshotIds)
-                    ORDER BY uc.snapshot_id, uc.constant_value
+                    ORDER BY uc.snapshot_id, cv.value, cv.value_type
                     """;
 
     /**
@@ -59,6 +67,7 @@ public class DiffRepository {
                         row ->
                                 new ConstantDiffRow(
                                         Objects.requireNonNull(row.get("snapshot_id", Long.class)),
+                                        row.get("value_hash", UUID.class),
                                         row.get("constant_value", String.class),
                                         row.get("constant_value_type", String.class),
                                         row.get("structural_type", String.class),
@@ -1,9 +1,18 @@
 package org.glodean.constants.store.postgres.entity;
 
+import java.util.UUID;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
-/** R2DBC entity for a single constant value belonging to a unit snapshot. */
+/**
+ * R2DBC entity for a single constant value belonging to a unit snapshot.
+ *
+ * <p>The row stores only {@code valueHash}; the value and its type live once in
+ * {@code constant_values} and are read back joined in as a
+ * {@link org.glodean.constants.store.postgres.repository.projection.ResolvedConstantRow}.
+ */
 @Table("unit_constants")
 public record UnitConstantEntity(
-    @Id Long id, Long snapshotId, String constantValue, String constantValueType) {}
+    @Id Long id,
+    Long snapshotId,
+    UUID valueHash) {}
@@ -6,8 +6,10 @@ import org.springframework.data.relational.core.mapping.Table;
 /**
  * R2DBC entity representing a unit snapshot in the {@code unit_snapshots} table.
  *
- * <p>Each snapshot belongs to a {@link UnitDescriptorEntity} and holds the
- * extracted constants as a JSON blob.
+ * <p>Each snapshot belongs to a {@link UnitDescriptorEntity}; its constants live in
+ * {@link UnitConstantEntity} rows. {@code unitConstantsJson} is {@code null} unless the
+ * snapshot was stored in {@link org.glodean.constants.store.postgres.SnapshotPayloadMode#JSON}
+ * mode; binary payloads are read through the payload projection instead.
  */
 @Table("unit_snapshots")
 public record UnitSnapshotEntity(
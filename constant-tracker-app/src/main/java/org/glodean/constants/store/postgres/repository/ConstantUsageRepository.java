@@ -2,6 +2,8 @@ package org.glodean.constants.store.postgres.repository;
 
 import org.glodean.constants.store.postgres.entity.ConstantUsageEntity;
 import org.glodean.constants.store.postgres.entity.UnitConstantEntity;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedUsageRow;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -12,17 +14,38 @@ import reactor.core.publisher.Mono;
  *
  * <p>Provides a custom finder for loading all usage rows that belong to a single
  * constant value entry, used when reconstructing the full constant model.
+ *
+ * <p>Usage rows reference their class name, method name, method descriptor and semantic type
+ * through dictionary ids (see {@link org.glodean.constants.store.postgres.UsageDictionaries});
+ * reads join the dictionaries back in as a {@link ResolvedUsageRow}, and rows are written only
+ * through {@link #insertAll}.
  */
 public interface ConstantUsageRepository
     extends ReactiveCrudRepository<ConstantUsageEntity, Long> {
 
+  /** Selects usage rows with their dictionary values, as {@link ResolvedUsageRow} columns. */
+  String RESOLVED_USAGES = """
+      SELECT cu.id, cu.constant_id, cu.structural_type,
+             st.kind AS semantic_type_kind, st.name AS semantic_type_name,
+             st.display_name AS semantic_display_name, st.description AS semantic_description,
+             cn.value AS location_class_name, mn.value AS location_method_name,
+             md.value AS location_method_descriptor,
+             cu.location_bytecode_offset, cu.location_line_number, cu.confidence, cu.metadata
+      FROM constant_usages cu
+      JOIN usage_semantic_types     st ON st.id = cu.semantic_type_id
+      JOIN usage_class_names        cn ON cn.id = cu.location_class_id
+      JOIN usage_method_names       mn ON mn.id = cu.location_method_id
+      JOIN usage_method_descriptors md ON md.id = cu.location_descriptor_id
+      """;
+
   /**
-   * Finds all usage entities associated with the given constant.
+   * Finds all usages associated with the given constant, with their dictionary values.
    *
    * @param constantId the primary key of the owning {@link UnitConstantEntity}
-   * @return a {@link Flux} emitting every {@link ConstantUsageEntity} for that constant
+   * @return a {@link Flux} emitting every usage of that constant
    */
-  Flux<ConstantUsageEntity> findAllByConstantId(Long constantId);
+  @Query(RESOLVED_USAGES + "WHERE cu.constant_id = :constantId")
+  Flux<ResolvedUsageRow> findAllByConstantId(Long constantId);
 
   /**
    * Deletes all usage entities associated with the given constant in a single
@@ -32,13 +55,51 @@ public interface ConstantUsageRepository
    */
   Mono<Void> deleteAllByConstantId(Long constantId);
 
-  /** Returns distinct custom semantic type names found in persisted usage rows. */
+  /**
+   * Inserts one usage per array element in a single statement. The arrays are parallel, one per
+   * column of {@code constant_usages}; the ids are reserved beforehand through
+   * {@link org.glodean.constants.store.postgres.SequenceIdAllocator}, and the dictionary ids
+   * resolved through {@link org.glodean.constants.store.postgres.UsageDictionaries}.
+   *
+   * @return the number of rows inserted
+   */
+  @Modifying
+  @Query("""
+      INSERT INTO constant_usages (
+          id, constant_id, structural_type, semantic_type_id, location_class_id,
+          location_method_id, location_descriptor_id, location_bytecode_offset,
+          location_line_number, confidence, metadata)
+      SELECT * FROM unnest(
+          CAST(:ids AS bigint[]), CAST(:constantIds AS bigint[]),
+          CAST(:structuralTypes AS text[]), CAST(:semanticTypeIds AS int[]),
+          CAST(:locationClassIds AS int[]), CAST(:locationMethodIds AS int[]),
+          CAST(:locationDescriptorIds AS int[]), CAST(:locationBytecodeOffsets AS int[]),
+          CAST(:locationLineNumbers AS int[]), CAST(:confidences AS float8[]),
+          CAST(:metadata AS text[]))
+      """)
+  Mono<Integer> insertAll(
+      Long[] ids,
+      Long[] constantIds,
+      String[] structuralTypes,
+      Integer[] semanticTypeIds,
+      Integer[] locationClassIds,
+      Integer[] locationMethodIds,
+      Integer[] locationDescriptorIds,
+      Integer[] locationBytecodeOffsets,
+      Integer[] locationLineNumbers,
+      Double[] confidences,
+      String[] metadata);
+
+  /**
+   * Returns distinct custom semantic type names found in persisted usage rows. Read from the
+   * semantic type dictionary, which holds every type a usage was ever stored with.
+   */
   @Query("""
-      SELECT DISTINCT semantic_type_name
-      FROM constant_usages
-      WHERE semantic_type_kind = 'CUSTOM'
-        AND semantic_type_name IS NOT NULL
-        AND TRIM(semantic_type_name) <> ''
+      SELECT DISTINCT name
+      FROM usage_semantic_types
+      WHERE kind = 'CUSTOM'
+        AND name IS NOT NULL
+        AND TRIM(name) <> ''
       """)
   Flux<String> findDistinctCustomSemanticTypeNames();
 }
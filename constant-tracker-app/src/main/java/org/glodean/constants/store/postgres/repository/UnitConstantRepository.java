@@ -1,8 +1,11 @@
 package org.glodean.constants.store.postgres.repository;
 
 import java.util.Collection;
+import java.util.UUID;
 import org.glodean.constants.store.postgres.entity.UnitConstantEntity;
 import org.glodean.constants.store.postgres.entity.UnitSnapshotEntity;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedConstantRow;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -10,23 +13,37 @@ import reactor.core.publisher.Mono;
 
 /**
  * R2DBC reactive repository for {@link UnitConstantEntity}.
+ *
+ * <p>Constant rows reference their value by hash into the content-addressed
+ * {@code constant_values} table; reads join the value back in as a {@link ResolvedConstantRow},
+ * and rows are written only through {@link #upsertValues} followed by {@link #insertAll}.
  */
 public interface UnitConstantRepository
     extends ReactiveCrudRepository<UnitConstantEntity, Long> {
 
+  /** Selects constant rows with their value and type, as {@link ResolvedConstantRow} columns. */
+  String RESOLVED_CONSTANTS = """
+      SELECT uc.id, uc.snapshot_id, uc.value_hash,
+             cv.value AS constant_value, cv.value_type AS constant_value_type
+      FROM unit_constants uc
+      JOIN constant_values cv ON cv.hash = uc.value_hash
+      """;
+
   /**
-   * Finds all constant entities associated with the given snapshot.
+   * Finds all constants associated with the given snapshot, with their values.
    *
    * @param snapshotId the primary key of the owning {@link UnitSnapshotEntity}
-   * @return a {@link Flux} emitting every {@link UnitConstantEntity} for that snapshot
+   * @return a {@link Flux} emitting every constant of that snapshot
    */
-  Flux<UnitConstantEntity> findAllBySnapshotId(Long snapshotId);
+  @Query(RESOLVED_CONSTANTS + "WHERE uc.snapshot_id = :snapshotId")
+  Flux<ResolvedConstantRow> findAllBySnapshotId(Long snapshotId);
 
   /**
-   * Finds all constant entities associated with any of the given snapshot IDs.
+   * Finds all constants associated with any of the given snapshot IDs, with their values.
    * Used for bulk operations when processing a whole batch at once.
    */
-  Flux<UnitConstantEntity> findAllBySnapshotIdIn(Collection<Long> snapshotIds);
+  @Query(RESOLVED_CONSTANTS + "WHERE uc.snapshot_id IN (:snapshotIds)")
+  Flux<ResolvedConstantRow> findAllBySnapshotIdIn(Collection<Long> snapshotIds);
 
   /**
    * Deletes all constant entities associated with the given snapshot in a single
@@ -43,12 +60,44 @@ public interface UnitConstantRepository
   @Query("DELETE FROM unit_constants WHERE snapshot_id IN (:snapshotIds)")
   Mono<Void> deleteAllBySnapshotIdIn(Collection<Long> snapshotIds);
 
+  /**
+   * Stores each value not yet present in {@code constant_values}, in a single statement. The
+   * arrays are parallel; {@code hashes} must be the content hashes of the values, so that a value
+   * already stored by any snapshot of any project is left untouched.
+   *
+   * @return the number of values that were new
+   */
+  @Modifying
+  @Query("""
+      INSERT INTO constant_values (hash, value, value_type)
+      SELECT * FROM unnest(
+          CAST(:hashes AS uuid[]), CAST(:values AS text[]), CAST(:valueTypes AS text[]))
+      ON CONFLICT (hash) DO NOTHING
+      """)
+  Mono<Integer> upsertValues(UUID[] hashes, String[] values, String[] valueTypes);
+
+  /**
+   * Inserts one constant per array element in a single statement. The arrays are parallel; the
+   * ids are reserved beforehand through
+   * {@link org.glodean.constants.store.postgres.SequenceIdAllocator}, and every hash must already
+   * be stored through {@link #upsertValues}.
+   *
+   * @return the number of rows inserted
+   */
+  @Modifying
+  @Query("""
+      INSERT INTO unit_constants (id, snapshot_id, value_hash)
+      SELECT * FROM unnest(
+          CAST(:ids AS bigint[]), CAST(:snapshotIds AS bigint[]), CAST(:valueHashes AS uuid[]))
+      """)
+  Mono<Integer> insertAll(Long[] ids, Long[] snapshotIds, UUID[] valueHashes);
+
   /** Returns distinct constant value types observed in persisted constants. */
   @Query("""
-      SELECT DISTINCT constant_value_type
-      FROM unit_constants
-      WHERE constant_value_type IS NOT NULL
-        AND TRIM(constant_value_type) <> ''
+      SELECT DISTINCT cv.value_type
+      FROM constant_values cv
+      WHERE TRIM(cv.value_type) <> ''
+        AND EXISTS (SELECT 1 FROM unit_constants uc WHERE uc.value_hash = cv.hash)
       """)
   Flux<String> findDistinctConstantValueTypes();
 }
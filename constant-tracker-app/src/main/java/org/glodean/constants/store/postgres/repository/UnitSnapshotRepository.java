@@ -1,7 +1,10 @@
 package org.glodean.constants.store.postgres.repository;
 
 import org.glodean.constants.store.postgres.entity.UnitSnapshotEntity;
+import org.glodean.constants.store.postgres.repository.projection.SnapshotIdRow;
+import org.glodean.constants.store.postgres.repository.projection.SnapshotPayloadRow;
 import org.glodean.constants.store.postgres.repository.projection.UnitConstantsCountRow;
+import org.glodean.constants.store.postgres.repository.projection.UnitContentHashRow;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -17,18 +20,65 @@ public interface UnitSnapshotRepository
   Mono<UnitSnapshotEntity> findByDescriptorIdAndUnitName(Long descriptorId, String unitName);
 
   /**
-   * Inserts or updates a snapshot. On conflict on {@code (descriptor_id, unit_name)} the JSON
-   * is overwritten and the existing row is returned. Using this instead of {@code save()} avoids
-   * {@code DuplicateKeyException} when a JAR contains duplicate ZIP entries.
+   * Inserts or updates a snapshot. On conflict on {@code (descriptor_id, unit_name)} the payload
+   * and content hash are overwritten and the existing row is returned. Using this instead of
+   * {@code save()} avoids {@code DuplicateKeyException} when a JAR contains duplicate ZIP entries.
+   *
+   * @param unitConstantsJson payload as JSON text; may be {@code null}
+   * @param unitConstantsBlob binary payload, base64-encoded for transport; may be {@code null}
+   * @param contentHash       hash of the entry the unit was extracted from; may be {@code null}
    */
   @Query("""
-      INSERT INTO unit_snapshots (descriptor_id, unit_name, unit_constants_json)
-      VALUES (:descriptorId, :unitName, :unitConstantsJson)
+      INSERT INTO unit_snapshots
+          (descriptor_id, unit_name, unit_constants_json, unit_constants_blob, content_hash)
+      VALUES (:descriptorId, :unitName, :unitConstantsJson,
+              decode(:unitConstantsBlob, 'base64'), :contentHash)
       ON CONFLICT (descriptor_id, unit_name)
-      DO UPDATE SET unit_constants_json = EXCLUDED.unit_constants_json
+      DO UPDATE SET unit_constants_json = EXCLUDED.unit_constants_json,
+                    unit_constants_blob = EXCLUDED.unit_constants_blob,
+                    content_hash = EXCLUDED.content_hash
       RETURNING id, descriptor_id, unit_name, unit_constants_json
       """)
-  Mono<UnitSnapshotEntity> upsert(Long descriptorId, String unitName, String unitConstantsJson);
+  Mono<UnitSnapshotEntity> upsert(
+      Long descriptorId, String unitName, String unitConstantsJson, String unitConstantsBlob,
+      String contentHash);
+
+  /**
+   * Bulk variant of {@link #upsert}: inserts or updates one snapshot per array element under
+   * {@code descriptorId} in a single statement. The arrays are parallel and must not contain the
+   * same unit name twice. Blobs are base64 text, as {@code bytea[]} parameters do not bind.
+   *
+   * @return the id of every inserted or updated snapshot, keyed by unit name
+   */
+  @Query("""
+      INSERT INTO unit_snapshots
+          (descriptor_id, unit_name, unit_constants_json, unit_constants_blob, content_hash)
+      SELECT :descriptorId, u.unit_name, u.unit_constants_json,
+             decode(u.unit_constants_blob, 'base64'), u.content_hash
+      FROM unnest(CAST(:unitNames AS text[]), CAST(:unitConstantsJsons AS text[]),
+                  CAST(:unitConstantsBlobs AS text[]), CAST(:contentHashes AS text[]))
+           AS u(unit_name, unit_constants_json, unit_constants_blob, content_hash)
+      ON CONFLICT (descriptor_id, unit_name)
+      DO UPDATE SET unit_constants_json = EXCLUDED.unit_constants_json,
+                    unit_constants_blob = EXCLUDED.unit_constants_blob,
+                    content_hash = EXCLUDED.content_hash
+      RETURNING id, unit_name
+      """)
+  Flux<SnapshotIdRow> upsertAll(
+      Long descriptorId, String[] unitNames, String[] unitConstantsJsons,
+      String[] unitConstantsBlobs, String[] contentHashes);
+
+  /**
+   * Returns the content hash of every unit stored directly in a project/version (inherited
+   * units are not included). The hash is {@code null} for units stored without one.
+   */
+  @Query("""
+      SELECT s.unit_name AS unit_name, s.content_hash AS content_hash
+      FROM unit_snapshots s
+      JOIN unit_descriptors d ON s.descriptor_id = d.id
+      WHERE d.project = :project AND d.version = :version
+      """)
+  Flux<UnitContentHashRow> findContentHashesByProjectAndVersion(String project, int version);
 
   /**
    * Deletes all snapshots for a descriptor in one statement.
@@ -58,6 +108,21 @@ public interface UnitSnapshotRepository
   Mono<UnitSnapshotEntity> findByProjectAndVersionAndUnitName(
       String project, int version, String unitName);
 
+  /**
+   * Returns the stored payload columns of a unit within a project/version; both are
+   * {@code null} for units stored without a payload.
+   */
+  @Query("""
+      SELECT s.unit_constants_json AS unit_constants_json,
+             s.unit_constants_blob AS unit_constants_blob
+      FROM unit_snapshots s
+      JOIN unit_descriptors d ON s.descriptor_id = d.id
+      WHERE d.project = :project AND d.version = :version AND s.unit_name = :unitName
+      LIMIT 1
+      """)
+  Mono<SnapshotPayloadRow> findPayloadByProjectAndVersionAndUnitName(
+      String project, int version, String unitName);
+
   /**
    * Returns one row per extracted unit (class/config file) with its constant count,
    * grouped under the descriptor path that produced it.
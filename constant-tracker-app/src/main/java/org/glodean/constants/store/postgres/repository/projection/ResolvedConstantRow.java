@@ -0,0 +1,14 @@
+package org.glodean.constants.store.postgres.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Flat projection row of a {@code unit_constants} row with its value and type joined in from
+ * {@code constant_values}.
+ */
+public record ResolvedConstantRow(
+    Long id,
+    Long snapshotId,
+    UUID valueHash,
+    String constantValue,
+    String constantValueType) {}
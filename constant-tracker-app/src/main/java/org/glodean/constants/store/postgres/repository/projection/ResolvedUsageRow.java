@@ -0,0 +1,24 @@
+package org.glodean.constants.store.postgres.repository.projection;
+
+/**
+ * Flat projection row of a {@code constant_usages} row with its semantic type and location
+ * strings joined in from the dictionary tables, as selected by
+ * {@link org.glodean.constants.store.postgres.repository.ConstantUsageRepository#RESOLVED_USAGES}.
+ *
+ * <p>Also carries a usage about to be stored until its strings are resolved to dictionary ids.
+ */
+public record ResolvedUsageRow(
+    Long id,
+    Long constantId,
+    String structuralType,
+    String semanticTypeKind, // 'CORE' or 'CUSTOM'
+    String semanticTypeName, // CoreSemanticType.name() or CustomSemanticType.category()
+    String semanticDisplayName, // CUSTOM only
+    String semanticDescription, // CUSTOM only
+    String locationClassName,
+    String locationMethodName,
+    String locationMethodDescriptor,
+    Integer locationBytecodeOffset,
+    Integer locationLineNumber,
+    double confidence,
+    String metadata) {}
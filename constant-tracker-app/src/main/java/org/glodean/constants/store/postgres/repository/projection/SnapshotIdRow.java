@@ -0,0 +1,9 @@
+package org.glodean.constants.store.postgres.repository.projection;
+
+/**
+ * Flat projection row pairing a snapshot's generated id with its unit name, returned by bulk
+ * snapshot upserts.
+ */
+public record SnapshotIdRow(
+    Long id,
+    String unitName) {}
@@ -0,0 +1,9 @@
+package org.glodean.constants.store.postgres.repository.projection;
+
+/**
+ * Flat projection row holding the stored payload of a snapshot: either the JSON text or the
+ * binary blob, depending on the payload mode it was written under, or neither.
+ */
+public record SnapshotPayloadRow(
+    String unitConstantsJson,
+    byte[] unitConstantsBlob) {}
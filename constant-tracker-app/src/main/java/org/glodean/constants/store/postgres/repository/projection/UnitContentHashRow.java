@@ -0,0 +1,9 @@
+package org.glodean.constants.store.postgres.repository.projection;
+
+/**
+ * Flat projection row pairing a stored unit with the content hash of the entry it was
+ * extracted from.
+ */
+public record UnitContentHashRow(
+    String unitName,
+    String contentHash) {}
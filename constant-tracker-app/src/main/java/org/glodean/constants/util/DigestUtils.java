@@ -3,6 +3,8 @@ package org.glodean.constants.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -41,6 +43,24 @@ public final class DigestUtils {
     return hexEncode(digest.digest());
   }
 
+  /**
+   * Returns the SHA-256 hex digest of {@code content}, read in small windows so that memory
+   * from a closeable shared mapping never has to be exposed as a {@link java.nio.ByteBuffer}.
+   *
+   * @param content the bytes to hash
+   * @return lowercase hex-encoded SHA-256 digest
+   */
+  public static String sha256Hex(MemorySegment content) {
+    MessageDigest digest = newSha256();
+    byte[] window = new byte[(int) Math.min(content.byteSize(), 64 * 1024)];
+    for (long pos = 0; pos < content.byteSize(); pos += window.length) {
+      int n = (int) Math.min(window.length, content.byteSize() - pos);
+      MemorySegment.copy(content, ValueLayout.JAVA_BYTE, pos, window, 0, n);
+      digest.update(window, 0, n);
+    }
+    return hexEncode(digest.digest());
+  }
+
   /**
    * Encodes a digest byte array as a lowercase hex string.
    *
@@ -0,0 +1,14 @@
+-- ============================================================
+-- Per-unit content hash for incremental JAR re-uploads.
+--
+-- Class files streamed from an outer JAR record the ZIP central
+-- directory CRC-32 and size of their entry.  A later upload of the
+-- same project compares its entries against the hashes effective
+-- in the parent version and skips extraction for unchanged
+-- classes; those units are then served through version
+-- inheritance instead of being re-inserted.
+--
+-- Nullable: rows written before this migration, and units stored
+-- through the single-file path, simply never match.
+-- ============================================================
+ALTER TABLE unit_snapshots ADD COLUMN content_hash VARCHAR(128);
@@ -0,0 +1,18 @@
+-- ============================================================
+-- Optional, binary snapshot payload.
+--
+-- The full UnitConstants payload of a unit duplicates its
+-- unit_constants and constant_usages rows, and no query reads it,
+-- so it is now written only on request (constants.store.
+-- snapshot-payload).  JSON mode keeps using unit_constants_json;
+-- SMILE_DEFLATE mode writes a deflated Smile document to
+-- unit_constants_blob instead.  Both columns are NULL for units
+-- stored without a payload.
+--
+-- The blob is compressed already: EXTERNAL storage moves large
+-- values out of line without a second, futile compression pass.
+-- ============================================================
+ALTER TABLE unit_snapshots ALTER COLUMN unit_constants_json DROP NOT NULL;
+ALTER TABLE unit_snapshots ALTER COLUMN unit_constants_json DROP DEFAULT;
+ALTER TABLE unit_snapshots ADD COLUMN unit_constants_blob BYTEA;
+ALTER TABLE unit_snapshots ALTER COLUMN unit_constants_blob SET STORAGE EXTERNAL;
@@ -0,0 +1,111 @@
+-- ============================================================
+-- Dictionary tables for the repeated strings of constant_usages.
+--
+-- Every usage row used to carry its class name, method name,
+-- method descriptor and semantic type as text, although a class
+-- contributes the same few values to thousands of rows.  Each
+-- distinct value is now stored once in a dictionary table and
+-- usages reference it by a 4-byte id.
+--
+-- Dictionary rows are shared by all projects and never deleted.
+-- String values are unique by md5 so that long descriptors stay
+-- within the btree entry size limit; lookups compare the value
+-- as well.
+-- ============================================================
+CREATE TABLE usage_class_names
+(
+    id    SERIAL PRIMARY KEY,
+    value TEXT   NOT NULL
+);
+CREATE UNIQUE INDEX idx_usage_class_names_value ON usage_class_names (md5(value));
+
+CREATE TABLE usage_method_names
+(
+    id    SERIAL PRIMARY KEY,
+    value TEXT   NOT NULL
+);
+CREATE UNIQUE INDEX idx_usage_method_names_value ON usage_method_names (md5(value));
+
+CREATE TABLE usage_method_descriptors
+(
+    id    SERIAL PRIMARY KEY,
+    value TEXT   NOT NULL
+);
+CREATE UNIQUE INDEX idx_usage_method_descriptors_value ON usage_method_descriptors (md5(value));
+
+-- One row per distinct (kind, name, display name, description); CORE types leave the last two NULL.
+CREATE TABLE usage_semantic_types
+(
+    id           SERIAL       PRIMARY KEY,
+    kind         VARCHAR(10)  NOT NULL,
+    name         VARCHAR(100),
+    display_name VARCHAR(255),
+    description  TEXT
+);
+CREATE UNIQUE INDEX idx_usage_semantic_types_key
+    ON usage_semantic_types (kind, name, display_name, md5(description)) NULLS NOT DISTINCT;
+
+-- ------------------------------------------------------------
+-- Move existing usages onto the dictionaries.
+-- ------------------------------------------------------------
+INSERT INTO usage_class_names (value)
+SELECT DISTINCT location_class_name FROM constant_usages
+ON CONFLICT DO NOTHING;
+
+INSERT INTO usage_method_names (value)
+SELECT DISTINCT location_method_name FROM constant_usages
+ON CONFLICT DO NOTHING;
+
+INSERT INTO usage_method_descriptors (value)
+SELECT DISTINCT location_method_descriptor FROM constant_usages
+ON CONFLICT DO NOTHING;
+
+INSERT INTO usage_semantic_types (kind, name, display_name, description)
+SELECT DISTINCT semantic_type_kind, semantic_type_name, semantic_display_name, semantic_description
+FROM constant_usages
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE constant_usages
+    ADD COLUMN semantic_type_id       INT,
+    ADD COLUMN location_class_id      INT,
+    ADD COLUMN location_method_id     INT,
+    ADD COLUMN location_descriptor_id INT;
+
+UPDATE constant_usages cu
+SET semantic_type_id       = st.id,
+    location_class_id      = cn.id,
+    location_method_id     = mn.id,
+    location_descriptor_id = md.id
+FROM usage_semantic_types st, usage_class_names cn, usage_method_names mn, usage_method_descriptors md
+WHERE st.kind = cu.semantic_type_kind
+  AND st.name IS NOT DISTINCT FROM cu.semantic_type_name
+  AND st.display_name IS NOT DISTINCT FROM cu.semantic_display_name
+  AND st.description IS NOT DISTINCT FROM cu.semantic_description
+  AND md5(cn.value) = md5(cu.location_class_name) AND cn.value = cu.location_class_name
+  AND md5(mn.value) = md5(cu.location_method_name) AND mn.value = cu.location_method_name
+  AND md5(md.value) = md5(cu.location_method_descriptor) AND md.value = cu.location_method_descriptor;
+
+ALTER TABLE constant_usages
+    ALTER COLUMN semantic_type_id       SET NOT NULL,
+    ALTER COLUMN location_class_id      SET NOT NULL,
+    ALTER COLUMN location_method_id     SET NOT NULL,
+    ALTER COLUMN location_descriptor_id SET NOT NULL,
+    ADD CONSTRAINT fk_constant_usages_semantic_type
+        FOREIGN KEY (semantic_type_id) REFERENCES usage_semantic_types (id),
+    ADD CONSTRAINT fk_constant_usages_location_class
+        FOREIGN KEY (location_class_id) REFERENCES usage_class_names (id),
+    ADD CONSTRAINT fk_constant_usages_location_method
+        FOREIGN KEY (location_method_id) REFERENCES usage_method_names (id),
+    ADD CONSTRAINT fk_constant_usages_location_descriptor
+        FOREIGN KEY (location_descriptor_id) REFERENCES usage_method_descriptors (id),
+    DROP COLUMN semantic_type_kind,
+    DROP COLUMN semantic_type_name,
+    DROP COLUMN semantic_display_name,
+    DROP COLUMN semantic_description,
+    DROP COLUMN location_class_name,
+    DROP COLUMN location_method_name,
+    DROP COLUMN location_method_descriptor;
+
+-- Dropped columns keep their space until the table is rewritten; run
+-- VACUUM FULL constant_usages (or pg_repack) in a maintenance window to
+-- reclaim it on existing installations.
@@ -0,0 +1,53 @@
+-- ============================================================
+-- Content-addressed store for constant values.
+--
+-- unit_constants used to carry the full text of every value, so
+-- the same SQL string or URL was repeated in every snapshot of
+-- every version of every project.  Each distinct (type, value)
+-- pair is now stored once in constant_values, keyed by the
+-- 128-bit md5 of '<type>:<value>' held as a UUID, and
+-- unit_constants references it by that hash.
+--
+-- The application computes the same hash before inserting, so
+-- new values are upserted by key without reading them back.
+-- Rows are shared by all projects and never deleted.
+--
+-- The fixed-size hash also brings back the (snapshot_id, value)
+-- index that V4 had to drop because raw values could exceed the
+-- btree entry size limit.
+-- ============================================================
+CREATE TABLE constant_values
+(
+    hash       UUID        PRIMARY KEY,
+    value      TEXT        NOT NULL,
+    value_type VARCHAR(50) NOT NULL
+);
+
+INSERT INTO constant_values (hash, value, value_type)
+SELECT md5(constant_value_type || ':' || constant_value)::uuid, constant_value, constant_value_type
+FROM unit_constants
+ON CONFLICT (hash) DO NOTHING;
+
+ALTER TABLE unit_constants
+    ADD COLUMN value_hash UUID;
+
+UPDATE unit_constants
+SET value_hash = md5(constant_value_type || ':' || constant_value)::uuid;
+
+ALTER TABLE unit_constants
+    ALTER COLUMN value_hash SET NOT NULL,
+    ADD CONSTRAINT fk_unit_constants_value
+        FOREIGN KEY (value_hash) REFERENCES constant_values (hash),
+    DROP COLUMN constant_value,
+    DROP COLUMN constant_value_type;
+
+-- Replaces idx_unit_constants_snapshot, which is a prefix of it.
+CREATE INDEX idx_unit_constants_snapshot_value ON unit_constants (snapshot_id, value_hash);
+DROP INDEX idx_unit_constants_snapshot;
+
+-- Finds every snapshot of any project that contains a given value.
+CREATE INDEX idx_unit_constants_value ON unit_constants (value_hash);
+
+-- Dropped columns keep their space until the table is rewritten; run
+-- VACUUM FULL unit_constants (or pg_repack) in a maintenance window to
+-- reclaim it on existing installations.
@@ -5,11 +5,18 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -21,6 +28,7 @@ import org.glodean.constants.model.UnitConstants;
 import org.glodean.constants.model.UnitDescriptor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
 
 /**
  * Tests for ConcreteExtractionService focusing on basic extraction.
@@ -185,6 +193,239 @@ class ConcreteExtractionServiceTest {
         }
     }
 
+    @Test
+    void extractJarFileStreaming_skipsEntriesMatchingReusableHashes() throws Exception {
+        byte[] unchanged = "unchanged".getBytes(StandardCharsets.UTF_8);
+        byte[] zip = createZipBytes(zos -> {
+            zos.putNextEntry(new ZipEntry("a.txt"));
+            zos.write(unchanged);
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("b.txt"));
+            zos.write("changed".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        });
+        Path jarPath = tempDir.resolve("dedup.jar");
+        Files.write(jarPath, zip);
+        var crc = new CRC32();
+        crc.update(unchanged);
+        String hash = "crc32:%08x:%d".formatted(crc.getValue(), unchanged.length);
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            ConcreteExtractionService svc = new ConcreteExtractionService(executor, textRepository());
+
+            List<ExtractionService.StreamedChunk> chunks =
+                    svc.extractJarFileStreaming(jarPath, 10, Map.of(svc.reuseKey(hash), "/a.txt"))
+                       .collectList()
+                       .block();
+
+            assertNotNull(chunks);
+            assertEquals(1, chunks.size());
+            assertEquals(Set.of("/a.txt"), chunks.get(0).reusedUnits());
+            assertEquals(List.of("/b.txt"),
+                    chunks.get(0).units().stream().map(u -> u.source().path()).toList());
+            assertEquals("crc32:", chunks.get(0).units().get(0).source().contentHash().substring(0, 6));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void extractJarFileStreaming_doesNotReuseUnitsOfAnotherConfiguration() throws Exception {
+        byte[] content = "same".getBytes(StandardCharsets.UTF_8);
+        byte[] zip = createZipBytes(zos -> {
+            zos.putNextEntry(new ZipEntry("a.txt"));
+            zos.write(content);
+            zos.closeEntry();
+        });
+        Path jarPath = tempDir.resolve("reconfigured.jar");
+        Files.write(jarPath, zip);
+        var crc = new CRC32();
+        crc.update(content);
+        String hash = "crc32:%08x:%d".formatted(crc.getValue(), content.length);
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            ConcreteExtractionService before =
+                    new ConcreteExtractionService(executor, textRepository("interpreters-v1"));
+            ConcreteExtractionService after =
+                    new ConcreteExtractionService(executor, textRepository("interpreters-v2"));
+
+            List<ExtractionService.StreamedChunk> stored =
+                    before.extractJarFileStreaming(jarPath, 10, Map.of()).collectList().block();
+            assertNotNull(stored);
+            String storedHash = stored.get(0).units().get(0).source().contentHash();
+            assertEquals(before.reuseKey(hash), storedHash);
+
+            List<ExtractionService.StreamedChunk> chunks =
+                    after.extractJarFileStreaming(jarPath, 10, Map.of(storedHash, "/a.txt"))
+                         .collectList()
+                         .block();
+
+            assertNotNull(chunks);
+            assertEquals(1, chunks.size());
+            assertTrue(chunks.get(0).reusedUnits().isEmpty());
+            assertEquals(List.of("/a.txt"),
+                    chunks.get(0).units().stream().map(u -> u.source().path()).toList());
+            assertEquals(after.reuseKey(hash), chunks.get(0).units().get(0).source().contentHash());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void extractJarFileStreaming_emitsEmptyChunkWhenEverythingIsReused() throws Exception {
+        byte[] content = "same".getBytes(StandardCharsets.UTF_8);
+        byte[] zip = createZipBytes(zos -> {
+            zos.putNextEntry(new ZipEntry("a.txt"));
+            zos.write(content);
+            zos.closeEntry();
+        });
+        Path jarPath = tempDir.resolve("unchanged.jar");
+        Files.write(jarPath, zip);
+        var crc = new CRC32();
+        crc.update(content);
+        String hash = "crc32:%08x:%d".formatted(crc.getValue(), content.length);
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            ConcreteExtractionService svc = new ConcreteExtractionService(executor, textRepository());
+
+            // The same bytes under a different unit name must not be reused.
+            List<ExtractionService.StreamedChunk> moved =
+                    svc.extractJarFileStreaming(jarPath, 10, Map.of(svc.reuseKey(hash), "/moved.txt"))
+                       .collectList()
+                       .block();
+            List<ExtractionService.StreamedChunk> reused =
+                    svc.extractJarFileStreaming(jarPath, 10, Map.of(svc.reuseKey(hash), "/a.txt"))
+                       .collectList()
+                       .block();
+
+            assertNotNull(moved);
+            assertEquals(1, moved.size());
+            assertTrue(moved.get(0).reusedUnits().isEmpty());
+            assertNotNull(reused);
+            assertEquals(1, reused.size());
+            assertTrue(reused.get(0).units().isEmpty());
+            assertEquals(Set.of("/a.txt"), reused.get(0).reusedUnits());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    @Test
+    void extractJarFileStreaming_batchesUnitsAsTheyFinish() throws Exception {
+        byte[] zip = createZipBytes(zos -> {
+            for (int i = 0; i < 5; i++) {
+                zos.putNextEntry(new ZipEntry("e" + i + ".txt"));
+                zos.write(new byte[]{(byte) i});
+                zos.closeEntry();
+            }
+        });
+        Path jarPath = tempDir.resolve("batches.jar");
+        Files.write(jarPath, zip);
+
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            ConcreteExtractionService svc = new ConcreteExtractionService(executor, textRepository());
+
+            List<List<UnitConstants>> batches =
+                    svc.extractJarFileStreaming(jarPath, 2)
+                       .collectList()
+                       .block(Duration.ofSeconds(10));
+
+            assertNotNull(batches);
+            assertTrue(batches.stream().allMatch(b -> !b.isEmpty() && b.size() <= 2));
+            assertEquals(List.of("/e0.txt", "/e1.txt", "/e2.txt", "/e3.txt", "/e4.txt"),
+                    batches.stream().flatMap(List::stream).map(u -> u.source().path()).sorted().toList());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void extractJarFileStreaming_emitsOnlyWhatIsRequested() throws Exception {
+        byte[] zip = createZipBytes(zos -> {
+            for (int i = 0; i < 3; i++) {
+                zos.putNextEntry(new ZipEntry("e" + i + ".txt"));
+                zos.write(new byte[]{(byte) i});
+                zos.closeEntry();
+            }
+        });
+        Path jarPath = tempDir.resolve("demand.jar");
+        Files.write(jarPath, zip);
+
+        var executor = Executors.newSingleThreadExecutor();
+        ConcreteExtractionService svc = new ConcreteExtractionService(executor, textRepository());
+
+        StepVerifier.create(svc.extractJarFileStreaming(jarPath, 1), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenRequest(1)
+                .expectNextMatches(batch -> batch.size() == 1)
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        // Cancellation releases the worker waiting for demand.
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void extractJarFileStreaming_stopsReadingEntriesOnceCancelled() throws Exception {
+        int entryCount = 50;
+        byte[] zip = createZipBytes(zos -> {
+            for (int i = 0; i < entryCount; i++) {
+                zos.putNextEntry(new ZipEntry("e" + i + ".txt"));
+                zos.write(new byte[]{(byte) i});
+                zos.closeEntry();
+            }
+        });
+        Path jarPath = tempDir.resolve("cancel.jar");
+        Files.write(jarPath, zip);
+        var reads = new AtomicInteger();
+        var repository = ModelExtractorSupplierRepository.builder()
+                .register(name -> {
+                    reads.incrementAndGet();
+                    return name.endsWith(".txt");
+                }, BytecodeSourceKind.CLASS_FILE,
+                        bytes -> source -> List.of(new UnitConstants(source, Set.of())))
+                .build();
+
+        var executor = Executors.newSingleThreadExecutor();
+        ConcreteExtractionService svc = new ConcreteExtractionService(executor, repository);
+
+        StepVerifier.create(svc.extractJarFileStreaming(jarPath, 1), 0)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        int readAfterCancel = reads.get();
+        Thread.sleep(300);
+        assertEquals(readAfterCancel, reads.get(), "entries were read after cancellation");
+        assertTrue(readAfterCancel < 10, "read " + readAfterCancel + " of " + entryCount);
+    }
+
+    /** Repository whose {@code .txt} extractor returns one empty unit named after the entry. */
+    private static ModelExtractorSupplierRepository textRepository() {
+        return textRepository("");
+    }
+
+    private static ModelExtractorSupplierRepository textRepository(String fingerprint) {
+        return ModelExtractorSupplierRepository.builder()
+                .fingerprint(fingerprint)
+                .register(name -> name.endsWith(".txt"), BytecodeSourceKind.CLASS_FILE,
+                        bytes -> source -> List.of(new UnitConstants(source, Set.of())))
+                .build();
+    }
+
     // ── helpers ───────────────────────────────────────────────────────────────
 
     private static byte[] createZipBytes(ZipWriter writer) throws IOException {
@@ -1,12 +1,15 @@
 package org.glodean.constants.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.UUID;
 import org.glodean.constants.dto.ConstantDiffEntry;
 import org.glodean.constants.store.postgres.entity.ConstantDiffRow;
 import org.glodean.constants.store.postgres.entity.DiffRepository;
@@ -58,18 +61,28 @@ class DiffServiceTest {
   }
 
   private ConstantDiffRow row(long snapId, String value, String structural, String semantic) {
+    return typedRow(snapId, value, "String", structural, semantic);
+  }
+
+  private ConstantDiffRow typedRow(
+      long snapId, String value, String valueType, String structural, String semantic) {
     return new ConstantDiffRow(
-        snapId, value, "String", structural, "CORE", semantic,
+        snapId, hash(valueType, value), value, valueType, structural, "CORE", semantic,
         null, null, "com.Foo", "bar", "()V", 0, 10, 1.0);
   }
 
   private ConstantDiffRow rowAt(long snapId, String value, String structural, String semantic,
       String className, String methodName, int lineNumber) {
     return new ConstantDiffRow(
-        snapId, value, "String", structural, "CORE", semantic,
+        snapId, hash("String", value), value, "String", structural, "CORE", semantic,
         null, null, className, methodName, "()V", 0, lineNumber, 1.0);
   }
 
+  /** Stands in for the {@code constant_values} hash; only its equality matters to the diff. */
+  private static UUID hash(String valueType, String value) {
+    return UUID.nameUUIDFromBytes((valueType + ':' + value).getBytes(StandardCharsets.UTF_8));
+  }
+
   private void noDeletions() {
     when(deletionRepo.findAllByProjectAndVersion(anyString(), anyInt()))
         .thenReturn(Flux.empty());
@@ -105,6 +118,62 @@ class DiffServiceTest {
         .verifyComplete();
   }
 
+  @Test
+  void changedConstants_keepValueOrderOfRows() {
+    when(versionRepo.findByProjectAndVersion("proj", 1)).thenReturn(Mono.just(ver(1, null)));
+    when(versionRepo.findByProjectAndVersion("proj", 2)).thenReturn(Mono.just(ver(2, 1)));
+    when(descriptorRepo.findAllByProjectAndVersion("proj", 1))
+        .thenReturn(Flux.just(desc(1L, "ClassA", 1)));
+    when(descriptorRepo.findAllByProjectAndVersion("proj", 2))
+        .thenReturn(Flux.just(desc(2L, "ClassA", 2)));
+    when(snapshotRepo.findByDescriptorIdAndUnitName(1L, "ClassA"))
+        .thenReturn(Mono.just(snap(10L, 1L, "ClassA")));
+    when(snapshotRepo.findByDescriptorIdAndUnitName(2L, "ClassA"))
+        .thenReturn(Mono.just(snap(20L, 2L, "ClassA")));
+    noDeletions();
+    when(diffRepo.loadForSnapshots(java.util.Set.of(10L))).thenReturn(Flux.empty());
+    // The repository returns rows ordered by value; their hashes sort differently.
+    when(diffRepo.loadForSnapshots(java.util.Set.of(20L)))
+        .thenReturn(Flux.just(
+            row(20L, "alpha", "FIELD_STORE", "UNKNOWN"),
+            row(20L, "beta", "FIELD_STORE", "UNKNOWN"),
+            row(20L, "delta", "FIELD_STORE", "UNKNOWN"),
+            row(20L, "gamma", "FIELD_STORE", "UNKNOWN")));
+
+    StepVerifier.create(diffService.diff("proj", 1, 2))
+        .assertNext(r -> assertThat(r.units().getFirst().changedConstants())
+            .extracting(ConstantDiffEntry::value)
+            .containsExactly("alpha", "beta", "delta", "gamma"))
+        .verifyComplete();
+  }
+
+  @Test
+  void sameTextWithAnotherType_isADifferentConstant() {
+    when(versionRepo.findByProjectAndVersion("proj", 1)).thenReturn(Mono.just(ver(1, null)));
+    when(versionRepo.findByProjectAndVersion("proj", 2)).thenReturn(Mono.just(ver(2, 1)));
+    when(descriptorRepo.findAllByProjectAndVersion("proj", 1))
+        .thenReturn(Flux.just(desc(1L, "ClassA", 1)));
+    when(descriptorRepo.findAllByProjectAndVersion("proj", 2))
+        .thenReturn(Flux.just(desc(2L, "ClassA", 2)));
+    when(snapshotRepo.findByDescriptorIdAndUnitName(1L, "ClassA"))
+        .thenReturn(Mono.just(snap(10L, 1L, "ClassA")));
+    when(snapshotRepo.findByDescriptorIdAndUnitName(2L, "ClassA"))
+        .thenReturn(Mono.just(snap(20L, 2L, "ClassA")));
+    noDeletions();
+    when(diffRepo.loadForSnapshots(java.util.Set.of(10L)))
+        .thenReturn(Flux.just(typedRow(10L, "1", "Integer", "FIELD_STORE", "UNKNOWN")));
+    when(diffRepo.loadForSnapshots(java.util.Set.of(20L)))
+        .thenReturn(Flux.just(typedRow(20L, "1", "Long", "FIELD_STORE", "UNKNOWN")));
+
+    StepVerifier.create(diffService.diff("proj", 1, 2))
+        .assertNext(r -> assertThat(r.units().getFirst().changedConstants())
+            .extracting(ConstantDiffEntry::valueType, ConstantDiffEntry::changeKind)
+            .containsExactlyInAnyOrder(
+                tuple("Integer", ConstantDiffEntry.ChangeKind.REMOVED),
+                tuple("Long", ConstantDiffEntry.ChangeKind.ADDED)))
+        .verifyComplete();
+  }
+
   @Test
   void removedUnit_markedAsRemoved() {
     when(versionRepo.findByProjectAndVersion("proj", 1)).thenReturn(Mono.just(ver(1, null)));
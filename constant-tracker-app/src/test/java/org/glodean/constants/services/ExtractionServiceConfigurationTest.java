@@ -2,12 +2,28 @@ package org.glodean.constants.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableSetMultimap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import org.glodean.constants.extractor.ExtractionResultCache;
 import org.glodean.constants.extractor.ModelExtractorSupplierRepository;
+import org.glodean.constants.extractor.TieredExtractionResultCache;
 import org.glodean.constants.extractor.bytecode.AnalysisMerger;
+import org.glodean.constants.extractor.bytecode.BytecodeSourceKind;
+import org.glodean.constants.extractor.bytecode.ClassModelExtractor;
 import org.glodean.constants.extractor.bytecode.ConstantUsageInterpreterRegistry;
+import org.glodean.constants.extractor.bytecode.ExtractionStages;
+import org.glodean.constants.extractor.bytecode.InMemoryMethodUsageStore;
 import org.glodean.constants.extractor.bytecode.InternalStringConcatPatternSplitter;
+import org.glodean.constants.extractor.bytecode.MethodAnalysisCounters;
+import org.glodean.constants.extractor.bytecode.StateRetention;
+import org.glodean.constants.extractor.bytecode.TieredMethodUsageStore;
+import org.glodean.constants.model.UnitDescriptor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import reactor.core.scheduler.Scheduler;
 
 /**
@@ -18,12 +34,35 @@ class ExtractionServiceConfigurationTest {
   private final ExtractionServiceConfiguration config = new ExtractionServiceConfiguration();
 
   @Test
-  void bytecodeAnalysisExecutor_returnsNonNullFixedPool() {
-    ExecutorService executor = config.bytecodeAnalysisExecutor();
-    assertThat(executor).isNotNull();
+  void bytecodeAnalysisExecutor_returnsForkJoinPool() {
+    ExecutorService executor = config.bytecodeAnalysisExecutor(0);
+    assertThat(executor).isInstanceOf(ForkJoinPool.class);
     executor.shutdown();
   }
 
+  @Test
+  void bytecodeAnalysisExecutor_honoursConfiguredThreads() {
+    ExecutorService executor = config.bytecodeAnalysisExecutor(3);
+    assertThat(((ForkJoinPool) executor).getParallelism()).isEqualTo(3);
+    executor.shutdown();
+  }
+
+  @Test
+  void extractionStages_derivesSizesAndRegistersPipelineMeters() {
+    var registry = new SimpleMeterRegistry();
+    ExtractionStages stages =
+        config.extractionStages(config.bytecodeAnalysisExecutor(2), 0, 0, registry);
+
+    assertThat(stages.ioConcurrency()).isEqualTo(8);
+    assertThat(stages.queueCapacity()).isEqualTo(4);
+    assertThat(registry.get("extraction.pipeline.queue.depth").gauge().value()).isZero();
+    assertThat(registry.get("extraction.pipeline.queue.capacity").gauge().value()).isEqualTo(4);
+    assertThat(registry.get("extraction.pipeline.cpu.utilization").gauge().value()).isZero();
+    assertThat(registry.find("extraction.pipeline.io.busy").functionCounter()).isNotNull();
+    assertThat(registry.find("extraction.pipeline.cpu.busy").functionCounter()).isNotNull();
+    config.shutdownBytecodeExecutor();
+  }
+
   @Test
   void blockingIoScheduler_returnsNonNullScheduler() {
     Scheduler scheduler = config.blockingIoScheduler();
@@ -41,12 +80,35 @@ class ExtractionServiceConfigurationTest {
 
   @Test
   void shutdownBytecodeExecutor_shutsDownExecutorWhenPresent() {
-    ExecutorService executor = config.bytecodeAnalysisExecutor();
+    ExecutorService executor = config.bytecodeAnalysisExecutor(0);
     assertThat(executor.isShutdown()).isFalse();
     config.shutdownBytecodeExecutor();
     assertThat(executor.isShutdown()).isTrue();
   }
 
+  @Test
+  void methodAnalysisMetrics_registersCountersAndSkipRatio() {
+    var registry = new SimpleMeterRegistry();
+    var counters = config.methodAnalysisCounters();
+    config.methodAnalysisMetrics(counters).bindTo(registry);
+
+    assertThat(registry.find("extraction.methods.analyzed").functionCounter()).isNotNull();
+    assertThat(registry.find("extraction.methods.skipped").functionCounter()).isNotNull();
+    assertThat(registry.get("extraction.methods.skip_ratio").gauge().value()).isZero();
+  }
+
+  @Test
+  void methodUsageStore_keepsMethodsOnDiskNextToTheResultCache(@TempDir Path dir) {
+    var registry = new SimpleMeterRegistry();
+
+    assertThat(config.methodUsageStore(100, "", 1024, registry))
+        .isInstanceOf(InMemoryMethodUsageStore.class);
+    var store = config.methodUsageStore(100, dir.toString(), 1024, new SimpleMeterRegistry());
+    assertThat(store).isInstanceOf(TieredMethodUsageStore.class);
+    store.put("ab12", ImmutableSetMultimap.of());
+    assertThat(dir.resolve("methods").resolve("ab").resolve("ab12.bin")).exists();
+  }
+
   @Test
   void stringConcatPatternSplitter_returnsInternalImpl() {
     assertThat(config.stringConcatPatternSplitter())
@@ -72,7 +134,10 @@ class ExtractionServiceConfigurationTest {
     var splitter = config.stringConcatPatternSplitter();
     var registry = config.interpreterRegistry();
     AnalysisMerger merger = config.analysisMerger(splitter, registry);
-    ModelExtractorSupplierRepository repo = config.modelExtractorSupplierRepository(merger);
+    ModelExtractorSupplierRepository repo = config.modelExtractorSupplierRepository(
+        merger, StateRetention.ALL_ELEMENTS, ClassModelExtractor.DEFAULT_FORK_THRESHOLD,
+        Optional.empty(), "1", Optional.empty(),
+        new MethodAnalysisCounters());
 
     assertThat(repo).isNotNull();
     // .yml and .yaml files should resolve (factory stores bytes lazily — no parse on construction)
@@ -84,4 +149,58 @@ class ExtractionServiceConfigurationTest {
     assertThat(repo.resolve("README.txt", new byte[0])).isEmpty();
     assertThat(repo.resolve("Foo.java", new byte[0])).isEmpty();
   }
+
+  @Test
+  void modelExtractorSupplierRepository_fingerprintNamesExtractorBuild() {
+    var merger =
+        config.analysisMerger(config.stringConcatPatternSplitter(), config.interpreterRegistry());
+    ModelExtractorSupplierRepository repo = config.modelExtractorSupplierRepository(
+        merger, StateRetention.ALL_ELEMENTS, ClassModelExtractor.DEFAULT_FORK_THRESHOLD,
+        Optional.empty(), "1", Optional.empty(),
+        new MethodAnalysisCounters());
+
+    // Both the result cache and the reuse keys of incremental uploads derive from it.
+    assertThat(repo.fingerprint())
+        .startsWith(ExtractionResultCache.buildVersionOf(AnalysisMerger.class) + "|")
+        .isEqualTo(merger.fingerprint() + "|v1");
+    var otherBuild = ModelExtractorSupplierRepository.builder()
+        .fingerprint("other-build|" + repo.fingerprint().substring(repo.fingerprint().indexOf('|') + 1))
+        .build();
+    assertThat(new ConcreteExtractionService(ForkJoinPool.commonPool(), repo).reuseKey("crc"))
+        .isNotEqualTo(
+            new ConcreteExtractionService(ForkJoinPool.commonPool(), otherBuild).reuseKey("crc"));
+  }
+
+  @Test
+  void modelExtractorSupplierRepository_servesRepeatedClassFilesFromCache() throws Exception {
+    var merger =
+        config.analysisMerger(config.stringConcatPatternSplitter(), config.interpreterRegistry());
+    TieredExtractionResultCache cache =
+        config.extractionResultCache(
+            100, "", TieredExtractionResultCache.DEFAULT_MAX_DISK_BYTES, new SimpleMeterRegistry());
+    var counters = new MethodAnalysisCounters();
+    ModelExtractorSupplierRepository repo = config.modelExtractorSupplierRepository(
+        merger, StateRetention.ALL_ELEMENTS, ClassModelExtractor.DEFAULT_FORK_THRESHOLD,
+        Optional.of(cache), "1", Optional.empty(), counters);
+
+    byte[] bytes;
+    try (var in = getClass().getResourceAsStream("ExtractionServiceConfigurationTest.class")) {
+      bytes = in.readAllBytes();
+    }
+    var kind = BytecodeSourceKind.CLASS_FILE;
+    var first = new UnitDescriptor(kind, "a/Foo.class", bytes.length, "h1");
+    var second = new UnitDescriptor(kind, "b/Foo.class", bytes.length, "h2");
+    var computed = repo.resolve("Foo.class", bytes).orElseThrow().extractor().extract(first);
+    long analyzed = counters.analyzedMethodCount();
+    var cached = repo.resolve("Foo.class", bytes).orElseThrow().extractor().extract(second);
+
+    assertThat(cache.missCount()).isEqualTo(1);
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(analyzed).isPositive();
+    assertThat(counters.analyzedMethodCount()).isEqualTo(analyzed);
+    assertThat(cached).hasSameSizeAs(computed);
+    var unit = cached.iterator().next();
+    assertThat(unit.source().contentHash()).isEqualTo("h2");
+    assertThat(unit.constants()).isEqualTo(computed.iterator().next().constants());
+  }
 }
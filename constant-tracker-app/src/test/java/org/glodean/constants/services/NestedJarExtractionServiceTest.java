@@ -85,6 +85,10 @@ class NestedJarExtractionServiceTest {
         .thenReturn(Mono.just(new ProjectVersionEntity(
             1L, PROJECT, VERSION, null, ProjectVersionEntity.STATUS_OPEN, null, null)));
 
+    // Default: no parent version → nothing can be carried over.
+    when(projectVersionService.reusableContentHashes(PROJECT, VERSION))
+        .thenReturn(Mono.just(java.util.Map.of()));
+
     // Default: no existing hash in unit_descriptors → not yet indexed.
     when(descriptorRepository.findByProjectAndVersionAndContentHash(
         eq(PROJECT), eq(VERSION), anyString()))
@@ -141,13 +145,13 @@ class NestedJarExtractionServiceTest {
         java.util.Map.of("BOOT-INF/lib/mylib.jar", libBytes));
 
     UnitConstants expected = stubUnitConstants("mylib.jar");
-    when(extractionService.extractZipStream(any(), any())).thenReturn(List.of(expected));
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of(expected));
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .assertNext(batch -> assertThat(batch.units()).containsExactly(expected))
         .verifyComplete();
 
-    verify(extractionService, times(1)).extractZipStream(any(), any());
+    verify(extractionService, times(1)).extractZipArchive(any(), any());
   }
 
   @Test
@@ -157,13 +161,13 @@ class NestedJarExtractionServiceTest {
         java.util.Map.of("WEB-INF/lib/servlet-lib.jar", libBytes));
 
     UnitConstants expected = stubUnitConstants("servlet-lib.jar");
-    when(extractionService.extractZipStream(any(), any())).thenReturn(List.of(expected));
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of(expected));
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .assertNext(batch -> assertThat(batch.units()).containsExactly(expected))
         .verifyComplete();
 
-    verify(extractionService, times(1)).extractZipStream(any(), any());
+    verify(extractionService, times(1)).extractZipArchive(any(), any());
   }
 
   @Test
@@ -173,7 +177,7 @@ class NestedJarExtractionServiceTest {
         java.util.Map.of("commons.jar", libBytes));
 
     UnitConstants expected = stubUnitConstants("commons.jar");
-    when(extractionService.extractZipStream(any(), any())).thenReturn(List.of(expected));
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of(expected));
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .assertNext(batch -> assertThat(batch.units()).containsExactly(expected))
@@ -190,7 +194,7 @@ class NestedJarExtractionServiceTest {
 
     UnitConstants a = stubUnitConstants("alpha.jar");
     UnitConstants b = stubUnitConstants("beta.jar");
-    when(extractionService.extractZipStream(any(), any()))
+    when(extractionService.extractZipArchive(any(), any()))
         .thenReturn(List.of(a))
         .thenReturn(List.of(b));
 
@@ -200,7 +204,7 @@ class NestedJarExtractionServiceTest {
         .collectList().block();
     assertThat(result).containsExactlyInAnyOrder(a, b);
 
-    verify(extractionService, times(2)).extractZipStream(any(), any());
+    verify(extractionService, times(2)).extractZipArchive(any(), any());
   }
 
   // ── Tests: two levels of nesting ─────────────────────────────────────────────
@@ -209,7 +213,7 @@ class NestedJarExtractionServiceTest {
    * Verifies that a JAR nested inside a nested JAR (two levels deep) is NOT extracted.
    *
    * <p>The outer fat JAR contains {@code BOOT-INF/lib/outer-lib.jar}. That lib itself
-   * contains {@code inner.jar}. Since we only walk the top-level ZipFileSystem entries
+   * contains {@code inner.jar}. Since we only list the outer archive's entries
    * and never recurse into nested JARs, {@code inner.jar} never appears as a candidate
    * and is silently ignored — only {@code outer-lib.jar} is extracted.
    */
@@ -243,13 +247,13 @@ class NestedJarExtractionServiceTest {
         java.util.Map.of("BOOT-INF/lib/outer-lib.jar", outerLibBytes));
 
     UnitConstants extracted = stubUnitConstants("outer-lib.jar");
-    when(extractionService.extractZipStream(any(), any())).thenReturn(List.of(extracted));
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of(extracted));
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .assertNext(batch -> assertThat(batch.units()).containsExactly(extracted))
         .verifyComplete();
 
-    verify(extractionService, times(1)).extractZipStream(any(), any());
+    verify(extractionService, times(1)).extractZipArchive(any(), any());
   }
 
   /**
@@ -264,7 +268,7 @@ class NestedJarExtractionServiceTest {
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .verifyComplete();
 
-    verify(extractionService, never()).extractZipStream(any(), any());
+    verify(extractionService, never()).extractZipArchive(any(), any());
   }
 
   // ── Tests: dedup ─────────────────────────────────────────────────────────────
@@ -282,7 +286,7 @@ class NestedJarExtractionServiceTest {
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .verifyComplete();
 
-    verify(extractionService, never()).extractZipStream(any(), any());
+    verify(extractionService, never()).extractZipArchive(any(), any());
   }
 
   @Test
@@ -301,13 +305,13 @@ class NestedJarExtractionServiceTest {
         .thenReturn(Mono.empty());
 
     UnitConstants fresh = stubUnitConstants("fresh.jar");
-    when(extractionService.extractZipStream(any(), any())).thenReturn(List.of(fresh));
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of(fresh));
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .assertNext(batch -> assertThat(batch.units()).containsExactly(fresh))
         .verifyComplete();
 
-    verify(extractionService, times(1)).extractZipStream(any(), any());
+    verify(extractionService, times(1)).extractZipArchive(any(), any());
   }
 
   // ── Tests: empty / edge cases ─────────────────────────────────────────────────
@@ -320,27 +324,28 @@ class NestedJarExtractionServiceTest {
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .verifyComplete();
 
-    verify(extractionService, never()).extractZipStream(any(), any());
+    verify(extractionService, never()).extractZipArchive(any(), any());
   }
 
   @Test
   void corruptNestedJar_skippedGracefully_otherJarsStillExtracted() throws Exception {
     byte[] corrupt = new byte[]{0x00, 0x01, 0x02}; // not a valid ZIP
     // Use LinkedHashMap to guarantee corrupt.jar is written before good.jar in the ZIP,
-    // so the ordered mock stubs (.thenThrow → .thenReturn) fire in the expected sequence.
+    // so the failure happens first and must not stop good.jar from being processed.
     java.util.Map<String, byte[]> entries = new java.util.LinkedHashMap<>();
     entries.put("BOOT-INF/lib/corrupt.jar", corrupt);
     entries.put("BOOT-INF/lib/good.jar", minimalJarBytes());
     Path fatJar = buildFatJar(tempDir, "app.jar", entries);
 
     UnitConstants good = stubUnitConstants("good.jar");
-    when(extractionService.extractZipStream(any(), any()))
-        .thenThrow(new org.glodean.constants.extractor.ModelExtractor.ExtractionException("bad zip"))
-        .thenReturn(List.of(good));
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of(good));
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .assertNext(batch -> assertThat(batch.units()).containsExactly(good))
         .verifyComplete();
+
+    // The corrupt JAR fails while its central directory is parsed, before extraction.
+    verify(extractionService, times(1)).extractZipArchive(any(), any());
   }
 
   @Test
@@ -349,13 +354,13 @@ class NestedJarExtractionServiceTest {
     Path fatJar = buildFatJar(tempDir, "app.jar",
         java.util.Map.of("BOOT-INF/lib/specific-name-1.0.0.jar", libBytes));
 
-    when(extractionService.extractZipStream(any(), any())).thenReturn(List.of());
+    when(extractionService.extractZipArchive(any(), any())).thenReturn(List.of());
 
     StepVerifier.create(service.extractNestedJars(fatJar, PROJECT))
         .verifyComplete();
 
     var captor = org.mockito.ArgumentCaptor.forClass(UnitDescriptor.class);
-    verify(extractionService).extractZipStream(any(), captor.capture());
+    verify(extractionService).extractZipArchive(any(), captor.capture());
     assertThat(captor.getValue().path()).isEqualTo("specific-name-1.0.0.jar");
   }
 
@@ -364,7 +369,7 @@ class NestedJarExtractionServiceTest {
     Path fatJar = buildFatJar(tempDir, "outer.jar", java.util.Map.of());
     UnitDescriptor outerDescriptor = new UnitDescriptor(BytecodeSourceKind.JAR, "outer.jar", 1L, "hash");
 
-    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500)))
+    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500), any()))
         .thenReturn(Flux.empty());
 
     StepVerifier.create(service.extractFatJar(fatJar, outerDescriptor, PROJECT))
@@ -378,12 +383,37 @@ class NestedJarExtractionServiceTest {
         JarExtractionEntity.STATUS_COMPLETED);
   }
 
+  @Test
+  void extractFatJar_reusedUnitsFromParentAreCarriedOnFirstOuterBatch() throws Exception {
+    Path fatJar = buildFatJar(tempDir, "outer.jar", java.util.Map.of());
+    UnitDescriptor outerDescriptor = new UnitDescriptor(BytecodeSourceKind.JAR, "outer.jar", 1L, "hash");
+    var reusable = java.util.Map.of("crc32:0badf00d:42", "com.example.Unchanged");
+
+    when(projectVersionService.reusableContentHashes(PROJECT, VERSION))
+        .thenReturn(Mono.just(reusable));
+    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500), eq(reusable)))
+        .thenReturn(Flux.just(
+            new ExtractionService.StreamedChunk(
+                List.of(stubUnitConstants("com.example.Changed")), Set.of("com.example.Unchanged")),
+            new ExtractionService.StreamedChunk(
+                List.of(stubUnitConstants("com.example.Other")), Set.of())));
+
+    List<JarBatch> batches = service.extractFatJar(fatJar, outerDescriptor, PROJECT)
+        .collectList().block();
+
+    assertThat(batches).hasSize(2);
+    assertThat(batches.get(0).firstBatch()).isTrue();
+    assertThat(batches.get(0).reusedUnits()).containsExactly("com.example.Unchanged");
+    assertThat(batches.get(1).firstBatch()).isFalse();
+    assertThat(batches.get(1).reusedUnits()).isEmpty();
+  }
+
   @Test
   void extractFatJar_trackingMarkedFailedOnError() throws Exception {
     Path fatJar = buildFatJar(tempDir, "outer.jar", java.util.Map.of());
     UnitDescriptor outerDescriptor = new UnitDescriptor(BytecodeSourceKind.JAR, "outer.jar", 1L, "hash");
 
-    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500)))
+    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500), any()))
         .thenReturn(Flux.error(new RuntimeException("boom")));
 
     StepVerifier.create(service.extractFatJar(fatJar, outerDescriptor, PROJECT))
@@ -418,7 +448,7 @@ class NestedJarExtractionServiceTest {
         .nestedFailed(0)
         .build();
 
-    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500)))
+    when(extractionService.extractJarFileStreaming(eq(fatJar), eq(500), any()))
         .thenReturn(Flux.empty());
     when(jarExtractionRepository.findFirstByProjectAndVersionAndJarNameOrderByIdDesc(
         eq(PROJECT), eq(VERSION), eq("outer.jar")))
@@ -11,6 +11,7 @@ import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.glodean.constants.store.VersionIncrementer;
 import org.glodean.constants.store.postgres.entity.ProjectVersionEntity;
@@ -19,6 +20,7 @@ import org.glodean.constants.store.postgres.entity.UnitSnapshotEntity;
 import org.glodean.constants.store.postgres.entity.VersionDeletionEntity;
 import org.glodean.constants.store.postgres.repository.UnitSnapshotRepository;
 import org.glodean.constants.store.postgres.repository.VersionDeletionRepository;
+import org.glodean.constants.store.postgres.repository.projection.UnitContentHashRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -258,4 +260,47 @@ class ProjectVersionServiceTest {
         service.recordRemovals("proj", 1, Set.of("com/ClassA")).collectList().block();
     assertThat(removed).isEmpty();
   }
+
+  // -- reusableContentHashes --
+
+  @Test
+  void reusableContentHashesIndexesEffectiveParentUnitsByHash() {
+    when(versionRepo.findByProjectAndVersion("proj", 3))
+        .thenReturn(Mono.just(openVersion("proj", 3, 2)));
+    when(versionRepo.findByProjectAndVersion("proj", 2))
+        .thenReturn(Mono.just(finalizedVersion("proj", 2, 1)));
+    when(versionRepo.findByProjectAndVersion("proj", 1))
+        .thenReturn(Mono.just(finalizedVersion("proj", 1, null)));
+    when(snapshotRepo.findContentHashesByProjectAndVersion("proj", 1))
+        .thenReturn(
+            Flux.just(
+                new UnitContentHashRow("com.ClassA", "h1"),
+                new UnitContentHashRow("com.ClassB", "h2"),
+                new UnitContentHashRow("com.ClassC", "h3"),
+                new UnitContentHashRow("com.CopyOne", "h5"),
+                new UnitContentHashRow("com.CopyTwo", "h5")));
+    when(snapshotRepo.findContentHashesByProjectAndVersion("proj", 2))
+        .thenReturn(Flux.just(
+            new UnitContentHashRow("com.ClassB", "h2b"),
+            new UnitContentHashRow("com.ClassD", null)));
+    when(deletionRepo.findAllByProjectAndVersion("proj", 2))
+        .thenReturn(Flux.just(
+            new VersionDeletionEntity(1L, "proj", 2, "com.ClassC", LocalDateTime.now())));
+    when(deletionRepo.findAllByProjectAndVersion("proj", 3)).thenReturn(Flux.empty());
+
+    Map<String, String> reusable = service.reusableContentHashes("proj", 3).block();
+
+    // C was deleted in v2, B changed in v2, D has no hash, h5 is shared by two units.
+    assertThat(reusable).containsExactlyInAnyOrderEntriesOf(
+        Map.of("h1", "com.ClassA", "h2b", "com.ClassB"));
+  }
+
+  @Test
+  void reusableContentHashesEmptyWhenNoParent() {
+    when(versionRepo.findByProjectAndVersion("proj", 1))
+        .thenReturn(Mono.just(openVersion("proj", 1, null)));
+
+    assertThat(service.reusableContentHashes("proj", 1).block()).isEmpty();
+    verify(snapshotRepo, never()).findContentHashesByProjectAndVersion(anyString(), anyInt());
+  }
 }
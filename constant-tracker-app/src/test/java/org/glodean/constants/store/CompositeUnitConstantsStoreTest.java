@@ -277,6 +277,44 @@ class CompositeUnitConstantsStoreTest {
     assertThat(pathsCaptor.getValue()).contains("com/example/Greeter");
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void storeAllStreaming_reusedUnitsCountAsUploaded() {
+    var openVersion = new ProjectVersionEntity(1L, "proj", 4, 3, "OPEN", null, null);
+    when(projectVersionService.getOrCreateOpenVersion("proj")).thenReturn(Mono.just(openVersion));
+    when(postgresService.storeBatch(any(), anyList(), anyBoolean(), eq("proj"), eq(4)))
+        .thenReturn(Mono.just(List.of(sample())));
+    when(projectVersionService.recordRemovals(eq("proj"), eq(4), anySet())).thenReturn(Flux.empty());
+
+    var first = sampleBatch();
+    var batch = new JarBatch(
+        first.containerDescriptor(), first.units(), true, Set.of("com/example/Unchanged"));
+
+    store.storeAllStreaming(Flux.just(batch), "proj").block();
+
+    ArgumentCaptor<Set<String>> pathsCaptor = ArgumentCaptor.forClass(Set.class);
+    verify(projectVersionService).recordRemovals(eq("proj"), eq(4), pathsCaptor.capture());
+    assertThat(pathsCaptor.getValue())
+        .containsExactlyInAnyOrder("com/example/Greeter", "com/example/Unchanged");
+  }
+
+  @Test
+  void storeAllStreaming_fullyReusedContainerClearsInsteadOfStoring() {
+    var openVersion = new ProjectVersionEntity(1L, "proj", 4, 3, "OPEN", null, null);
+    when(projectVersionService.getOrCreateOpenVersion("proj")).thenReturn(Mono.just(openVersion));
+    when(postgresService.clearContainer(any(), eq("proj"), eq(4))).thenReturn(Mono.empty());
+    when(projectVersionService.recordRemovals(eq("proj"), eq(4), anySet())).thenReturn(Flux.empty());
+
+    var batch = new JarBatch(
+        sampleBatch().containerDescriptor(), List.of(), true, Set.of("com/example/Greeter"));
+
+    store.storeAllStreaming(Flux.just(batch), "proj").block();
+
+    verify(postgresService).clearContainer(eq(batch.containerDescriptor()), eq("proj"), eq(4));
+    verify(postgresService, never()).storeBatch(any(), anyList(), anyBoolean(), anyString(), anyInt());
+    verify(projectVersionService).recordRemovals(eq("proj"), eq(4), eq(Set.of("com/example/Greeter")));
+  }
+
   // ── findWithInheritance branches ──────────────────────────────────────────
 
   @Test
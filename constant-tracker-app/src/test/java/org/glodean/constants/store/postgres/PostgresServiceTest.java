@@ -3,7 +3,6 @@ package org.glodean.constants.store.postgres;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -12,10 +11,15 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import org.glodean.constants.dto.GetUnitConstantsReply;
 import org.glodean.constants.model.UnitConstant;
 import org.glodean.constants.model.UnitConstant.ConstantUsage;
@@ -24,8 +28,6 @@ import org.glodean.constants.model.UnitConstant.CustomSemanticType;
 import org.glodean.constants.model.UnitConstant.UsageLocation;
 import org.glodean.constants.model.UnitConstant.UsageType;
 import org.glodean.constants.model.UnitConstants;
-import org.glodean.constants.store.postgres.entity.ConstantUsageEntity;
-import org.glodean.constants.store.postgres.entity.UnitConstantEntity;
 import org.glodean.constants.store.postgres.entity.UnitDescriptorEntity;
 import org.glodean.constants.store.postgres.entity.UnitSnapshotEntity;
 import org.glodean.constants.store.postgres.repository.ConstantUsageRepository;
@@ -33,10 +35,15 @@ import org.glodean.constants.store.postgres.repository.SolrOutboxRepository;
 import org.glodean.constants.store.postgres.repository.UnitConstantRepository;
 import org.glodean.constants.store.postgres.repository.UnitDescriptorRepository;
 import org.glodean.constants.store.postgres.repository.UnitSnapshotRepository;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedConstantRow;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedUsageRow;
+import org.glodean.constants.store.postgres.repository.projection.SnapshotIdRow;
+import org.glodean.constants.store.postgres.repository.projection.SnapshotPayloadRow;
 import org.glodean.constants.store.postgres.entity.SolrOutboxEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
@@ -55,12 +62,22 @@ class PostgresServiceTest {
   ConstantUsageRepository usageRepo;
   @Mock
   SolrOutboxRepository solrOutboxRepo;
+  @Mock
+  SequenceIdAllocator idAllocator;
+  @Mock
+  UsageDictionaries dictionaries;
 
   PostgresService service;
 
   @BeforeEach
   void setUp() {
-    service = new PostgresService(descriptorRepo, snapshotRepo, constantRepo, usageRepo, solrOutboxRepo);
+    service = serviceWith(SnapshotPayloadMode.NONE);
+  }
+
+  private PostgresService serviceWith(SnapshotPayloadMode payloadMode) {
+    return new PostgresService(
+        descriptorRepo, snapshotRepo, constantRepo, usageRepo, solrOutboxRepo, idAllocator,
+        new SnapshotPayloadCodec(payloadMode, new SimpleMeterRegistry()), dictionaries);
   }
 
   // ── helpers ────────────────────────────────────────────────────────────────
@@ -74,6 +91,12 @@ class PostgresServiceTest {
     return new SolrOutboxEntry(99L, now, project, path, version, "{}", 0, null, now);
   }
 
+  /** A String constant of snapshot 100, as read back from the repository. */
+  private static ResolvedConstantRow constant(long id, String value) {
+    return new ResolvedConstantRow(
+        id, 100L, PostgresService.valueHash("String", value), value, "String");
+  }
+
   static UnitConstants sampleCoreType() {
     var usage =
         new ConstantUsage(
@@ -147,14 +170,11 @@ class PostgresServiceTest {
     when(descriptorRepo.findByProjectAndPathAndVersion("proj", "com/example/Greeter", 1))
         .thenReturn(Mono.empty());
     when(descriptorRepo.save(any())).thenReturn(Mono.just(savedDescriptor));
-    when(snapshotRepo.findByDescriptorIdAndUnitName(42L, "com/example/Greeter"))
-        .thenReturn(Mono.empty());
-    when(snapshotRepo.save(any())).thenReturn(Mono.just(savedSnapshot));
+    when(snapshotRepo.upsert(eq(42L), eq("com/example/Greeter"), any(), any(), any()))
+        .thenReturn(Mono.just(savedSnapshot));
     when(constantRepo.findAllBySnapshotId(100L)).thenReturn(Flux.empty());
-    when(constantRepo.save(any())).thenReturn(Mono.just(new UnitConstantEntity(1L, 100L, "Hello", "String")));
-    when(usageRepo.saveAll(any(Iterable.class))).thenReturn(Flux.just(new ConstantUsageEntity(
-        1L, 1L, "METHOD_INVOCATION_PARAMETER", "CORE", "LOG_MESSAGE", null, null,
-        "com/example/Greeter", "greet", "()V", 0, null, 0.9, "{}")));
+    stubIds(new long[] {1L}, new long[] {1L});
+    stubUsageInserts();
     when(solrOutboxRepo.save(any())).thenReturn(Mono.just(savedOutboxEntry("proj", "com/example/Greeter", 1)));
 
     UnitConstants result = service.store(sampleCoreType(), "proj", 1).block();
@@ -171,14 +191,11 @@ class PostgresServiceTest {
     when(descriptorRepo.findByProjectAndPathAndVersion("proj", "com/example/AwsClient", 2))
         .thenReturn(Mono.empty());
     when(descriptorRepo.save(any())).thenReturn(Mono.just(savedDescriptor));
-    when(snapshotRepo.findByDescriptorIdAndUnitName(43L, "com/example/AwsClient"))
-        .thenReturn(Mono.empty());
-    when(snapshotRepo.save(any())).thenReturn(Mono.just(savedSnapshot));
+    when(snapshotRepo.upsert(eq(43L), eq("com/example/AwsClient"), any(), any(), any()))
+        .thenReturn(Mono.just(savedSnapshot));
     when(constantRepo.findAllBySnapshotId(101L)).thenReturn(Flux.empty());
-    when(constantRepo.save(any())).thenReturn(Mono.just(new UnitConstantEntity(2L, 101L, "arn:aws:s3:::bucket", "String")));
-    when(usageRepo.saveAll(any(Iterable.class))).thenReturn(Flux.just(new ConstantUsageEntity(
-        2L, 2L, "FIELD_STORE", "CUSTOM", "aws", "AWS ARN", "Amazon Resource Name",
-        "com/example/Greeter", "greet", "()V", 0, null, 0.85, "{}")));
+    stubIds(new long[] {2L}, new long[] {2L});
+    stubUsageInserts();
     when(solrOutboxRepo.save(any())).thenReturn(Mono.just(savedOutboxEntry("proj", "com/example/AwsClient", 2)));
 
     UnitConstants result = service.store(sampleCustomType(), "proj", 2).block();
@@ -207,14 +224,11 @@ class PostgresServiceTest {
     when(descriptorRepo.findByProjectAndPathAndVersion("proj", "com/example/Client", 1))
         .thenReturn(Mono.empty());
     when(descriptorRepo.save(any())).thenReturn(Mono.just(savedDescriptor));
-    when(snapshotRepo.findByDescriptorIdAndUnitName(44L, "com/example/Client"))
-        .thenReturn(Mono.empty());
-    when(snapshotRepo.save(any())).thenReturn(Mono.just(savedSnapshot));
+    when(snapshotRepo.upsert(eq(44L), eq("com/example/Client"), any(), any(), any()))
+        .thenReturn(Mono.just(savedSnapshot));
     when(constantRepo.findAllBySnapshotId(102L)).thenReturn(Flux.empty());
-    when(constantRepo.save(any())).thenReturn(Mono.just(new UnitConstantEntity(3L, 102L, "https://api.example.com", "String")));
-    when(usageRepo.saveAll(any(Iterable.class))).thenReturn(Flux.just(new ConstantUsageEntity(
-        3L, 3L, "STRING_CONCATENATION_MEMBER", "CORE", "URL_RESOURCE", null, null,
-        "com/example/Client", "send", "()V", 0, null, 0.75, "{\"key\":\"value\",\"retries\":3}")));
+    stubIds(new long[] {3L}, new long[] {3L});
+    stubUsageInserts();
     when(solrOutboxRepo.save(any())).thenReturn(Mono.just(savedOutboxEntry("proj", "com/example/Client", 1)));
 
     UnitConstants result = service.store(constants, "proj", 1).block();
@@ -230,20 +244,50 @@ class PostgresServiceTest {
         "spring-core.jar", 2048L, "abc123");
   }
 
+  private void stubBulkInserts(long descriptorId, long snapshotId) {
+    when(snapshotRepo.upsertAll(eq(descriptorId), any(), any(), any(), any()))
+        .thenReturn(Flux.just(new SnapshotIdRow(snapshotId, "com/example/Greeter")));
+    stubIds(new long[] {1L}, new long[] {1L});
+    stubUsageInserts();
+  }
+
+  /** Stubs the bulk inserts of both tables and numbers dictionary values in encounter order. */
+  private void stubUsageInserts() {
+    when(constantRepo.upsertValues(any(), any(), any())).thenReturn(Mono.just(1));
+    when(constantRepo.insertAll(any(), any(), any())).thenReturn(Mono.just(1));
+    when(usageRepo.insertAll(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+        any())).thenReturn(Mono.just(1));
+    when(dictionaries.resolve(any())).thenAnswer(inv -> {
+      Map<UsageDictionaries.SemanticTypeKey, Integer> semanticTypes = new LinkedHashMap<>();
+      Map<String, Integer> classes = new LinkedHashMap<>();
+      Map<String, Integer> methods = new LinkedHashMap<>();
+      Map<String, Integer> descriptors = new LinkedHashMap<>();
+      for (ResolvedUsageRow u : inv.<Collection<ResolvedUsageRow>>getArgument(0)) {
+        semanticTypes.putIfAbsent(new UsageDictionaries.SemanticTypeKey(u.semanticTypeKind(),
+                u.semanticTypeName(), u.semanticDisplayName(), u.semanticDescription()),
+            semanticTypes.size() + 1);
+        classes.putIfAbsent(u.locationClassName(), classes.size() + 1);
+        methods.putIfAbsent(u.locationMethodName(), methods.size() + 1);
+        descriptors.putIfAbsent(u.locationMethodDescriptor(), descriptors.size() + 1);
+      }
+      return Mono.just(new UsageDictionaries.Ids(semanticTypes, classes, methods, descriptors));
+    });
+  }
+
+  private void stubIds(long[] constantIds, long[] usageIds) {
+    when(idAllocator.allocate(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE, constantIds.length))
+        .thenReturn(Mono.just(constantIds));
+    when(idAllocator.allocate(SequenceIdAllocator.CONSTANT_USAGES_SEQUENCE, usageIds.length))
+        .thenReturn(Mono.just(usageIds));
+  }
+
   private void stubStoreBatchCommon(long descriptorId, long snapshotId) {
     var savedDescriptor = new UnitDescriptorEntity(
         descriptorId, "proj", 1, "JAR", "spring-core.jar", 2048L, "abc123");
-    var savedSnapshot = new UnitSnapshotEntity(snapshotId, descriptorId, "com/example/Greeter", "{}");
     when(descriptorRepo.findByProjectAndPathAndVersion("proj", "spring-core.jar", 1))
         .thenReturn(Mono.empty());
     when(descriptorRepo.save(any())).thenReturn(Mono.just(savedDescriptor));
-    when(snapshotRepo.upsert(eq(descriptorId), eq("com/example/Greeter"), anyString()))
-        .thenReturn(Mono.just(savedSnapshot));
-    when(constantRepo.saveAll(anyList())).thenReturn(Flux.just(
-        new UnitConstantEntity(1L, snapshotId, "Hello", "String")));
-    when(usageRepo.saveAll(anyList())).thenReturn(Flux.just(new ConstantUsageEntity(
-        1L, 1L, "METHOD_INVOCATION_PARAMETER", "CORE", "LOG_MESSAGE", null, null,
-        "com/example/Greeter", "greet", "()V", 0, null, 0.9, "{}")));
+    stubBulkInserts(descriptorId, snapshotId);
     when(solrOutboxRepo.save(any())).thenReturn(
         Mono.just(savedOutboxEntry("proj", "com/example/Greeter", 1)));
   }
@@ -259,7 +303,8 @@ class PostgresServiceTest {
     assertThat(result).hasSize(1);
     assertThat(result.get(0).source().path()).isEqualTo("com/example/Greeter");
     verify(snapshotRepo).deleteAllByDescriptorId(42L);
-    verify(snapshotRepo, times(1)).upsert(eq(42L), eq("com/example/Greeter"), anyString());
+    verify(snapshotRepo, times(1)).upsertAll(
+        eq(42L), eq(new String[] {"com/example/Greeter"}), any(), any(), any());
   }
 
   @Test
@@ -271,7 +316,8 @@ class PostgresServiceTest {
 
     assertThat(result).hasSize(1);
     verify(snapshotRepo, never()).deleteAllByDescriptorId(anyLong());
-    verify(snapshotRepo, times(1)).upsert(eq(42L), eq("com/example/Greeter"), anyString());
+    verify(snapshotRepo, times(1)).upsertAll(
+        eq(42L), eq(new String[] {"com/example/Greeter"}), any(), any(), any());
   }
 
   @Test
@@ -280,7 +326,7 @@ class PostgresServiceTest {
         service.storeBatch(jarContainer(), List.of(), true, "proj", 1).block();
 
     assertThat(result).isEmpty();
-    verify(snapshotRepo, never()).upsert(anyLong(), anyString(), anyString());
+    verify(snapshotRepo, never()).upsertAll(anyLong(), any(), any(), any(), any());
   }
 
   @Test
@@ -294,23 +340,17 @@ class PostgresServiceTest {
             true, "proj", 1).block();
 
     assertThat(result).hasSize(2);
-    verify(snapshotRepo, times(1)).upsert(eq(42L), eq("com/example/Greeter"), anyString());
+    verify(snapshotRepo, times(1)).upsertAll(
+        eq(42L), eq(new String[] {"com/example/Greeter"}), any(), any(), any());
   }
 
   @Test
   void storeBatchExistingDescriptor_reusesDescriptorId() {
     var existing = new UnitDescriptorEntity(99L, "proj", 1, "JAR", "spring-core.jar", 2048L, "abc123");
-    var savedSnapshot = new UnitSnapshotEntity(200L, 99L, "com/example/Greeter", "{}");
     when(descriptorRepo.findByProjectAndPathAndVersion("proj", "spring-core.jar", 1))
         .thenReturn(Mono.just(existing));
     when(descriptorRepo.save(any())).thenReturn(Mono.just(existing));
-    when(snapshotRepo.upsert(eq(99L), eq("com/example/Greeter"), anyString()))
-        .thenReturn(Mono.just(savedSnapshot));
-    when(constantRepo.saveAll(anyList())).thenReturn(Flux.just(
-        new UnitConstantEntity(1L, 200L, "Hello", "String")));
-    when(usageRepo.saveAll(anyList())).thenReturn(Flux.just(new ConstantUsageEntity(
-        1L, 1L, "METHOD_INVOCATION_PARAMETER", "CORE", "LOG_MESSAGE", null, null,
-        "com/example/Greeter", "greet", "()V", 0, null, 0.9, "{}")));
+    stubBulkInserts(99L, 200L);
     when(solrOutboxRepo.save(any())).thenReturn(
         Mono.just(savedOutboxEntry("proj", "com/example/Greeter", 1)));
 
@@ -318,7 +358,128 @@ class PostgresServiceTest {
         service.storeBatch(jarContainer(), List.of(sampleCoreType()), false, "proj", 1).block();
 
     assertThat(result).hasSize(1);
-    verify(snapshotRepo).upsert(eq(99L), anyString(), anyString());
+    verify(snapshotRepo).upsertAll(eq(99L), any(), any(), any(), any());
+  }
+
+  @Test
+  void storeBatch_bulkInsertsEachTableUnderReservedIds() {
+    var descriptor = new UnitDescriptorEntity(42L, "proj", 1, "JAR", "spring-core.jar", 2048L, "abc123");
+    when(descriptorRepo.findByProjectAndPathAndVersion("proj", "spring-core.jar", 1))
+        .thenReturn(Mono.just(descriptor));
+    when(descriptorRepo.save(any())).thenReturn(Mono.just(descriptor));
+    when(snapshotRepo.upsertAll(eq(42L), any(), any(), any(), any())).thenReturn(Flux.just(
+        new SnapshotIdRow(101L, "com/example/AwsClient"),
+        new SnapshotIdRow(100L, "com/example/Greeter")));
+    stubIds(new long[] {11L, 10L}, new long[] {21L, 20L});
+    stubUsageInserts();
+    when(solrOutboxRepo.save(any())).thenReturn(
+        Mono.just(savedOutboxEntry("proj", "com/example/Greeter", 1)));
+
+    service.storeBatch(
+        jarContainer(), List.of(sampleCoreType(), sampleCustomType()), false, "proj", 1).block();
+
+    ArgumentCaptor<Long[]> ids = ArgumentCaptor.forClass(Long[].class);
+    ArgumentCaptor<Long[]> snapshotIds = ArgumentCaptor.forClass(Long[].class);
+    ArgumentCaptor<UUID[]> valueHashes = ArgumentCaptor.forClass(UUID[].class);
+    verify(constantRepo, times(1))
+        .insertAll(ids.capture(), snapshotIds.capture(), valueHashes.capture());
+    assertThat(ids.getValue()).containsExactly(11L, 10L);
+    assertThat(snapshotIds.getValue()).containsExactly(100L, 101L);
+    assertThat(valueHashes.getValue()).containsExactly(
+        PostgresService.valueHash("String", "Hello"),
+        PostgresService.valueHash("String", "arn:aws:s3:::bucket"));
+
+    ArgumentCaptor<Long[]> usageIds = ArgumentCaptor.forClass(Long[].class);
+    ArgumentCaptor<Long[]> constantIds = ArgumentCaptor.forClass(Long[].class);
+    ArgumentCaptor<Integer[]> semanticTypeIds = ArgumentCaptor.forClass(Integer[].class);
+    ArgumentCaptor<Integer[]> classIds = ArgumentCaptor.forClass(Integer[].class);
+    verify(usageRepo, times(1)).insertAll(usageIds.capture(), constantIds.capture(), any(),
+        semanticTypeIds.capture(), classIds.capture(), any(), any(), any(), any(), any(), any());
+    assertThat(usageIds.getValue()).containsExactly(21L, 20L);
+    assertThat(constantIds.getValue()).containsExactly(11L, 10L);
+    assertThat(semanticTypeIds.getValue()).containsExactly(1, 2);
+    assertThat(classIds.getValue()).containsExactly(1, 1);
+  }
+
+  @Test
+  void storeBatch_upsertsEachDistinctValueOnceBeforeTheConstants() {
+    var descriptor = new UnitDescriptorEntity(42L, "proj", 1, "JAR", "spring-core.jar", 2048L, "abc123");
+    when(descriptorRepo.findByProjectAndPathAndVersion("proj", "spring-core.jar", 1))
+        .thenReturn(Mono.just(descriptor));
+    when(descriptorRepo.save(any())).thenReturn(Mono.just(descriptor));
+    when(snapshotRepo.upsertAll(eq(42L), any(), any(), any(), any())).thenReturn(Flux.just(
+        new SnapshotIdRow(100L, "com/example/Greeter"),
+        new SnapshotIdRow(101L, "com/example/Other")));
+    stubIds(new long[] {10L, 11L}, new long[] {20L, 21L});
+    stubUsageInserts();
+    when(solrOutboxRepo.save(any())).thenReturn(
+        Mono.just(savedOutboxEntry("proj", "com/example/Greeter", 1)));
+    var other = new UnitConstants(
+        new org.glodean.constants.model.UnitDescriptor(
+            org.glodean.constants.extractor.bytecode.BytecodeSourceKind.CLASS_FILE,
+            "com/example/Other"),
+        sampleCoreType().constants());
+
+    service.storeBatch(jarContainer(), List.of(sampleCoreType(), other), false, "proj", 1).block();
+
+    UUID hello = PostgresService.valueHash("String", "Hello");
+    var inOrder = org.mockito.Mockito.inOrder(constantRepo);
+    inOrder.verify(constantRepo).upsertValues(
+        eq(new UUID[] {hello}), eq(new String[] {"Hello"}), eq(new String[] {"String"}));
+    inOrder.verify(constantRepo).insertAll(
+        eq(new Long[] {10L, 11L}), eq(new Long[] {100L, 101L}), eq(new UUID[] {hello, hello}));
+  }
+
+  @Test
+  void valueHash_isTheMd5OfTypeAndValueUsedByTheMigration() {
+    // SELECT md5('String' || ':' || 'Hello')::uuid
+    assertThat(PostgresService.valueHash("String", "Hello"))
+        .isEqualTo(UUID.fromString("d929cf23-e443-ecb9-a442-18edd0837f5e"));
+    assertThat(PostgresService.valueHash("Integer", "1"))
+        .isNotEqualTo(PostgresService.valueHash("Long", "1"));
+  }
+
+  // ── snapshot payload modes ─────────────────────────────────────────────────
+
+  @Test
+  void storeBatchWithoutPayloadMode_storesNeitherJsonNorBlob() {
+    stubStoreBatchCommon(42L, 100L);
+
+    service.storeBatch(jarContainer(), List.of(sampleCoreType()), false, "proj", 1).block();
+
+    verify(snapshotRepo).upsertAll(eq(42L), eq(new String[] {"com/example/Greeter"}),
+        eq(new String[] {null}), eq(new String[] {null}), any());
+  }
+
+  @Test
+  void storeBatchInSmileDeflateMode_storesBlobThatDecodesBack() {
+    service = serviceWith(SnapshotPayloadMode.SMILE_DEFLATE);
+    stubStoreBatchCommon(42L, 100L);
+
+    service.storeBatch(jarContainer(), List.of(sampleCoreType()), false, "proj", 1).block();
+
+    ArgumentCaptor<String[]> jsons = ArgumentCaptor.forClass(String[].class);
+    ArgumentCaptor<String[]> blobs = ArgumentCaptor.forClass(String[].class);
+    verify(snapshotRepo).upsertAll(eq(42L), any(), jsons.capture(), blobs.capture(), any());
+    assertThat(jsons.getValue()).containsExactly((String) null);
+    assertThat(blobs.getValue()[0]).isNotNull();
+
+    when(snapshotRepo.findPayloadByProjectAndVersionAndUnitName("proj", 1, "com/example/Greeter"))
+        .thenReturn(Mono.just(
+            new SnapshotPayloadRow(null, Base64.getDecoder().decode(blobs.getValue()[0]))));
+    JsonNode payload = service.findSnapshotPayload("proj", 1, "com/example/Greeter").block();
+
+    assertThat(payload).isNotNull();
+    assertThat(payload.path("sourceKind").asText()).isEqualTo("CLASS_FILE");
+    assertThat(payload.path("constants").get(0).path("value").asText()).isEqualTo("Hello");
+  }
+
+  @Test
+  void findSnapshotPayloadOfUnitStoredWithoutPayload_isEmpty() {
+    when(snapshotRepo.findPayloadByProjectAndVersionAndUnitName("proj", 1, "com/example/Greeter"))
+        .thenReturn(Mono.just(new SnapshotPayloadRow(null, null)));
+
+    assertThat(service.findSnapshotPayload("proj", 1, "com/example/Greeter").block()).isNull();
   }
 
   // ── find(String) — success path ────────────────────────────────────────────
@@ -329,12 +490,12 @@ class PostgresServiceTest {
     when(snapshotRepo.findByProjectAndVersionAndUnitName("proj", 1, "com/example/Greeter"))
         .thenReturn(Mono.just(snapshot));
     when(constantRepo.findAllBySnapshotId(100L)).thenReturn(Flux.just(
-        new UnitConstantEntity(1L, 100L, "Hello", "String"),
-        new UnitConstantEntity(2L, 100L, "World", "String")));
-    when(usageRepo.findAllByConstantId(1L)).thenReturn(Flux.just(new ConstantUsageEntity(
+        constant(1L, "Hello"),
+        constant(2L, "World")));
+    when(usageRepo.findAllByConstantId(1L)).thenReturn(Flux.just(new ResolvedUsageRow(
         1L, 1L, "METHOD_INVOCATION_PARAMETER", "CORE", "LOG_MESSAGE", null, null,
         "com/example/Greeter", "greet", "()V", 0, null, 0.9, "{}")));
-    when(usageRepo.findAllByConstantId(2L)).thenReturn(Flux.just(new ConstantUsageEntity(
+    when(usageRepo.findAllByConstantId(2L)).thenReturn(Flux.just(new ResolvedUsageRow(
         2L, 2L, "FIELD_STORE", "CORE", "CONFIGURATION_VALUE", null, null,
         "com/example/Greeter", "greet", "()V", 0, null, 0.8, "{}")));
 
@@ -354,12 +515,12 @@ class PostgresServiceTest {
     when(snapshotRepo.findByProjectAndVersionAndUnitName("proj", 1, "com/example/Greeter"))
         .thenReturn(Mono.just(snapshot));
     when(constantRepo.findAllBySnapshotId(100L)).thenReturn(Flux.just(
-        new UnitConstantEntity(1L, 100L, "Hello", "String"),
-        new UnitConstantEntity(2L, 100L, "Hello", "String")));
-    when(usageRepo.findAllByConstantId(1L)).thenReturn(Flux.just(new ConstantUsageEntity(
+        constant(1L, "Hello"),
+        constant(2L, "Hello")));
+    when(usageRepo.findAllByConstantId(1L)).thenReturn(Flux.just(new ResolvedUsageRow(
         1L, 1L, "METHOD_INVOCATION_PARAMETER", "CORE", "LOG_MESSAGE", null, null,
         "com/example/Greeter", "greet", "()V", 0, null, 0.9, "{}")));
-    when(usageRepo.findAllByConstantId(2L)).thenReturn(Flux.just(new ConstantUsageEntity(
+    when(usageRepo.findAllByConstantId(2L)).thenReturn(Flux.just(new ResolvedUsageRow(
         2L, 2L, "FIELD_STORE", "CORE", "CONFIGURATION_VALUE", null, null,
         "com/example/Greeter", "field", "Ljava/lang/String;", 0, null, 0.8, "{}")));
 
@@ -373,4 +534,30 @@ class PostgresServiceTest {
         .extracting(GetUnitConstantsReply.UsageInfo::structuralType)
         .containsExactlyInAnyOrder("METHOD_INVOCATION_PARAMETER", "FIELD_STORE");
   }
+
+  @Test
+  void findWithSameValueTextOfDifferentTypes_keepsEntriesApart() {
+    var snapshot = new UnitSnapshotEntity(100L, 42L, "com/example/Greeter", "{}");
+    when(snapshotRepo.findByProjectAndVersionAndUnitName("proj", 1, "com/example/Greeter"))
+        .thenReturn(Mono.just(snapshot));
+    when(constantRepo.findAllBySnapshotId(100L)).thenReturn(Flux.just(
+        constant(1L, "1"),
+        new ResolvedConstantRow(2L, 100L, PostgresService.valueHash("Integer", "1"), "1", "Integer")));
+    when(usageRepo.findAllByConstantId(1L)).thenReturn(Flux.just(new ResolvedUsageRow(
+        1L, 1L, "METHOD_INVOCATION_PARAMETER", "CORE", "LOG_MESSAGE", null, null,
+        "com/example/Greeter", "greet", "()V", 0, null, 0.9, "{}")));
+    when(usageRepo.findAllByConstantId(2L)).thenReturn(Flux.just(new ResolvedUsageRow(
+        2L, 2L, "FIELD_STORE", "CORE", "CONFIGURATION_VALUE", null, null,
+        "com/example/Greeter", "field", "I", 0, null, 0.8, "{}")));
+
+    GetUnitConstantsReply reply = service.find("proj:com/example/Greeter:1").block();
+
+    assertThat(reply).isNotNull();
+    assertThat(reply.constants())
+        .extracting(GetUnitConstantsReply.ConstantEntry::valueType)
+        .containsExactly("String", "Integer");
+    assertThat(reply.constants().get(1).usages())
+        .extracting(GetUnitConstantsReply.UsageInfo::structuralType)
+        .containsExactly("FIELD_STORE");
+  }
 }
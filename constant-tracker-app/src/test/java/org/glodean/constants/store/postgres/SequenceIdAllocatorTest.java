@@ -0,0 +1,97 @@
+package org.glodean.constants.store.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceIdAllocatorTest {
+
+  @Mock DatabaseClient db;
+  @Mock DatabaseClient.GenericExecuteSpec spec;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(db.sql(anyString())).thenReturn(spec);
+    lenient().when(spec.bind(anyString(), any())).thenReturn(spec);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private void stubReserved(Flux<Long> ids) {
+    RowsFetchSpec<Long> fetchSpec = mock(RowsFetchSpec.class);
+    doReturn(fetchSpec).when(spec).map(any(BiFunction.class));
+    when(fetchSpec.all()).thenReturn(ids);
+  }
+
+  @Test
+  void allocate_zeroIds_doesNotQuery() {
+    var allocator = new SequenceIdAllocator(db, 10);
+
+    assertThat(allocator.allocate(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE, 0).block())
+        .isEmpty();
+    verify(db, never()).sql(anyString());
+  }
+
+  @Test
+  void allocate_reservesABlockAndServesLaterRequestsFromIt() {
+    var allocator = new SequenceIdAllocator(db, 3);
+    stubReserved(Flux.just(1L, 2L, 3L, 4L, 5L));
+
+    assertThat(allocator.allocate(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE, 2).block())
+        .containsExactly(1L, 2L);
+    assertThat(allocator.allocate(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE, 3).block())
+        .containsExactly(3L, 4L, 5L);
+
+    verify(db, times(1)).sql(anyString());
+    verify(spec).bind(eq("sequence"), eq(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE));
+    verify(spec).bind(eq("count"), eq(5));
+  }
+
+  @Test
+  void allocate_topsUpAPartialPool() {
+    var allocator = new SequenceIdAllocator(db, 1);
+    stubReserved(Flux.just(1L, 2L));
+    allocator.allocate(SequenceIdAllocator.CONSTANT_USAGES_SEQUENCE, 1).block();
+
+    stubReserved(Flux.just(7L, 8L, 9L));
+    assertThat(allocator.allocate(SequenceIdAllocator.CONSTANT_USAGES_SEQUENCE, 3).block())
+        .containsExactly(2L, 7L, 8L);
+    verify(spec).bind(eq("count"), eq(3));
+  }
+
+  @Test
+  void allocate_keepsSequencesApart() {
+    var allocator = new SequenceIdAllocator(db, 5);
+    stubReserved(Flux.just(1L, 2L, 3L, 4L, 5L, 6L));
+    allocator.allocate(SequenceIdAllocator.UNIT_CONSTANTS_SEQUENCE, 1).block();
+
+    stubReserved(Flux.just(100L, 101L, 102L, 103L, 104L, 105L));
+    assertThat(allocator.allocate(SequenceIdAllocator.CONSTANT_USAGES_SEQUENCE, 1).block())
+        .containsExactly(100L);
+  }
+
+  @Test
+  void constructor_rejectsNegativeBlockSize() {
+    assertThatThrownBy(() -> new SequenceIdAllocator(db, -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,97 @@
+package org.glodean.constants.store.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.glodean.constants.model.UnitConstant.ConstantUsage;
+import org.glodean.constants.model.UnitConstant.CoreSemanticType;
+import org.glodean.constants.model.UnitConstant.UsageLocation;
+import org.glodean.constants.model.UnitConstant.UsageType;
+import org.junit.jupiter.api.Test;
+
+class SnapshotPayloadCodecTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  /** A payload shaped like a stored snapshot, with the repetition typical of one class. */
+  static Map<String, Object> samplePayload() {
+    List<Object> constants = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      var usage = new ConstantUsage(
+          UsageType.METHOD_INVOCATION_PARAMETER, CoreSemanticType.LOG_MESSAGE,
+          new UsageLocation("com/example/Greeter", "greet" + i % 5, "(Ljava/lang/String;)V", i, i),
+          0.9);
+      constants.add(Map.of("value", "message " + i, "usages", Set.of(usage)));
+    }
+    return Map.of("sourceKind", "CLASS_FILE", "constants", constants);
+  }
+
+  private double payloadBytes(SnapshotPayloadMode mode) {
+    return registry.get("store.snapshot.payload.bytes").tag("mode", mode.name()).counter().count();
+  }
+
+  @Test
+  void noneModeEncodesNothing() {
+    var codec = new SnapshotPayloadCodec(SnapshotPayloadMode.NONE, registry);
+
+    assertThat(codec.encode(samplePayload())).isEqualTo(SnapshotPayloadCodec.EncodedPayload.NONE);
+    assertThat(payloadBytes(SnapshotPayloadMode.NONE)).isZero();
+  }
+
+  @Test
+  void jsonModeRoundTrips() throws IOException {
+    var codec = new SnapshotPayloadCodec(SnapshotPayloadMode.JSON, registry);
+
+    var encoded = codec.encode(samplePayload());
+
+    assertThat(encoded.blob()).isNull();
+    assertThat(payloadBytes(SnapshotPayloadMode.JSON)).isEqualTo(encoded.json().length());
+    var decoded = codec.decode(encoded.json(), null).orElseThrow();
+    assertThat(decoded.path("constants")).hasSize(50);
+    assertThat(decoded.path("constants").get(0).path("usages").get(0)
+        .path("location").path("className").asText()).isEqualTo("com/example/Greeter");
+  }
+
+  @Test
+  void smileDeflateModeRoundTripsToTheSameTreeInFewerBytes() throws IOException {
+    var json = new SnapshotPayloadCodec(SnapshotPayloadMode.JSON, registry);
+    var smile = new SnapshotPayloadCodec(SnapshotPayloadMode.SMILE_DEFLATE, registry);
+
+    var asJson = json.encode(samplePayload());
+    var asBlob = smile.encode(samplePayload());
+
+    assertThat(asBlob.json()).isNull();
+    assertThat(asBlob.blob()[0]).isEqualTo(SnapshotPayloadCodec.SMILE_DEFLATE_FORMAT);
+    assertThat(smile.decode(null, asBlob.blob())).isEqualTo(json.decode(asJson.json(), null));
+    assertThat(payloadBytes(SnapshotPayloadMode.SMILE_DEFLATE))
+        .isEqualTo(asBlob.blob().length)
+        .isLessThan(payloadBytes(SnapshotPayloadMode.JSON) / 4);
+  }
+
+  @Test
+  void smileDeflateModeToleratesLoneSurrogates() throws IOException {
+    var codec = new SnapshotPayloadCodec(SnapshotPayloadMode.SMILE_DEFLATE, registry);
+
+    var encoded = codec.encode(Map.of("value", "broken \uD800 pair"));
+
+    assertThat(codec.decode(null, encoded.blob()).orElseThrow().path("value").asText())
+        .startsWith("broken ");
+  }
+
+  @Test
+  void decodesAnyStoredModeRegardlessOfTheConfiguredOne() throws IOException {
+    var codec = new SnapshotPayloadCodec(SnapshotPayloadMode.NONE, registry);
+
+    assertThat(codec.decode(null, null)).isEmpty();
+    assertThat(codec.decode("{\"a\":1}", null).orElseThrow().path("a").asInt()).isEqualTo(1);
+    assertThatThrownBy(() -> codec.decode(null, new byte[] {42, 0}))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("format");
+  }
+}
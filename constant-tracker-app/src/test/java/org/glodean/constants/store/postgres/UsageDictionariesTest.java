@@ -0,0 +1,143 @@
+package org.glodean.constants.store.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import org.glodean.constants.store.postgres.UsageDictionaries.Entry;
+import org.glodean.constants.store.postgres.UsageDictionaries.SemanticTypeKey;
+import org.glodean.constants.store.postgres.repository.projection.ResolvedUsageRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class UsageDictionariesTest {
+
+  private static final SemanticTypeKey LOG_MESSAGE =
+      new SemanticTypeKey("CORE", "LOG_MESSAGE", null, null);
+
+  @Mock DatabaseClient db;
+
+  private static ResolvedUsageRow usage(String className, String methodName) {
+    return new ResolvedUsageRow(null, 1L, "FIELD_STORE", "CORE", "LOG_MESSAGE", null, null,
+        className, methodName, "()V", 0, null, 0.9, "{}");
+  }
+
+  /** Stubs the lookup of {@code table} to return {@code entries}, once per element. */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private DatabaseClient.GenericExecuteSpec stubLookup(String table, List<Entry>... entries) {
+    DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+    RowsFetchSpec<Entry> fetchSpec = mock(RowsFetchSpec.class);
+    lenient().when(db.sql(contains("INSERT INTO " + table))).thenReturn(spec);
+    lenient().when(spec.bind(anyString(), any())).thenReturn(spec);
+    lenient().doReturn(fetchSpec).when(spec).map(any(BiFunction.class));
+    var stubbing = lenient().when(fetchSpec.all());
+    for (List<Entry> e : entries) {
+      stubbing = stubbing.thenReturn(Flux.fromIterable(e));
+    }
+    return spec;
+  }
+
+  private void stubAll(List<Entry> classes, List<Entry> methods) {
+    stubLookup("usage_semantic_types", List.of(new Entry(LOG_MESSAGE, 7, false)));
+    stubLookup("usage_class_names", classes);
+    stubLookup("usage_method_names", methods);
+    stubLookup("usage_method_descriptors", List.of(new Entry("()V", 3, false)));
+  }
+
+  @Test
+  void resolve_noUsages_doesNotQuery() {
+    var dictionaries = new UsageDictionaries(db, 10);
+
+    var ids = dictionaries.resolve(List.of()).block();
+
+    assertThat(ids.classNames()).isEmpty();
+    verify(db, never()).sql(anyString());
+  }
+
+  @Test
+  void resolve_looksUpEachDistinctValueOnce() {
+    var dictionaries = new UsageDictionaries(db, 10);
+    stubAll(List.of(new Entry("com/A", 1, true), new Entry("com/B", 2, false)),
+        List.of(new Entry("run", 5, false)));
+    var a = usage("com/A", "run");
+    var b = usage("com/B", "run");
+
+    var ids = dictionaries.resolve(List.of(a, b, a)).block();
+
+    assertThat(ids.className(a)).isEqualTo(1);
+    assertThat(ids.className(b)).isEqualTo(2);
+    assertThat(ids.methodName(b)).isEqualTo(5);
+    assertThat(ids.methodDescriptor(a)).isEqualTo(3);
+    assertThat(ids.semanticType(a)).isEqualTo(7);
+  }
+
+  @Test
+  void resolve_servesCommittedIdsFromTheCacheButNotNewlyInsertedOnes() {
+    var dictionaries = new UsageDictionaries(db, 10);
+    var classes = stubLookup("usage_class_names",
+        List.of(new Entry("com/A", 1, true), new Entry("com/B", 2, false)),
+        List.of(new Entry("com/A", 1, false)));
+    stubLookup("usage_semantic_types", List.of(new Entry(LOG_MESSAGE, 7, false)));
+    stubLookup("usage_method_names", List.of(new Entry("run", 5, false)));
+    stubLookup("usage_method_descriptors", List.of(new Entry("()V", 3, false)));
+    var a = usage("com/A", "run");
+    var b = usage("com/B", "run");
+    dictionaries.resolve(List.of(a, b)).block();
+
+    var ids = dictionaries.resolve(List.of(a, b)).block();
+
+    assertThat(ids.className(a)).isEqualTo(1);
+    assertThat(ids.className(b)).isEqualTo(2);
+    verify(db, times(2)).sql(contains("INSERT INTO usage_class_names"));
+    // the second lookup asks only for the value inserted by the first one
+    verify(classes).bind(eq("values"),
+        argThat(v -> Arrays.equals((String[]) v, new String[] {"com/A"})));
+    verify(db, times(1)).sql(contains("INSERT INTO usage_method_names"));
+  }
+
+  @Test
+  void resolve_retriesValuesCommittedConcurrently() {
+    var dictionaries = new UsageDictionaries(db, 10);
+    stubLookup("usage_semantic_types", List.of(new Entry(LOG_MESSAGE, 7, false)));
+    stubLookup("usage_class_names", List.of(), List.of(new Entry("com/A", 4, false)));
+    stubLookup("usage_method_names", List.of(new Entry("run", 5, false)));
+    stubLookup("usage_method_descriptors", List.of(new Entry("()V", 3, false)));
+    var a = usage("com/A", "run");
+
+    assertThat(dictionaries.resolve(List.of(a)).block().className(a)).isEqualTo(4);
+  }
+
+  @Test
+  void resolve_failsWhenAValueCannotBeResolved() {
+    var dictionaries = new UsageDictionaries(db, 10);
+    stubAll(List.of(), List.of(new Entry("run", 5, false)));
+
+    assertThatThrownBy(() -> dictionaries.resolve(List.of(usage("com/A", "run"))).block())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("usage_class_names");
+  }
+
+  @Test
+  void constructor_rejectsNegativeCacheSize() {
+    assertThatThrownBy(() -> new UsageDictionaries(db, -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
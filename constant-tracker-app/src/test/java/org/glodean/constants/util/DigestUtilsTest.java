@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
 import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 
@@ -60,4 +61,14 @@ class DigestUtilsTest {
     String hex = DigestUtils.sha256Hex(new ByteArrayInputStream(new byte[0]));
     assertThat(hex).isEqualTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
   }
+
+  @Test
+  void sha256Hex_segmentMatchesStreamAcrossWindows() throws IOException {
+    byte[] input = new byte[200_000];
+    for (int i = 0; i < input.length; i++) {
+      input[i] = (byte) (i * 31);
+    }
+    assertThat(DigestUtils.sha256Hex(MemorySegment.ofArray(input)))
+        .isEqualTo(DigestUtils.sha256Hex(new ByteArrayInputStream(input)));
+  }
 }